@@ -0,0 +1,309 @@
+package com.proshop.bench;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+import com.proshop.main.SchemaMigrations;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * Database the benchmarks run against: one schema per data size, seeded once
+ * and kept between runs.
+ *
+ * <ul>
+ * <li>By default a MariaDB server is started from {@code proshop.bench.dir}
+ * (default {@code target/bench-db}) on port {@code proshop.bench.port}
+ * (default 3310).</li>
+ * <li>Set {@code proshop.bench.url} to a server URL such as
+ * {@code jdbc:mysql://localhost:3306/} (with {@code proshop.bench.user} and
+ * {@code proshop.bench.password}) to run against an existing MySQL server
+ * instead. Comparing the JSON results of both runs compares the servers.</li>
+ * <li>{@link DBUtil} reads its URL once per JVM, so every size needs its own
+ * fork. JMH forks per parameter value unless told otherwise.</li>
+ * </ul>
+ */
+final class BenchDatabase {
+    private static final Logger LOGGER = Logger.getLogger(BenchDatabase.class.getName());
+
+    static final int PRODUCTS_PER_THOUSAND_ROWS = 10;
+    static final int WHOLESALERS = 25;
+    static final int GYM_CLIENTS = 50;
+    static final int LINES_PER_BILL = 3;
+    static final int LOT_QUANTITY = 1_000_000;
+    static final BigDecimal[] RATES = { new BigDecimal("450.00"), new BigDecimal("520.00") };
+
+    private static final LocalDate LAST_DAY = LocalDate.of(2024, 12, 31);
+    private static final int DAYS = 3 * 365;
+    private static final int BATCH_SIZE = 1000;
+    private static final long SEED = 42;
+
+    private final DB server;
+    private final int products;
+    // Highest ids before the current measurement iteration
+    private long billMark, productMark, gymLineMark, stockMark;
+
+    private BenchDatabase(DB server, int products) {
+        this.server = server;
+        this.products = products;
+    }
+
+    /** Starts (or connects to) the server and seeds the schema for {@code rows} sale lines if needed. */
+    static BenchDatabase open(int rows) throws Exception {
+        String schema = "proshop_bench_" + rows;
+        String external = System.getProperty("proshop.bench.url");
+        String user = System.getProperty("proshop.bench.user", "root");
+        String password = System.getProperty("proshop.bench.password", "");
+        DB server = null;
+        String serverUrl;
+        if (external != null) {
+            serverUrl = external.endsWith("/") ? external : external + "/";
+        } else {
+            int port = Integer.getInteger("proshop.bench.port", 3310);
+            File dir = new File(System.getProperty("proshop.bench.dir", "target/bench-db")).getAbsoluteFile();
+            DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder()
+                    .setPort(port)
+                    .setBaseDir(new File(dir, "base").getPath())
+                    .setDataDir(new File(dir, "data").getPath())
+                    .setDeletingTemporaryBaseAndDataDirsOnShutdown(false)
+                    // The DAOs write both "Bill" and "bill"; make them name the same table
+                    .addArg("--lower-case-table-names=1");
+            server = DB.newEmbeddedDB(config.build());
+            server.start();
+            serverUrl = "jdbc:mysql://localhost:" + port + "/";
+        }
+
+        try (Connection conn = DriverManager.getConnection(serverUrl, user, password);
+             Statement st = conn.createStatement()) {
+            st.execute("CREATE DATABASE IF NOT EXISTS " + schema);
+        }
+
+        String url = serverUrl + schema;
+        String current = System.getProperty("proshop.db.url");
+        if (current != null && !current.equals(url)) {
+            throw new IllegalStateException("DBUtil is already bound to " + current + "; run each size in its own fork");
+        }
+        System.setProperty("proshop.db.url", url);
+        System.setProperty("proshop.db.user", user);
+        System.setProperty("proshop.db.password", password);
+        SchemaMigrations.migrate();
+
+        BenchDatabase db = new BenchDatabase(server, productCount(rows));
+        // Seeding uses its own connection so rewritten batches never reach the measured pool
+        try (Connection conn = DriverManager.getConnection(url + "?rewriteBatchedStatements=true", user, password)) {
+            db.seed(conn, rows);
+        }
+        return db;
+    }
+
+    // DBUtil's shutdown hook closes the pooled connections
+    void close() throws ManagedProcessException {
+        if (server != null) server.stop();
+    }
+
+    static int productCount(int rows) {
+        return Math.max(100, rows / 1000 * PRODUCTS_PER_THOUSAND_ROWS);
+    }
+
+    static String productName(int i) {
+        return String.format("Bench Product %05d", i);
+    }
+
+    int getProducts() {
+        return products;
+    }
+
+    // ===== WRITE CLEANUP =====
+    /** Remembers the highest ids so {@link #removeWritesSinceMark()} can undo a measurement's inserts. */
+    void mark() throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            billMark = maxId(conn, "bill");
+            productMark = maxId(conn, "product");
+            gymLineMark = maxId(conn, "gym_wholesaler");
+            stockMark = maxId(conn, "stock");
+        }
+    }
+
+    /**
+     * Deletes the bills, products, gym lines and stock lots inserted since
+     * {@link #mark()}, so every iteration starts from the same row counts.
+     * Quantities moved on existing lots are left as they are; the lots hold
+     * far more than a run uses.
+     */
+    void removeWritesSinceMark() throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            delete(conn, "DELETE FROM billproduct WHERE billId > ?", billMark);
+            delete(conn, "DELETE FROM payment WHERE billId > ?", billMark);
+            delete(conn, "DELETE FROM bill WHERE id > ?", billMark);
+            delete(conn, "DELETE FROM product WHERE id > ?", productMark);
+            delete(conn, "DELETE FROM gym_wholesaler WHERE id > ?", gymLineMark);
+            delete(conn, "DELETE FROM stock WHERE id > ?", stockMark);
+        }
+    }
+
+    private static long maxId(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void delete(Connection conn, String sql, long mark) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, mark);
+            ps.executeUpdate();
+        }
+    }
+
+    // ===== SEED =====
+    // Half the sale lines are retail, half gym; a bill of LINES_PER_BILL
+    // purchased products for every ten sale lines. Popular products sell more.
+    private void seed(Connection conn, int rows) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS bench_seed (sale_rows INT NOT NULL PRIMARY KEY)");
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM bench_seed WHERE sale_rows = " + rows)) {
+                if (rs.next() && rs.getInt(1) > 0) return;
+            }
+        }
+        LOGGER.info("Seeding " + rows + " sale rows, " + products + " products");
+        long started = System.nanoTime();
+        Random random = new Random(SEED);
+        conn.setAutoCommit(false);
+
+        batch(conn, "INSERT INTO stock (productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", products * RATES.length, (ps, i) -> {
+            BigDecimal rate = RATES[i % RATES.length];
+            ps.setString(1, productName(i / RATES.length));
+            ps.setInt(2, LOT_QUANTITY);
+            ps.setBigDecimal(3, rate);
+            ps.setBigDecimal(4, rate.multiply(BigDecimal.valueOf(LOT_QUANTITY)));
+            ps.setDate(5, Date.valueOf(LAST_DAY.plusYears(2)));
+            ps.setDate(6, Date.valueOf(LAST_DAY.minusDays(DAYS)));
+        });
+        batch(conn, "INSERT INTO wholesaler (id, wholesalerName, phoneNo, address) VALUES (?, ?, ?, ?)", WHOLESALERS, (ps, i) -> {
+            ps.setLong(1, i + 1);
+            ps.setString(2, "Bench Wholesaler " + (i + 1));
+            ps.setString(3, String.valueOf(9000000000L + i));
+            ps.setString(4, "Karad");
+        });
+        batch(conn, "INSERT INTO gym_client (id, wholesalerName, mobileNo, address) VALUES (?, ?, ?, ?)", GYM_CLIENTS, (ps, i) -> {
+            ps.setLong(1, i + 1);
+            ps.setString(2, "Bench Gym " + (i + 1));
+            ps.setString(3, String.valueOf(8000000000L + i));
+            ps.setString(4, "Karad");
+        });
+
+        int bills = Math.max(1, rows / 10);
+        batch(conn, "INSERT INTO bill (id, date, shippingCharges, billAmount, wholesalerId) VALUES (?, ?, ?, ?, ?)", bills, (ps, i) -> {
+            ps.setLong(1, i + 1);
+            ps.setDate(2, Date.valueOf(day(random)));
+            ps.setBigDecimal(3, BigDecimal.valueOf(100));
+            ps.setBigDecimal(4, RATES[0].multiply(BigDecimal.valueOf(LINES_PER_BILL * 10L)).add(BigDecimal.valueOf(100)));
+            ps.setLong(5, i % WHOLESALERS + 1);
+        });
+        batch(conn, "INSERT INTO product (id, productName, quantity, perPieceRate, expiry, total, wholesalerId) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", bills * LINES_PER_BILL, (ps, i) -> {
+            ps.setLong(1, i + 1);
+            ps.setString(2, productName(popular(random)));
+            ps.setInt(3, 10);
+            ps.setBigDecimal(4, RATES[0]);
+            ps.setDate(5, Date.valueOf(LAST_DAY.plusYears(2)));
+            ps.setBigDecimal(6, RATES[0].multiply(BigDecimal.TEN));
+            ps.setLong(7, i / LINES_PER_BILL % WHOLESALERS + 1);
+        });
+        batch(conn, "INSERT INTO billproduct (billId, productId, quantity) VALUES (?, ?, ?)", bills * LINES_PER_BILL, (ps, i) -> {
+            ps.setLong(1, i / LINES_PER_BILL + 1);
+            ps.setLong(2, i + 1);
+            ps.setInt(3, 10);
+        });
+        batch(conn, "INSERT INTO payment (paidAmount, paidDate, pendingAmount, billId) VALUES (?, ?, ?, ?)", bills, (ps, i) -> {
+            ps.setBigDecimal(1, BigDecimal.valueOf(5000));
+            ps.setDate(2, Date.valueOf(day(random)));
+            ps.setBigDecimal(3, BigDecimal.valueOf(8600));
+            ps.setLong(4, i + 1);
+        });
+
+        batch(conn, "INSERT INTO customer (customerName, productName, quantity, buyingPrice, sellingPrice, totalAmount, "
+                + "finalBill, netProfit, paymentMode, date, discount, status, mobileNo, amount_paid, payment_date, pending_amount) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'Cash', ?, 0, 'Paid', ?, ?, ?, 0)", rows / 2, (ps, i) -> {
+            int quantity = 1 + random.nextInt(3);
+            double buying = RATES[i % RATES.length].doubleValue();
+            double total = quantity * (buying + 150);
+            Date date = Date.valueOf(day(random));
+            ps.setString(1, "Customer " + random.nextInt(Math.max(1, rows / 20)));
+            ps.setString(2, productName(popular(random)));
+            ps.setInt(3, quantity);
+            ps.setDouble(4, buying);
+            ps.setDouble(5, buying + 150);
+            ps.setDouble(6, total);
+            ps.setDouble(7, total);
+            ps.setDouble(8, quantity * 150.0);
+            ps.setDate(9, date);
+            ps.setString(10, String.valueOf(7000000000L + i % 5000));
+            ps.setDouble(11, total);
+            ps.setDate(12, date);
+        });
+        batch(conn, "INSERT INTO gym_wholesaler (client_id, productName, quantity, buyingPrice, sellingPrice, totalBill, "
+                + "netProfit, paymentMode, dateOfPurchase, description) VALUES (?, ?, ?, ?, ?, ?, ?, 'Cash', ?, NULL)",
+                rows - rows / 2, (ps, i) -> {
+            int quantity = 1 + random.nextInt(10);
+            double buying = RATES[i % RATES.length].doubleValue();
+            ps.setLong(1, random.nextInt(GYM_CLIENTS) + 1);
+            ps.setString(2, productName(popular(random)));
+            ps.setInt(3, quantity);
+            ps.setDouble(4, buying);
+            ps.setDouble(5, buying + 80);
+            ps.setDouble(6, quantity * buying);
+            ps.setDouble(7, quantity * 80.0);
+            ps.setDate(8, Date.valueOf(day(random)));
+        });
+
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO bench_seed (sale_rows) VALUES (" + rows + ")");
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+        LOGGER.info("Seeded " + rows + " sale rows in " + (System.nanoTime() - started) / 1_000_000_000 + " s");
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private static void batch(Connection conn, String sql, int count, RowBinder binder) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                binder.bind(ps, i);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                    conn.commit();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+
+    // Skewed towards low indexes: the first tenth of the catalogue takes about a third of the sales
+    private int popular(Random random) {
+        double u = random.nextDouble();
+        return (int) (products * u * u);
+    }
+
+    private static LocalDate day(Random random) {
+        return LAST_DAY.minusDays(random.nextInt(DAYS));
+    }
+}
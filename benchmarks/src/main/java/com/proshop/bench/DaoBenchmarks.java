@@ -0,0 +1,148 @@
+package com.proshop.bench;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.proshop.connection.DBUtil;
+import com.proshop.main.DashboardMetricsService;
+import com.proshop.main.DatabaseUtils;
+import com.proshop.main.GymWholesalerDAO;
+import com.proshop.main.StockLedger;
+import com.proshop.model.Bill;
+import com.proshop.model.GymWholesaler;
+import com.proshop.model.Product;
+import com.proshop.model.WholesalerPurchase;
+
+/**
+ * Latency of the DAO and stock hot paths at 10k, 100k and 1M sale rows.
+ *
+ * Writes are undone after every measurement iteration, so each iteration
+ * sees the seeded row counts. Run with {@code java -jar target/benchmarks.jar
+ * -rf json -rff results.json} and keep the JSON files to compare builds or
+ * database servers; {@code -p rows=100000} limits a run to one size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// SQL timing wrappers off: measure the DAOs, not the instrumentation
+@Fork(value = 1, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xmx2g", "-Dproshop.db.metrics=false" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DaoBenchmarks {
+    @Param({ "10000", "100000", "1000000" })
+    public int rows;
+
+    private BenchDatabase db;
+    private final GymWholesalerDAO gymDao = new GymWholesalerDAO();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        db = BenchDatabase.open(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        db.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void mark() throws SQLException {
+        db.mark();
+    }
+
+    @TearDown(Level.Iteration)
+    public void undoWrites() throws SQLException {
+        db.removeWritesSinceMark();
+    }
+
+    // Walks the catalogue so consecutive calls do not hit the same stock rows
+    private String nextProduct() {
+        next = (next + 1) % db.getProducts();
+        return BenchDatabase.productName(next);
+    }
+
+    // ===== WRITES =====
+    /** A three-line purchase bill with its stock receipts. */
+    @Benchmark
+    public Bill addBill() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < BenchDatabase.LINES_PER_BILL; i++) {
+            Product product = new Product(null, nextProduct(), 10, BenchDatabase.RATES[0], LocalDate.of(2027, 1, 1));
+            product.setTotal(BenchDatabase.RATES[0].multiply(BigDecimal.TEN));
+            products.add(product);
+        }
+        Bill bill = new Bill(LocalDate.of(2024, 12, 31), BigDecimal.valueOf(100), BigDecimal.valueOf(13600));
+        DatabaseUtils.addBill(bill, 1L, products);
+        return bill;
+    }
+
+    /** A three-line gym sale: stock check, batch insert and deduction. */
+    @Benchmark
+    public List<GymWholesaler> saveGymProducts() throws Exception {
+        List<GymWholesaler> lines = new ArrayList<>();
+        for (int i = 0; i < BenchDatabase.LINES_PER_BILL; i++) {
+            GymWholesaler line = new GymWholesaler();
+            line.setClientId(1L);
+            line.setProductName(nextProduct());
+            line.setProductQuantity(1);
+            line.setBuyingPrice(BenchDatabase.RATES[0].doubleValue());
+            line.setSellingPrice(BenchDatabase.RATES[0].doubleValue() + 80);
+            line.setTotalBill(BenchDatabase.RATES[0].doubleValue());
+            line.setNetProfit(80);
+            lines.add(line);
+        }
+        gymDao.insertProducts(lines, LocalDate.of(2024, 12, 31));
+        return lines;
+    }
+
+    /**
+     * The stock deduction of a retail sale, rolled back so the lots keep
+     * their quantity.
+     */
+    @Benchmark
+    public boolean reserveStock() throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                return StockLedger.reserve(conn, nextProduct(), BenchDatabase.RATES[0], 1);
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // ===== READS =====
+    /** Every wholesaler with its bills and products, as the wholesaler screen loads them. */
+    @Benchmark
+    public Map<WholesalerPurchase, Map<Bill, List<Product>>> loadWholesalerData() {
+        return DatabaseUtils.loadWholesalerData();
+    }
+
+    /** The dashboard's KPI figures. */
+    @Benchmark
+    public DashboardMetricsService.Snapshot dashboardMetrics() throws SQLException {
+        return DashboardMetricsService.load();
+    }
+}
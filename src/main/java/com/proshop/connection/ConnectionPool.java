@@ -0,0 +1,565 @@
+package com.proshop.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool used by {@link DBUtil}.
+ *
+ * Connections handed out are proxies: calling {@code close()} returns the
+ * physical connection to the pool instead of closing the socket, so existing
+ * DAO code that closes its connection in a finally block keeps working. They
+ * also implement {@link AfterCommit}, so work that must only see committed
+ * data can be deferred until the borrower's transaction commits.
+ */
+public class ConnectionPool {
+	private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+	private final String url;
+	private final String user;
+	private final String password;
+	private final Config config;
+
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+	private final Semaphore permits;
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final ScheduledExecutorService housekeeper;
+	private volatile boolean shutdown;
+
+	// Metrics
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong evictedCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+
+	public ConnectionPool(String url, String user, String password, Config config) {
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.config = config;
+		this.permits = new Semaphore(config.getMaxSize(), true);
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "proshop-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1000L, config.getHousekeepingIntervalMs());
+		housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	// =====================================================
+	// 1. BORROW / RELEASE
+	// =====================================================
+	public Connection getConnection() throws SQLException {
+		if (shutdown) {
+			throw new SQLException("Connection pool is shut down.");
+		}
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+				timeoutCount.incrementAndGet();
+				throw new SQLException("Timed out after " + config.getBorrowTimeoutMs()
+						+ " ms waiting for a database connection (active: " + active.size() + ", max: "
+						+ config.getMaxSize() + ").");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a database connection.", e);
+		}
+
+		PooledConnection pc = null;
+		Connection handle;
+		try {
+			pc = takeValidConnection();
+			handle = pc.newHandle();
+		} catch (SQLException | RuntimeException ex) {
+			if (pc != null) {
+				idle.offerFirst(pc);
+			}
+			permits.release();
+			throw ex;
+		}
+
+		long waited = System.nanoTime() - start;
+		borrowCount.incrementAndGet();
+		totalWaitNanos.addAndGet(waited);
+		maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+		pc.borrowedAt = System.currentTimeMillis();
+		pc.borrowSite = config.getLeakThresholdMs() > 0 ? new Throwable("Connection borrowed here") : null;
+		pc.leakReported = false;
+		active.add(pc);
+		return handle;
+	}
+
+	private PooledConnection takeValidConnection() throws SQLException {
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			if (isAlive(pc)) {
+				return pc;
+			}
+			destroy(pc);
+		}
+		return create();
+	}
+
+	private boolean isAlive(PooledConnection pc) {
+		long sinceUse = System.currentTimeMillis() - pc.lastReturnedAt;
+		if (sinceUse < config.getValidationBypassMs()) {
+			return true;
+		}
+		try {
+			return !pc.raw.isClosed() && pc.raw.isValid(config.getValidationTimeoutSeconds());
+		} catch (SQLException ex) {
+			return false;
+		}
+	}
+
+	private void release(PooledConnection pc) {
+		active.remove(pc);
+		boolean reusable = !shutdown;
+		try {
+			if (reusable && pc.raw.isClosed()) {
+				reusable = false;
+			}
+			if (reusable && !pc.raw.getAutoCommit()) {
+				// Callers sometimes close without committing or resetting; never leak a transaction.
+				pc.raw.rollback();
+				pc.raw.setAutoCommit(true);
+			}
+		} catch (SQLException ex) {
+			LOGGER.log(Level.FINE, "Discarding connection that failed reset", ex);
+			reusable = false;
+		}
+
+		if (reusable) {
+			pc.lastReturnedAt = System.currentTimeMillis();
+			pc.borrowSite = null;
+			idle.offerFirst(pc);
+		} else {
+			destroy(pc);
+		}
+		permits.release();
+	}
+
+	private PooledConnection create() throws SQLException {
+		Connection raw = DriverManager.getConnection(url, user, password);
+		totalConnections.incrementAndGet();
+		createdCount.incrementAndGet();
+		return new PooledConnection(raw);
+	}
+
+	private void destroy(PooledConnection pc) {
+		totalConnections.decrementAndGet();
+		try {
+			pc.raw.close();
+		} catch (SQLException ex) {
+			LOGGER.log(Level.FINE, "Error closing pooled connection", ex);
+		}
+	}
+
+	// =====================================================
+	// 2. HOUSEKEEPING: IDLE EVICTION, MIN SIZE, LEAK DETECTION
+	// =====================================================
+	private void housekeep() {
+		try {
+			evictIdle();
+			fillToMinimum();
+			detectLeaks();
+		} catch (RuntimeException ex) {
+			LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", ex);
+		}
+	}
+
+	private void evictIdle() {
+		long now = System.currentTimeMillis();
+		Iterator<PooledConnection> it = idle.descendingIterator();
+		while (it.hasNext() && totalConnections.get() > config.getMinSize()) {
+			PooledConnection pc = it.next();
+			if (now - pc.lastReturnedAt > config.getIdleTimeoutMs() && idle.remove(pc)) {
+				evictedCount.incrementAndGet();
+				destroy(pc);
+			}
+		}
+	}
+
+	private void fillToMinimum() {
+		while (!shutdown && totalConnections.get() < config.getMinSize()) {
+			try {
+				PooledConnection pc = create();
+				pc.lastReturnedAt = System.currentTimeMillis();
+				idle.offerLast(pc);
+			} catch (SQLException ex) {
+				LOGGER.warning("Could not pre-open pooled connection: " + ex.getMessage());
+				return;
+			}
+		}
+	}
+
+	private void detectLeaks() {
+		long threshold = config.getLeakThresholdMs();
+		if (threshold <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (PooledConnection pc : active) {
+			if (!pc.leakReported && now - pc.borrowedAt > threshold) {
+				pc.leakReported = true;
+				leakCount.incrementAndGet();
+				LOGGER.log(Level.WARNING, "Possible connection leak: connection held for " + (now - pc.borrowedAt)
+						+ " ms (threshold " + threshold + " ms)", pc.borrowSite);
+			}
+		}
+	}
+
+	public void shutdown() {
+		shutdown = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			destroy(pc);
+		}
+	}
+
+	// =====================================================
+	// 3. METRICS
+	// =====================================================
+	public Stats getStats() {
+		long borrows = borrowCount.get();
+		return new Stats(active.size(), idle.size(), totalConnections.get(), permits.getQueueLength(), borrows,
+				borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows, maxWaitNanos.get() / 1_000_000.0,
+				createdCount.get(), evictedCount.get(), timeoutCount.get(), leakCount.get());
+	}
+
+	/** Lists the stack traces of connections currently checked out, oldest first. */
+	public List<String> describeActiveConnections() {
+		List<String> out = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		active.stream().sorted((a, b) -> Long.compare(a.borrowedAt, b.borrowedAt)).forEach(pc -> {
+			StringBuilder sb = new StringBuilder("held " + (now - pc.borrowedAt) + " ms");
+			Throwable site = pc.borrowSite;
+			if (site != null) {
+				for (StackTraceElement e : site.getStackTrace()) {
+					sb.append("\n    at ").append(e);
+				}
+			}
+			out.add(sb.toString());
+		});
+		return out;
+	}
+
+	public Config getConfig() {
+		return config;
+	}
+
+	/**
+	 * Implemented by the connections this pool hands out. The action runs once
+	 * the current transaction commits (including by switching auto-commit back
+	 * on) and is dropped if it rolls back or the connection is closed first.
+	 */
+	public interface AfterCommit {
+		void afterCommit(Runnable action);
+	}
+
+	/** Point-in-time snapshot of the pool counters. */
+	public static class Stats {
+		private final int active;
+		private final int idle;
+		private final int total;
+		private final int waiting;
+		private final long borrowCount;
+		private final double averageWaitMs;
+		private final double maxWaitMs;
+		private final long createdCount;
+		private final long evictedCount;
+		private final long timeoutCount;
+		private final long leakCount;
+
+		public Stats(int active, int idle, int total, int waiting, long borrowCount, double averageWaitMs,
+				double maxWaitMs, long createdCount, long evictedCount, long timeoutCount, long leakCount) {
+			this.active = active;
+			this.idle = idle;
+			this.total = total;
+			this.waiting = waiting;
+			this.borrowCount = borrowCount;
+			this.averageWaitMs = averageWaitMs;
+			this.maxWaitMs = maxWaitMs;
+			this.createdCount = createdCount;
+			this.evictedCount = evictedCount;
+			this.timeoutCount = timeoutCount;
+			this.leakCount = leakCount;
+		}
+
+		public int getActive() {
+			return active;
+		}
+
+		public int getIdle() {
+			return idle;
+		}
+
+		public int getTotal() {
+			return total;
+		}
+
+		public int getWaiting() {
+			return waiting;
+		}
+
+		public long getBorrowCount() {
+			return borrowCount;
+		}
+
+		public double getAverageWaitMs() {
+			return averageWaitMs;
+		}
+
+		public double getMaxWaitMs() {
+			return maxWaitMs;
+		}
+
+		public long getCreatedCount() {
+			return createdCount;
+		}
+
+		public long getEvictedCount() {
+			return evictedCount;
+		}
+
+		public long getTimeoutCount() {
+			return timeoutCount;
+		}
+
+		public long getLeakCount() {
+			return leakCount;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"active=%d, idle=%d, total=%d, waiting=%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, created=%d, evicted=%d, timeouts=%d, leaks=%d",
+					active, idle, total, waiting, borrowCount, averageWaitMs, maxWaitMs, createdCount, evictedCount,
+					timeoutCount, leakCount);
+		}
+	}
+
+	/** Pool sizing and timing settings. */
+	public static class Config {
+		private int minSize = 2;
+		private int maxSize = 10;
+		private long idleTimeoutMs = 5 * 60 * 1000L;
+		private long borrowTimeoutMs = 30 * 1000L;
+		private long leakThresholdMs = 60 * 1000L;
+		private long validationBypassMs = 500L;
+		private int validationTimeoutSeconds = 3;
+		private long housekeepingIntervalMs = 30 * 1000L;
+
+		/**
+		 * Reads settings from {@code proshop.db.pool.*} system properties, falling
+		 * back to the defaults above.
+		 */
+		public static Config fromSystemProperties() {
+			Config c = new Config();
+			c.setMinSize(Integer.getInteger("proshop.db.pool.minSize", c.minSize));
+			c.setMaxSize(Integer.getInteger("proshop.db.pool.maxSize", c.maxSize));
+			c.setIdleTimeoutMs(Long.getLong("proshop.db.pool.idleTimeoutMs", c.idleTimeoutMs));
+			c.setBorrowTimeoutMs(Long.getLong("proshop.db.pool.borrowTimeoutMs", c.borrowTimeoutMs));
+			c.setLeakThresholdMs(Long.getLong("proshop.db.pool.leakThresholdMs", c.leakThresholdMs));
+			c.setValidationBypassMs(Long.getLong("proshop.db.pool.validationBypassMs", c.validationBypassMs));
+			c.setValidationTimeoutSeconds(
+					Integer.getInteger("proshop.db.pool.validationTimeoutSeconds", c.validationTimeoutSeconds));
+			c.setHousekeepingIntervalMs(Long.getLong("proshop.db.pool.housekeepingIntervalMs", c.housekeepingIntervalMs));
+			if (c.maxSize < 1) {
+				throw new IllegalArgumentException("proshop.db.pool.maxSize must be at least 1");
+			}
+			if (c.minSize < 0 || c.minSize > c.maxSize) {
+				throw new IllegalArgumentException("proshop.db.pool.minSize must be between 0 and maxSize");
+			}
+			return c;
+		}
+
+		public int getMinSize() {
+			return minSize;
+		}
+
+		public void setMinSize(int minSize) {
+			this.minSize = minSize;
+		}
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public long getIdleTimeoutMs() {
+			return idleTimeoutMs;
+		}
+
+		public void setIdleTimeoutMs(long idleTimeoutMs) {
+			this.idleTimeoutMs = idleTimeoutMs;
+		}
+
+		public long getBorrowTimeoutMs() {
+			return borrowTimeoutMs;
+		}
+
+		public void setBorrowTimeoutMs(long borrowTimeoutMs) {
+			this.borrowTimeoutMs = borrowTimeoutMs;
+		}
+
+		public long getLeakThresholdMs() {
+			return leakThresholdMs;
+		}
+
+		public void setLeakThresholdMs(long leakThresholdMs) {
+			this.leakThresholdMs = leakThresholdMs;
+		}
+
+		public long getValidationBypassMs() {
+			return validationBypassMs;
+		}
+
+		public void setValidationBypassMs(long validationBypassMs) {
+			this.validationBypassMs = validationBypassMs;
+		}
+
+		public int getValidationTimeoutSeconds() {
+			return validationTimeoutSeconds;
+		}
+
+		public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+			this.validationTimeoutSeconds = validationTimeoutSeconds;
+		}
+
+		public long getHousekeepingIntervalMs() {
+			return housekeepingIntervalMs;
+		}
+
+		public void setHousekeepingIntervalMs(long housekeepingIntervalMs) {
+			this.housekeepingIntervalMs = housekeepingIntervalMs;
+		}
+	}
+
+	// =====================================================
+	// 4. PHYSICAL CONNECTION + LOGICAL HANDLE
+	// =====================================================
+	private final class PooledConnection {
+		private final Connection raw;
+		private volatile long borrowedAt;
+		private volatile long lastReturnedAt;
+		private volatile Throwable borrowSite;
+		private volatile boolean leakReported;
+
+		private PooledConnection(Connection raw) {
+			this.raw = raw;
+		}
+
+		private Connection newHandle() {
+			// Connection's own loader (bootstrap/platform) cannot see AfterCommit
+			return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+					new Class<?>[] { Connection.class, AfterCommit.class }, new Handle(this));
+		}
+	}
+
+	/**
+	 * One handle per borrow. Closing it twice, or using it after close, never
+	 * touches a connection that has since been lent to someone else.
+	 */
+	private final class Handle implements InvocationHandler {
+		private PooledConnection pc;
+		// Actions waiting for the current transaction; touched by the borrowing thread
+		private final List<Runnable> afterCommit = new ArrayList<>();
+
+		private Handle(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			Connection target;
+			synchronized (this) {
+				switch (name) {
+				case "close":
+					afterCommit.clear();
+					if (pc != null) {
+						PooledConnection returning = pc;
+						pc = null;
+						release(returning);
+					}
+					return null;
+				case "afterCommit":
+					afterCommit.add((Runnable) args[0]);
+					return null;
+				case "isClosed":
+					return pc == null || pc.raw.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "PooledConnection[" + (pc == null ? "closed" : pc.raw.toString()) + "]";
+				default:
+					if (pc == null) {
+						throw new SQLException("Connection is closed.");
+					}
+					target = pc.raw;
+				}
+			}
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+			if ("commit".equals(name) || ("setAutoCommit".equals(name) && Boolean.TRUE.equals(args[0]))) {
+				runAfterCommit();
+			} else if ("rollback".equals(name) && (args == null || args.length == 0)) {
+				afterCommit.clear();
+			}
+			return result;
+		}
+
+		private void runAfterCommit() {
+			if (afterCommit.isEmpty()) {
+				return;
+			}
+			List<Runnable> actions = new ArrayList<>(afterCommit);
+			afterCommit.clear();
+			for (Runnable action : actions) {
+				try {
+					action.run();
+				} catch (RuntimeException ex) {
+					LOGGER.log(Level.WARNING, "After-commit action failed", ex);
+				}
+			}
+		}
+	}
+
+}
@@ -1,7 +1,6 @@
 package com.proshop.connection;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBUtil {
@@ -9,16 +8,55 @@ public class DBUtil {
 	private static final String USER = "root";
 	private static final String PASSWORD = "root";
 
+	private static final ConnectionPool POOL;
+
 	static {
 		try {
 			Class.forName("com.mysql.cj.jdbc.Driver");
 		} catch (ClassNotFoundException e) {
 			throw new RuntimeException("Failed to load JDBC driver", e);
 		}
+		POOL = new ConnectionPool(System.getProperty("proshop.db.url", URL), System.getProperty("proshop.db.user", USER),
+				System.getProperty("proshop.db.password", PASSWORD), ConnectionPool.Config.fromSystemProperties());
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			SqlMetrics.dumpOnExit();
+			POOL.shutdown();
+		}, "proshop-pool-shutdown"));
 	}
 
+	/**
+	 * Borrows a connection from the shared pool. Closing the returned connection
+	 * hands it back to the pool. Its statements are timed by {@link SqlMetrics}
+	 * unless {@code proshop.db.metrics} is false.
+	 */
 	public static Connection getConnection() throws SQLException {
-		return DriverManager.getConnection(URL, USER, PASSWORD);
+		if (!SqlMetrics.isEnabled()) {
+			return POOL.getConnection();
+		}
+		long start = System.nanoTime();
+		Connection conn = POOL.getConnection();
+		return SqlMetrics.wrap(conn, System.nanoTime() - start);
+	}
+
+	/**
+	 * Runs {@code action} once {@code conn}'s current transaction commits, or
+	 * straight away if it is in auto-commit mode or not a pooled connection.
+	 * The action is dropped if the transaction rolls back.
+	 */
+	public static void afterCommit(Connection conn, Runnable action) throws SQLException {
+		if (!conn.getAutoCommit() && conn instanceof ConnectionPool.AfterCommit) {
+			((ConnectionPool.AfterCommit) conn).afterCommit(action);
+		} else {
+			action.run();
+		}
+	}
+
+	public static ConnectionPool.Stats getPoolStats() {
+		return POOL.getStats();
+	}
+
+	public static ConnectionPool getPool() {
+		return POOL;
 	}
 
 	public static void closeConnection(Connection conn) {
@@ -30,4 +68,4 @@ public class DBUtil {
 			}
 		}
 	}
-}
\ No newline at end of file
+}
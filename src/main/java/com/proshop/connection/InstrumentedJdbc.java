@@ -0,0 +1,213 @@
+package com.proshop.connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxies behind {@link SqlMetrics}: a connection whose statements time
+ * their executes and whose result sets count the rows read.
+ *
+ * A prepared statement is keyed by the SQL it was prepared with; a plain
+ * statement by the SQL passed to each execute. Everything else is passed
+ * straight to the driver object.
+ */
+final class InstrumentedJdbc {
+
+	private InstrumentedJdbc() {
+	}
+
+	// Proxies use this class's loader: java.sql's own loader cannot see
+	// application interfaces such as ConnectionPool.AfterCommit.
+	static Connection connection(Connection target, long acquireNanos) {
+		// Pool connections also take after-commit actions; the call passes straight through
+		Class<?>[] types = target instanceof ConnectionPool.AfterCommit
+				? new Class<?>[] { Connection.class, ConnectionPool.AfterCommit.class }
+				: new Class<?>[] { Connection.class };
+		return (Connection) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(), types,
+				new ConnectionHandler(target, acquireNanos));
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException ex) {
+			throw ex.getCause();
+		}
+	}
+
+	// ===== CONNECTION =====
+	private static final class ConnectionHandler implements InvocationHandler {
+		private final Connection target;
+		// Borrow time not yet charged to a statement; only the borrowing thread reads it
+		private long pendingAcquireNanos;
+
+		ConnectionHandler(Connection target, long acquireNanos) {
+			this.target = target;
+			this.pendingAcquireNanos = acquireNanos;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "prepareStatement":
+				return statement(PreparedStatement.class, invoke(target, method, args), (String) args[0], proxy);
+			case "prepareCall":
+				return statement(CallableStatement.class, invoke(target, method, args), (String) args[0], proxy);
+			case "createStatement":
+				return statement(Statement.class, invoke(target, method, args), null, proxy);
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Instrumented" + target;
+			default:
+				return InstrumentedJdbc.invoke(target, method, args);
+			}
+		}
+
+		private Object statement(Class<? extends Statement> type, Object statement, String sql, Object connection) {
+			return Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(), new Class<?>[] { type },
+					new StatementHandler(this, (Statement) statement, sql, (Connection) connection));
+		}
+
+		long takeAcquireNanos() {
+			long nanos = pendingAcquireNanos;
+			pendingAcquireNanos = -1;
+			return nanos;
+		}
+	}
+
+	// ===== STATEMENT =====
+	private static final class StatementHandler implements InvocationHandler {
+		private final ConnectionHandler owner;
+		private final Statement target;
+		private final String preparedSql;
+		private final Connection connection;
+		private String batchSql;
+		private SqlMetrics.StatementStats last;
+
+		StatementHandler(ConnectionHandler owner, Statement target, String preparedSql, Connection connection) {
+			this.owner = owner;
+			this.target = target;
+			this.preparedSql = preparedSql;
+			this.connection = connection;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+			case "execute":
+			case "executeQuery":
+			case "executeUpdate":
+			case "executeLargeUpdate":
+				return execute(proxy, method, args, args != null && args.length > 0 ? (String) args[0] : preparedSql);
+			case "executeBatch":
+			case "executeLargeBatch":
+				String sql = preparedSql != null ? preparedSql : batchSql;
+				batchSql = null;
+				return execute(proxy, method, args, sql);
+			case "addBatch":
+				if (args != null && args.length == 1 && batchSql == null)
+					batchSql = (String) args[0];
+				return InstrumentedJdbc.invoke(target, method, args);
+			case "getResultSet":
+				return rows((ResultSet) InstrumentedJdbc.invoke(target, method, args), proxy);
+			case "getConnection":
+				return connection;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Instrumented" + target;
+			default:
+				return InstrumentedJdbc.invoke(target, method, args);
+			}
+		}
+
+		private Object execute(Object proxy, Method method, Object[] args, String sql) throws Throwable {
+			SqlMetrics.StatementStats stats = SqlMetrics.statsFor(sql);
+			long acquire = owner.takeAcquireNanos();
+			if (acquire >= 0)
+				stats.recordAcquire(acquire);
+			last = stats;
+			boolean failed = true;
+			long start = System.nanoTime();
+			Object result;
+			try {
+				result = InstrumentedJdbc.invoke(target, method, args);
+				failed = false;
+			} finally {
+				long elapsed = System.nanoTime() - start;
+				stats.record(elapsed, failed);
+				SqlMetrics.checkSlow(sql, elapsed);
+			}
+			countChanged(stats, result);
+			return result instanceof ResultSet ? rows((ResultSet) result, proxy) : result;
+		}
+
+		private static void countChanged(SqlMetrics.StatementStats stats, Object result) {
+			if (result instanceof Integer || result instanceof Long) {
+				stats.rowsChanged.add(((Number) result).longValue());
+			} else if (result instanceof int[]) {
+				for (int count : (int[]) result) {
+					if (count > 0)
+						stats.rowsChanged.add(count);
+				}
+			} else if (result instanceof long[]) {
+				for (long count : (long[]) result) {
+					if (count > 0)
+						stats.rowsChanged.add(count);
+				}
+			}
+		}
+
+		private ResultSet rows(ResultSet rs, Object statement) {
+			if (rs == null || last == null)
+				return rs;
+			return (ResultSet) Proxy.newProxyInstance(InstrumentedJdbc.class.getClassLoader(),
+					new Class<?>[] { ResultSet.class }, new ResultSetHandler(rs, last, (Statement) statement));
+		}
+	}
+
+	// ===== RESULT SET =====
+	private static final class ResultSetHandler implements InvocationHandler {
+		private final ResultSet target;
+		private final SqlMetrics.StatementStats stats;
+		private final Statement statement;
+
+		ResultSetHandler(ResultSet target, SqlMetrics.StatementStats stats, Statement statement) {
+			this.target = target;
+			this.stats = stats;
+			this.statement = statement;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "next":
+				boolean more = target.next();
+				if (more)
+					stats.rowsRead.increment();
+				return more;
+			case "getStatement":
+				return statement;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return InstrumentedJdbc.invoke(target, method, args);
+			}
+		}
+	}
+}
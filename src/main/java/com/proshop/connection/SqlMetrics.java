@@ -0,0 +1,429 @@
+package com.proshop.connection;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement timings of the SQL run through {@link DBUtil}.
+ *
+ * {@link DBUtil#getConnection()} wraps every pooled connection so that each
+ * execute records, under the statement's normalized text (literals replaced
+ * by {@code ?}, IN lists and multi-row VALUES collapsed):
+ * <ul>
+ * <li>the call count, errors and a latency histogram for percentiles,</li>
+ * <li>rows read through the returned result sets and rows changed,</li>
+ * <li>the time spent borrowing the connection, charged to the first
+ * statement run on it.</li>
+ * </ul>
+ * Executes slower than {@code proshop.db.slowQueryMs} (default 500, 0 turns
+ * it off) are logged with the SQL and the calling method. Set
+ * {@code proshop.db.metrics=false} to hand out unwrapped connections, and
+ * {@code proshop.db.metrics.dumpFile} to write {@link #dump(Path)} on exit.
+ */
+public final class SqlMetrics {
+	private static final Logger LOGGER = Logger.getLogger(SqlMetrics.class.getName());
+
+	private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("proshop.db.metrics", "true"));
+	private static final long SLOW_NANOS = Long.getLong("proshop.db.slowQueryMs", 500L) * 1_000_000L;
+
+	// Beyond this many distinct statements new ones share one entry, so
+	// generated SQL cannot grow the registry without bound
+	private static final int MAX_STATEMENTS = 2000;
+	private static final int MAX_CACHED_TEXTS = 10_000;
+	private static final String OTHER = "(other statements)";
+
+	private static final Map<String, StatementStats> STATS = new ConcurrentHashMap<>();
+	private static final Map<String, String> NORMALIZED = new ConcurrentHashMap<>();
+	private static final Histogram ACQUIRE = new Histogram();
+	private static volatile long since = System.currentTimeMillis();
+
+	private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?:, \\?)+\\)");
+	private static final Pattern VALUES_ROWS = Pattern
+			.compile("(?i)(\\bVALUES \\((?:[^()]|\\([^()]*\\))*\\))(?:, \\((?:[^()]|\\([^()]*\\))*\\))+");
+
+	private SqlMetrics() {
+	}
+
+	public static boolean isEnabled() {
+		return ENABLED;
+	}
+
+	/** Wraps a freshly borrowed connection; {@code acquireNanos} is how long the borrow took. */
+	static Connection wrap(Connection conn, long acquireNanos) {
+		ACQUIRE.record(acquireNanos);
+		return InstrumentedJdbc.connection(conn, acquireNanos);
+	}
+
+	// ===== RECORDING =====
+	static StatementStats statsFor(String sql) {
+		String key = normalize(sql);
+		StatementStats stats = STATS.get(key);
+		if (stats != null)
+			return stats;
+		if (STATS.size() >= MAX_STATEMENTS)
+			key = OTHER;
+		return STATS.computeIfAbsent(key, StatementStats::new);
+	}
+
+	static void checkSlow(String sql, long nanos) {
+		if (SLOW_NANOS <= 0 || nanos < SLOW_NANOS)
+			return;
+		LOGGER.warning(String.format("Slow SQL (%.1f ms) from %s: %s", nanos / 1_000_000.0, caller(),
+				sql.length() > 2000 ? sql.substring(0, 2000) + "..." : sql));
+	}
+
+	// First application frame outside this package
+	private static String caller() {
+		return StackWalker.getInstance().walk(frames -> frames
+				.filter(f -> f.getClassName().startsWith("com.proshop.")
+						&& !f.getClassName().startsWith("com.proshop.connection."))
+				.findFirst().map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+				.orElse("unknown caller"));
+	}
+
+	// ===== NORMALIZATION =====
+	/**
+	 * Reduces a statement to its shape: whitespace collapsed, string and
+	 * number literals replaced by {@code ?}, {@code IN (?, ?, ...)} lists and
+	 * extra VALUES rows folded, so the same query with different values or
+	 * batch sizes lands on one entry.
+	 */
+	public static String normalize(String sql) {
+		if (sql == null)
+			return "(null)";
+		String cached = NORMALIZED.get(sql);
+		if (cached != null)
+			return cached;
+		String shape = fold(literals(sql));
+		if (NORMALIZED.size() < MAX_CACHED_TEXTS)
+			NORMALIZED.put(sql, shape);
+		return shape;
+	}
+
+	private static String literals(String sql) {
+		StringBuilder out = new StringBuilder(sql.length());
+		int n = sql.length();
+		int i = 0;
+		while (i < n) {
+			char c = sql.charAt(i);
+			if (Character.isWhitespace(c)) {
+				while (i < n && Character.isWhitespace(sql.charAt(i))) {
+					i++;
+				}
+				if (out.length() > 0 && i < n)
+					out.append(' ');
+			} else if (c == '\'' || c == '"') {
+				i = skipQuoted(sql, i, c);
+				out.append('?');
+			} else if (c == '`') {
+				int end = sql.indexOf('`', i + 1);
+				end = end < 0 ? n : end + 1;
+				out.append(sql, i, end);
+				i = end;
+			} else if (Character.isDigit(c) && !partOfIdentifier(out)) {
+				while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				out.append('?');
+			} else {
+				out.append(c);
+				i++;
+			}
+		}
+		return out.toString();
+	}
+
+	private static int skipQuoted(String sql, int start, char quote) {
+		int i = start + 1;
+		while (i < sql.length()) {
+			char c = sql.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == quote) {
+				if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+					i += 2;
+				} else {
+					return i + 1;
+				}
+			} else {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	private static boolean partOfIdentifier(StringBuilder out) {
+		if (out.length() == 0)
+			return false;
+		char prev = out.charAt(out.length() - 1);
+		return Character.isLetterOrDigit(prev) || prev == '_' || prev == '$';
+	}
+
+	private static String fold(String sql) {
+		String folded = IN_LIST.matcher(sql).replaceAll("IN (?, ...)");
+		return VALUES_ROWS.matcher(folded).replaceAll("$1, ...");
+	}
+
+	// ===== READING =====
+	/** Current figures of every statement, slowest in total first. */
+	public static List<Snapshot> snapshot() {
+		List<Snapshot> out = new ArrayList<>();
+		for (StatementStats stats : STATS.values()) {
+			out.add(stats.snapshot());
+		}
+		out.sort(Comparator.comparingDouble(Snapshot::getTotalMs).reversed());
+		return out;
+	}
+
+	/** Borrow latency of every connection handed out, in milliseconds. */
+	public static double acquirePercentileMs(double percentile) {
+		return ACQUIRE.percentileNanos(percentile) / 1_000_000.0;
+	}
+
+	public static long getAcquireCount() {
+		return ACQUIRE.count();
+	}
+
+	/** When the figures were last reset (or the application started). */
+	public static long getSince() {
+		return since;
+	}
+
+	public static void reset() {
+		STATS.clear();
+		ACQUIRE.clear();
+		since = System.currentTimeMillis();
+	}
+
+	/** Writes the pool counters and one line per statement, slowest in total first. */
+	public static void dump(Path file) throws IOException {
+		List<Snapshot> rows = snapshot();
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("# SQL metrics written " + LocalDateTime.now() + ", collected since "
+					+ new java.sql.Timestamp(since));
+			out.println("# pool: " + DBUtil.getPoolStats());
+			out.printf("# connection acquire: %d borrows, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms%n", getAcquireCount(),
+					acquirePercentileMs(50), acquirePercentileMs(95), acquirePercentileMs(99));
+			out.println("calls\terrors\ttotal_ms\tmean_ms\tp50_ms\tp95_ms\tp99_ms\tmax_ms\trows_read\trows_changed"
+					+ "\tacquire_ms\tsql");
+			for (Snapshot s : rows) {
+				out.printf("%d\t%d\t%.1f\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f\t%d\t%d\t%.3f\t%s%n", s.getCalls(),
+						s.getErrors(), s.getTotalMs(), s.getMeanMs(), s.getP50Ms(), s.getP95Ms(), s.getP99Ms(),
+						s.getMaxMs(), s.getRowsRead(), s.getRowsChanged(), s.getMeanAcquireMs(), s.getSql());
+			}
+		}
+	}
+
+	static void dumpOnExit() {
+		String file = System.getProperty("proshop.db.metrics.dumpFile");
+		if (!ENABLED || file == null || file.isEmpty())
+			return;
+		try {
+			dump(Path.of(file));
+		} catch (IOException ex) {
+			System.err.println("Error writing SQL metrics to " + file + ": " + ex.getMessage());
+		}
+	}
+
+	// ===== STATISTICS =====
+	static final class StatementStats {
+		final String sql;
+		final LongAdder calls = new LongAdder();
+		final LongAdder errors = new LongAdder();
+		final LongAdder totalNanos = new LongAdder();
+		final AtomicLong maxNanos = new AtomicLong();
+		final LongAdder rowsRead = new LongAdder();
+		final LongAdder rowsChanged = new LongAdder();
+		final LongAdder acquires = new LongAdder();
+		final LongAdder acquireNanos = new LongAdder();
+		final Histogram latency = new Histogram();
+
+		StatementStats(String sql) {
+			this.sql = sql;
+		}
+
+		void record(long nanos, boolean failed) {
+			calls.increment();
+			if (failed)
+				errors.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+			latency.record(nanos);
+		}
+
+		void recordAcquire(long nanos) {
+			acquires.increment();
+			acquireNanos.add(nanos);
+		}
+
+		Snapshot snapshot() {
+			long n = calls.sum();
+			long a = acquires.sum();
+			long max = maxNanos.get();
+			// A bucket middle can overshoot the slowest call; never report past it
+			return new Snapshot(sql, n, errors.sum(), totalNanos.sum() / 1_000_000.0,
+					n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n,
+					Math.min(latency.percentileNanos(50), max) / 1_000_000.0,
+					Math.min(latency.percentileNanos(95), max) / 1_000_000.0,
+					Math.min(latency.percentileNanos(99), max) / 1_000_000.0, max / 1_000_000.0, rowsRead.sum(),
+					rowsChanged.sum(), a == 0 ? 0 : acquireNanos.sum() / 1_000_000.0 / a);
+		}
+	}
+
+	/**
+	 * Log-linear latency histogram: eight buckets per power of two, reported
+	 * at the bucket middle, so a percentile is within about 6% of the true
+	 * value. Lock-free to record.
+	 */
+	static final class Histogram {
+		private static final int SUB_BITS = 3;
+		private static final int SUB_BUCKETS = 1 << SUB_BITS;
+		private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+		void record(long nanos) {
+			long micros = Math.max(0, nanos / 1000);
+			counts.incrementAndGet(bucket(micros));
+		}
+
+		private static int bucket(long micros) {
+			if (micros < SUB_BUCKETS)
+				return (int) micros;
+			int exp = 63 - Long.numberOfLeadingZeros(micros);
+			int sub = (int) (micros >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+			return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+		}
+
+		// Middle of a bucket, in microseconds
+		private static double middle(int bucket) {
+			if (bucket < SUB_BUCKETS)
+				return bucket + 0.5;
+			int shift = bucket / SUB_BUCKETS - 1;
+			long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+			return lower + (1L << shift) / 2.0;
+		}
+
+		long count() {
+			long total = 0;
+			for (int i = 0; i < counts.length(); i++) {
+				total += counts.get(i);
+			}
+			return total;
+		}
+
+		long percentileNanos(double percentile) {
+			long total = count();
+			if (total == 0)
+				return 0;
+			long rank = (long) Math.ceil(total * percentile / 100.0);
+			long seen = 0;
+			for (int i = 0; i < counts.length(); i++) {
+				seen += counts.get(i);
+				if (seen >= rank)
+					return (long) (middle(i) * 1000);
+			}
+			return (long) (middle(counts.length() - 1) * 1000);
+		}
+
+		void clear() {
+			for (int i = 0; i < counts.length(); i++) {
+				counts.set(i, 0);
+			}
+		}
+	}
+
+	/** Figures of one normalized statement; times in milliseconds. */
+	public static final class Snapshot {
+		private final String sql;
+		private final long calls;
+		private final long errors;
+		private final double totalMs;
+		private final double meanMs;
+		private final double p50Ms;
+		private final double p95Ms;
+		private final double p99Ms;
+		private final double maxMs;
+		private final long rowsRead;
+		private final long rowsChanged;
+		private final double meanAcquireMs;
+
+		Snapshot(String sql, long calls, long errors, double totalMs, double meanMs, double p50Ms, double p95Ms,
+				double p99Ms, double maxMs, long rowsRead, long rowsChanged, double meanAcquireMs) {
+			this.sql = sql;
+			this.calls = calls;
+			this.errors = errors;
+			this.totalMs = totalMs;
+			this.meanMs = meanMs;
+			this.p50Ms = p50Ms;
+			this.p95Ms = p95Ms;
+			this.p99Ms = p99Ms;
+			this.maxMs = maxMs;
+			this.rowsRead = rowsRead;
+			this.rowsChanged = rowsChanged;
+			this.meanAcquireMs = meanAcquireMs;
+		}
+
+		public String getSql() {
+			return sql;
+		}
+
+		public long getCalls() {
+			return calls;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public double getTotalMs() {
+			return totalMs;
+		}
+
+		public double getMeanMs() {
+			return meanMs;
+		}
+
+		public double getP50Ms() {
+			return p50Ms;
+		}
+
+		public double getP95Ms() {
+			return p95Ms;
+		}
+
+		public double getP99Ms() {
+			return p99Ms;
+		}
+
+		public double getMaxMs() {
+			return maxMs;
+		}
+
+		public long getRowsRead() {
+			return rowsRead;
+		}
+
+		public long getRowsChanged() {
+			return rowsChanged;
+		}
+
+		/** Average borrow time of the connections this statement ran first on. */
+		public double getMeanAcquireMs() {
+			return meanAcquireMs;
+		}
+	}
+}
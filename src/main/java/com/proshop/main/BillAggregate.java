@@ -0,0 +1,165 @@
+package com.proshop.main;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.proshop.model.Bill;
+import com.proshop.model.Payment;
+import com.proshop.model.Product;
+
+/**
+ * One wholesaler bill with its products, payments and running totals, as
+ * shown by {@link WholesalerDetailView}.
+ *
+ * It is loaded once with {@link #load}. After that each successful write is
+ * applied in place from what the write returned, so an edit never re-reads
+ * the bill. Not thread safe; after loading it is only used on the EDT.
+ */
+public final class BillAggregate {
+	// Same order as DatabaseUtils.fetchPaymentsForBill: paidDate DESC, id DESC
+	private static final Comparator<Payment> NEWEST_FIRST = Comparator
+			.comparing(Payment::getPaidDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+			.thenComparing(Payment::getId, Comparator.nullsFirst(Comparator.<Long>naturalOrder())).reversed();
+
+	private final Bill bill;
+	private final Long wholesalerId;
+	private final List<Product> products;
+	private final List<Payment> payments;
+	private BigDecimal totalAmount = BigDecimal.ZERO;
+	private BigDecimal paidAmount = BigDecimal.ZERO;
+
+	private BillAggregate(Bill bill, Long wholesalerId, List<Product> products, List<Payment> payments) {
+		this.bill = bill;
+		this.wholesalerId = wholesalerId;
+		this.products = products;
+		this.payments = payments;
+		for (Product product : products) {
+			totalAmount = totalAmount.add(totalOf(product));
+		}
+		for (Payment payment : payments) {
+			paidAmount = paidAmount.add(amountOf(payment));
+		}
+	}
+
+	/** Reads the bill's products and payments; call off the EDT. */
+	public static BillAggregate load(Bill bill, Long wholesalerId) {
+		List<Product> products = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesalerId);
+		List<Payment> payments = DatabaseUtils.fetchPaymentsForBill(bill.getId()).getPayments();
+		return new BillAggregate(bill, wholesalerId, new ArrayList<>(products), new ArrayList<>(payments));
+	}
+
+	// ===== READ =====
+	public Bill getBill() {
+		return bill;
+	}
+
+	public Long getWholesalerId() {
+		return wholesalerId;
+	}
+
+	public List<Product> getProducts() {
+		return Collections.unmodifiableList(products);
+	}
+
+	public List<Payment> getPayments() {
+		return Collections.unmodifiableList(payments);
+	}
+
+	public Product productAt(int row) {
+		return products.get(row);
+	}
+
+	public Payment paymentAt(int row) {
+		return payments.get(row);
+	}
+
+	/** Sum of the product totals, without shipping. */
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	public BigDecimal getPaidAmount() {
+		return paidAmount;
+	}
+
+	public BigDecimal getPendingAmount() {
+		return totalAmount.subtract(paidAmount);
+	}
+
+	/**
+	 * Pending amount recorded on the latest payment, or the product total when
+	 * there is none; the same value as {@link DatabaseUtils#getCurrentPendingAmount}.
+	 */
+	public BigDecimal getCurrentPendingAmount() {
+		if (!payments.isEmpty() && payments.get(0).getPendingAmount() != null)
+			return payments.get(0).getPendingAmount();
+		return totalAmount;
+	}
+
+	/** Product total plus shipping, the amount stored on the bill row. */
+	public BigDecimal getBillAmount() {
+		return totalAmount.add(bill.getShippingCharges() != null ? bill.getShippingCharges() : BigDecimal.ZERO);
+	}
+
+	// ===== APPLY WRITES =====
+	/** A product inserted by {@link DatabaseUtils#addProductToBill}, which set its id. */
+	public void productAdded(Product product) {
+		products.add(product);
+		totalAmount = totalAmount.add(totalOf(product));
+	}
+
+	/** A product saved by {@link DatabaseUtils#updateProduct}; replaces the one with the same id. */
+	public void productUpdated(Product product) {
+		int i = indexOfProduct(product.getId());
+		if (i < 0)
+			return;
+		totalAmount = totalAmount.subtract(totalOf(products.get(i))).add(totalOf(product));
+		products.set(i, product);
+	}
+
+	public void productDeleted(Long productId) {
+		int i = indexOfProduct(productId);
+		if (i < 0)
+			return;
+		totalAmount = totalAmount.subtract(totalOf(products.remove(i)));
+	}
+
+	/** A payment returned by {@link DatabaseUtils#addPayment}. */
+	public void paymentAdded(Payment payment) {
+		payments.add(payment);
+		payments.sort(NEWEST_FIRST);
+		paidAmount = paidAmount.add(amountOf(payment));
+	}
+
+	/** A payment returned by {@link DatabaseUtils#updatePayment}; replaces the one with the same id. */
+	public void paymentUpdated(Payment payment) {
+		for (int i = 0; i < payments.size(); i++) {
+			if (payments.get(i).getId().equals(payment.getId())) {
+				paidAmount = paidAmount.subtract(amountOf(payments.get(i))).add(amountOf(payment));
+				payments.set(i, payment);
+				payments.sort(NEWEST_FIRST);
+				return;
+			}
+		}
+	}
+
+	private int indexOfProduct(Long productId) {
+		for (int i = 0; i < products.size(); i++) {
+			if (products.get(i).getId().equals(productId))
+				return i;
+		}
+		return -1;
+	}
+
+	private static BigDecimal totalOf(Product product) {
+		return product.getTotal() != null ? product.getTotal() : BigDecimal.ZERO;
+	}
+
+	private static BigDecimal amountOf(Payment payment) {
+		return payment.getPaidAmount() != null ? payment.getPaidAmount() : BigDecimal.ZERO;
+	}
+}
@@ -76,25 +76,9 @@ public class BillDetailsDAO {
         return billDetailsList;
     }
 
-    // [1.2] Get current shop balance
+    // [1.2] Get current shop balance (running total, no ledger scan)
     public double getShopBalance() throws SQLException {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        double shopBalance = 0.0;
-        try {
-            conn = DBUtil.getConnection();
-            String shopSql = "SELECT SUM(shopAmount) as totalShopAmount FROM shop_amount";
-            pstmt = conn.prepareStatement(shopSql);
-            rs = pstmt.executeQuery();
-            if (rs.next()) {
-                shopBalance = rs.getDouble("totalShopAmount");
-                if (rs.wasNull()) shopBalance = 0.0;
-            }
-        } finally {
-            closeResources(rs, pstmt, conn);
-        }
-        return shopBalance;
+        return ShopLedger.currentBalance();
     }
 
     // [1.3] Load shop amount history for display
@@ -301,64 +285,43 @@ public class BillDetailsDAO {
         double customerPaid = 0.0, gymWholesalerPaid = 0.0;
         double billExpenses = 0.0, wholesalerPaid = 0.0;
 
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-
-            // [4.1.1] Bill Expenses
-            billExpenses = sum(conn, "SELECT SUM(rent + lightBill + maintenanceBill + salary + parcelBillAmount + bankEmi + othersAmount) as expenses FROM billdetails");
-            cardsPanel.add(createTotalsCard("Bill Details", new String[]{"Total Expenses: %.2f"}, new double[]{billExpenses}));
-
-            // [4.1.2] Customer Sales & Profit
-            pstmt = conn.prepareStatement("SELECT SUM(amount_paid) as totalPaid, SUM(finalBill) as sales, SUM(netProfit) as profit FROM customer");
-            rs = pstmt.executeQuery();
-            if (rs.next()) {
-                customerPaid = nullSafe(rs, "totalPaid");
-                double sales = nullSafe(rs, "sales");
-                double profit = nullSafe(rs, "profit");
-                totalProfit += profit;
-                cardsPanel.add(createTotalsCard("Customer", new String[]{"Amount Paid: %.2f", "Total Sales: %.2f", "Net Profit: %.2f"},
-                    new double[]{customerPaid, sales, profit}));
-            }
-            closeStmtRs(pstmt, rs);
-
-            // [4.1.3] Gym/Wholesaler Sales
-            pstmt = conn.prepareStatement("SELECT SUM(wp.amountPaid) as totalPaid, SUM(gw.totalBill) as sales, SUM(gw.netProfit) as profit "
-                                        + "FROM gym_wholesaler gw LEFT JOIN wholesaler_payment wp ON gw.id = wp.wholesalerId");
-            rs = pstmt.executeQuery();
-            if (rs.next()) {
-                gymWholesalerPaid = nullSafe(rs, "totalPaid");
-                double sales = nullSafe(rs, "sales");
-                double profit = nullSafe(rs, "profit");
-                totalProfit += profit;
-                cardsPanel.add(createTotalsCard("Gym/Shop Client", new String[]{"Amount Paid: %.2f", "Total Sales: %.2f", "Net Profit: %.2f"},
-                    new double[]{gymWholesalerPaid, sales, profit}));
-            }
-            closeStmtRs(pstmt, rs);
-
-            // [4.1.4] Stock Value
-            totalStockAmount = sum(conn, "SELECT SUM(totalAmount) as totalStock FROM stock");
-            cardsPanel.add(createTotalsCard("Stock", new String[]{"Total Stock Amount: %.2f"}, new double[]{totalStockAmount}));
-
-            // [4.1.5] Wholesaler Bills
-            double wholesalerTotalBill = sum(conn, "SELECT SUM(total) as totalBill FROM product");
-            wholesalerPaid = sum(conn, "SELECT SUM(paidAmount) as totalPaid FROM payment");
-            cardsPanel.add(createTotalsCard("Wholesaler", new String[]{"Total Bill: %.2f", "Amount Paid: %.2f"},
-                new double[]{wholesalerTotalBill, wholesalerPaid}));
-
-            // [4.1.6] Shop Balance
-            totalShopBalance = sum(conn, "SELECT SUM(shopAmount) as totalShopAmount FROM shop_amount");
-
-            // Update Labels
-            shopBalanceLabel.setText(String.format("Shop Balance: %.2f", totalShopBalance));
-            totalProfitLabel.setText(String.format("Total Net Profit: %.2f", totalProfit));
-            capitalLabel.setText(String.format("Capital: %.2f", totalShopBalance + totalStockAmount));
-
-        } finally {
-            closeResources(rs, pstmt, conn);
-        }
+        // [4.1.0] All totals come from the trigger-maintained financial_summary
+        FinancialSummary.Totals totals = FinancialSummary.read();
+
+        // [4.1.1] Bill Expenses
+        billExpenses = totals.get(FinancialSummary.BILL_EXPENSES);
+        cardsPanel.add(createTotalsCard("Bill Details", new String[]{"Total Expenses: %.2f"}, new double[]{billExpenses}));
+
+        // [4.1.2] Customer Sales & Profit
+        customerPaid = totals.get(FinancialSummary.CUSTOMER_PAID);
+        double customerProfit = totals.get(FinancialSummary.CUSTOMER_PROFIT);
+        totalProfit += customerProfit;
+        cardsPanel.add(createTotalsCard("Customer", new String[]{"Amount Paid: %.2f", "Total Sales: %.2f", "Net Profit: %.2f"},
+            new double[]{customerPaid, totals.get(FinancialSummary.CUSTOMER_SALES), customerProfit}));
+
+        // [4.1.3] Gym/Wholesaler Sales
+        gymWholesalerPaid = totals.get(FinancialSummary.GYM_PAID);
+        double gymProfit = totals.get(FinancialSummary.GYM_PROFIT);
+        totalProfit += gymProfit;
+        cardsPanel.add(createTotalsCard("Gym/Shop Client", new String[]{"Amount Paid: %.2f", "Total Sales: %.2f", "Net Profit: %.2f"},
+            new double[]{gymWholesalerPaid, totals.get(FinancialSummary.GYM_SALES), gymProfit}));
+
+        // [4.1.4] Stock Value
+        totalStockAmount = totals.get(FinancialSummary.STOCK_AMOUNT);
+        cardsPanel.add(createTotalsCard("Stock", new String[]{"Total Stock Amount: %.2f"}, new double[]{totalStockAmount}));
+
+        // [4.1.5] Wholesaler Bills
+        wholesalerPaid = totals.get(FinancialSummary.WHOLESALER_PAID);
+        cardsPanel.add(createTotalsCard("Wholesaler", new String[]{"Total Bill: %.2f", "Amount Paid: %.2f"},
+            new double[]{totals.get(FinancialSummary.WHOLESALER_BILL), wholesalerPaid}));
+
+        // [4.1.6] Shop Balance
+        totalShopBalance = totals.get(FinancialSummary.SHOP_BALANCE);
+
+        // Update Labels
+        shopBalanceLabel.setText(String.format("Shop Balance: %.2f", totalShopBalance));
+        totalProfitLabel.setText(String.format("Total Net Profit: %.2f", totalProfit));
+        capitalLabel.setText(String.format("Capital: %.2f", totalShopBalance + totalStockAmount));
     }
 
     // ===================================================================
@@ -367,26 +330,7 @@ public class BillDetailsDAO {
 
     // [5.1] Update shop balance with validation
     private void updateShopBalance(Connection conn, double amount, String description, LocalDate date) throws SQLException {
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            double currentBalance = sum(conn, "SELECT SUM(shopAmount) as totalShopAmount FROM shop_amount");
-
-            if (currentBalance + amount < 0) {
-                throw new SQLException("Insufficient shop balance for " + description);
-            }
-
-            String insertSql = "INSERT INTO shop_amount (shopAmount, amountDate, shop_description) VALUES (?, ?, ?)";
-            pstmt = conn.prepareStatement(insertSql);
-            pstmt.setDouble(1, amount);
-            pstmt.setObject(2, date);
-            pstmt.setString(3, description);
-            if (pstmt.executeUpdate() == 0) {
-                throw new SQLException("Failed to update shop balance for " + description);
-            }
-        } finally {
-            closeStmtRs(rs, pstmt);
-        }
+        ShopLedger.record(conn, amount, date, description);
     }
 
     // [5.2] Overloaded version with current date
@@ -797,16 +797,20 @@ public class BillDetailsForm extends JPanel {
 		return null;
 	}
 
+	// Both queries run off the EDT; a newer load supersedes one still running
 	private void loadData() {
-		try {
-			billDetailsList = billDetailsDAO.loadBillDetails();
-			double shopBalance = billDetailsDAO.getShopBalance();
-			shopBalanceLabel.setText(String.format("Shop Balance: %.2f", shopBalance));
+		DbExecutor.submit(this, "bills", billDetailsDAO::loadBillDetails, bills -> {
+			billDetailsList = bills;
 			updateCards();
-		} catch (SQLException ex) {
-			JOptionPane.showMessageDialog(this, "Error loading data: " + ex.getMessage(), "Error",
-					JOptionPane.ERROR_MESSAGE);
-		}
+		}, this::showLoadError);
+		DbExecutor.submit(this, "balance", billDetailsDAO::getShopBalance,
+				shopBalance -> shopBalanceLabel.setText(String.format("Shop Balance: %.2f", shopBalance)),
+				this::showLoadError);
+	}
+
+	private void showLoadError(Exception ex) {
+		JOptionPane.showMessageDialog(this, "Error loading data: " + ex.getMessage(), "Error",
+				JOptionPane.ERROR_MESSAGE);
 	}
 
 	private void updateCards() {
@@ -45,6 +45,9 @@ public class CustomerFormActions {
         // 1.6 Generate Individual Bill PDF
         formUI.getIndividualBillButton().addActionListener(e -> formDB.generateIndividualBillPDF(e));
 
+        // 1.6.1 Generate All Bills of the Day
+        formUI.getDayBillsButton().addActionListener(e -> formDB.generateDayBillsPDF(e));
+
         // 1.7 Pay Pending Amount
         formUI.getPayPendingButton().addActionListener(e -> formDB.payPendingAmount(e));
 
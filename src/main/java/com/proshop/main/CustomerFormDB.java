@@ -7,6 +7,7 @@ import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -19,7 +20,10 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import javax.swing.JButton;
@@ -45,6 +49,7 @@ public class CustomerFormDB {
     private final CustomerFormUI formUI;
     private final CustomerFormPDF formPDF;
     private final GymWholesalerDAO dao; // DAO instance
+    private LocalDate tableDay; // Day the table shows; null after View All
 
     // ========================================================================
     // 0. CONSTRUCTOR & INITIALIZATION
@@ -90,47 +95,28 @@ public class CustomerFormDB {
             return;
         }
 
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT DISTINCT productName FROM stock WHERE LOWER(productName) LIKE ? AND quantity > 0 ORDER BY productName";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, "%" + currentInput.toLowerCase() + "%");
-            rs = pstmt.executeQuery();
+        List<String> matches = ProductCatalog.suggest(currentInput, true);
 
-            List<String> matches = new ArrayList<>();
-            while (rs.next()) {
-                matches.add(rs.getString("productName"));
-            }
+        JComboBox<String> combo = formUI.getProductNameComboBox();
+        combo.removeAllItems();
+        combo.addItem("");
+        matches.forEach(combo::addItem);
 
-            JComboBox<String> combo = formUI.getProductNameComboBox();
-            combo.removeAllItems();
-            combo.addItem("");
-            matches.forEach(combo::addItem);
-
-            String exactMatch = matches.stream()
-                    .filter(m -> m.equalsIgnoreCase(currentInput))
-                    .findFirst()
-                    .orElse(null);
-
-            if (exactMatch != null) {
-                combo.setSelectedItem(exactMatch);
-                loadPricesForProduct(exactMatch);
-                updateBuyingPriceComboBox();
-                combo.getEditor().setItem(currentInput); // Preserve typed text
-            } else {
-                combo.getEditor().setItem(currentInput);
-                if (!matches.isEmpty()) {
-                    combo.showPopup();
-                }
+        String exactMatch = matches.stream()
+                .filter(m -> m.equalsIgnoreCase(currentInput))
+                .findFirst()
+                .orElse(null);
+
+        if (exactMatch != null) {
+            combo.setSelectedItem(exactMatch);
+            loadPricesForProduct(exactMatch);
+            updateBuyingPriceComboBox();
+            combo.getEditor().setItem(currentInput); // Preserve typed text
+        } else {
+            combo.getEditor().setItem(currentInput);
+            if (!matches.isEmpty()) {
+                combo.showPopup();
             }
-
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Auto-fill error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
     }
 
@@ -189,53 +175,72 @@ public class CustomerFormDB {
         }
     }
 
-    private void rollback(Connection conn, String msg) {
+    private static void rollbackQuietly(Connection conn) {
         if (conn != null) {
             try { conn.rollback(); } catch (SQLException ignored) {}
-            JOptionPane.showMessageDialog(form, msg, "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
-    // ========================================================================
-    // STOCK: GET productId FROM stock
-    // ========================================================================
-    private Long getProductId(Connection conn, String productName) throws SQLException {
-        String sql = "SELECT DISTINCT productId FROM stock WHERE LOWER(productName) = LOWER(?) LIMIT 1";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, productName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() ? rs.getLong("productId") : null;
-            }
-        }
+    private void showDatabaseError(Exception ex) {
+        String prefix = ex instanceof SQLException ? "Database error: " : "Error: ";
+        JOptionPane.showMessageDialog(form, prefix + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
     }
 
     // ========================================================================
     // PRODUCT NAMES & PRICES FROM stock ONLY
     // ========================================================================
-    public void loadProductNames() {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
+    // Filled by warmProductPrices() when the Dashboard prefetches this screen;
+    // the first loadProductNames() takes it instead of querying again.
+    private static volatile Map<String, List<Double>> warmedPrices;
+
+    /** Loads the in-stock product prices for the next form built. Call off the EDT. */
+    public static void warmProductPrices() {
         try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT DISTINCT productName FROM stock WHERE quantity > 0 ORDER BY productName";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
+            warmedPrices = readProductPrices();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error loading product prices: " + ex.getMessage(), ex);
+        }
+    }
 
-            formUI.getProductNameComboBox().removeAllItems();
-            formUI.getProductPriceMap().clear();
-            formUI.getProductNameComboBox().addItem("");
+    public void loadProductNames() {
+        Map<String, List<Double>> warmed = warmedPrices;
+        warmedPrices = null;
+        if (warmed != null) {
+            showProductNames(warmed);
+            return;
+        }
+        DbExecutor.submit(form, "product-names", CustomerFormDB::readProductPrices, this::showProductNames,
+                ex -> JOptionPane.showMessageDialog(form, "Error loading product prices: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
 
+    // In-stock product name -> its distinct per-piece rates, one query for all products
+    private static Map<String, List<Double>> readProductPrices() throws SQLException {
+        Map<String, List<Double>> byLowerName = new HashMap<>();
+        String sql = "SELECT DISTINCT LOWER(productName) AS name_lc, perPieceRate FROM stock WHERE quantity > 0 ORDER BY perPieceRate";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
-                String name = rs.getString("productName");
-                formUI.getProductNameComboBox().addItem(name);
-                loadPricesForProduct(name);
+                byLowerName.computeIfAbsent(rs.getString("name_lc"), k -> new ArrayList<>()).add(rs.getDouble("perPieceRate"));
             }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading products: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
+        Map<String, List<Double>> prices = new LinkedHashMap<>();
+        for (String name : ProductCatalog.names(true)) {
+            List<Double> rates = byLowerName.get(name.toLowerCase());
+            prices.put(name, rates == null ? List.of(0.0) : rates);
+        }
+        return prices;
+    }
+
+    private void showProductNames(Map<String, List<Double>> prices) {
+        formUI.getProductNameComboBox().removeAllItems();
+        formUI.getProductPriceMap().clear();
+        formUI.getProductNameComboBox().addItem("");
+
+        prices.forEach((name, rates) -> {
+            formUI.getProductNameComboBox().addItem(name);
+            formUI.getProductPriceMap().put(name, rates);
+        });
     }
 
     private void loadPricesForProduct(String productName) {
@@ -309,41 +314,23 @@ public class CustomerFormDB {
             return;
         }
 
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT DISTINCT productName FROM stock WHERE LOWER(productName) LIKE ? AND quantity > 0 ORDER BY productName";
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, "%" + input.toLowerCase() + "%");
-            rs = pstmt.executeQuery();
+        formUI.getProductNameComboBox().removeAllItems();
+        formUI.getProductNameComboBox().addItem("");
+        List<String> matches = ProductCatalog.suggest(input, true);
+        matches.forEach(formUI.getProductNameComboBox()::addItem);
 
-            formUI.getProductNameComboBox().removeAllItems();
-            formUI.getProductNameComboBox().addItem("");
-            List<String> matches = new ArrayList<>();
-            while (rs.next()) {
-                matches.add(rs.getString("productName"));
-            }
-            matches.forEach(formUI.getProductNameComboBox()::addItem);
-
-            String exact = matches.stream()
-                    .filter(m -> m.equalsIgnoreCase(input))
-                    .findFirst()
-                    .orElse(null);
-
-            if (exact != null) {
-                formUI.getProductNameComboBox().setSelectedItem(exact);
-                loadPricesForProduct(exact);
-                updateBuyingPriceComboBox();
-            } else {
-                formUI.getProductNameComboBox().setSelectedItem(input);
-                formUI.getProductNameComboBox().showPopup();
-            }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Auto-fill error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
+        String exact = matches.stream()
+                .filter(m -> m.equalsIgnoreCase(input))
+                .findFirst()
+                .orElse(null);
+
+        if (exact != null) {
+            formUI.getProductNameComboBox().setSelectedItem(exact);
+            loadPricesForProduct(exact);
+            updateBuyingPriceComboBox();
+        } else {
+            formUI.getProductNameComboBox().setSelectedItem(input);
+            formUI.getProductNameComboBox().showPopup();
         }
     }
 
@@ -351,23 +338,41 @@ public class CustomerFormDB {
     // CRUD: addCustomer, updateCustomer, deleteCustomer
     // ========================================================================
     public void addCustomer(ActionEvent e) {
-        Connection conn = null;
+        Customer c;
         try {
-            Customer c = createCustomerFromFields();
-            if (!validateCustomer(c)) return;
+            c = createCustomerFromFields();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(form, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!validateCustomer(c)) return;
+
+        // The stock check and insert run off the EDT; the result is an error
+        // message for the user, or null once the sale is committed
+        DbExecutor.submit(form, null, () -> insertCustomer(c), error -> {
+            if (error == null) {
+                refreshUI();
+                JOptionPane.showMessageDialog(form, "Customer added!", "Success", JOptionPane.INFORMATION_MESSAGE);
+            } else if (!error.isEmpty()) {
+                JOptionPane.showMessageDialog(form, error, "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, ex -> JOptionPane.showMessageDialog(form, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
 
+    private String insertCustomer(Customer c) throws SQLException {
+        Connection conn = null;
+        try {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
             if (c.getQuantity() > 0) {
                 int avail = dao.getStockQuantityByPrice(c.getProductName(), c.getBuyingPrice());
                 if (avail < c.getQuantity()) {
-                    JOptionPane.showMessageDialog(form, "Not enough stock at ₹" + c.getBuyingPrice() + "!", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
+                    return "Not enough stock at ₹" + c.getBuyingPrice() + "!";
                 }
-                if (!updateStockQuantity(conn, c.getProductName(), c.getBuyingPrice(), c.getQuantity())) {
+                if (!StockLedger.reserve(conn, c.getProductName().trim(), BigDecimal.valueOf(c.getBuyingPrice()), c.getQuantity())) {
                     conn.rollback();
-                    return;
+                    return "";
                 }
             }
 
@@ -381,11 +386,11 @@ public class CustomerFormDB {
                     }
                 }
                 conn.commit();
-                refreshUI();
-                JOptionPane.showMessageDialog(form, "Customer added!", "Success", JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (Exception ex) {
-            rollback(conn, ex.getMessage());
+            return null;
+        } catch (SQLException | RuntimeException ex) {
+            rollbackQuietly(conn);
+            throw ex;
         } finally {
             closeConnection(conn);
         }
@@ -397,13 +402,46 @@ public class CustomerFormDB {
             JOptionPane.showMessageDialog(form, "Please select a customer to update.", "Warning", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        Connection conn = null;
+        Long customerId;
+        Customer newCustomer;
         try {
             int modelRow = formUI.getCustomerTable().convertRowIndexToModel(selectedRow);
-            Long customerId = Long.parseLong(formUI.getTableModel().getValueAt(modelRow, 0).toString());
-            Customer newCustomer = createCustomerFromFields();
-            if (!validateCustomer(newCustomer)) return;
+            customerId = Long.parseLong(formUI.getTableModel().getValueAt(modelRow, 0).toString());
+            newCustomer = createCustomerFromFields();
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(form, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (!validateCustomer(newCustomer)) return;
+
+        // Stock is checked first so the low-stock question is asked on the EDT,
+        // before the transaction opens; the update itself then runs off the EDT
+        int newQty = newCustomer.getQuantity();
+        DbExecutor.submit(form, null,
+                () -> newQty > 0 ? dao.getStockQuantityByPrice(newCustomer.getProductName(), newCustomer.getBuyingPrice()) : 0,
+                available -> {
+                    if (newQty > 0 && available < newQty) {
+                        int confirm = JOptionPane.showConfirmDialog(form,
+                                "Only " + available + " units available at ₹" + newCustomer.getBuyingPrice() + ". Proceed?", "Low Stock",
+                                JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                        if (confirm != JOptionPane.YES_OPTION) return;
+                    }
+                    DbExecutor.submit(form, null, () -> saveCustomerUpdate(customerId, newCustomer), error -> {
+                        if (error == null) {
+                            refreshUI();
+                            JOptionPane.showMessageDialog(form, "Customer updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(form, error, "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }, this::showDatabaseError);
+                }, this::showDatabaseError);
+    }
 
+    // Runs on a DbExecutor thread; returns an error message for the user, or
+    // null once the update is committed
+    private String saveCustomerUpdate(Long customerId, Customer newCustomer) throws SQLException {
+        Connection conn = null;
+        try {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
@@ -423,30 +461,15 @@ public class CustomerFormDB {
 
             // RESTORE OLD STOCK
             if (oldQuantity > 0) {
-                if (!updateStockQuantity(conn, oldProductName, oldBuyingPrice, -oldQuantity)) {
-                    conn.rollback();
-                    JOptionPane.showMessageDialog(form, "Failed to restore old stock", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
+                StockLedger.release(conn, oldProductName.trim(), BigDecimal.valueOf(oldBuyingPrice), oldQuantity);
             }
 
             // DEDUCT NEW STOCK
             int newQty = newCustomer.getQuantity();
             if (newQty > 0) {
-                int available = dao.getStockQuantityByPrice(newCustomer.getProductName(), newCustomer.getBuyingPrice());
-                if (available < newQty) {
-                    int confirm = JOptionPane.showConfirmDialog(form,
-                            "Only " + available + " units available at ₹" + newCustomer.getBuyingPrice() + ". Proceed?", "Low Stock",
-                            JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
-                    if (confirm != JOptionPane.YES_OPTION) {
-                        conn.rollback();
-                        return;
-                    }
-                }
-                if (!updateStockQuantity(conn, newCustomer.getProductName(), newCustomer.getBuyingPrice(), newQty)) {
+                if (!StockLedger.reserve(conn, newCustomer.getProductName().trim(), BigDecimal.valueOf(newCustomer.getBuyingPrice()), newQty)) {
                     conn.rollback();
-                    JOptionPane.showMessageDialog(form, "Failed to deduct new stock", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
+                    return "Failed to deduct new stock";
                 }
             }
 
@@ -471,12 +494,10 @@ public class CustomerFormDB {
             }
 
             conn.commit();
-            refreshUI();
-            JOptionPane.showMessageDialog(form, "Customer updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-        } catch (SQLException ex) {
-            rollback(conn, "Database error: " + ex.getMessage());
-        } catch (Exception ex) {
-            rollback(conn, "Error: " + ex.getMessage());
+            return null;
+        } catch (SQLException | RuntimeException ex) {
+            rollbackQuietly(conn);
+            throw ex;
         } finally {
             closeConnection(conn);
         }
@@ -492,24 +513,32 @@ public class CustomerFormDB {
                 "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
         if (confirm != JOptionPane.YES_OPTION) return;
 
+        int modelRow = formUI.getCustomerTable().convertRowIndexToModel(selectedRow);
+        Long customerId = Long.parseLong(formUI.getTableModel().getValueAt(modelRow, 0).toString());
+        String productName = (String) formUI.getTableModel().getValueAt(modelRow, 2);
+        int quantity = Integer.parseInt(formUI.getTableModel().getValueAt(modelRow, 3).toString());
+        double buyingPrice = Double.parseDouble(formUI.getTableModel().getValueAt(modelRow, 4).toString());
+        double amountPaid = Double.parseDouble(formUI.getTableModel().getValueAt(modelRow, 12).toString());
+
+        DbExecutor.submit(form, null, () -> {
+            removeCustomer(customerId, productName, quantity, buyingPrice, amountPaid);
+            return null;
+        }, done -> {
+            refreshUI();
+            JOptionPane.showMessageDialog(form, "Customer deleted & stock restored!", "Success", JOptionPane.INFORMATION_MESSAGE);
+        }, this::showDatabaseError);
+    }
+
+    // Runs on a DbExecutor thread
+    private void removeCustomer(Long customerId, String productName, int quantity, double buyingPrice, double amountPaid)
+            throws SQLException {
         Connection conn = null;
         try {
-            int modelRow = formUI.getCustomerTable().convertRowIndexToModel(selectedRow);
-            Long customerId = Long.parseLong(formUI.getTableModel().getValueAt(modelRow, 0).toString());
-            String productName = (String) formUI.getTableModel().getValueAt(modelRow, 2);
-            int quantity = Integer.parseInt(formUI.getTableModel().getValueAt(modelRow, 3).toString());
-            double buyingPrice = Double.parseDouble(formUI.getTableModel().getValueAt(modelRow, 4).toString());
-            double amountPaid = Double.parseDouble(formUI.getTableModel().getValueAt(modelRow, 12).toString());
-
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
             if (quantity > 0) {
-                if (!updateStockQuantity(conn, productName, buyingPrice, -quantity)) {
-                    conn.rollback();
-                    JOptionPane.showMessageDialog(form, "Failed to restore stock", "Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
+                StockLedger.release(conn, productName.trim(), BigDecimal.valueOf(buyingPrice), quantity);
             }
 
             try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM payment_history WHERE customer_id = ?")) {
@@ -525,10 +554,9 @@ public class CustomerFormDB {
             }
 
             conn.commit();
-            refreshUI();
-            JOptionPane.showMessageDialog(form, "Customer deleted & stock restored!", "Success", JOptionPane.INFORMATION_MESSAGE);
-        } catch (SQLException ex) {
-            rollback(conn, "Database error: " + ex.getMessage());
+        } catch (SQLException | RuntimeException ex) {
+            rollbackQuietly(conn);
+            throw ex;
         } finally {
             closeConnection(conn);
         }
@@ -616,39 +644,51 @@ public class CustomerFormDB {
                     return;
                 }
                 LocalDate localDate = paymentDate.toInstant().atZone(ZoneId.of("Asia/Kolkata")).toLocalDate();
-                Connection conn = null;
-                try {
-                    conn = DBUtil.getConnection();
-                    conn.setAutoCommit(false);
-                    insertPayment(conn, id, amountToPay, localDate, (String) paymentModeComboBox.getSelectedItem());
-                    double newAmountPaid = currentAmountPaid + amountToPay;
-                    double newPendingAmount = pendingAmount - amountToPay;
-                    String newStatus = newPendingAmount <= 0 ? "Paid" : "Pending";
-                    double newNetProfit = newAmountPaid - (buyingPrice * quantity);
-                    String sql = "UPDATE customer SET amount_paid = ?, payment_date = ?, pending_amount = ?, status = ?, netProfit = ? WHERE id = ?";
-                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                        pstmt.setDouble(1, newAmountPaid);
-                        pstmt.setDate(2, java.sql.Date.valueOf(localDate));
-                        pstmt.setDouble(3, newPendingAmount);
-                        pstmt.setString(4, newStatus);
-                        pstmt.setDouble(5, newNetProfit);
-                        pstmt.setLong(6, id);
-                        pstmt.executeUpdate();
-                    }
-                    conn.commit();
+                String paymentMode = (String) paymentModeComboBox.getSelectedItem();
+                double newAmountPaid = currentAmountPaid + amountToPay;
+                double newPendingAmount = pendingAmount - amountToPay;
+                double newNetProfit = newAmountPaid - (buyingPrice * quantity);
+                DbExecutor.submit(form, null, () -> {
+                    recordPendingPayment(id, amountToPay, localDate, paymentMode, newAmountPaid, newPendingAmount, newNetProfit);
+                    return null;
+                }, done -> {
                     refreshUI();
                     JOptionPane.showMessageDialog(form, "Payment recorded!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                } catch (SQLException ex) {
-                    rollback(conn, "Database error: " + ex.getMessage());
-                } finally {
-                    closeConnection(conn);
-                }
+                }, this::showDatabaseError);
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(form, "Invalid amount.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
 
+    // Runs on a DbExecutor thread
+    private void recordPendingPayment(Long id, double amountToPay, LocalDate localDate, String paymentMode,
+            double newAmountPaid, double newPendingAmount, double newNetProfit) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+            insertPayment(conn, id, amountToPay, localDate, paymentMode);
+            String newStatus = newPendingAmount <= 0 ? "Paid" : "Pending";
+            String sql = "UPDATE customer SET amount_paid = ?, payment_date = ?, pending_amount = ?, status = ?, netProfit = ? WHERE id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setDouble(1, newAmountPaid);
+                pstmt.setDate(2, java.sql.Date.valueOf(localDate));
+                pstmt.setDouble(3, newPendingAmount);
+                pstmt.setString(4, newStatus);
+                pstmt.setDouble(5, newNetProfit);
+                pstmt.setLong(6, id);
+                pstmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            rollbackQuietly(conn);
+            throw ex;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
     // ========================================================================
     // UI & DATA HANDLING
     // ========================================================================
@@ -840,80 +880,58 @@ public class CustomerFormDB {
     // 7. TABLE DATA & FILTERING
     // ========================================================================
     public void loadTableData() {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT * FROM customer WHERE DATE(date) = ?";
-            pstmt = conn.prepareStatement(sql);
-            Date tableDate = formUI.getTableDateChooser().getDate();
-            pstmt.setDate(1, tableDate != null ? new java.sql.Date(tableDate.getTime())
-                    : java.sql.Date.valueOf(LocalDate.now()));
-            rs = pstmt.executeQuery();
-            DefaultTableModel model = formUI.getTableModel();
-            model.setRowCount(0);
-            List<Object[]> rows = new ArrayList<>();
-            while (rs.next()) {
-                double buyingPrice = rs.getDouble("buyingPrice");
-                int quantity = rs.getInt("quantity");
-                double amountPaid = rs.getDouble("amount_paid");
-                double netProfit = amountPaid - (buyingPrice * quantity);
-                rows.add(new Object[] {
-                    rs.getLong("id"), rs.getString("customerName"), rs.getString("productName"),
-                    quantity, String.format("%.2f", buyingPrice),
-                    String.format("%.2f", rs.getDouble("sellingPrice")),
-                    String.format("%.2f", rs.getDouble("totalAmount")),
-                    String.format("%.2f", rs.getDouble("finalBill")), String.format("%.2f", netProfit),
-                    rs.getString("paymentMode"), rs.getString("status"), rs.getString("mobileNo"),
-                    String.format("%.2f", amountPaid), rs.getObject("payment_date", LocalDate.class),
-                    String.format("%.2f", rs.getDouble("pending_amount"))
-                });
-            }
-            rows.forEach(model::addRow);
-            formUI.updateSummaryLabels();
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading table data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
-        }
+        Date tableDate = formUI.getTableDateChooser().getDate();
+        java.sql.Date day = tableDate != null ? new java.sql.Date(tableDate.getTime()) : java.sql.Date.valueOf(LocalDate.now());
+        tableDay = day.toLocalDate();
+        DbExecutor.submit(form, "table", () -> readCustomerRows("SELECT * FROM customer WHERE DATE(date) = ?", day),
+                this::showCustomerRows,
+                ex -> JOptionPane.showMessageDialog(form, "Error loading table data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     public void viewAllData(ActionEvent e) {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT * FROM customer ORDER BY date DESC";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
-            DefaultTableModel model = formUI.getTableModel();
-            model.setRowCount(0);
-            List<Object[]> rows = new ArrayList<>();
-            while (rs.next()) {
-                double buyingPrice = rs.getDouble("buyingPrice");
-                int quantity = rs.getInt("quantity");
-                double amountPaid = rs.getDouble("amount_paid");
-                double netProfit = amountPaid - (buyingPrice * quantity);
-                rows.add(new Object[] {
-                    rs.getLong("id"), rs.getString("customerName"), rs.getString("productName"),
-                    quantity, String.format("%.2f", buyingPrice),
-                    String.format("%.2f", rs.getDouble("sellingPrice")),
-                    String.format("%.2f", rs.getDouble("totalAmount")),
-                    String.format("%.2f", rs.getDouble("finalBill")), String.format("%.2f", netProfit),
-                    rs.getString("paymentMode"), rs.getString("status"), rs.getString("mobileNo"),
-                    String.format("%.2f", amountPaid), rs.getObject("payment_date", LocalDate.class),
-                    String.format("%.2f", rs.getDouble("pending_amount"))
-                });
+        tableDay = null;
+        DbExecutor.submit(form, "table", () -> readCustomerRows("SELECT * FROM customer ORDER BY date DESC", null),
+                this::showCustomerRows,
+                ex -> JOptionPane.showMessageDialog(form, "Error loading all data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // Runs on a DbExecutor thread; builds the table rows without touching Swing
+    private List<Object[]> readCustomerRows(String sql, java.sql.Date day) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (day != null) pstmt.setDate(1, day);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(customerRow(rs));
+                }
             }
-            rows.forEach(model::addRow);
-            formUI.updateSummaryLabels();
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading all data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
+        return rows;
+    }
+
+    /** One customer table row, also used by {@link CustomerReportWriter}. */
+    static Object[] customerRow(ResultSet rs) throws SQLException {
+        double buyingPrice = rs.getDouble("buyingPrice");
+        int quantity = rs.getInt("quantity");
+        double amountPaid = rs.getDouble("amount_paid");
+        double netProfit = amountPaid - (buyingPrice * quantity);
+        return new Object[] {
+            rs.getLong("id"), rs.getString("customerName"), rs.getString("productName"),
+            quantity, String.format("%.2f", buyingPrice),
+            String.format("%.2f", rs.getDouble("sellingPrice")),
+            String.format("%.2f", rs.getDouble("totalAmount")),
+            String.format("%.2f", rs.getDouble("finalBill")), String.format("%.2f", netProfit),
+            rs.getString("paymentMode"), rs.getString("status"), rs.getString("mobileNo"),
+            String.format("%.2f", amountPaid), rs.getObject("payment_date", LocalDate.class),
+            String.format("%.2f", rs.getDouble("pending_amount"))
+        };
+    }
+
+    private void showCustomerRows(List<Object[]> rows) {
+        DefaultTableModel model = formUI.getTableModel();
+        model.setRowCount(0);
+        rows.forEach(model::addRow);
+        formUI.updateSummaryLabels();
     }
 
     public void filterTable() {
@@ -968,70 +986,59 @@ public class CustomerFormDB {
         int modelRow = formUI.getCustomerTable().convertRowIndexToModel(selectedRow);
         Long customerId = Long.parseLong(formUI.getTableModel().getValueAt(modelRow, 0).toString());
         String customerName = (String) formUI.getTableModel().getValueAt(modelRow, 1);
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT amount_paid, payment_date, payment_mode FROM payment_history WHERE customer_id = ? ORDER BY payment_date DESC";
-            pstmt = conn.prepareStatement(sql);
+        DbExecutor.submit(form, "payment-history", () -> readPaymentHistory(customerId),
+                rows -> showPaymentHistory(customerName, rows),
+                ex -> JOptionPane.showMessageDialog(form, "Error loading payment history: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // Runs on a DbExecutor thread
+    private static List<Object[]> readPaymentHistory(Long customerId) throws SQLException {
+        String sql = "SELECT amount_paid, payment_date, payment_mode FROM payment_history WHERE customer_id = ? ORDER BY payment_date DESC";
+        List<Object[]> rows = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setLong(1, customerId);
-            rs = pstmt.executeQuery();
-            String[] columnNames = { "Amount Paid", "Payment Date", "Payment Mode" };
-            DefaultTableModel paymentTableModel = new DefaultTableModel(columnNames, 0);
-            List<Object[]> rows = new ArrayList<>();
-            while (rs.next()) {
-                rows.add(new Object[] {
-                    String.format("%.2f", rs.getDouble("amount_paid")),
-                    rs.getObject("payment_date", LocalDate.class),
-                    rs.getString("payment_mode")
-                });
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Object[] {
+                        String.format("%.2f", rs.getDouble("amount_paid")),
+                        rs.getObject("payment_date", LocalDate.class),
+                        rs.getString("payment_mode")
+                    });
+                }
             }
-            rows.forEach(paymentTableModel::addRow);
-            JTable paymentTable = new JTable(paymentTableModel);
-            JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(form),
-                    "Payment History for " + customerName, true);
-            dialog.setLayout(new BorderLayout());
-            dialog.setSize(500, 300);
-            dialog.setLocationRelativeTo(form);
-            dialog.add(new JScrollPane(paymentTable), BorderLayout.CENTER);
-            JButton closeButton = new JButton("Close");
-            closeButton.addActionListener(eve -> dialog.dispose());
-            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-            buttonPanel.add(closeButton);
-            dialog.add(buttonPanel, BorderLayout.SOUTH);
-            dialog.setVisible(true);
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading payment history: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
+        return rows;
     }
 
+    private void showPaymentHistory(String customerName, List<Object[]> rows) {
+        String[] columnNames = { "Amount Paid", "Payment Date", "Payment Mode" };
+        DefaultTableModel paymentTableModel = new DefaultTableModel(columnNames, 0);
+        rows.forEach(paymentTableModel::addRow);
+        JTable paymentTable = new JTable(paymentTableModel);
+        JDialog dialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(form),
+                "Payment History for " + customerName, true);
+        dialog.setLayout(new BorderLayout());
+        dialog.setSize(500, 300);
+        dialog.setLocationRelativeTo(form);
+        dialog.add(new JScrollPane(paymentTable), BorderLayout.CENTER);
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(eve -> dialog.dispose());
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.add(closeButton);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+
+    // Report periods are read from the sales_daily rollup (SalesRollup), which
+    // covers retail and gym sales; no report scans the sale tables.
+    private static final String[] REPORT_COLUMNS = { "Retail Sales", "Gym Sales", "Total Sales", "Total Profit" };
+
     public void showMonthlyReport(ActionEvent e) {
         JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
         JLabel yearLabel = new JLabel("Select Year:");
         JComboBox<Integer> yearComboBox = new JComboBox<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT DISTINCT YEAR(date) AS year FROM customer ORDER BY year DESC";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
-            while (rs.next()) {
-                yearComboBox.addItem(rs.getInt("year"));
-            }
-            if (yearComboBox.getItemCount() == 0) {
-                yearComboBox.addItem(LocalDate.now().getYear());
-            }
-            yearComboBox.setSelectedIndex(0);
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading years: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        if (!loadReportYears(yearComboBox)) {
             return;
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
         panel.add(yearLabel); panel.add(yearComboBox);
         int result = JOptionPane.showConfirmDialog(form, panel, "Select Year for Monthly Report",
@@ -1043,45 +1050,20 @@ public class CustomerFormDB {
                 return;
             }
             try {
-                conn = DBUtil.getConnection();
-                String sql = "SELECT MONTH(date) AS month, SUM(finalBill) AS total_sales, SUM(netProfit) AS total_profit FROM customer WHERE YEAR(date) = ? GROUP BY MONTH(date) ORDER BY month";
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, selectedYear);
-                rs = pstmt.executeQuery();
-                String[] columnNames = { "Month", "Total Sales", "Total Profit" };
-                DefaultTableModel reportTableModel = new DefaultTableModel(columnNames, 0);
-                DecimalFormat df = new DecimalFormat("#,##0.00");
+                SalesRollup.Totals[] months = SalesRollup.byMonth(selectedYear);
                 String[] monthNames = { "January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December" };
-                double[] sales = new double[12]; double[] profits = new double[12];
-                while (rs.next()) {
-                    int month = rs.getInt("month") - 1;
-                    sales[month] = rs.getDouble("total_sales");
-                    profits[month] = rs.getDouble("total_profit");
-                }
-                List<Object[]> reportRows = new ArrayList<>();
+                DefaultTableModel reportTableModel = reportModel("Month");
+                SalesRollup.Totals year = new SalesRollup.Totals();
                 for (int i = 0; i < 12; i++) {
-                    if (sales[i] > 0 || profits[i] != 0) {
-                        reportRows.add(new Object[] { monthNames[i], df.format(sales[i]), df.format(profits[i]) });
+                    if (!months[i].isEmpty()) {
+                        reportTableModel.addRow(reportRow(monthNames[i], months[i]));
+                        year.add(months[i]);
                     }
                 }
-                reportRows.forEach(reportTableModel::addRow);
-                JTable reportTable = new JTable(reportTableModel);
-                JDialog reportDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(form),
-                        "Monthly Sales & Profit Report - " + selectedYear, true);
-                reportDialog.setLayout(new BorderLayout());
-                reportDialog.setSize(450, 400);
-                reportDialog.setLocationRelativeTo(form);
-                reportDialog.add(new JScrollPane(reportTable), BorderLayout.CENTER);
-                JButton closeButton = new JButton("Close");
-                closeButton.addActionListener(ev -> reportDialog.dispose());
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-                buttonPanel.add(closeButton);
-                reportDialog.add(buttonPanel, BorderLayout.SOUTH);
-                reportDialog.setVisible(true);
+                reportTableModel.addRow(reportRow("Year " + selectedYear, year));
+                showReportDialog("Monthly Sales & Profit Report - " + selectedYear, reportTableModel);
             } catch (SQLException ex) {
                 JOptionPane.showMessageDialog(form, "Error generating report: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            } finally {
-                closeResources(rs, pstmt, conn);
             }
         }
     }
@@ -1092,30 +1074,12 @@ public class CustomerFormDB {
         JComboBox<Integer> yearComboBox = new JComboBox<>();
         JLabel monthLabel = new JLabel("Select Month:");
         JComboBox<String> monthComboBox = new JComboBox<>();
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            String sql = "SELECT DISTINCT YEAR(date) AS year FROM customer ORDER BY year DESC";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
-            while (rs.next()) {
-                yearComboBox.addItem(rs.getInt("year"));
-            }
-            if (yearComboBox.getItemCount() == 0) {
-                yearComboBox.addItem(LocalDate.now().getYear());
-            }
-            yearComboBox.setSelectedIndex(0);
-            String[] months = { "JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY", "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER" };
-            for (String month : months) monthComboBox.addItem(month);
-            monthComboBox.setSelectedItem("JULY");
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(form, "Error loading years: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        if (!loadReportYears(yearComboBox)) {
             return;
-        } finally {
-            closeResources(rs, pstmt, conn);
         }
+        String[] months = { "JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY", "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER" };
+        for (String month : months) monthComboBox.addItem(month);
+        monthComboBox.setSelectedItem("JULY");
         panel.add(yearLabel); panel.add(yearComboBox);
         panel.add(monthLabel); panel.add(monthComboBox);
         int result = JOptionPane.showConfirmDialog(form, panel, "Select Year and Month for Weekly Report",
@@ -1128,32 +1092,14 @@ public class CustomerFormDB {
                 return;
             }
             try {
-                conn = DBUtil.getConnection();
-                int monthNumber = Arrays.asList("JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY",
-                        "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER").indexOf(selectedMonth.toUpperCase()) + 1;
-                String sql = "SELECT DAY(date) AS day, SUM(finalBill) AS total_sales, SUM(netProfit) AS total_profit "
-                        + "FROM customer WHERE YEAR(date) = ? AND MONTH(date) = ? GROUP BY DAY(date) ORDER BY day";
-                pstmt = conn.prepareStatement(sql);
-                pstmt.setInt(1, selectedYear);
-                pstmt.setInt(2, monthNumber);
-                rs = pstmt.executeQuery();
-                DecimalFormat df = new DecimalFormat("#,##0.00");
-                double[] sales = new double[32]; double[] profits = new double[32];
-                while (rs.next()) {
-                    int day = rs.getInt("day");
-                    sales[day] = rs.getDouble("total_sales");
-                    profits[day] = rs.getDouble("total_profit");
-                }
-                int daysInMonth = YearMonth.of(selectedYear, monthNumber).lengthOfMonth();
-                double[] weeklySales = new double[5]; double[] weeklyProfits = new double[5];
+                int monthNumber = Arrays.asList(months).indexOf(selectedMonth.toUpperCase()) + 1;
+                SalesRollup.Totals[] days = SalesRollup.byDay(YearMonth.of(selectedYear, monthNumber));
+                int daysInMonth = days.length;
+                SalesRollup.Totals[] weeks = new SalesRollup.Totals[5];
+                for (int i = 0; i < weeks.length; i++) weeks[i] = new SalesRollup.Totals();
                 for (int day = 1; day <= daysInMonth; day++) {
-                    if (sales[day] > 0 || profits[day] > 0) {
-                        int rangeIndex = getRangeIndexForDay(day, daysInMonth);
-                        weeklySales[rangeIndex] += sales[day];
-                        weeklyProfits[rangeIndex] += profits[day];
-                    }
+                    weeks[getRangeIndexForDay(day, daysInMonth)].add(days[day - 1]);
                 }
-                List<Object[]> reportRows = new ArrayList<>();
                 String[] rangeLabels = {
                     selectedMonth.toUpperCase() + ": 1-7",
                     selectedMonth.toUpperCase() + ": 8-14",
@@ -1161,35 +1107,63 @@ public class CustomerFormDB {
                     selectedMonth.toUpperCase() + ": 22-27",
                     selectedMonth.toUpperCase() + ": 28-" + (daysInMonth >= 30 ? "30/31" : "28")
                 };
+                DefaultTableModel reportTableModel = reportModel("Date Range");
                 for (int i = 0; i < 5; i++) {
-                    if (weeklySales[i] > 0 || weeklyProfits[i] > 0) {
-                        reportRows.add(new Object[] { rangeLabels[i], df.format(weeklySales[i]), df.format(weeklyProfits[i]) });
+                    if (!weeks[i].isEmpty()) {
+                        reportTableModel.addRow(reportRow(rangeLabels[i], weeks[i]));
                     }
                 }
-                String[] columnNames = { "Date Range", "Total Sales", "Total Profit" };
-                DefaultTableModel reportTableModel = new DefaultTableModel(columnNames, 0);
-                reportRows.forEach(reportTableModel::addRow);
-                JTable reportTable = new JTable(reportTableModel);
-                JDialog reportDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(form),
-                        "Weekly Sales & Profit Report - " + selectedYear + " " + selectedMonth, true);
-                reportDialog.setLayout(new BorderLayout());
-                reportDialog.setSize(450, 400);
-                reportDialog.setLocationRelativeTo(form);
-                reportDialog.add(new JScrollPane(reportTable), BorderLayout.CENTER);
-                JButton closeButton = new JButton("Close");
-                closeButton.addActionListener(ev -> reportDialog.dispose());
-                JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
-                buttonPanel.add(closeButton);
-                reportDialog.add(buttonPanel, BorderLayout.SOUTH);
-                reportDialog.setVisible(true);
+                showReportDialog("Weekly Sales & Profit Report - " + selectedYear + " " + selectedMonth, reportTableModel);
             } catch (SQLException ex) {
                 JOptionPane.showMessageDialog(form, "Error generating weekly report: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            } finally {
-                closeResources(rs, pstmt, conn);
             }
         }
     }
 
+    private boolean loadReportYears(JComboBox<Integer> yearComboBox) {
+        try {
+            for (Integer year : SalesRollup.years()) {
+                yearComboBox.addItem(year);
+            }
+        } catch (SQLException ex) {
+            JOptionPane.showMessageDialog(form, "Error loading years: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if (yearComboBox.getItemCount() == 0) {
+            yearComboBox.addItem(LocalDate.now().getYear());
+        }
+        yearComboBox.setSelectedIndex(0);
+        return true;
+    }
+
+    private static DefaultTableModel reportModel(String periodColumn) {
+        String[] columnNames = new String[REPORT_COLUMNS.length + 1];
+        columnNames[0] = periodColumn;
+        System.arraycopy(REPORT_COLUMNS, 0, columnNames, 1, REPORT_COLUMNS.length);
+        return new DefaultTableModel(columnNames, 0);
+    }
+
+    private static Object[] reportRow(String period, SalesRollup.Totals totals) {
+        DecimalFormat df = new DecimalFormat("#,##0.00");
+        return new Object[] { period, df.format(totals.getRetailSales()), df.format(totals.getGymSales()),
+                df.format(totals.getSales()), df.format(totals.getProfit()) };
+    }
+
+    private void showReportDialog(String title, DefaultTableModel reportTableModel) {
+        JTable reportTable = new JTable(reportTableModel);
+        JDialog reportDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(form), title, true);
+        reportDialog.setLayout(new BorderLayout());
+        reportDialog.setSize(650, 400);
+        reportDialog.setLocationRelativeTo(form);
+        reportDialog.add(new JScrollPane(reportTable), BorderLayout.CENTER);
+        JButton closeButton = new JButton("Close");
+        closeButton.addActionListener(ev -> reportDialog.dispose());
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.add(closeButton);
+        reportDialog.add(buttonPanel, BorderLayout.SOUTH);
+        reportDialog.setVisible(true);
+    }
+
     private int getRangeIndexForDay(int day, int daysInMonth) {
         if (day <= 7) return 0;
         if (day <= 14) return 1;
@@ -1198,69 +1172,23 @@ public class CustomerFormDB {
         return 4;
     }
 
+    // Exports the rows the table shows: the loaded day (or all) narrowed by the search filter
     public void generatePDF(ActionEvent e) {
-        formPDF.generatePDF(e);
+        formPDF.generatePDF(new CustomerReportWriter.Criteria(tableDay, formUI.getSearchField().getText(),
+                toLocalDate(formUI.getStartDateChooser().getDate()), toLocalDate(formUI.getEndDateChooser().getDate())));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        // The choosers may hold a java.sql.Date, which does not support toInstant()
+        return date == null ? null : new java.sql.Date(date.getTime()).toLocalDate();
     }
 
     public void generateIndividualBillPDF(ActionEvent e) {
         formPDF.generateIndividualBillPDF(e);
     }
 
-    // ========================================================================
-    // STOCK UPDATE (EXACTLY LIKE GymWholesalerDAO)
-    // ========================================================================
-    private boolean updateStockQuantity(Connection conn, String productName, double price, double qtyChange) throws SQLException {
-        boolean deduct = qtyChange > 0;
-        double qty = Math.abs(qtyChange);
-        String name = productName.trim();
-
-        if (deduct) {
-            String sel = "SELECT id, quantity FROM stock WHERE LOWER(productName) = LOWER(?) AND perPieceRate = ? AND quantity > 0 ORDER BY id FOR UPDATE";
-            List<long[]> updates = new ArrayList<>();
-            try (PreparedStatement ps = conn.prepareStatement(sel)) {
-                ps.setString(1, name);
-                ps.setDouble(2, price);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next() && qty > 0) {
-                        long id = rs.getLong("id");
-                        double cur = rs.getDouble("quantity");
-                        double take = Math.min(cur, qty);
-                        updates.add(new long[]{id, (long) take});
-                        qty -= take;
-                    }
-                }
-            }
-            if (qty > 0) return false;
-
-            String upd = "UPDATE stock SET quantity = quantity - ?, totalAmount = (quantity - ?) * perPieceRate WHERE id = ?";
-            for (long[] u : updates) {
-                try (PreparedStatement ps = conn.prepareStatement(upd)) {
-                    ps.setLong(1, u[1]);
-                    ps.setLong(2, u[1]);
-                    ps.setLong(3, u[0]);
-                    ps.executeUpdate();
-                }
-            }
-            return true;
-        } else if (qty > 0) {
-            String ins = "INSERT INTO stock (productId, productName, perPieceRate, quantity, totalAmount, purchaseDate) VALUES (?, ?, ?, 1, ?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(ins)) {
-                java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
-                Long productId = getProductId(conn, name);
-                if (productId == null) productId = 1L;
-
-                for (int i = 0; i < (int) qty; i++) {
-                    ps.setLong(1, productId);
-                    ps.setString(2, name);
-                    ps.setDouble(3, price);
-                    ps.setDouble(4, price);
-                    ps.setDate(5, today);
-                    ps.addBatch();
-                }
-                int[] res = ps.executeBatch();
-                return Arrays.stream(res).allMatch(r -> r >= 0);
-            }
-        }
-        return true;
+    // Bills of the loaded day; today's after View All
+    public void generateDayBillsPDF(ActionEvent e) {
+        formPDF.generateDayBillsPDF(tableDay != null ? tableDay : LocalDate.now());
     }
 }
\ No newline at end of file
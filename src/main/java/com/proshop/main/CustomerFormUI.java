@@ -44,7 +44,7 @@ public class CustomerFormUI {
     private JTextField searchField;
     private JButton addButton, updateButton, refreshButton, backButton, pdfButton, individualBillButton,
             payPendingButton, viewPaymentsButton, monthlyReportButton, weeklyReportButton, minimizeButton,
-            maximizeButton, prevDateButton, nextDateButton, viewAllDataButton, deleteButton;
+            maximizeButton, prevDateButton, nextDateButton, viewAllDataButton, deleteButton, dayBillsButton;
     private JPopupMenu customerPopupMenu;
     private JLabel statusLabel, timestampLabel, stockQuantityLabel;
     private JLabel totalSalesLabel, netProfitLabel, totalPendingsLabel;
@@ -219,6 +219,7 @@ public class CustomerFormUI {
         backButton = createGrayStyledButton("BACK");
         pdfButton = createGrayStyledButton("PDF");
         individualBillButton = createGrayStyledButton("BILL PDF");
+        dayBillsButton = createGrayStyledButton("DAY BILLS");
         payPendingButton = createGrayStyledButton("PAY PENDING");
         viewPaymentsButton = createGrayStyledButton("VIEW PAYMENTS");
         monthlyReportButton = createGrayStyledButton("MONTHLY REPORT");
@@ -353,6 +354,7 @@ public class CustomerFormUI {
         gbc.gridx = 0; gbc.gridy = 4; buttonPanel.add(viewAllDataButton, gbc);
         gbc.gridx = 1; buttonPanel.add(deleteButton, gbc);
         gbc.gridx = 0; gbc.gridy = 5; buttonPanel.add(backButton, gbc);
+        gbc.gridx = 1; buttonPanel.add(dayBillsButton, gbc);
         gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2; buttonPanel.add(statusLabel, gbc);
 
         return buttonPanel;
@@ -470,6 +472,7 @@ public class CustomerFormUI {
     public JButton getBackButton() { return backButton; }
     public JButton getPdfButton() { return pdfButton; }
     public JButton getIndividualBillButton() { return individualBillButton; }
+    public JButton getDayBillsButton() { return dayBillsButton; }
     public JButton getPayPendingButton() { return payPendingButton; }
     public JButton getViewPaymentsButton() { return viewPaymentsButton; }
     public JButton getMonthlyReportButton() { return monthlyReportButton; }
@@ -0,0 +1,214 @@
+package com.proshop.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.logging.Logger;
+
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Writes the customer report PDF straight from the database.
+ *
+ * Rows are read with a streaming cursor and added to an iText large table,
+ * which is flushed to the file every {@link #FLUSH_ROWS} rows. Only one chunk
+ * of rows and cells is in memory at a time, so a year of sales needs no more
+ * heap than a day. Call off the EDT.
+ */
+public final class CustomerReportWriter {
+    private static final Logger LOGGER = Logger.getLogger(CustomerReportWriter.class.getName());
+
+    static final int FLUSH_ROWS = 200;
+
+    private static final String[] HEADERS = {
+        "ID", "Customer Name", "Product Name", "Quantity", "Buying Price", "Selling Price",
+        "Total Amount", "Final Bill", "Net Profit", "Payment Mode", "Status",
+        "Mobile No", "Amount Paid", "Payment Date", "Pending Amount"
+    };
+
+    private static final String COLUMNS = "id, customerName, productName, quantity, buyingPrice, sellingPrice, "
+            + "totalAmount, finalBill, paymentMode, status, mobileNo, amount_paid, payment_date, pending_amount";
+
+    private CustomerReportWriter() {
+    }
+
+    /** Told how far the export has got; returns false to cancel it. */
+    public interface Progress {
+        boolean update(long written, long total);
+    }
+
+    /**
+     * Which customer rows to export: the same rows the customer table shows
+     * for a given load and filter.
+     */
+    public static final class Criteria {
+        private final LocalDate day;
+        private final String searchText;
+        private final LocalDate paymentFrom;
+        private final LocalDate paymentTo;
+
+        /**
+         * @param day         sale date of the rows, or null for all rows
+         * @param searchText  part of the customer name or mobile number, or empty
+         * @param paymentFrom first payment date, inclusive; ignored unless both dates are set
+         * @param paymentTo   last payment date, inclusive
+         */
+        public Criteria(LocalDate day, String searchText, LocalDate paymentFrom, LocalDate paymentTo) {
+            this.day = day;
+            this.searchText = searchText == null ? "" : searchText.trim().toLowerCase();
+            boolean range = paymentFrom != null && paymentTo != null;
+            this.paymentFrom = range ? paymentFrom : null;
+            this.paymentTo = range ? paymentTo : null;
+        }
+
+        String where() {
+            StringBuilder sql = new StringBuilder(" WHERE 1=1");
+            if (day != null) sql.append(" AND date = ?");
+            if (!searchText.isEmpty()) sql.append(" AND (LOWER(customerName) LIKE ? OR LOWER(mobileNo) LIKE ?)");
+            if (paymentFrom != null) sql.append(" AND payment_date BETWEEN ? AND ?");
+            return sql.toString();
+        }
+
+        // Same order as the table loads: a day in insertion order, everything newest first
+        String orderBy() {
+            return day != null ? " ORDER BY id" : " ORDER BY date DESC, id";
+        }
+
+        void bind(PreparedStatement ps) throws SQLException {
+            int i = 1;
+            if (day != null) ps.setDate(i++, Date.valueOf(day));
+            if (!searchText.isEmpty()) {
+                String pattern = "%" + searchText.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+                ps.setString(i++, pattern);
+                ps.setString(i++, pattern);
+            }
+            if (paymentFrom != null) {
+                ps.setDate(i++, Date.valueOf(paymentFrom));
+                ps.setDate(i++, Date.valueOf(paymentTo));
+            }
+        }
+    }
+
+    // ===== WRITE =====
+    /**
+     * Writes every row matching {@code criteria} to {@code file}.
+     *
+     * @return number of rows written
+     * @throws CancellationException if {@code progress} cancelled the export;
+     *                               the partial file is deleted
+     */
+    public static long write(Criteria criteria, File file, Progress progress) throws SQLException, IOException {
+        try (Connection conn = DBUtil.getConnection()) {
+            long total = count(conn, criteria);
+            if (!progress.update(0, total)) throw new CancellationException();
+
+            Document doc = new Document(new PdfDocument(new PdfWriter(file)));
+            boolean finished = false;
+            try {
+                long written = writeTable(conn, criteria, doc, total, progress);
+                finished = true;
+                return written;
+            } finally {
+                try {
+                    doc.close();
+                } catch (RuntimeException ex) {
+                    if (finished) throw ex;
+                    LOGGER.fine(() -> "Closing abandoned report: " + ex.getMessage());
+                }
+                if (!finished) Files.deleteIfExists(file.toPath());
+            }
+        }
+    }
+
+    private static long count(Connection conn, Criteria criteria) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM customer" + criteria.where())) {
+            criteria.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static long writeTable(Connection conn, Criteria criteria, Document doc, long total, Progress progress)
+            throws SQLException, IOException {
+        doc.setMargins(10, 10, 10, 10); // Tight margins to fit table
+        PdfFont font = PdfFontFactory.createFont("Helvetica");
+        PdfFont fontBold = PdfFontFactory.createFont("Helvetica-Bold");
+
+        doc.add(new Paragraph("Customer Report")
+            .setFont(fontBold)
+            .setFontSize(10)
+            .setTextAlignment(TextAlignment.CENTER)
+            .setMarginBottom(5));
+
+        float[] columnWidths = new float[HEADERS.length];
+        Arrays.fill(columnWidths, 2f);
+        Table table = new Table(UnitValue.createPercentArray(columnWidths), true);
+        table.setWidth(UnitValue.createPercentValue(100));
+        for (String header : HEADERS) {
+            table.addHeaderCell(cell(header, font));
+        }
+        // A large table is laid out as it is flushed; it must be added first
+        doc.add(table);
+
+        String sql = "SELECT " + COLUMNS + " FROM customer" + criteria.where() + criteria.orderBy();
+        long written = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Connector/J streams the result row by row instead of buffering it
+            ps.setFetchSize(Integer.MIN_VALUE);
+            criteria.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    for (Object value : CustomerFormDB.customerRow(rs)) {
+                        table.addCell(cell(text(value), font));
+                    }
+                    if (++written % FLUSH_ROWS == 0) {
+                        table.flush();
+                        if (!progress.update(written, total)) {
+                            // Closing a streamed result reads it to the end; stop the query first
+                            ps.cancel();
+                            throw new CancellationException();
+                        }
+                    }
+                }
+            }
+        }
+        table.complete();
+        progress.update(written, Math.max(total, written));
+        return written;
+    }
+
+    private static Cell cell(String text, PdfFont font) {
+        return new Cell()
+            .setFont(font)
+            .setFontSize(8)
+            .setTextAlignment(TextAlignment.CENTER)
+            .add(new Paragraph(text));
+    }
+
+    private static String text(Object value) {
+        if (value == null) return "";
+        if (value instanceof LocalDate) return ((LocalDate) value).format(DateTimeFormatter.ISO_LOCAL_DATE);
+        return value.toString();
+    }
+}
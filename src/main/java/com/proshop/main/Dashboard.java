@@ -3,18 +3,12 @@ package com.proshop.main;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
-import com.proshop.connection.DBUtil;
-
 public class Dashboard extends JFrame {
 
     private static final long serialVersionUID = 1L;
@@ -40,6 +34,19 @@ public class Dashboard extends JFrame {
     private boolean isSidebarVisible = true;
     private int sidebarWidth = 250;
     private Timer slideTimer;
+    private final Map<String, JLabel> statValueLabels = new HashMap<>();
+    private ScreenRegistry screens;
+
+    // ====================== METRICS ======================
+    private static final String STAT_CUSTOMERS    = "Customers Connected";
+    private static final String STAT_STOCK        = "Products in Stock";
+    private static final String STAT_WHOLESALERS  = "Wholesalers";
+    private static final String STAT_SALES        = "Total Sales";
+    private static final String STAT_PROFIT       = "Total Profit";
+    private static final String STAT_SOLD_QTY     = "Total Sold Quantity";
+    private static final String STAT_SALES_AMOUNT = "Total Sales Amount";
+    private static final String STAT_NET_PROFIT   = "Total Net Profit";
+    private final DashboardMetricsService metricsService = new DashboardMetricsService();
 
     // ====================== CONSTRUCTOR ======================
     public Dashboard() {
@@ -47,6 +54,13 @@ public class Dashboard extends JFrame {
         setupLayout();
         setupKeyboardShortcuts();
         showWelcomePanel();
+        metricsService.start(this::applyMetrics);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                screens.prefetch(ScreenRegistry.prefetchList("CUSTOMER,STOCK"));
+            }
+        });
     }
 
     // ====================== INITIALIZATION ======================
@@ -75,13 +89,17 @@ public class Dashboard extends JFrame {
         panel.setLayout(cardLayout);
         panel.setBackground(BACKGROUND_COLOR);
 
+        // Only the welcome screen is built up front; the rest are built the
+        // first time they are shown (or prefetched once the window is open)
         panel.add(createWelcomePanel(), "WELCOME");
-        panel.add(new CustomerForm(cardLayout, panel), "CUSTOMER");
-        panel.add(new BillDetailsForm(cardLayout, panel), "BILL_DETAILS");
-        panel.add(new GymWholesalerForm(cardLayout, panel), "GYM_WHOLESALER");
-        panel.add(new StockForm(cardLayout, panel), "STOCK");
-        panel.add(new WholesalerForm(cardLayout, panel), "WHOLESALER");
-        panel.add(new SoldStockForm(cardLayout, panel), "SOLD_STOCK");
+        screens = new ScreenRegistry(cardLayout, panel);
+        screens.register("CUSTOMER", CustomerForm::new, CustomerFormDB::warmProductPrices);
+        screens.register("BILL_DETAILS", BillDetailsForm::new);
+        screens.register("GYM_WHOLESALER", GymWholesalerForm::new);
+        screens.register("STOCK", StockForm::new);
+        screens.register("WHOLESALER", WholesalerForm::new);
+        screens.register("SOLD_STOCK", SoldStockForm::new);
+        screens.register("DIAGNOSTICS", DiagnosticsForm::new);
 
         return panel;
     }
@@ -93,7 +111,8 @@ public class Dashboard extends JFrame {
 
         String[][] shortcuts = {
             {"Alt+1", "WELCOME"}, {"Alt+2", "CUSTOMER"}, {"Alt+3", "BILL_DETAILS"},
-            {"Alt+4", "GYM_WHOLESALER"}, {"Alt+5", "STOCK"}, {"Alt+6", "WHOLESALER"}, {"Alt+7", "SOLD_STOCK"}
+            {"Alt+4", "GYM_WHOLESALER"}, {"Alt+5", "STOCK"}, {"Alt+6", "WHOLESALER"}, {"Alt+7", "SOLD_STOCK"},
+            {"Alt+8", "DIAGNOSTICS"}
         };
 
         for (int i = 0; i < shortcuts.length; i++) {
@@ -224,7 +243,8 @@ public class Dashboard extends JFrame {
             {"", "GYM/SHOP CLIENT", "GYM_WHOLESALER"},
             {"", "INVENTORY", "STOCK"},
             {"", "WHOLESALE PURCHASE", "WHOLESALER"},
-            {"", "SOLD STOCK", "SOLD_STOCK"}
+            {"", "SOLD STOCK", "SOLD_STOCK"},
+            {"", "DIAGNOSTICS", "DIAGNOSTICS"}
         };
 
         for (int i = 0; i < navItems.length; i++) {
@@ -367,6 +387,9 @@ public class Dashboard extends JFrame {
             public void actionPerformed(ActionEvent e) {
                 cardLayout.show(mainContentPanel, action);
                 setActiveButton(button);
+                if ("WELCOME".equals(action)) {
+                    metricsService.refreshNow();
+                }
             }
         });
 
@@ -451,23 +474,14 @@ public class Dashboard extends JFrame {
         statsPanel.setOpaque(false);
         statsPanel.setBorder(new EmptyBorder(40, 0, 0, 0));
 
-        long activeCustomers = getActiveCustomers();
-        long productsInStock = getProductsInStock();
-        long totalWholesalers = getTotalWholesalers();
-        double totalSales = getTotalSales();
-        double totalProfit = getTotalProfit();
-        long totalSoldQuantity = getTotalSoldQuantity();
-        double totalSalesAmount = getTotalSalesAmount();
-        double totalNetProfit = getTotalNetProfit();
-
-        statsPanel.add(createStatCard("", "Customers Connected", String.valueOf(activeCustomers), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Products in Stock", String.valueOf(productsInStock), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Wholesalers", String.valueOf(totalWholesalers), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Total Sales", String.format("₹%.2f", totalSales), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Total Profit", String.format("₹%.2f", totalProfit), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Total Sold Quantity", String.valueOf(totalSoldQuantity), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Total Sales Amount", String.format("₹%.2f", totalSalesAmount), SUCCESS_COLOR));
-        statsPanel.add(createStatCard("", "Total Net Profit", String.format("₹%.2f", totalNetProfit), SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_CUSTOMERS, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_STOCK, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_WHOLESALERS, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_SALES, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_PROFIT, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_SOLD_QTY, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_SALES_AMOUNT, SUCCESS_COLOR));
+        statsPanel.add(createStatCard("", STAT_NET_PROFIT, SUCCESS_COLOR));
 
         contentPanel.add(welcomeLabel);
         contentPanel.add(Box.createVerticalStrut(15));
@@ -480,7 +494,7 @@ public class Dashboard extends JFrame {
     }
 
     // ====================== STAT CARD ======================
-    private JPanel createStatCard(String icon, String title, String value, Color valueColor) {
+    private JPanel createStatCard(String icon, String title, Color valueColor) {
         JPanel card = new JPanel() {
             private static final long serialVersionUID = 1L;
             @Override
@@ -513,7 +527,7 @@ public class Dashboard extends JFrame {
         titleLabel.setForeground(new Color(224, 224, 224));
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        JLabel valueLabel = new JLabel(value);
+        JLabel valueLabel = new JLabel("...");
         valueLabel.setFont(new Font("Arial", Font.BOLD, 24));
         valueLabel.setForeground(valueColor);
         valueLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -523,114 +537,27 @@ public class Dashboard extends JFrame {
         card.add(valueLabel);
         card.add(Box.createVerticalGlue());
 
+        statValueLabels.put(title, valueLabel);
         return card;
     }
 
-    // ====================== DATABASE QUERIES ======================
-    private long executeLongQuery(String sql, String errorMessage) {
-        try {
-            Connection conn = DBUtil.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getLong(1);
-            }
-            rs.close();
-            pstmt.close();
-            conn.close();
-        } catch (SQLException ex) {
-            System.err.println(errorMessage + ": " + ex.getMessage());
-        }
-        return 0;
-    }
-
-    private double executeDoubleQuery(String sql, String errorMessage) {
-        try {
-            Connection conn = DBUtil.getConnection();
-            PreparedStatement pstmt = conn.prepareStatement(sql);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble(1);
-            }
-            rs.close();
-            pstmt.close();
-            conn.close();
-        } catch (SQLException ex) {
-            System.err.println(errorMessage + ": " + ex.getMessage());
-        }
-        return 0.0;
-    }
-
-    private double sumDoubleQueries(List<String> queries, String errorMessage) {
-        double sum = 0.0;
-        for (String sql : queries) {
-            sum += executeDoubleQuery(sql, errorMessage);
-        }
-        return sum;
-    }
-
-    private long sumLongQueries(List<String> queries, String errorMessage) {
-        long sum = 0;
-        for (String sql : queries) {
-            sum += executeLongQuery(sql, errorMessage);
-        }
-        return sum;
+    // ====================== METRICS ======================
+    private void applyMetrics(DashboardMetricsService.Snapshot m) {
+        statValueLabels.get(STAT_CUSTOMERS).setText(String.valueOf(m.getActiveCustomers()));
+        statValueLabels.get(STAT_STOCK).setText(String.valueOf(m.getProductsInStock()));
+        statValueLabels.get(STAT_WHOLESALERS).setText(String.valueOf(m.getTotalWholesalers()));
+        statValueLabels.get(STAT_SALES).setText(String.format("₹%.2f", m.getTotalSales()));
+        statValueLabels.get(STAT_PROFIT).setText(String.format("₹%.2f", m.getTotalProfit()));
+        statValueLabels.get(STAT_SOLD_QTY).setText(String.valueOf(m.getTotalSoldQuantity()));
+        statValueLabels.get(STAT_SALES_AMOUNT).setText(String.format("₹%.2f", m.getTotalSalesAmount()));
+        statValueLabels.get(STAT_NET_PROFIT).setText(String.format("₹%.2f", m.getTotalNetProfit()));
     }
 
-    private long getActiveCustomers() {
-        return executeLongQuery("SELECT COUNT(*) FROM customer", "Error fetching active customers");
-    }
-
-    private long getProductsInStock() {
-        return executeLongQuery("SELECT SUM(quantity) FROM stock", "Error fetching products in stock");
-    }
-
-    private long getTotalWholesalers() {
-        return executeLongQuery("SELECT COUNT(*) FROM gym_wholesaler", "Error fetching wholesalers");
-    }
-
-    private double getTotalSales() {
-        List<String> queries = Arrays.asList(
-            "SELECT SUM(productSale) FROM billdetails",
-            "SELECT SUM(finalBill) FROM customer",
-            "SELECT SUM(totalBill + netProfit) FROM gym_wholesaler",
-            "SELECT SUM(productQuantity * sellingPrice) FROM shop_wholesaler"
-        );
-        return sumDoubleQueries(queries, "Error fetching total sales");
-    }
-
-    private double getTotalProfit() {
-        List<String> queries = Arrays.asList(
-            "SELECT SUM(productSale - (rent + lightBill + maintenanceBill + salary + parcelBillAmount + bankEmi + othersAmount)) FROM billdetails",
-            "SELECT SUM(netProfit) FROM customer",
-            "SELECT SUM(netProfit) FROM gym_wholesaler",
-            "SELECT SUM(productQuantity * (sellingPrice - buyingPrice)) FROM shop_wholesaler"
-        );
-        return sumDoubleQueries(queries, "Error fetching total profit");
-    }
-
-    private long getTotalSoldQuantity() {
-        List<String> queries = Arrays.asList(
-            "SELECT SUM(quantity) FROM customer",
-            "SELECT SUM(quantity) FROM gym_wholesaler"
-        );
-        return sumLongQueries(queries, "Error fetching total sold quantity");
-    }
-
-    private double getTotalSalesAmount() {
-        List<String> queries = Arrays.asList(
-            "SELECT SUM(finalBill) FROM customer",
-            "SELECT SUM(totalBill) FROM gym_wholesaler"
-        );
-        return sumDoubleQueries(queries, "Error fetching total sales amount");
-    }
-
-    private double getTotalNetProfit() {
-        List<String> queries = Arrays.asList(
-            "SELECT SUM(netProfit) FROM customer",
-            "SELECT SUM(netProfit) FROM gym_wholesaler"
-        );
-        return sumDoubleQueries(queries, "Error fetching total net profit");
+    @Override
+    public void dispose() {
+        metricsService.stop();
+        screens.shutdown();
+        super.dispose();
     }
 
     // ====================== INNER CLASSES ======================
@@ -645,6 +572,9 @@ public class Dashboard extends JFrame {
         @Override
         public void actionPerformed(ActionEvent e) {
             cardLayout.show(mainContentPanel, panelName);
+            if ("WELCOME".equals(panelName)) {
+                metricsService.refreshNow();
+            }
             Component[] components = sidebarPanel.getComponents();
             for (int i = 0; i < components.length; i++) {
                 if (components[i] instanceof JButton) {
@@ -0,0 +1,177 @@
+package com.proshop.main;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Loads the welcome screen KPIs off the Swing EDT. Every KPI comes from the
+ * running totals in {@link FinancialSummary}, so a refresh is a single small
+ * read. Results are published as an immutable {@link Snapshot} to a listener
+ * that runs on the EDT.
+ *
+ * The refresh interval defaults to 60 seconds and can be changed with the
+ * {@code proshop.dashboard.refreshSeconds} system property (0 disables
+ * periodic refresh).
+ */
+public class DashboardMetricsService {
+    private static final Logger LOGGER = Logger.getLogger(DashboardMetricsService.class.getName());
+
+    private static final long DEFAULT_REFRESH_SECONDS = 60;
+
+    private final ScheduledExecutorService executor;
+    private final long refreshSeconds;
+    private volatile Snapshot latest;
+    private Consumer<Snapshot> listener;
+    private ScheduledFuture<?> schedule;
+
+    public DashboardMetricsService() {
+        this(Long.getLong("proshop.dashboard.refreshSeconds", DEFAULT_REFRESH_SECONDS));
+    }
+
+    public DashboardMetricsService(long refreshSeconds) {
+        this.refreshSeconds = refreshSeconds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "proshop-dashboard-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // ===== START / STOP =====
+    /**
+     * Loads the first snapshot immediately and then every refresh interval.
+     * {@code onUpdate} is always called on the EDT.
+     */
+    public synchronized void start(Consumer<Snapshot> onUpdate) {
+        if (schedule != null) return;
+        listener = onUpdate;
+        if (refreshSeconds > 0) {
+            schedule = executor.scheduleWithFixedDelay(this::refresh, 0, refreshSeconds, TimeUnit.SECONDS);
+        } else {
+            schedule = executor.schedule(this::refresh, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Queues an out-of-band refresh, e.g. after the user saves a sale. */
+    public void refreshNow() {
+        if (!executor.isShutdown()) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /** Most recent snapshot, or null until the first load completes. */
+    public Snapshot getLatest() {
+        return latest;
+    }
+
+    // ===== LOAD =====
+    private void refresh() {
+        Snapshot snapshot;
+        try {
+            snapshot = load();
+        } catch (SQLException ex) {
+            LOGGER.warning("Dashboard metrics refresh failed: " + ex.getMessage());
+            return;
+        }
+        latest = snapshot;
+        Consumer<Snapshot> target;
+        synchronized (this) {
+            target = listener;
+        }
+        if (target != null) {
+            SwingUtilities.invokeLater(() -> target.accept(snapshot));
+        }
+    }
+
+    public static Snapshot load() throws SQLException {
+        FinancialSummary.Totals t = FinancialSummary.read();
+        return new Snapshot(
+                t.getLong(FinancialSummary.CUSTOMER_COUNT),
+                t.getLong(FinancialSummary.STOCK_QTY),
+                t.getLong(FinancialSummary.GYM_COUNT),
+                t.get(FinancialSummary.BILL_SALES) + t.get(FinancialSummary.CUSTOMER_SALES)
+                        + t.get(FinancialSummary.GYM_SALES_WITH_PROFIT) + t.get(FinancialSummary.SHOP_SALES),
+                t.get(FinancialSummary.BILL_PROFIT) + t.get(FinancialSummary.CUSTOMER_PROFIT)
+                        + t.get(FinancialSummary.GYM_PROFIT) + t.get(FinancialSummary.SHOP_PROFIT),
+                t.getLong(FinancialSummary.CUSTOMER_QTY) + t.getLong(FinancialSummary.GYM_QTY),
+                t.get(FinancialSummary.CUSTOMER_SALES) + t.get(FinancialSummary.GYM_SALES),
+                t.get(FinancialSummary.CUSTOMER_PROFIT) + t.get(FinancialSummary.GYM_PROFIT),
+                LocalDateTime.now());
+    }
+
+    // ===== SNAPSHOT =====
+    /** Immutable set of KPI values as of {@link #getLoadedAt()}. */
+    public static final class Snapshot {
+        private final long activeCustomers;
+        private final long productsInStock;
+        private final long totalWholesalers;
+        private final double totalSales;
+        private final double totalProfit;
+        private final long totalSoldQuantity;
+        private final double totalSalesAmount;
+        private final double totalNetProfit;
+        private final LocalDateTime loadedAt;
+
+        Snapshot(long activeCustomers, long productsInStock, long totalWholesalers, double totalSales,
+                 double totalProfit, long totalSoldQuantity, double totalSalesAmount, double totalNetProfit,
+                 LocalDateTime loadedAt) {
+            this.activeCustomers = activeCustomers;
+            this.productsInStock = productsInStock;
+            this.totalWholesalers = totalWholesalers;
+            this.totalSales = totalSales;
+            this.totalProfit = totalProfit;
+            this.totalSoldQuantity = totalSoldQuantity;
+            this.totalSalesAmount = totalSalesAmount;
+            this.totalNetProfit = totalNetProfit;
+            this.loadedAt = loadedAt;
+        }
+
+        public long getActiveCustomers() {
+            return activeCustomers;
+        }
+
+        public long getProductsInStock() {
+            return productsInStock;
+        }
+
+        public long getTotalWholesalers() {
+            return totalWholesalers;
+        }
+
+        public double getTotalSales() {
+            return totalSales;
+        }
+
+        public double getTotalProfit() {
+            return totalProfit;
+        }
+
+        public long getTotalSoldQuantity() {
+            return totalSoldQuantity;
+        }
+
+        public double getTotalSalesAmount() {
+            return totalSalesAmount;
+        }
+
+        public double getTotalNetProfit() {
+            return totalNetProfit;
+        }
+
+        public LocalDateTime getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
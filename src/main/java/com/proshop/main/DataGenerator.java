@@ -0,0 +1,719 @@
+package com.proshop.main;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+import com.proshop.model.Bill;
+import com.proshop.model.Customer;
+import com.proshop.model.GymWholesaler;
+import com.proshop.model.Payment;
+import com.proshop.model.Product;
+import com.proshop.model.WholesalerPurchase;
+
+/**
+ * Fills the shop schema with a synthetic, reproducible dataset for load
+ * testing: a product catalogue with several rates and expiries per product,
+ * wholesaler bills with their products, stock lots and payments, retail and
+ * gym sales, gym payments and {@code shop_amount} ledger entries.
+ *
+ * <ul>
+ * <li>Everything is drawn from one {@link Random} seeded by
+ * {@link Config#seed}, so the same configuration always yields the same
+ * rows.</li>
+ * <li>Product and customer popularity follow a Zipf distribution and sale
+ * dates lean towards the end of the range, like a growing shop.</li>
+ * <li>Rows are built as the model objects the DAOs use and written with
+ * multi-row INSERTs of {@link #ROWS_PER_STATEMENT} rows. The summary triggers
+ * ({@link FinancialSummary}, {@link ShopLedger}, {@link SalesFact},
+ * {@link SalesRollup}) are dropped for the load and reinstalled afterwards,
+ * which rebuilds their tables once instead of firing per row.</li>
+ * </ul>
+ *
+ * Run it against a database nobody else is writing to:
+ * {@code java com.proshop.main.DataGenerator --sales=10000000 --seed=7}.
+ * Stock lots get a random remaining quantity; they are not replayed from the
+ * generated sales.
+ *
+ * A failed run is not rolled back: rows are committed statement by statement,
+ * so everything written before the failure stays and the summaries are
+ * rebuilt over it. Clean it up by hand before running again, by restoring a
+ * backup or emptying {@code wholesaler}, {@code gym_client}, {@code bill},
+ * {@code product}, {@code billproduct}, {@code stock}, {@code payment},
+ * {@code customer}, {@code gym_wholesaler}, {@code wholesaler_payment} and
+ * {@code shop_amount}; without {@code --append} a rerun refuses to start while
+ * any sales are present.
+ */
+public final class DataGenerator {
+	private static final Logger LOGGER = Logger.getLogger(DataGenerator.class.getName());
+
+	static final int ROWS_PER_STATEMENT = 1000;
+
+	private static final String[] TRIGGER_PREFIXES = { "fs", "sb", "sf", "sd" };
+
+	private static final String[] BRANDS = { "Optimum Nutrition", "MuscleBlaze", "MuscleTech", "Dymatize", "BSN",
+			"Myprotein", "GNC", "Ultimate Nutrition", "Labrada", "Avvatar", "Nakpro", "Isopure" };
+	private static final String[] LINES = { "Gold Standard Whey", "Biozyme Whey", "Nitro-Tech", "ISO100",
+			"Syntha-6", "Impact Whey", "Mass Gainer", "Creatine Monohydrate", "Pre-Workout", "BCAA", "Casein",
+			"Isolate", "Raw Whey", "Peanut Butter", "Multivitamin", "Fish Oil" };
+	private static final String[] FLAVOURS = { "Chocolate", "Vanilla", "Strawberry", "Cookies & Cream", "Mango",
+			"Unflavoured", "Coffee", "Banana", "Kesar Pista", "Blue Raspberry" };
+	private static final String[] SIZES = { "250g", "500g", "1kg", "2lb", "4lb", "5lb", "10lb", "60 caps",
+			"120 caps" };
+	private static final String[] FIRST_NAMES = { "Aarav", "Vivaan", "Aditya", "Sai", "Arjun", "Rohan", "Omkar",
+			"Pratik", "Sneha", "Priya", "Pooja", "Sakshi", "Rahul", "Akash", "Nikhil", "Shreya", "Tejas", "Sagar",
+			"Kiran", "Mayur", "Swapnil", "Ankita", "Rutuja", "Vaishnavi" };
+	private static final String[] LAST_NAMES = { "Patil", "Jadhav", "Pawar", "Shinde", "More", "Kadam", "Yadav",
+			"Deshmukh", "Chavan", "Mane", "Salunkhe", "Kulkarni", "Joshi", "Gaikwad", "Sawant", "Bhosale" };
+	private static final String[] TOWNS = { "Karad", "Satara", "Sangli", "Kolhapur", "Pune", "Malkapur", "Patan" };
+	private static final String[] PAYMENT_MODES = { "Cash", "UPI", "Card" };
+
+	private DataGenerator() {
+	}
+
+	/** What to generate. Defaults give about 100k sale lines over three years. */
+	public static final class Config {
+		long seed = 42;
+		long sales = 100_000;
+		double gymShare = 0.3;
+		int products = 2_000;
+		int maxRatesPerProduct = 3;
+		int customers = 5_000;
+		int wholesalers = 30;
+		int gymClients = 200;
+		int salesPerBill = 20;
+		int maxLinesPerBill = 6;
+		double skew = 1.1;
+		LocalDate from = LocalDate.of(2022, 1, 1);
+		LocalDate to = LocalDate.of(2024, 12, 31);
+		boolean append;
+
+		public Config seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/** Retail plus gym sale lines. */
+		public Config sales(long sales) {
+			this.sales = sales;
+			return this;
+		}
+
+		/** Fraction of the sale lines sold to gyms. */
+		public Config gymShare(double gymShare) {
+			this.gymShare = gymShare;
+			return this;
+		}
+
+		public Config products(int products) {
+			this.products = products;
+			return this;
+		}
+
+		public Config customers(int customers) {
+			this.customers = customers;
+			return this;
+		}
+
+		public Config wholesalers(int wholesalers) {
+			this.wholesalers = wholesalers;
+			return this;
+		}
+
+		public Config gymClients(int gymClients) {
+			this.gymClients = gymClients;
+			return this;
+		}
+
+		/** One wholesaler bill per this many sale lines. */
+		public Config salesPerBill(int salesPerBill) {
+			this.salesPerBill = salesPerBill;
+			return this;
+		}
+
+		/** Zipf exponent of product popularity; 0 is uniform. */
+		public Config skew(double skew) {
+			this.skew = skew;
+			return this;
+		}
+
+		public Config dates(LocalDate from, LocalDate to) {
+			this.from = from;
+			this.to = to;
+			return this;
+		}
+
+		/** Add to a database that already has sales instead of refusing. */
+		public Config append(boolean append) {
+			this.append = append;
+			return this;
+		}
+
+		/** Reads {@code --name=value} options; unknown options are an error. */
+		public static Config parse(String[] args) {
+			Config config = new Config();
+			for (String arg : args) {
+				String[] kv = arg.startsWith("--") ? arg.substring(2).split("=", 2) : new String[] { arg };
+				String value = kv.length > 1 ? kv[1] : "";
+				switch (kv[0]) {
+				case "seed": config.seed(Long.parseLong(value)); break;
+				case "sales": config.sales(Long.parseLong(value)); break;
+				case "gym-share": config.gymShare(Double.parseDouble(value)); break;
+				case "products": config.products(Integer.parseInt(value)); break;
+				case "customers": config.customers(Integer.parseInt(value)); break;
+				case "wholesalers": config.wholesalers(Integer.parseInt(value)); break;
+				case "gym-clients": config.gymClients(Integer.parseInt(value)); break;
+				case "sales-per-bill": config.salesPerBill(Integer.parseInt(value)); break;
+				case "skew": config.skew(Double.parseDouble(value)); break;
+				case "from": config.from = LocalDate.parse(value); break;
+				case "to": config.to = LocalDate.parse(value); break;
+				case "append": config.append(true); break;
+				default: throw new IllegalArgumentException("Unknown option: " + arg);
+				}
+			}
+			if (config.from.isAfter(config.to))
+				throw new IllegalArgumentException("--from is after --to");
+			return config;
+		}
+	}
+
+	/** Rows written per table. */
+	public static final class Result {
+		long wholesalers, gymClients, bills, products, stockLots, payments, customerSales, gymSales, gymPayments,
+				shopEntries;
+
+		public long getTotalRows() {
+			return wholesalers + gymClients + bills + 2 * products + stockLots + payments + customerSales + gymSales
+					+ gymPayments + shopEntries;
+		}
+
+		@Override
+		public String toString() {
+			return "wholesalers=" + wholesalers + ", gymClients=" + gymClients + ", bills=" + bills + ", products="
+					+ products + ", stockLots=" + stockLots + ", payments=" + payments + ", customerSales="
+					+ customerSales + ", gymSales=" + gymSales + ", gymPayments=" + gymPayments + ", shopEntries="
+					+ shopEntries;
+		}
+	}
+
+	// One catalogue entry: a name, its purchase rates and the expiry of each rate's lots
+	private static final class Item {
+		final String name;
+		final BigDecimal[] rates;
+		final LocalDate[] expiries;
+
+		Item(String name, BigDecimal[] rates, LocalDate[] expiries) {
+			this.name = name;
+			this.rates = rates;
+			this.expiries = expiries;
+		}
+	}
+
+	// ===== GENERATE =====
+	public static Result generate(Config config) {
+		SchemaMigrations.migrate();
+		try (Connection conn = DBUtil.getConnection()) {
+			if (!config.append && count(conn, "customer") + count(conn, "gym_wholesaler") > 0)
+				throw new IllegalStateException("The database already has sales; pass --append to add to them");
+
+			long started = System.nanoTime();
+			List<String> dropped = dropSummaryTriggers(conn);
+			Result result;
+			try {
+				result = new Run(conn, config).load();
+			} finally {
+				if (!dropped.isEmpty())
+					reinstallSummaries();
+			}
+			StockLedger.forgetProductIds();
+			ProductCatalog.invalidate();
+			LOGGER.info("Generated " + result.getTotalRows() + " rows in "
+					+ (System.nanoTime() - started) / 1_000_000_000 + " s: " + result);
+			return result;
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error generating data: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static long count(Connection conn, String table) throws SQLException {
+		try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+			return rs.next() ? rs.getLong(1) : 0;
+		}
+	}
+
+	private static List<String> dropSummaryTriggers(Connection conn) throws SQLException {
+		List<String> names = new ArrayList<>();
+		StringBuilder sql = new StringBuilder(
+				"SELECT TRIGGER_NAME FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = DATABASE() AND (");
+		for (int i = 0; i < TRIGGER_PREFIXES.length; i++) {
+			sql.append(i > 0 ? " OR " : "").append("TRIGGER_NAME LIKE '").append(TRIGGER_PREFIXES[i]).append("\\_%'");
+		}
+		try (Statement st = conn.createStatement()) {
+			try (ResultSet rs = st.executeQuery(sql.append(')').toString())) {
+				while (rs.next()) {
+					names.add(rs.getString(1));
+				}
+			}
+			for (String name : names) {
+				st.execute("DROP TRIGGER IF EXISTS " + name);
+			}
+		}
+		LOGGER.info("Dropped " + names.size() + " summary triggers for the load");
+		return names;
+	}
+
+	// Each install recreates its missing triggers and rebuilds its table. The
+	// rollup goes last: its triggers sit on sales_fact, which SalesFact refills.
+	private static void reinstallSummaries() {
+		FinancialSummary.install();
+		ShopLedger.install();
+		SalesFact.install();
+		SalesRollup.install();
+	}
+
+	// ===== ONE RUN =====
+	private static final class Run {
+		private final Connection conn;
+		private final Config config;
+		private final Random random;
+		private final Result result = new Result();
+		private final long days;
+		private Item[] catalogue;
+		private double[] productWeights;
+		private double[] customerWeights;
+		private String[] customerNames;
+		private String[] customerMobiles;
+		private long firstWholesaler, firstGymClient;
+
+		Run(Connection conn, Config config) {
+			this.conn = conn;
+			this.config = config;
+			this.random = new Random(config.seed);
+			this.days = ChronoUnit.DAYS.between(config.from, config.to) + 1;
+		}
+
+		// Every multi-row INSERT commits on its own; one transaction over
+		// millions of rows would hold its undo log for the whole load.
+		Result load() throws SQLException {
+			boolean autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(true);
+			try {
+				buildCatalogue();
+				buildCustomers();
+				loadWholesalers();
+				loadGymClients();
+				loadBills();
+				loadCustomerSales();
+				loadGymSales();
+				loadShopLedger();
+				return result;
+			} finally {
+				conn.setAutoCommit(autoCommit);
+			}
+		}
+
+		// ===== REFERENCE DATA =====
+		private void buildCatalogue() {
+			catalogue = new Item[config.products];
+			for (int i = 0; i < catalogue.length; i++) {
+				// Brand and line come from the index so names stay unique; the
+				// suffix only shows once those combinations run out
+				String name = BRANDS[i % BRANDS.length] + " " + LINES[i / BRANDS.length % LINES.length] + " "
+						+ pick(FLAVOURS) + " " + pick(SIZES);
+				if (i >= BRANDS.length * LINES.length)
+					name += " #" + i;
+				int rateCount = 1 + random.nextInt(config.maxRatesPerProduct);
+				BigDecimal base = BigDecimal.valueOf(300 + random.nextInt(60) * 50);
+				BigDecimal[] rates = new BigDecimal[rateCount];
+				LocalDate[] expiries = new LocalDate[rateCount];
+				for (int r = 0; r < rateCount; r++) {
+					rates[r] = base.add(BigDecimal.valueOf(r * 25L)).setScale(2, RoundingMode.HALF_UP);
+					expiries[r] = config.to.plusMonths(3 + random.nextInt(24));
+				}
+				catalogue[i] = new Item(name, rates, expiries);
+			}
+			productWeights = zipf(catalogue.length, config.skew);
+		}
+
+		private void buildCustomers() {
+			customerNames = new String[config.customers];
+			customerMobiles = new String[config.customers];
+			for (int i = 0; i < config.customers; i++) {
+				customerNames[i] = pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+				customerMobiles[i] = mobile(7);
+			}
+			customerWeights = zipf(config.customers, 0.8);
+		}
+
+		private void loadWholesalers() throws SQLException {
+			firstWholesaler = nextId("wholesaler");
+			try (BulkInsert insert = new BulkInsert(conn, "wholesaler", "id", "wholesalerName", "phoneNo", "address")) {
+				for (int i = 0; i < config.wholesalers; i++) {
+					WholesalerPurchase w = new WholesalerPurchase();
+					w.setId(firstWholesaler + i);
+					w.setWholesalerName(pick(BRANDS) + " Distributors " + w.getId());
+					w.setPhoneNo(mobile(9));
+					w.setAddress(pick(TOWNS));
+					insert.add(w.getId(), w.getWholesalerName(), w.getPhoneNo(), w.getAddress());
+				}
+				result.wholesalers = insert.getRows();
+			}
+		}
+
+		private void loadGymClients() throws SQLException {
+			firstGymClient = nextId("gym_client");
+			try (BulkInsert insert = new BulkInsert(conn, "gym_client", "id", "wholesalerName", "mobileNo", "address")) {
+				for (int i = 0; i < config.gymClients; i++) {
+					GymWholesaler client = new GymWholesaler();
+					client.setClientId(firstGymClient + i);
+					// Numbered by id: gym_client names are unique per mobile number and --append adds more
+					client.setWholesalerName(pick(TOWNS) + " Fitness " + client.getClientId());
+					client.setMobileNo(mobile(8));
+					client.setAddress(pick(TOWNS));
+					insert.add(client.getClientId(), client.getWholesalerName(), client.getMobileNo(),
+							client.getAddress());
+				}
+				result.gymClients = insert.getRows();
+			}
+		}
+
+		// ===== PURCHASES =====
+		// Bills with their products, bill links, one stock lot per product and
+		// up to three payments that pay the bill down.
+		private void loadBills() throws SQLException {
+			long bills = Math.max(1, config.sales / config.salesPerBill);
+			long billId = nextId("bill");
+			long productId = nextId("product");
+			long paymentId = nextId("payment");
+			try (BulkInsert billInsert = new BulkInsert(conn, "bill", "id", "date", "shippingCharges", "billAmount",
+					"wholesalerId");
+					BulkInsert productInsert = new BulkInsert(conn, "product", "id", "productName", "quantity",
+							"perPieceRate", "expiry", "total", "wholesalerId");
+					BulkInsert linkInsert = new BulkInsert(conn, "billproduct", "billId", "productId", "quantity");
+					BulkInsert lotInsert = new BulkInsert(conn, "stock", "productName", "quantity", "perPieceRate",
+							"totalAmount", "expiryDate", "purchaseDate", "productId");
+					BulkInsert paymentInsert = new BulkInsert(conn, "payment", "id", "paidAmount", "paidDate",
+							"pendingAmount", "billId")) {
+				for (long b = 0; b < bills; b++) {
+					long wholesalerId = firstWholesaler + random.nextInt(config.wholesalers);
+					Bill bill = new Bill(billId++, uniformDay(), BigDecimal.valueOf(random.nextInt(6) * 100L),
+							BigDecimal.ZERO);
+					int lines = 1 + random.nextInt(config.maxLinesPerBill);
+					BigDecimal total = BigDecimal.ZERO;
+					// Up to maxLinesPerBill distinct products; a repeat just adds another lot
+					for (int l = 0; l < lines; l++) {
+						Item item = catalogue[popular(productWeights)];
+						int rate = random.nextInt(item.rates.length);
+						int quantity = 5 * (1 + random.nextInt(10));
+						Product product = new Product(productId++, item.name, quantity, item.rates[rate],
+								item.expiries[rate], wholesalerId);
+						productInsert.add(product.getId(), product.getProductName(), product.getQuantity(),
+								product.getPerPieceRate(), product.getExpiry(), product.getTotal(),
+								product.getWholesalerId());
+						linkInsert.add(bill.getId(), product.getId(), product.getQuantity());
+						int remaining = random.nextInt(quantity + 1);
+						lotInsert.add(product.getProductName(), remaining, product.getPerPieceRate(),
+								product.getPerPieceRate().multiply(BigDecimal.valueOf(remaining)),
+								product.getExpiry(), bill.getDate(), product.getId());
+						total = total.add(product.getTotal());
+					}
+					bill.setBillAmount(total.add(bill.getShippingCharges()));
+					billInsert.add(bill.getId(), bill.getDate(), bill.getShippingCharges(), bill.getBillAmount(),
+							wholesalerId);
+
+					BigDecimal pending = total;
+					LocalDate paidDate = bill.getDate();
+					int payments = random.nextInt(4);
+					for (int p = 0; p < payments && pending.signum() > 0; p++) {
+						paidDate = paidDate.plusDays(random.nextInt(30));
+						BigDecimal paid = p == payments - 1 ? pending
+								: pending.multiply(BigDecimal.valueOf(20 + random.nextInt(60)))
+										.divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+						pending = pending.subtract(paid);
+						Payment payment = new Payment(paymentId++, bill.getId(), paid, paidDate, pending);
+						paymentInsert.add(payment.getId(), payment.getPaidAmount(), payment.getPaidDate(),
+								payment.getPendingAmount(), payment.getBillId());
+					}
+				}
+				result.bills = billInsert.getRows();
+				result.products = productInsert.getRows();
+				result.stockLots = lotInsert.getRows();
+				result.payments = paymentInsert.getRows();
+			}
+		}
+
+		// ===== SALES =====
+		// A visit buys one to three products on one day; most are paid in full.
+		private void loadCustomerSales() throws SQLException {
+			long lines = Math.round(config.sales * (1 - config.gymShare));
+			try (BulkInsert insert = new BulkInsert(conn, "customer", "customerName", "productName", "quantity",
+					"buyingPrice", "sellingPrice", "totalAmount", "finalBill", "netProfit", "paymentMode", "date",
+					"discount", "status", "mobileNo", "amount_paid", "payment_date", "pending_amount")) {
+				long written = 0;
+				while (written < lines) {
+					int who = popular(customerWeights);
+					Date date = Date.valueOf(growingDay());
+					String mode = pick(PAYMENT_MODES);
+					int visitLines = (int) Math.min(lines - written, 1 + random.nextInt(3));
+					for (int l = 0; l < visitLines; l++) {
+						Item item = catalogue[popular(productWeights)];
+						double buying = item.rates[random.nextInt(item.rates.length)].doubleValue();
+						double selling = markup(buying);
+						int quantity = random.nextInt(10) < 8 ? 1 : 2 + random.nextInt(2);
+						double totalAmount = quantity * selling;
+						double discount = random.nextInt(10) == 0 ? 50 * (1 + random.nextInt(4)) : 0;
+						double finalBill = totalAmount - discount;
+						boolean pending = random.nextInt(12) == 0;
+						double amountPaid = pending ? Math.floor(finalBill * (0.2 + random.nextDouble() * 0.5)) : finalBill;
+
+						Customer c = new Customer(0, customerNames[who], item.name, quantity, buying, selling,
+								totalAmount, amountPaid - buying * quantity, mode, date, discount,
+								pending ? "Pending" : "Paid", customerMobiles[who], finalBill, amountPaid, date,
+								finalBill - amountPaid);
+						insert.add(c.getCustomerName(), c.getProductName(), c.getQuantity(), c.getBuyingPrice(),
+								c.getSellingPrice(), c.getTotalAmount(), c.getFinalBill(), c.getNetProfit(),
+								c.getPaymentMode(), c.getDate(), c.getDiscount(), c.getStatus(), c.getMobileNo(),
+								c.getAmountPaid(), c.getPaymentDate(), c.getPendingAmount());
+					}
+					written += visitLines;
+				}
+				result.customerSales = insert.getRows();
+			}
+		}
+
+		// Gym orders are larger; each client also pays on account about monthly.
+		private void loadGymSales() throws SQLException {
+			long lines = config.sales - Math.round(config.sales * (1 - config.gymShare));
+			double[] clientWeights = zipf(config.gymClients, 0.9);
+			double[] billed = new double[config.gymClients];
+			try (BulkInsert insert = new BulkInsert(conn, "gym_wholesaler", "client_id", "productName", "quantity",
+					"buyingPrice", "sellingPrice", "totalBill", "netProfit", "paymentMode", "dateOfPurchase",
+					"description")) {
+				for (long i = 0; i < lines; i++) {
+					int client = popular(clientWeights);
+					Item item = catalogue[popular(productWeights)];
+					double buying = item.rates[random.nextInt(item.rates.length)].doubleValue();
+					double selling = markup(buying) - 50;
+					int quantity = 2 + random.nextInt(12);
+
+					GymWholesaler line = new GymWholesaler();
+					line.setClientId(firstGymClient + client);
+					line.setProductName(item.name);
+					line.setProductQuantity(quantity);
+					line.setBuyingPrice(buying);
+					line.setSellingPrice(selling);
+					line.setTotalBill(quantity * selling);
+					line.setNetProfit(quantity * (selling - buying));
+					line.setPaymentMode(pick(PAYMENT_MODES));
+					line.setDateOfPurchase(growingDay());
+					insert.add(line.getClientId(), line.getProductName(), line.getProductQuantity(),
+							line.getBuyingPrice(), line.getSellingPrice(), line.getTotalBill(), line.getNetProfit(),
+							line.getPaymentMode(), line.getDateOfPurchase(), line.getDescription());
+					billed[client] += line.getTotalBill();
+				}
+				result.gymSales = insert.getRows();
+			}
+
+			try (BulkInsert insert = new BulkInsert(conn, "wholesaler_payment", "client_id", "paymentMode",
+					"dateOfAmountPaid", "amountPaid", "pendingAmount")) {
+				long months = Math.max(1, days / 30);
+				for (int client = 0; client < config.gymClients; client++) {
+					if (billed[client] == 0)
+						continue;
+					// Clients settle 80-100% of what they bought, spread over the months
+					double owed = billed[client];
+					double instalment = Math.floor(owed * (0.8 + random.nextDouble() * 0.2) / months);
+					for (long m = 0; m < months && instalment > 0; m++) {
+						owed -= instalment;
+						insert.add(firstGymClient + client, pick(PAYMENT_MODES),
+								config.from.plusDays(m * 30 + random.nextInt(30)), instalment, Math.max(0, owed));
+					}
+				}
+				result.gymPayments = insert.getRows();
+			}
+		}
+
+		// ===== LEDGER =====
+		// Each day: the takings paid in, and an expense on about one day in three.
+		private void loadShopLedger() throws SQLException {
+			try (BulkInsert insert = new BulkInsert(conn, "shop_amount", "shopAmount", "amountDate",
+					"shop_description")) {
+				for (long d = 0; d < days; d++) {
+					LocalDate day = config.from.plusDays(d);
+					insert.add(BigDecimal.valueOf(2000 + random.nextInt(400) * 50), day, "Daily sales deposit");
+					if (random.nextInt(3) == 0)
+						insert.add(BigDecimal.valueOf(-(200 + random.nextInt(40) * 50)), day,
+								random.nextBoolean() ? "Shop expenses" : "Parcel charges");
+				}
+				result.shopEntries = insert.getRows();
+			}
+		}
+
+		// ===== RANDOM HELPERS =====
+		private <T> T pick(T[] values) {
+			return values[random.nextInt(values.length)];
+		}
+
+		private String mobile(int prefix) {
+			return prefix + String.format("%09d", random.nextInt(1_000_000_000));
+		}
+
+		private LocalDate uniformDay() {
+			return config.from.plusDays((long) (random.nextDouble() * days));
+		}
+
+		// Density grows linearly over the range, so recent months sell more
+		private LocalDate growingDay() {
+			return config.from.plusDays((long) (Math.sqrt(random.nextDouble()) * days));
+		}
+
+		// 12-35% over the buying rate, rounded to ten rupees
+		private double markup(double buying) {
+			return Math.round(buying * (1.12 + random.nextDouble() * 0.23) / 10) * 10.0;
+		}
+
+		private int popular(double[] cumulative) {
+			int i = Arrays.binarySearch(cumulative, random.nextDouble());
+			return Math.min(i < 0 ? -i - 1 : i, cumulative.length - 1);
+		}
+
+		private long nextId(String table) throws SQLException {
+			try (Statement st = conn.createStatement();
+					ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+				return rs.next() ? rs.getLong(1) : 1;
+			}
+		}
+	}
+
+	// Cumulative Zipf(skew) probabilities over n ranks
+	private static double[] zipf(int n, double skew) {
+		double[] cumulative = new double[Math.max(1, n)];
+		double sum = 0;
+		for (int k = 0; k < cumulative.length; k++) {
+			sum += 1 / Math.pow(k + 1, skew);
+			cumulative[k] = sum;
+		}
+		for (int k = 0; k < cumulative.length; k++) {
+			cumulative[k] /= sum;
+		}
+		return cumulative;
+	}
+
+	// ===== BULK INSERT =====
+	/**
+	 * Buffers rows and writes them as one INSERT of up to
+	 * {@link #ROWS_PER_STATEMENT} rows, which needs no driver option such as
+	 * rewriteBatchedStatements. Commits after every statement so undo stays
+	 * small.
+	 */
+	private static final class BulkInsert implements AutoCloseable {
+		private final Connection conn;
+		private final String prefix;
+		private final String rowPlaceholders;
+		private final int columns;
+		private final List<Object> values = new ArrayList<>();
+		private PreparedStatement full;
+		private long rows;
+
+		BulkInsert(Connection conn, String table, String... columns) {
+			this.conn = conn;
+			this.columns = columns.length;
+			this.prefix = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+			StringBuilder row = new StringBuilder("(");
+			for (int i = 0; i < columns.length; i++) {
+				row.append(i > 0 ? ", ?" : "?");
+			}
+			this.rowPlaceholders = row.append(')').toString();
+		}
+
+		void add(Object... row) throws SQLException {
+			if (row.length != columns)
+				throw new IllegalArgumentException("Expected " + columns + " values, got " + row.length);
+			values.addAll(Arrays.asList(row));
+			if (values.size() == ROWS_PER_STATEMENT * columns)
+				flush();
+		}
+
+		long getRows() {
+			return rows + values.size() / columns;
+		}
+
+		private void flush() throws SQLException {
+			int count = values.size() / columns;
+			if (count == 0)
+				return;
+			if (count == ROWS_PER_STATEMENT) {
+				if (full == null)
+					full = conn.prepareStatement(sql(count));
+				execute(full);
+			} else {
+				try (PreparedStatement ps = conn.prepareStatement(sql(count))) {
+					execute(ps);
+				}
+			}
+			rows += count;
+			values.clear();
+		}
+
+		private void execute(PreparedStatement ps) throws SQLException {
+			for (int i = 0; i < values.size(); i++) {
+				Object value = values.get(i);
+				if (value == null)
+					ps.setNull(i + 1, Types.NULL);
+				else if (value instanceof LocalDate)
+					ps.setDate(i + 1, Date.valueOf((LocalDate) value));
+				else
+					ps.setObject(i + 1, value);
+			}
+			ps.executeUpdate();
+		}
+
+		private String sql(int count) {
+			StringBuilder sql = new StringBuilder(prefix.length() + count * (rowPlaceholders.length() + 2));
+			sql.append(prefix);
+			for (int i = 0; i < count; i++) {
+				sql.append(i > 0 ? ", " : "").append(rowPlaceholders);
+			}
+			return sql.toString();
+		}
+
+		@Override
+		public void close() throws SQLException {
+			try {
+				flush();
+			} finally {
+				if (full != null)
+					full.close();
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		Config config;
+		try {
+			config = Config.parse(args);
+		} catch (IllegalArgumentException ex) {
+			System.err.println(ex.getMessage());
+			System.err.println("Usage: DataGenerator [--sales=N] [--seed=N] [--gym-share=0.3] [--products=N] "
+					+ "[--customers=N] [--wholesalers=N] [--gym-clients=N] [--sales-per-bill=N] [--skew=1.1] "
+					+ "[--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--append]");
+			System.exit(2);
+			return;
+		}
+		System.out.println(generate(config));
+	}
+}
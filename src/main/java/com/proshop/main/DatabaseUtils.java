@@ -9,8 +9,11 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
 
 import com.proshop.connection.DBUtil;
 import com.proshop.model.Bill;
@@ -19,6 +22,8 @@ import com.proshop.model.Product;
 import com.proshop.model.WholesalerPurchase;
 
 public class DatabaseUtils {
+	private static final Logger LOGGER = Logger.getLogger(DatabaseUtils.class.getName());
+
 	public static List<WholesalerPurchase> fetchWholesalers() {
 		List<WholesalerPurchase> wholesalers = new ArrayList<>();
 		Connection conn = null;
@@ -57,6 +62,8 @@ public class DatabaseUtils {
 			int rowsAffected = pstmt.executeUpdate();
 			if (rowsAffected > 0) {
 				conn.commit();
+				// Products of the wholesaler's bills may go with it
+				StockLedger.forgetProductIds();
 			} else {
 				conn.rollback();
 				throw new SQLException("Failed to delete wholesaler.");
@@ -78,9 +85,19 @@ public class DatabaseUtils {
 		}
 	}
 
+	/**
+	 * Every wholesaler with its bills and their products, read in one pass.
+	 * Payments are pre-aggregated per bill in a derived table (total paid and
+	 * the latest pending amount) and bills and products are looked up by id,
+	 * so the cost is linear in the number of rows.
+	 */
 	public static Map<WholesalerPurchase, Map<Bill, List<Product>>> loadWholesalerData() {
 		Map<Long, WholesalerPurchase> wholesalerMap = new HashMap<>();
 		Map<WholesalerPurchase, Map<Bill, List<Product>>> wholesalerData = new HashMap<>();
+		// Bill id -> bill, or null for a bill skipped as invalid
+		Map<Long, Bill> billMap = new HashMap<>();
+		// Bill id -> ids of the products already added to it
+		Map<Long, Set<Long>> billProductIds = new HashMap<>();
 		Connection conn = null;
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
@@ -90,9 +107,12 @@ public class DatabaseUtils {
 					+ "b.id AS billId, b.date, b.shippingCharges, b.billAmount, "
 					+ "p.id AS productId, p.productName, p.quantity, p.perPieceRate, p.expiry, p.total, p.wholesalerId AS productWholesalerId, "
 					+ "bp.quantity AS billProductQuantity, "
-					+ "(SELECT pendingAmount FROM Payment pay WHERE pay.billId = b.id ORDER BY pay.paidDate DESC, pay.id DESC LIMIT 1) AS latestPendingAmount, "
-					+ "(SELECT COALESCE(SUM(pay.paidAmount), 0) FROM Payment pay WHERE pay.billId = b.id) AS totalPaid "
+					+ "pay.pendingAmount AS latestPendingAmount, COALESCE(pay.totalPaid, 0) AS totalPaid "
 					+ "FROM Wholesaler w " + "LEFT JOIN Bill b ON w.id = b.wholesalerId "
+					+ "LEFT JOIN (SELECT billId, pendingAmount, totalPaid FROM ("
+					+ "SELECT billId, pendingAmount, SUM(paidAmount) OVER (PARTITION BY billId) AS totalPaid, "
+					+ "ROW_NUMBER() OVER (PARTITION BY billId ORDER BY paidDate DESC, id DESC) AS rn FROM Payment"
+					+ ") ranked WHERE rn = 1) pay ON pay.billId = b.id "
 					+ "LEFT JOIN BillProduct bp ON b.id = bp.billId "
 					+ "LEFT JOIN Product p ON bp.productId = p.id AND p.wholesalerId = w.id";
 			pstmt = conn.prepareStatement(sql);
@@ -100,77 +120,45 @@ public class DatabaseUtils {
 
 			while (rs.next()) {
 				Long wholesalerId = rs.getLong("wholesalerId");
-				String wholesalerName = rs.getString("wholesalerName");
-				String phoneNo = rs.getString("phoneNo");
-				String address = rs.getString("address");
-
-				WholesalerPurchase wholesaler = wholesalerMap.computeIfAbsent(wholesalerId, k -> {
-					WholesalerPurchase w = new WholesalerPurchase();
-					w.setId(wholesalerId);
-					w.setWholesalerName(wholesalerName);
-					w.setPhoneNo(phoneNo);
-					w.setAddress(address);
-					return w;
-				});
-
-				Map<Bill, List<Product>> billProducts = wholesalerData.computeIfAbsent(wholesaler,
-						k -> new HashMap<>());
-
-				Long billId = rs.getLong("billId");
-				if (billId != null && !rs.wasNull()) {
-					LocalDate date = rs.getObject("date", LocalDate.class);
-					BigDecimal shippingCharges = rs.getBigDecimal("shippingCharges");
-					BigDecimal billAmount = rs.getBigDecimal("billAmount");
-					BigDecimal latestPendingAmount = rs.getBigDecimal("latestPendingAmount");
-					BigDecimal totalPaid = rs.getBigDecimal("totalPaid");
-
-					Bill bill = billProducts.keySet().stream().filter(b -> b.getId().equals(billId)).findFirst()
-							.orElseGet(() -> {
-								try {
-									if (date == null || billAmount == null) {
-										System.err.println("Skipping invalid bill for wholesalerId: " + wholesalerId
-												+ ", billId: " + billId);
-										return null;
-									}
-									Bill newBill = new Bill(billId, date,
-											shippingCharges != null ? shippingCharges : BigDecimal.ZERO, billAmount);
-									newBill.setBillAmount(
-											latestPendingAmount != null ? latestPendingAmount : billAmount);
-									wholesaler.setAmountPaid(wholesaler.getAmountPaid() != null
-											? wholesaler.getAmountPaid().add(totalPaid)
-											: totalPaid);
-									billProducts.put(newBill, new ArrayList<>());
-									return newBill;
-								} catch (RuntimeException ex) {
-									System.err.println("Error creating bill for wholesalerId: " + wholesalerId
-											+ ", billId: " + billId + ": " + ex.getMessage());
-									return null;
-								}
-							});
-
-					if (bill != null) {
-						List<Product> products = billProducts.get(bill);
-
-						Long productId = rs.getLong("productId");
-						if (productId != null && !rs.wasNull()) {
-							String productName = rs.getString("productName");
-							int billProductQuantity = rs.getInt("billProductQuantity");
-							int quantity = rs.getInt("quantity");
-							BigDecimal perPieceRate = rs.getBigDecimal("perPieceRate");
-							LocalDate expiry = rs.getObject("expiry", LocalDate.class);
-							BigDecimal total = rs.getBigDecimal("total");
-							Long productWholesalerId = rs.getLong("productWholesalerId");
-
-							Product product = new Product(productId, productName,
-									billProductQuantity != 0 ? billProductQuantity : quantity, perPieceRate, expiry,
-									productWholesalerId);
-							product.setTotal(total);
-							if (!products.contains(product)) {
-								products.add(product);
-							}
-						}
-					}
+				WholesalerPurchase wholesaler = wholesalerMap.get(wholesalerId);
+				if (wholesaler == null) {
+					wholesaler = new WholesalerPurchase();
+					wholesaler.setId(wholesalerId);
+					wholesaler.setWholesalerName(rs.getString("wholesalerName"));
+					wholesaler.setPhoneNo(rs.getString("phoneNo"));
+					wholesaler.setAddress(rs.getString("address"));
+					wholesalerMap.put(wholesalerId, wholesaler);
+					wholesalerData.put(wholesaler, new HashMap<>());
 				}
+				Map<Bill, List<Product>> billProducts = wholesalerData.get(wholesaler);
+
+				long billId = rs.getLong("billId");
+				if (rs.wasNull())
+					continue;
+
+				Bill bill;
+				if (billMap.containsKey(billId)) {
+					bill = billMap.get(billId);
+				} else {
+					bill = readBill(rs, wholesaler, billId);
+					billMap.put(billId, bill);
+					if (bill != null)
+						billProducts.put(bill, new ArrayList<>());
+				}
+				if (bill == null)
+					continue;
+
+				long productId = rs.getLong("productId");
+				if (rs.wasNull() || !billProductIds.computeIfAbsent(billId, k -> new HashSet<>()).add(productId))
+					continue;
+
+				int billProductQuantity = rs.getInt("billProductQuantity");
+				Product product = new Product(productId, rs.getString("productName"),
+						billProductQuantity != 0 ? billProductQuantity : rs.getInt("quantity"),
+						rs.getBigDecimal("perPieceRate"), rs.getObject("expiry", LocalDate.class),
+						rs.getLong("productWholesalerId"));
+				product.setTotal(rs.getBigDecimal("total"));
+				billProducts.get(bill).add(product);
 			}
 		} catch (SQLException ex) {
 			throw new RuntimeException("Error loading data: " + ex.getMessage(), ex);
@@ -180,6 +168,31 @@ public class DatabaseUtils {
 		return wholesalerData;
 	}
 
+	// First row of a bill: builds it and adds its payments to the wholesaler,
+	// or returns null if the bill is unusable
+	private static Bill readBill(ResultSet rs, WholesalerPurchase wholesaler, long billId) throws SQLException {
+		LocalDate date = rs.getObject("date", LocalDate.class);
+		BigDecimal shippingCharges = rs.getBigDecimal("shippingCharges");
+		BigDecimal billAmount = rs.getBigDecimal("billAmount");
+		BigDecimal latestPendingAmount = rs.getBigDecimal("latestPendingAmount");
+		BigDecimal totalPaid = rs.getBigDecimal("totalPaid");
+		if (date == null || billAmount == null) {
+			System.err.println("Skipping invalid bill for wholesalerId: " + wholesaler.getId() + ", billId: " + billId);
+			return null;
+		}
+		try {
+			Bill bill = new Bill(billId, date, shippingCharges != null ? shippingCharges : BigDecimal.ZERO, billAmount);
+			bill.setBillAmount(latestPendingAmount != null ? latestPendingAmount : billAmount);
+			wholesaler.setAmountPaid(
+					wholesaler.getAmountPaid() != null ? wholesaler.getAmountPaid().add(totalPaid) : totalPaid);
+			return bill;
+		} catch (RuntimeException ex) {
+			System.err.println("Error creating bill for wholesalerId: " + wholesaler.getId() + ", billId: " + billId
+					+ ": " + ex.getMessage());
+			return null;
+		}
+	}
+
 	public static void addWholesaler(WholesalerPurchase wholesaler) {
 		Connection conn = null;
 		PreparedStatement pstmt = null;
@@ -369,7 +382,6 @@ public class DatabaseUtils {
 		PreparedStatement billPstmt = null;
 		PreparedStatement productPstmt = null;
 		PreparedStatement billProductPstmt = null;
-		PreparedStatement stockPstmt = null;
 		ResultSet generatedKeys = null;
 
 		try {
@@ -400,11 +412,8 @@ public class DatabaseUtils {
 			String billProductSql = "INSERT INTO BillProduct (billId, productId, quantity) VALUES (?, ?, ?)";
 			billProductPstmt = conn.prepareStatement(billProductSql);
 
-			String stockSql = "INSERT INTO Stock (productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate, productId) "
-					+ "VALUES (?, 1, ?, ?, ?, ?, ?)";
-			stockPstmt = conn.prepareStatement(stockSql);
-
 			// 3. PROCESS EACH PRODUCT
+			List<StockLedger.Receipt> receipts = new ArrayList<>();
 			for (Product product : products) {
 				// Insert Product (type)
 				productPstmt.setString(1, product.getProductName());
@@ -430,25 +439,16 @@ public class DatabaseUtils {
 				if (billProductPstmt.executeUpdate() == 0)
 					throw new SQLException("Failed to link bill-product.");
 
-				// Insert ONE stock row PER UNIT
-				int qty = product.getQuantity();
+				// Queue the quantity as one stock lot
 				java.sql.Date expirySql = product.getExpiry() != null ? java.sql.Date.valueOf(product.getExpiry())
 						: null;
-				java.sql.Date purchaseSql = java.sql.Date.valueOf(bill.getDate());
-				BigDecimal unitTotal = product.getPerPieceRate();
-
-				for (int i = 0; i < qty; i++) {
-					stockPstmt.setString(1, product.getProductName());
-					stockPstmt.setBigDecimal(2, product.getPerPieceRate());
-					stockPstmt.setBigDecimal(3, unitTotal);
-					stockPstmt.setObject(4, expirySql);
-					stockPstmt.setObject(5, purchaseSql);
-					stockPstmt.setLong(6, productId); // LINK TO PRODUCT
-					if (stockPstmt.executeUpdate() == 0)
-						throw new SQLException("Failed to insert stock unit " + (i + 1));
-				}
+				receipts.add(new StockLedger.Receipt(product.getProductName(), product.getQuantity(),
+						product.getPerPieceRate(), expirySql, java.sql.Date.valueOf(bill.getDate()), productId));
 			}
 
+			// 4. BOOK ALL LOTS IN ONE BATCH
+			StockLedger.receive(conn, receipts);
+
 			conn.commit();
 		} catch (SQLException ex) {
 			try {
@@ -460,8 +460,7 @@ public class DatabaseUtils {
 		} finally {
 			closeResources(generatedKeys, billPstmt, null);
 			closeResources(null, productPstmt, null);
-			closeResources(null, billProductPstmt, null);
-			closeResources(null, stockPstmt, conn);
+			closeResources(null, billProductPstmt, conn);
 			try {
 				if (conn != null)
 					conn.setAutoCommit(true);
@@ -511,7 +510,6 @@ public class DatabaseUtils {
 		Connection conn = null;
 		PreparedStatement productPstmt = null;
 		PreparedStatement deleteStockPstmt = null;
-		PreparedStatement insertStockPstmt = null;
 		PreparedStatement billProductPstmt = null;
 
 		try {
@@ -530,32 +528,16 @@ public class DatabaseUtils {
 			if (productPstmt.executeUpdate() == 0)
 				throw new SQLException("Failed to update product.");
 
-			// 2. DELETE ONLY STOCK UNITS FOR THIS productId
+			// 2. DELETE ONLY STOCK LOTS FOR THIS productId
 			String deleteSql = "DELETE FROM Stock WHERE productId = ?";
 			deleteStockPstmt = conn.prepareStatement(deleteSql);
 			deleteStockPstmt.setLong(1, product.getId());
 			deleteStockPstmt.executeUpdate();
 
-			// 3. RE-INSERT ONE ROW PER UNIT
-			String insertSql = "INSERT INTO Stock (productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate, productId) "
-					+ "VALUES (?, 1, ?, ?, ?, ?, ?)";
-			insertStockPstmt = conn.prepareStatement(insertSql);
-
-			int qty = product.getQuantity();
+			// 3. RE-INSERT AS A SINGLE LOT
 			java.sql.Date expirySql = product.getExpiry() != null ? java.sql.Date.valueOf(product.getExpiry()) : null;
-			java.sql.Date purchaseSql = java.sql.Date.valueOf(bill.getDate());
-			BigDecimal unitTotal = product.getPerPieceRate();
-
-			for (int i = 0; i < qty; i++) {
-				insertStockPstmt.setString(1, product.getProductName());
-				insertStockPstmt.setBigDecimal(2, product.getPerPieceRate());
-				insertStockPstmt.setBigDecimal(3, unitTotal);
-				insertStockPstmt.setObject(4, expirySql);
-				insertStockPstmt.setObject(5, purchaseSql);
-				insertStockPstmt.setLong(6, product.getId());
-				if (insertStockPstmt.executeUpdate() == 0)
-					throw new SQLException("Failed to insert stock unit " + (i + 1));
-			}
+			StockLedger.receive(conn, product.getProductName(), product.getQuantity(), product.getPerPieceRate(),
+					expirySql, java.sql.Date.valueOf(bill.getDate()), product.getId());
 
 			// 4. UPDATE BILL-PRODUCT LINK
 			String bpSql = "UPDATE BillProduct SET quantity = ? WHERE billId = ? AND productId = ?";
@@ -567,6 +549,9 @@ public class DatabaseUtils {
 				throw new SQLException("Failed to update bill-product link.");
 
 			conn.commit();
+			// The product may have been renamed; its old name must not resolve to it
+			StockLedger.forgetProductIds();
+			ProductCatalog.invalidate();
 		} catch (SQLException ex) {
 			try {
 				if (conn != null)
@@ -577,7 +562,6 @@ public class DatabaseUtils {
 		} finally {
 			closeResources(null, productPstmt, null);
 			closeResources(null, deleteStockPstmt, null);
-			closeResources(null, insertStockPstmt, null);
 			closeResources(null, billProductPstmt, conn);
 			try {
 				if (conn != null)
@@ -587,8 +571,9 @@ public class DatabaseUtils {
 		}
 	}
 
+	/** Updates a payment and returns it as now stored. */
 	@SuppressWarnings("resource")
-	public static void updatePayment(Long paymentId, BigDecimal paidAmount, LocalDate paidDate,
+	public static Payment updatePayment(Long paymentId, BigDecimal paidAmount, LocalDate paidDate,
 			BigDecimal currentPendingAmount) {
 		if (paymentId == null || paymentId <= 0) {
 			throw new IllegalArgumentException("Invalid payment ID.");
@@ -643,7 +628,17 @@ public class DatabaseUtils {
 				}
 			}
 
+			Long billId = null;
+			try (PreparedStatement ps = conn.prepareStatement("SELECT billId FROM Payment WHERE id = ?")) {
+				ps.setLong(1, paymentId);
+				try (ResultSet rs = ps.executeQuery()) {
+					if (rs.next())
+						billId = rs.getLong(1);
+				}
+			}
+
 			conn.commit();
+			return new Payment(paymentId, billId, paidAmount, paidDate, newPendingAmount);
 		} catch (SQLException ex) {
 			try {
 				if (conn != null)
@@ -685,7 +680,8 @@ public class DatabaseUtils {
 		}
 	}
 
-	public static void addPayment(Long billId, BigDecimal paidAmount, LocalDate paidDate,
+	/** Records a payment against a bill and returns it with its new id. */
+	public static Payment addPayment(Long billId, BigDecimal paidAmount, LocalDate paidDate,
 			BigDecimal currentPendingAmount) throws SQLException {
 		if (billId == null || billId <= 0) {
 			throw new IllegalArgumentException("Invalid bill ID.");
@@ -706,31 +702,13 @@ public class DatabaseUtils {
 		Connection conn = null;
 		PreparedStatement pstmt = null;
 		PreparedStatement shopPstmt = null;
-		ResultSet rs = null;
 		try {
 			conn = DBUtil.getConnection();
 			conn.setAutoCommit(false);
 
-			// Lock shop_amount table to prevent concurrent modifications
-//            String lockSql = "LOCK TABLES shop_amount WRITE";
-//            pstmt = conn.prepareStatement(lockSql);
-//            pstmt.execute();
-//            pstmt.close();
-
-			// Check current shop balance
-			String balanceSql = "SELECT SUM(shopAmount) as totalShopAmount FROM shop_amount";
-			pstmt = conn.prepareStatement(balanceSql);
-			rs = pstmt.executeQuery();
-			BigDecimal shopBalance = BigDecimal.ZERO;
-			if (rs.next()) {
-				double sum = rs.getDouble("totalShopAmount");
-				if (!rs.wasNull()) {
-					shopBalance = BigDecimal.valueOf(sum);
-				}
-			}
-			rs.close();
-			pstmt.close();
-			System.out.println("Current shop balance: " + shopBalance + ", payment amount: " + paidAmount
+			// Check current shop balance; the balance row stays locked until commit
+			BigDecimal shopBalance = BigDecimal.valueOf(ShopLedger.currentBalance(conn, true));
+			LOGGER.fine(() -> "Current shop balance: " + shopBalance + ", payment amount: " + paidAmount
 					+ " for bill ID: " + billId);
 
 			// Validate shop balance
@@ -746,7 +724,7 @@ public class DatabaseUtils {
 
 			// Insert payment record
 			String paymentSql = "INSERT INTO Payment (paidAmount, paidDate, pendingAmount, billId) VALUES (?, ?, ?, ?)";
-			pstmt = conn.prepareStatement(paymentSql);
+			pstmt = conn.prepareStatement(paymentSql, PreparedStatement.RETURN_GENERATED_KEYS);
 			BigDecimal newPendingAmount = currentPendingAmount.subtract(paidAmount);
 			pstmt.setBigDecimal(1, paidAmount);
 			pstmt.setDate(2, Date.valueOf(paidDate));
@@ -756,6 +734,11 @@ public class DatabaseUtils {
 			if (rowsAffected == 0) {
 				throw new SQLException("Failed to insert payment record for bill ID: " + billId);
 			}
+			Long paymentId = null;
+			try (ResultSet keys = pstmt.getGeneratedKeys()) {
+				if (keys.next())
+					paymentId = keys.getLong(1);
+			}
 			pstmt.close();
 
 			// Insert shop amount record
@@ -769,10 +752,11 @@ public class DatabaseUtils {
 				throw new SQLException("Failed to insert shop amount record for bill ID: " + billId);
 			}
 
-			System.out.println("Shop balance updated: " + shopBalance + " - " + paidAmount + " = " + newShopBalance
+			LOGGER.fine(() -> "Shop balance updated: " + shopBalance + " - " + paidAmount + " = " + newShopBalance
 					+ " for bill ID: " + billId);
 
 			conn.commit();
+			return new Payment(paymentId, billId, paidAmount, paidDate, newPendingAmount);
 		} catch (SQLException ex) {
 			try {
 				if (conn != null)
@@ -782,7 +766,7 @@ public class DatabaseUtils {
 			throw new SQLException(
 					"Database error while adding payment for bill ID: " + billId + ": " + ex.getMessage(), ex);
 		} finally {
-			closeResources(rs, pstmt, null);
+			closeResources(null, pstmt, null);
 			closeResources(null, shopPstmt, null);
 			try {
 				if (conn != null) {
@@ -876,6 +860,89 @@ public class DatabaseUtils {
 		}
 	}
 
+	/** One bill as shown on a wholesaler's date cards, with its totals. */
+	public static class BillCard {
+		private final Bill bill;
+		private final BigDecimal totalAmount;
+		private final BigDecimal paidAmount;
+
+		public BillCard(Bill bill, BigDecimal totalAmount, BigDecimal paidAmount) {
+			this.bill = bill;
+			this.totalAmount = totalAmount;
+			this.paidAmount = paidAmount;
+		}
+
+		public Bill getBill() {
+			return bill;
+		}
+
+		public BigDecimal getTotalAmount() {
+			return totalAmount;
+		}
+
+		public BigDecimal getPaidAmount() {
+			return paidAmount;
+		}
+
+		public BigDecimal getPendingAmount() {
+			return totalAmount.subtract(paidAmount);
+		}
+	}
+
+	/**
+	 * A wholesaler's bills dated between {@code from} and {@code to}
+	 * (inclusive, either may be null), newest first, each with its product
+	 * total, amount paid and latest pending amount. Product totals and payments
+	 * are aggregated in derived tables limited to the same bills, so this is a
+	 * single query however many bills there are.
+	 */
+	public static List<BillCard> fetchBillCards(Long wholesalerId, LocalDate from, LocalDate to) {
+		String bills = "SELECT id FROM Bill WHERE wholesalerId = ?" + (from != null ? " AND date >= ?" : "")
+				+ (to != null ? " AND date <= ?" : "");
+		String sql = "SELECT b.id, b.date, b.shippingCharges, COALESCE(t.totalBillAmount, 0) AS totalBillAmount, "
+				+ "COALESCE(pay.totalPaid, 0) AS totalPaid, pay.pendingAmount "
+				+ "FROM Bill b "
+				+ "LEFT JOIN (SELECT bp.billId, SUM(p.total) AS totalBillAmount FROM BillProduct bp "
+				+ "JOIN Product p ON p.id = bp.productId WHERE bp.billId IN (" + bills + ") GROUP BY bp.billId) t "
+				+ "ON t.billId = b.id "
+				+ "LEFT JOIN (SELECT billId, pendingAmount, totalPaid FROM ("
+				+ "SELECT billId, pendingAmount, SUM(paidAmount) OVER (PARTITION BY billId) AS totalPaid, "
+				+ "ROW_NUMBER() OVER (PARTITION BY billId ORDER BY paidDate DESC, id DESC) AS rn "
+				+ "FROM Payment WHERE billId IN (" + bills + ")) ranked WHERE rn = 1) pay ON pay.billId = b.id "
+				+ "WHERE b.id IN (" + bills + ") ORDER BY b.date DESC, b.id";
+		List<BillCard> cards = new ArrayList<>();
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try {
+			conn = DBUtil.getConnection();
+			pstmt = conn.prepareStatement(sql);
+			int i = 1;
+			for (int copy = 0; copy < 3; copy++) {
+				pstmt.setLong(i++, wholesalerId);
+				if (from != null)
+					pstmt.setObject(i++, Date.valueOf(from));
+				if (to != null)
+					pstmt.setObject(i++, Date.valueOf(to));
+			}
+			rs = pstmt.executeQuery();
+			while (rs.next()) {
+				BigDecimal total = rs.getBigDecimal("totalBillAmount");
+				Bill bill = new Bill(rs.getLong("id"), rs.getObject("date", LocalDate.class),
+						rs.getBigDecimal("shippingCharges"), total);
+				BigDecimal pendingAmount = rs.getBigDecimal("pendingAmount");
+				if (pendingAmount != null)
+					bill.setBillAmount(pendingAmount);
+				cards.add(new BillCard(bill, total, rs.getBigDecimal("totalPaid")));
+			}
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error loading bills: " + ex.getMessage(), ex);
+		} finally {
+			closeResources(rs, pstmt, conn);
+		}
+		return cards;
+	}
+
 	@SuppressWarnings("resource")
 	public static void deleteBill(Long billId) {
 		Connection conn = null;
@@ -923,6 +990,8 @@ public class DatabaseUtils {
 
 			if (rows > 0) {
 				conn.commit();
+				StockLedger.forgetProductIds();
+				ProductCatalog.invalidate();
 			} else {
 				conn.rollback();
 				throw new SQLException("Bill not found: " + billId);
@@ -953,7 +1022,6 @@ public class DatabaseUtils {
 		Connection conn = null;
 		PreparedStatement productPstmt = null;
 		PreparedStatement billProductPstmt = null;
-		PreparedStatement stockPstmt = null;
 		ResultSet generatedKeys = null;
 
 		try {
@@ -989,26 +1057,11 @@ public class DatabaseUtils {
 			if (billProductPstmt.executeUpdate() == 0)
 				throw new SQLException("Failed to insert bill-product link.");
 
-			// 3. INSERT ONE ROW PER UNIT INTO Stock (id auto-generated, productId linked)
-			String stockSql = "INSERT INTO Stock (productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate, productId) "
-					+ "VALUES (?, 1, ?, ?, ?, ?, ?)";
-			stockPstmt = conn.prepareStatement(stockSql);
-
-			int qty = product.getQuantity();
+			// 3. INSERT THE QUANTITY AS ONE STOCK LOT (productId linked)
 			java.sql.Date expirySql = product.getExpiry() != null ? java.sql.Date.valueOf(product.getExpiry()) : null;
 			java.sql.Date purchaseSql = java.sql.Date.valueOf(billDate); // Use bill date
-			BigDecimal unitTotal = product.getPerPieceRate();
-
-			for (int i = 0; i < qty; i++) {
-				stockPstmt.setString(1, product.getProductName());
-				stockPstmt.setBigDecimal(2, product.getPerPieceRate());
-				stockPstmt.setBigDecimal(3, unitTotal);
-				stockPstmt.setObject(4, expirySql);
-				stockPstmt.setObject(5, purchaseSql);
-				stockPstmt.setLong(6, productId); // LINK TO PRODUCT BATCH
-				if (stockPstmt.executeUpdate() == 0)
-					throw new SQLException("Failed to insert stock unit " + (i + 1));
-			}
+			StockLedger.receive(conn, product.getProductName(), product.getQuantity(), product.getPerPieceRate(),
+					expirySql, purchaseSql, productId);
 
 			conn.commit();
 		} catch (SQLException ex) {
@@ -1020,8 +1073,7 @@ public class DatabaseUtils {
 			throw new RuntimeException("Database error while adding product: " + ex.getMessage(), ex);
 		} finally {
 			closeResources(generatedKeys, productPstmt, null);
-			closeResources(null, billProductPstmt, null);
-			closeResources(null, stockPstmt, conn);
+			closeResources(null, billProductPstmt, conn);
 			try {
 				if (conn != null)
 					conn.setAutoCommit(true);
@@ -1055,6 +1107,8 @@ public class DatabaseUtils {
 			}
 
 			conn.commit();
+			StockLedger.forgetProductIds();
+			ProductCatalog.invalidate();
 		} catch (SQLException ex) {
 			try {
 				if (conn != null)
@@ -1075,38 +1129,15 @@ public class DatabaseUtils {
 
 	/**
 	 * Returns a list of distinct product names that contain the typed text
-	 * (case-insensitive) and have a quantity >= 0. Compatible with Java 8 and
-	 * later.
+	 * (case-insensitive) and have a quantity >= 0, from the in-memory
+	 * {@link ProductCatalog}.
 	 */
 	public static List<String> getProductNameSuggestions(String partialName) {
-		List<String> suggestions = new ArrayList<>();
-		Connection conn = null;
-		PreparedStatement pstmt = null;
-		ResultSet rs = null;
-		try {
-			conn = DBUtil.getConnection();
-
-			// ---- multi-line SQL built with simple string concatenation ----
-			String sql = "SELECT DISTINCT productName " + "FROM Stock " + "WHERE LOWER(productName) LIKE ? "
-					+ "  AND quantity >= 0 " + "ORDER BY productName";
-
-			pstmt = conn.prepareStatement(sql);
-			pstmt.setString(1, "%" + partialName.toLowerCase() + "%");
-			rs = pstmt.executeQuery();
-
-			while (rs.next()) {
-				suggestions.add(rs.getString("productName"));
-			}
-		} catch (SQLException ex) {
-			throw new RuntimeException("Error fetching product suggestions: " + ex.getMessage(), ex);
-		} finally {
-			closeResources(rs, pstmt, conn);
-		}
-		return suggestions;
+		return ProductCatalog.suggest(partialName, false);
 	}
 
 	/**
-	 * Refreshes the supplied JComboBox with the suggestions returned from the DB.
+	 * Refreshes the supplied JComboBox with the suggestions from the catalog.
 	 * Keeps the currently typed text and shows the popup.
 	 */
 	public static void updateProductComboBox(javax.swing.JComboBox<String> comboBox, String typedText) {
@@ -0,0 +1,162 @@
+package com.proshop.main;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Shared pool for database work started from Swing code, so JDBC never runs on
+ * the Event Dispatch Thread.
+ *
+ * <ul>
+ * <li>Work runs on a bounded pool of daemon threads
+ * ({@code proshop.db.workers}, default 4, below the connection pool size).</li>
+ * <li>Results and errors are delivered on the EDT.</li>
+ * <li>Submitting with a key cancels the previous task with the same owner and
+ * key, and a cancelled task never delivers, so a slow old search cannot
+ * overwrite a newer one.</li>
+ * <li>While an owner's tasks run longer than {@link #BUSY_DELAY_MILLIS} its
+ * window shows the wait cursor.</li>
+ * </ul>
+ */
+public final class DbExecutor {
+    private static final Logger LOGGER = Logger.getLogger(DbExecutor.class.getName());
+
+    static final int BUSY_DELAY_MILLIS = 200;
+
+    private static final ThreadPoolExecutor POOL;
+    static {
+        int workers = Math.max(1, Integer.getInteger("proshop.db.workers", 4));
+        AtomicInteger count = new AtomicInteger();
+        POOL = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "proshop-db-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        POOL.allowCoreThreadTimeOut(true);
+    }
+
+    private static final Map<String, Task> LATEST = new ConcurrentHashMap<>();
+    // Window -> number of running tasks; EDT only
+    private static final Map<Window, Integer> BUSY = new HashMap<>();
+
+    private DbExecutor() {
+    }
+
+    /** Database work; may throw any exception, which is passed to the error handler. */
+    public interface Work<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Handle on a submitted task. Cancelling skips the work if it has not
+     * started and always suppresses delivery; a statement already running on
+     * the server is left to finish rather than interrupting the JDBC driver.
+     */
+    public static final class Task {
+        private volatile boolean cancelled;
+        private Window window; // EDT only
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // ===== SUBMIT =====
+    public static <T> Task submit(Component owner, Work<T> work, Consumer<? super T> onSuccess) {
+        return submit(owner, null, work, onSuccess, null);
+    }
+
+    /**
+     * Runs {@code work} on the pool and hands its result to {@code onSuccess} on
+     * the EDT. Failures go to {@code onError} on the EDT; when that is null they
+     * are logged and shown in a dialog over {@code owner}.
+     *
+     * @param owner component whose window shows the busy cursor, or null
+     * @param key   supersedes the owner's earlier task with the same key, or null
+     */
+    public static <T> Task submit(Component owner, String key, Work<T> work, Consumer<? super T> onSuccess,
+            Consumer<? super Exception> onError) {
+        Task task = new Task();
+        if (key != null) {
+            Task previous = LATEST.put(latestKey(owner, key), task);
+            if (previous != null) previous.cancel();
+        }
+        onEdt(() -> {
+            task.window = owner == null ? null : SwingUtilities.getWindowAncestor(owner);
+            busy(task.window, +1);
+        });
+        POOL.execute(() -> {
+            T result = null;
+            Exception failure = null;
+            try {
+                if (!task.cancelled) result = work.call();
+            } catch (Exception ex) {
+                failure = ex;
+            }
+            final T value = result;
+            final Exception error = failure;
+            SwingUtilities.invokeLater(() -> {
+                busy(task.window, -1);
+                if (key != null) LATEST.remove(latestKey(owner, key), task);
+                if (task.cancelled) return;
+                if (error == null) {
+                    if (onSuccess != null) onSuccess.accept(value);
+                } else if (onError != null) {
+                    onError.accept(error);
+                } else {
+                    LOGGER.log(Level.SEVERE, "Database task failed", error);
+                    JOptionPane.showMessageDialog(owner, "Database error: " + error.getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
+        return task;
+    }
+
+    private static String latestKey(Component owner, String key) {
+        return owner == null ? key : System.identityHashCode(owner) + ":" + key;
+    }
+
+    private static void onEdt(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) r.run();
+        else SwingUtilities.invokeLater(r);
+    }
+
+    // ===== BUSY INDICATOR =====
+    private static void busy(Window window, int delta) {
+        if (window == null) return;
+        int running = BUSY.getOrDefault(window, 0) + delta;
+        if (running <= 0) {
+            BUSY.remove(window);
+            window.setCursor(Cursor.getDefaultCursor());
+        } else {
+            BUSY.put(window, running);
+            if (delta > 0 && running == 1) {
+                Timer delay = new Timer(BUSY_DELAY_MILLIS, e -> {
+                    if (BUSY.containsKey(window)) window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+                });
+                delay.setRepeats(false);
+                delay.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.proshop.main;
+
+import java.awt.BorderLayout;
+import java.awt.CardLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+
+import com.proshop.connection.ConnectionPool;
+import com.proshop.connection.DBUtil;
+import com.proshop.connection.SqlMetrics;
+
+/**
+ * Shows the SQL timings collected by {@link SqlMetrics} with the connection
+ * pool counters, and the UI stalls caught by {@link EdtWatchdog}. Refreshes
+ * every two seconds while visible; Reset and Export act on the open tab.
+ */
+public class DiagnosticsForm extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private static final int REFRESH_MS = 2000;
+
+    private static final Color PRIMARY_COLOR = new Color(33, 33, 33);
+    private static final Color SUCCESS_COLOR = new Color(102, 187, 106);
+    private static final Color BACKGROUND_COLOR = new Color(33, 33, 33);
+    private static final Color TEXT_COLOR = Color.WHITE;
+    private static final Color STAT_CARD_COLOR = new Color(50, 50, 50);
+    private static final Color SHADOW_COLOR = new Color(224, 224, 224);
+    private static final Color FAINT_ROW_COLOR = new Color(66, 66, 66);
+    private static final Color SLOW_COLOR = new Color(229, 115, 115);
+
+    private static final String[] COLUMNS = { "Statement", "Calls", "Errors", "Total ms", "Mean ms", "p50 ms",
+            "p95 ms", "p99 ms", "Max ms", "Rows Read", "Rows Changed", "Acquire ms" };
+    private static final int P95_COLUMN = 6;
+    private static final String[] STALL_COLUMNS = { "Screen", "Action", "Stalls", "Total ms", "Mean ms", "Max ms" };
+
+    private final DefaultTableModel tableModel;
+    private final JTable table;
+    private final DefaultTableModel stallModel;
+    private final JTable stallTable;
+    private final JTextArea stackArea;
+    private final JLabel stallSummaryLabel;
+    private final JTabbedPane tabs;
+    private final JLabel sinceLabel;
+    private final JLabel poolLabel;
+    private final JLabel acquireLabel;
+    private final JLabel statementsLabel;
+    private final long slowMs = Long.getLong("proshop.db.slowQueryMs", 500L);
+    // Rows of the stall table, in model order; read on the EDT only
+    private List<EdtWatchdog.Stall> stalls = Collections.emptyList();
+
+    public DiagnosticsForm(CardLayout cardLayout, JPanel mainContentPanel) {
+        setLayout(new BorderLayout());
+        setBackground(BACKGROUND_COLOR);
+
+        // Title
+        JPanel titlePanel = new JPanel(new BorderLayout());
+        titlePanel.setOpaque(false);
+        titlePanel.setBorder(new EmptyBorder(20, 40, 10, 40));
+
+        JPanel centerPanel = new JPanel();
+        centerPanel.setLayout(new BoxLayout(centerPanel, BoxLayout.Y_AXIS));
+        centerPanel.setOpaque(false);
+
+        JLabel titleLabel = new JLabel("Diagnostics");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 36));
+        titleLabel.setForeground(TEXT_COLOR);
+        titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        sinceLabel = new JLabel(" ");
+        sinceLabel.setFont(new Font("Arial", Font.PLAIN, 18));
+        sinceLabel.setForeground(SHADOW_COLOR);
+        sinceLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        centerPanel.add(titleLabel);
+        centerPanel.add(Box.createVerticalStrut(10));
+        centerPanel.add(sinceLabel);
+
+        JButton refreshButton = UIUtils.createStyledButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+        JButton resetButton = UIUtils.createStyledButton("Reset");
+        resetButton.addActionListener(e -> reset());
+        JButton exportButton = UIUtils.createStyledButton("Export");
+        exportButton.addActionListener(e -> export());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        buttonPanel.setOpaque(false);
+        buttonPanel.add(refreshButton);
+        buttonPanel.add(resetButton);
+        buttonPanel.add(exportButton);
+
+        titlePanel.add(centerPanel, BorderLayout.CENTER);
+        titlePanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        // Pool and acquire figures
+        JPanel statsPanel = new JPanel(new GridLayout(1, 3, 20, 20));
+        statsPanel.setOpaque(false);
+        statsPanel.setBorder(new EmptyBorder(10, 40, 20, 40));
+        poolLabel = createStatLabel();
+        acquireLabel = createStatLabel();
+        statementsLabel = createStatLabel();
+        statsPanel.add(poolLabel);
+        statsPanel.add(acquireLabel);
+        statsPanel.add(statementsLabel);
+
+        JPanel northPanel = new JPanel(new BorderLayout());
+        northPanel.setOpaque(false);
+        northPanel.add(titlePanel, BorderLayout.NORTH);
+        northPanel.add(statsPanel, BorderLayout.CENTER);
+        add(northPanel, BorderLayout.NORTH);
+
+        // SQL table: sortable, numeric columns compare as numbers
+        tableModel = new DefaultTableModel(COLUMNS, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                switch (column) {
+                case 0:
+                    return String.class;
+                case 1:
+                case 2:
+                case 9:
+                case 10:
+                    return Long.class;
+                default:
+                    return Double.class;
+                }
+            }
+        };
+        table = new JTable(tableModel) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component c = super.prepareRenderer(renderer, row, column);
+                if (!isRowSelected(row)) {
+                    c.setBackground(row % 2 == 0 ? STAT_CARD_COLOR : FAINT_ROW_COLOR);
+                    Object p95 = getValueAt(row, P95_COLUMN);
+                    boolean slow = slowMs > 0 && p95 instanceof Double && (Double) p95 >= slowMs;
+                    c.setForeground(slow ? SLOW_COLOR : TEXT_COLOR);
+                }
+                return c;
+            }
+
+            @Override
+            public String getToolTipText(java.awt.event.MouseEvent e) {
+                int row = rowAtPoint(e.getPoint());
+                return row < 0 ? null : (String) getValueAt(row, 0);
+            }
+        };
+        styleTable(table);
+        table.getColumnModel().getColumn(0).setPreferredWidth(600);
+        for (int i = 1; i < COLUMNS.length; i++) {
+            table.getColumnModel().getColumn(i).setPreferredWidth(90);
+        }
+
+        // UI stalls: the selected row's worst stack shows underneath
+        stallModel = new DefaultTableModel(STALL_COLUMNS, 0) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column < 2 ? String.class : column == 2 ? Long.class : Double.class;
+            }
+        };
+        stallTable = new JTable(stallModel) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component c = super.prepareRenderer(renderer, row, column);
+                if (!isRowSelected(row)) {
+                    c.setBackground(row % 2 == 0 ? STAT_CARD_COLOR : FAINT_ROW_COLOR);
+                }
+                return c;
+            }
+        };
+        styleTable(stallTable);
+        stallTable.getColumnModel().getColumn(0).setPreferredWidth(250);
+        stallTable.getColumnModel().getColumn(1).setPreferredWidth(450);
+        stallTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showStack();
+        });
+
+        stackArea = new JTextArea();
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        stackArea.setBackground(STAT_CARD_COLOR);
+        stackArea.setForeground(TEXT_COLOR);
+
+        stallSummaryLabel = new JLabel(" ");
+        stallSummaryLabel.setFont(new Font("Arial", Font.PLAIN, 16));
+        stallSummaryLabel.setForeground(SHADOW_COLOR);
+        stallSummaryLabel.setBorder(new EmptyBorder(8, 4, 8, 4));
+
+        JSplitPane stallSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, scroll(stallTable), scroll(stackArea));
+        stallSplit.setResizeWeight(0.6);
+        stallSplit.setBorder(null);
+        JPanel stallPanel = new JPanel(new BorderLayout());
+        stallPanel.setBackground(BACKGROUND_COLOR);
+        stallPanel.add(stallSummaryLabel, BorderLayout.NORTH);
+        stallPanel.add(stallSplit, BorderLayout.CENTER);
+
+        tabs = new JTabbedPane();
+        tabs.setFont(new Font("Arial", Font.BOLD, 14));
+        tabs.addTab("SQL", scroll(table));
+        tabs.addTab("UI Stalls", stallPanel);
+
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        tablePanel.setOpaque(false);
+        tablePanel.setBorder(new EmptyBorder(0, 40, 20, 40));
+        tablePanel.add(tabs, BorderLayout.CENTER);
+        add(tablePanel, BorderLayout.CENTER);
+
+        // Only refresh while the screen is on display
+        Timer timer = new Timer(REFRESH_MS, e -> {
+            if (isShowing()) refresh();
+        });
+        timer.start();
+        refresh();
+    }
+
+    private JLabel createStatLabel() {
+        JLabel label = new JLabel(" ", JLabel.CENTER);
+        label.setFont(new Font("Arial", Font.BOLD, 18));
+        label.setForeground(SUCCESS_COLOR);
+        label.setOpaque(true);
+        label.setBackground(STAT_CARD_COLOR);
+        label.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createLineBorder(SHADOW_COLOR, 1),
+                new EmptyBorder(15, 10, 15, 10)));
+        label.setPreferredSize(new Dimension(220, 70));
+        return label;
+    }
+
+    private static void styleTable(JTable t) {
+        t.setAutoCreateRowSorter(true);
+        t.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        t.setBackground(STAT_CARD_COLOR);
+        t.setForeground(TEXT_COLOR);
+        t.setFont(new Font("Arial", Font.PLAIN, 14));
+        t.setRowHeight(26);
+        t.getTableHeader().setBackground(PRIMARY_COLOR);
+        t.getTableHeader().setForeground(TEXT_COLOR);
+        t.getTableHeader().setFont(new Font("Arial", Font.BOLD, 14));
+    }
+
+    private static JScrollPane scroll(Component view) {
+        JScrollPane scrollPane = new JScrollPane(view);
+        scrollPane.setBackground(BACKGROUND_COLOR);
+        scrollPane.getViewport().setBackground(BACKGROUND_COLOR);
+        scrollPane.setBorder(BorderFactory.createLineBorder(SHADOW_COLOR, 1));
+        return scrollPane;
+    }
+
+    private boolean onStallsTab() {
+        return tabs.getSelectedIndex() == 1;
+    }
+
+    private void refresh() {
+        refreshStalls();
+        refreshSql();
+    }
+
+    private void refreshSql() {
+        ConnectionPool.Stats pool = DBUtil.getPoolStats();
+        poolLabel.setText(String.format("Pool: %d active, %d idle, %d waiting", pool.getActive(), pool.getIdle(),
+                pool.getWaiting()));
+        acquireLabel.setText(String.format("Acquire p95: %.2f ms (max %.2f ms)", SqlMetrics.acquirePercentileMs(95),
+                pool.getMaxWaitMs()));
+
+        if (!SqlMetrics.isEnabled()) {
+            sinceLabel.setText("SQL timing is off (proshop.db.metrics=false)");
+            statementsLabel.setText("Statements: -");
+            return;
+        }
+        List<SqlMetrics.Snapshot> rows = SqlMetrics.snapshot();
+        long calls = 0;
+        String selected = selectedKey(table, 1);
+        tableModel.setRowCount(0);
+        for (SqlMetrics.Snapshot s : rows) {
+            calls += s.getCalls();
+            tableModel.addRow(new Object[] { s.getSql(), s.getCalls(), s.getErrors(), round(s.getTotalMs()),
+                    round(s.getMeanMs()), round(s.getP50Ms()), round(s.getP95Ms()), round(s.getP99Ms()),
+                    round(s.getMaxMs()), s.getRowsRead(), s.getRowsChanged(), round(s.getMeanAcquireMs()) });
+        }
+        reselect(table, selected, 1);
+        statementsLabel.setText("Statements: " + rows.size() + " (" + calls + " calls)");
+        sinceLabel.setText("SQL timings since "
+                + new SimpleDateFormat("dd-MM-yyyy HH:mm:ss").format(new Date(SqlMetrics.getSince()))
+                + (slowMs > 0 ? "; red rows have p95 over " + slowMs + " ms" : ""));
+    }
+
+    private void refreshStalls() {
+        if (!EdtWatchdog.isInstalled()) {
+            stallSummaryLabel.setText("The EDT watchdog is off (proshop.edt.stallMs=0)");
+            return;
+        }
+        stalls = EdtWatchdog.snapshot();
+        long count = 0;
+        double total = 0;
+        String selected = selectedKey(stallTable, 2);
+        stallModel.setRowCount(0);
+        for (EdtWatchdog.Stall s : stalls) {
+            count += s.getCount();
+            total += s.getTotalMs();
+            stallModel.addRow(new Object[] { s.getScreen(), s.getAction(), s.getCount(), round(s.getTotalMs()),
+                    round(s.getMeanMs()), round(s.getMaxMs()) });
+        }
+        reselect(stallTable, selected, 2);
+        stallSummaryLabel.setText(String.format("%d events dispatched, %d stalls over %d ms, %.0f ms stalled in total",
+                EdtWatchdog.getDispatchedCount(), count, EdtWatchdog.getThresholdMs(), total));
+    }
+
+    private void showStack() {
+        int row = stallTable.getSelectedRow();
+        if (row < 0) {
+            stackArea.setText("");
+            return;
+        }
+        int index = stallTable.convertRowIndexToModel(row);
+        if (index >= stalls.size()) return;
+        List<String> stack = stalls.get(index).getStack();
+        StringBuilder text = new StringBuilder(stack.isEmpty() ? "Stack not captured for this stall." : "");
+        for (String frame : stack) {
+            text.append("at ").append(frame).append('\n');
+        }
+        stackArea.setText(text.toString());
+        stackArea.setCaretPosition(0);
+    }
+
+    // Rows are rebuilt on every refresh; keep the user's selection by its first two columns
+    // Rows are keyed by their leading identity columns: the statement text for
+    // SQL, screen and action for stalls. Counters change on every refresh.
+    private static String selectedKey(JTable t, int keyColumns) {
+        int row = t.getSelectedRow();
+        return row < 0 ? null : key(t, row, keyColumns);
+    }
+
+    private static void reselect(JTable t, String key, int keyColumns) {
+        if (key == null) return;
+        for (int row = 0; row < t.getRowCount(); row++) {
+            if (key.equals(key(t, row, keyColumns))) {
+                t.setRowSelectionInterval(row, row);
+                return;
+            }
+        }
+    }
+
+    private static String key(JTable t, int row, int keyColumns) {
+        StringBuilder key = new StringBuilder();
+        for (int column = 0; column < keyColumns; column++) {
+            key.append(t.getValueAt(row, column)).append('\n');
+        }
+        return key.toString();
+    }
+
+    private static double round(double ms) {
+        return Math.round(ms * 100) / 100.0;
+    }
+
+    private void reset() {
+        String what = onStallsTab() ? "UI stall" : "SQL";
+        int confirm = JOptionPane.showConfirmDialog(this, "Clear all collected " + what + " timings?", "Reset Timings",
+                JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) return;
+        if (onStallsTab()) {
+            EdtWatchdog.reset();
+        } else {
+            SqlMetrics.reset();
+        }
+        refresh();
+    }
+
+    private void export() {
+        boolean stallReport = onStallsTab();
+        String what = stallReport ? "UI stalls" : "SQL timings";
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File((stallReport ? "ui-stalls-" : "sql-metrics-")
+                + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".tsv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        try {
+            if (stallReport) {
+                EdtWatchdog.report(file.toPath());
+            } else {
+                SqlMetrics.dump(file.toPath());
+            }
+            JOptionPane.showMessageDialog(this, what + " saved to " + file.getAbsolutePath(), "Export",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Error saving " + what + ": " + ex.getMessage(), "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.proshop.main;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Dialog;
+import java.awt.EventQueue;
+import java.awt.Frame;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.InvocationEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.AbstractButton;
+
+/**
+ * Detects stalls of the Swing event dispatch thread.
+ *
+ * {@link #install()} pushes an event queue that times every event it
+ * dispatches. A background thread watches the event in progress and, once it
+ * has run longer than {@code proshop.edt.stallMs} (default 200, 0 turns the
+ * watchdog off), captures the EDT's stack. When the event finishes it is
+ * counted against its screen and action, e.g. {@code CustomerForm} /
+ * {@code click "Add Customer"}, so the report shows where the UI freezes and
+ * for how long.
+ *
+ * Time the EDT spends waiting inside a modal dialog's event loop is not
+ * counted against the event that opened the dialog. Set
+ * {@code proshop.edt.reportFile} to write {@link #report(Path)} on exit.
+ */
+public final class EdtWatchdog {
+    private static final Logger LOGGER = Logger.getLogger(EdtWatchdog.class.getName());
+
+    private static final long STALL_NANOS = Long.getLong("proshop.edt.stallMs", 200L) * 1_000_000L;
+    // An event still running after this long is logged before it ends, in case it never does
+    private static final long HANG_NANOS = Math.max(STALL_NANOS, 5_000_000_000L);
+    private static final int STACK_DEPTH = 40;
+
+    private static final Map<String, StallStats> STALLS = new ConcurrentHashMap<>();
+    private static final LongAdder DISPATCHED = new LongAdder();
+    private static volatile long since = System.currentTimeMillis();
+    private static volatile TimedQueue queue;
+
+    private EdtWatchdog() {
+    }
+
+    /** Starts watching the EDT; does nothing when disabled or already running. */
+    public static synchronized void install() {
+        if (STALL_NANOS <= 0 || queue != null) return;
+        queue = new TimedQueue();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(queue);
+
+        long period = Math.max(10L, STALL_NANOS / 4_000_000L);
+        ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "proshop-edt-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(EdtWatchdog::check, period, period, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(EdtWatchdog::reportOnExit, "proshop-edt-report"));
+        LOGGER.info("EDT watchdog on, stall threshold " + STALL_NANOS / 1_000_000 + " ms");
+    }
+
+    public static boolean isInstalled() {
+        return queue != null;
+    }
+
+    public static long getThresholdMs() {
+        return STALL_NANOS / 1_000_000;
+    }
+
+    // ===== TIMING =====
+    // One event being dispatched. The EDT writes the timing fields, the
+    // watcher reads them and fills in the stack.
+    private static final class Dispatch {
+        final AWTEvent event;
+        volatile long segmentStart;
+        volatile long busyNanos;
+        volatile boolean running = true;
+        volatile StackTraceElement[] stack;
+        volatile boolean hangLogged;
+
+        Dispatch(AWTEvent event, long now) {
+            this.event = event;
+            this.segmentStart = now;
+        }
+
+        long busy(long now) {
+            return busyNanos + (running ? now - segmentStart : 0);
+        }
+
+        void pause(long now) {
+            if (running) {
+                busyNanos += now - segmentStart;
+                running = false;
+            }
+        }
+
+        void resume(long now) {
+            segmentStart = now;
+            running = true;
+        }
+    }
+
+    private static final class TimedQueue extends EventQueue {
+        // Nested dispatches come from modal loops; touched on the EDT only
+        private final Deque<Dispatch> dispatching = new ArrayDeque<>();
+        private volatile Dispatch current;
+        private volatile Thread edt;
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            long now = System.nanoTime();
+            edt = Thread.currentThread();
+            Dispatch outer = dispatching.peek();
+            if (outer != null) outer.pause(now);
+            Dispatch d = new Dispatch(event, now);
+            dispatching.push(d);
+            current = d;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long end = System.nanoTime();
+                d.pause(end);
+                dispatching.pop();
+                DISPATCHED.increment();
+                if (outer != null) outer.resume(end);
+                current = outer;
+                if (d.busyNanos >= STALL_NANOS) recordStall(d);
+            }
+        }
+
+        // A modal loop waiting for its next event is idle, not stalled
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            Dispatch waiting = dispatching.peek();
+            if (waiting == null) return super.getNextEvent();
+            waiting.pause(System.nanoTime());
+            current = null;
+            try {
+                return super.getNextEvent();
+            } finally {
+                waiting.resume(System.nanoTime());
+                current = waiting;
+            }
+        }
+    }
+
+    private static void check() {
+        TimedQueue q = queue;
+        Dispatch d = q == null ? null : q.current;
+        Thread edt = q == null ? null : q.edt;
+        if (d == null || edt == null || !d.running) return;
+        long busy = d.busy(System.nanoTime());
+        if (busy >= STALL_NANOS && d.stack == null) {
+            d.stack = edt.getStackTrace();
+        }
+        if (busy >= HANG_NANOS && !d.hangLogged) {
+            d.hangLogged = true;
+            Throwable where = new Throwable("EDT stack");
+            where.setStackTrace(edt.getStackTrace());
+            LOGGER.log(Level.WARNING, "EDT blocked for " + busy / 1_000_000 + " ms by " + describe(d.event, null),
+                    where);
+        }
+    }
+
+    // ===== AGGREGATION =====
+    private static void recordStall(Dispatch d) {
+        StackTraceElement[] stack = d.stack;
+        String screen = screenOf(d.event, stack);
+        String action = describe(d.event, stack);
+        long nanos = d.busyNanos;
+        StallStats stats = STALLS.computeIfAbsent(screen + "\n" + action, k -> new StallStats(screen, action));
+        boolean first = stats.count.sum() == 0;
+        stats.record(nanos, stack);
+        if (first) {
+            Throwable where = null;
+            if (stack != null) {
+                where = new Throwable("EDT stack at threshold");
+                where.setStackTrace(stack);
+            }
+            LOGGER.log(Level.WARNING, String.format("EDT stall %.0f ms in %s: %s", nanos / 1_000_000.0, screen,
+                    action), where);
+        } else {
+            LOGGER.fine(() -> String.format("EDT stall %.0f ms in %s: %s", nanos / 1_000_000.0, screen, action));
+        }
+    }
+
+    private static final class StallStats {
+        final String screen;
+        final String action;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        volatile StackTraceElement[] worstStack;
+
+        StallStats(String screen, String action) {
+            this.screen = screen;
+            this.action = action;
+        }
+
+        void record(long nanos, StackTraceElement[] stack) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get() && stack != null) worstStack = stack;
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    // The outermost application panel around the event's source, e.g.
+    // CustomerForm; for events without a component, the first application
+    // frame of the stack.
+    private static String screenOf(AWTEvent event, StackTraceElement[] stack) {
+        Object source = event.getSource();
+        if (source instanceof Component) {
+            String screen = null;
+            for (Component c = (Component) source; c != null; c = c.getParent()) {
+                if (c instanceof Window) {
+                    if (screen != null) return screen;
+                    return windowName((Window) c);
+                }
+                if (c.getClass().getName().startsWith("com.proshop.")) screen = topLevelName(c.getClass().getName());
+            }
+            if (screen != null) return screen;
+        }
+        String frame = firstAppFrame(stack);
+        return frame != null ? topLevelName(frame.substring(0, frame.lastIndexOf('.'))) : "(unknown)";
+    }
+
+    private static String windowName(Window w) {
+        String title = w instanceof Frame ? ((Frame) w).getTitle() : w instanceof Dialog ? ((Dialog) w).getTitle() : null;
+        String name = w.getClass().getName().startsWith("com.proshop.") ? topLevelName(w.getClass().getName())
+                : w.getClass().getSimpleName();
+        return title == null || title.isEmpty() ? name : name + " \"" + title + "\"";
+    }
+
+    private static String describe(AWTEvent event, StackTraceElement[] stack) {
+        Object source = event.getSource();
+        if (event instanceof MouseEvent) {
+            return (event.getID() == MouseEvent.MOUSE_RELEASED || event.getID() == MouseEvent.MOUSE_CLICKED
+                    ? "click " : "mouse ") + componentName(source);
+        }
+        if (event instanceof KeyEvent) {
+            return "key in " + componentName(source);
+        }
+        if (event instanceof ActionEvent) {
+            return "action " + ((ActionEvent) event).getActionCommand();
+        }
+        if (event instanceof InvocationEvent) {
+            // Timers and invokeLater: name the application code that ran
+            String frame = firstAppFrame(stack);
+            return "invokeLater" + (frame != null ? " " + frame : "");
+        }
+        String type = event.getClass().getSimpleName();
+        return (type.isEmpty() ? "event" : type) + " " + componentName(source);
+    }
+
+    private static String componentName(Object source) {
+        if (source instanceof AbstractButton) {
+            String text = ((AbstractButton) source).getText();
+            if (text != null && !text.trim().isEmpty()) return "\"" + text.trim() + "\"";
+        }
+        if (source instanceof Component && ((Component) source).getName() != null) {
+            return ((Component) source).getName();
+        }
+        return source == null ? "" : source.getClass().getSimpleName();
+    }
+
+    private static String firstAppFrame(StackTraceElement[] stack) {
+        if (stack == null) return null;
+        for (StackTraceElement e : stack) {
+            if (e.getClassName().startsWith("com.proshop.") && !e.getClassName().equals(EdtWatchdog.class.getName())
+                    && !e.getClassName().startsWith(EdtWatchdog.class.getName() + "$")) {
+                return topLevelName(e.getClassName()) + "." + e.getMethodName();
+            }
+        }
+        return null;
+    }
+
+    // CustomerForm$3 and lambda classes report as CustomerForm
+    private static String topLevelName(String className) {
+        String simple = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simple.indexOf('$');
+        return nested > 0 ? simple.substring(0, nested) : simple;
+    }
+
+    // ===== REPORT =====
+    /** One screen and action's stalls; times in milliseconds. */
+    public static final class Stall {
+        private final String screen;
+        private final String action;
+        private final long count;
+        private final double totalMs;
+        private final double maxMs;
+        private final List<String> stack;
+
+        Stall(String screen, String action, long count, double totalMs, double maxMs, List<String> stack) {
+            this.screen = screen;
+            this.action = action;
+            this.count = count;
+            this.totalMs = totalMs;
+            this.maxMs = maxMs;
+            this.stack = stack;
+        }
+
+        public String getScreen() {
+            return screen;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalMs() {
+            return totalMs;
+        }
+
+        public double getMeanMs() {
+            return count == 0 ? 0 : totalMs / count;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        /** EDT stack of the longest stall, captured at the threshold; empty if it was not caught in time. */
+        public List<String> getStack() {
+            return stack;
+        }
+    }
+
+    /** Stalls per screen and action, longest in total first. */
+    public static List<Stall> snapshot() {
+        List<Stall> out = new ArrayList<>();
+        for (StallStats s : STALLS.values()) {
+            List<String> frames = new ArrayList<>();
+            StackTraceElement[] stack = s.worstStack;
+            if (stack != null) {
+                for (int i = 0; i < stack.length && i < STACK_DEPTH; i++) {
+                    frames.add(stack[i].toString());
+                }
+            }
+            out.add(new Stall(s.screen, s.action, s.count.sum(), s.totalNanos.sum() / 1_000_000.0,
+                    s.maxNanos.get() / 1_000_000.0, frames));
+        }
+        out.sort(Comparator.comparingDouble(Stall::getTotalMs).reversed());
+        return out;
+    }
+
+    /** Events dispatched since the last reset. */
+    public static long getDispatchedCount() {
+        return DISPATCHED.sum();
+    }
+
+    public static long getSince() {
+        return since;
+    }
+
+    public static void reset() {
+        STALLS.clear();
+        DISPATCHED.reset();
+        since = System.currentTimeMillis();
+    }
+
+    /** Writes the totals, one tab-separated line per screen and action, then the stack of each. */
+    public static void report(Path file) throws IOException {
+        List<Stall> stalls = snapshot();
+        long count = 0;
+        double total = 0;
+        for (Stall s : stalls) {
+            count += s.getCount();
+            total += s.getTotalMs();
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# EDT stalls written " + LocalDateTime.now() + ", collected since "
+                    + new java.sql.Timestamp(since) + ", threshold " + getThresholdMs() + " ms");
+            out.printf("# %d events dispatched, %d stalls, %.0f ms stalled%n", getDispatchedCount(), count, total);
+            out.println("stalls\ttotal_ms\tmean_ms\tmax_ms\tscreen\taction");
+            for (Stall s : stalls) {
+                out.printf("%d\t%.0f\t%.0f\t%.0f\t%s\t%s%n", s.getCount(), s.getTotalMs(), s.getMeanMs(),
+                        s.getMaxMs(), s.getScreen(), s.getAction());
+            }
+            for (Stall s : stalls) {
+                if (s.getStack().isEmpty()) continue;
+                out.println();
+                out.printf("## %s: %s (max %.0f ms)%n", s.getScreen(), s.getAction(), s.getMaxMs());
+                for (String frame : s.getStack()) {
+                    out.println("    at " + frame);
+                }
+            }
+        }
+    }
+
+    private static void reportOnExit() {
+        String file = System.getProperty("proshop.edt.reportFile");
+        if (file == null || file.isEmpty()) return;
+        try {
+            report(Path.of(file));
+        } catch (IOException ex) {
+            System.err.println("Error writing EDT stall report to " + file + ": " + ex.getMessage());
+        }
+    }
+}
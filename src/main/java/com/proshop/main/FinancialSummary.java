@@ -0,0 +1,327 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Running totals over the sales, purchase, payment, expense and stock tables,
+ * kept in the {@code financial_summary} table (one row per metric).
+ *
+ * The totals are maintained by AFTER INSERT/UPDATE/DELETE triggers on each
+ * source table, so every DAO write adjusts them inside its own transaction and
+ * a rollback undoes both. Reading the totals is a primary-key scan of a couple
+ * of dozen rows regardless of how much history the source tables hold.
+ *
+ * {@link #rebuild()} recomputes every metric from the source tables and
+ * reports any drift; it can be run from the command line with
+ * {@code java com.proshop.main.FinancialSummary rebuild|verify}.
+ */
+public final class FinancialSummary {
+	private static final Logger LOGGER = Logger.getLogger(FinancialSummary.class.getName());
+
+	public static final String CUSTOMER_COUNT = "customer_count";
+	public static final String CUSTOMER_SALES = "customer_sales";
+	public static final String CUSTOMER_PROFIT = "customer_profit";
+	public static final String CUSTOMER_PAID = "customer_paid";
+	public static final String CUSTOMER_QTY = "customer_qty";
+	public static final String GYM_COUNT = "gym_count";
+	public static final String GYM_SALES = "gym_sales";
+	public static final String GYM_SALES_WITH_PROFIT = "gym_sales_with_profit";
+	public static final String GYM_PROFIT = "gym_profit";
+	public static final String GYM_QTY = "gym_qty";
+	public static final String GYM_PAID = "gym_paid";
+	public static final String STOCK_AMOUNT = "stock_amount";
+	public static final String STOCK_QTY = "stock_qty";
+	public static final String WHOLESALER_BILL = "wholesaler_bill";
+	public static final String WHOLESALER_PAID = "wholesaler_paid";
+	public static final String BILL_EXPENSES = "bill_expenses";
+	public static final String BILL_SALES = "bill_sales";
+	public static final String BILL_PROFIT = "bill_profit";
+	public static final String SHOP_BALANCE = "shop_balance";
+	public static final String SHOP_SALES = "shop_sales";
+	public static final String SHOP_PROFIT = "shop_profit";
+
+	private static final String EXPENSES = "({r}.rent + {r}.lightBill + {r}.maintenanceBill + {r}.salary "
+			+ "+ {r}.parcelBillAmount + {r}.bankEmi + {r}.othersAmount)";
+
+	// Source table -> metrics it feeds. "{r}" stands for the row alias (NEW, OLD
+	// or the table alias in a rebuild); a NULL expression contributes nothing,
+	// matching SUM() semantics. Tables that do not exist yet (gym_client before
+	// schema v7) are skipped and picked up by a later install.
+	private static final Map<String, List<String[]>> SOURCES = new LinkedHashMap<>();
+	static {
+		SOURCES.put("customer", Arrays.asList(
+				new String[] { CUSTOMER_COUNT, "1" },
+				new String[] { CUSTOMER_SALES, "{r}.finalBill" },
+				new String[] { CUSTOMER_PROFIT, "{r}.netProfit" },
+				new String[] { CUSTOMER_PAID, "{r}.amount_paid" },
+				new String[] { CUSTOMER_QTY, "{r}.quantity" }));
+		SOURCES.put("gym_client", Collections.singletonList(
+				new String[] { GYM_COUNT, "1" }));
+		SOURCES.put("gym_wholesaler", Arrays.asList(
+				new String[] { GYM_SALES, "{r}.totalBill" },
+				new String[] { GYM_SALES_WITH_PROFIT, "{r}.totalBill + {r}.netProfit" },
+				new String[] { GYM_PROFIT, "{r}.netProfit" },
+				new String[] { GYM_QTY, "{r}.quantity" }));
+		SOURCES.put("wholesaler_payment", Collections.singletonList(
+				new String[] { GYM_PAID, "{r}.amountPaid" }));
+		SOURCES.put("stock", Arrays.asList(
+				new String[] { STOCK_AMOUNT, "{r}.totalAmount" },
+				new String[] { STOCK_QTY, "{r}.quantity" }));
+		SOURCES.put("product", Collections.singletonList(
+				new String[] { WHOLESALER_BILL, "{r}.total" }));
+		SOURCES.put("payment", Collections.singletonList(
+				new String[] { WHOLESALER_PAID, "{r}.paidAmount" }));
+		SOURCES.put("billdetails", Arrays.asList(
+				new String[] { BILL_EXPENSES, EXPENSES },
+				new String[] { BILL_SALES, "{r}.productSale" },
+				new String[] { BILL_PROFIT, "{r}.productSale - " + EXPENSES }));
+		SOURCES.put("shop_amount", Collections.singletonList(
+				new String[] { SHOP_BALANCE, "{r}.shopAmount" }));
+		SOURCES.put("shop_wholesaler", Arrays.asList(
+				new String[] { SHOP_SALES, "{r}.productQuantity * {r}.sellingPrice" },
+				new String[] { SHOP_PROFIT, "{r}.productQuantity * ({r}.sellingPrice - {r}.buyingPrice)" }));
+	}
+
+	private FinancialSummary() {
+	}
+
+	/** Snapshot of every metric; unknown metrics read as zero. */
+	public static final class Totals {
+		private final Map<String, Double> values;
+
+		Totals(Map<String, Double> values) {
+			this.values = Collections.unmodifiableMap(values);
+		}
+
+		public double get(String metric) {
+			Double value = values.get(metric);
+			return value != null ? value : 0.0;
+		}
+
+		public long getLong(String metric) {
+			return Math.round(get(metric));
+		}
+	}
+
+	// ===== READ =====
+	public static Totals read() throws SQLException {
+		try (Connection conn = DBUtil.getConnection()) {
+			return read(conn);
+		}
+	}
+
+	public static Totals read(Connection conn) throws SQLException {
+		Map<String, Double> values = new HashMap<>();
+		try (PreparedStatement ps = conn.prepareStatement("SELECT metric, amount FROM financial_summary");
+				ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				values.put(rs.getString("metric"), rs.getDouble("amount"));
+			}
+		}
+		return new Totals(values);
+	}
+
+	// ===== INSTALL =====
+	/**
+	 * Creates the summary table and its triggers if they are missing. When
+	 * anything had to be created the totals are rebuilt, since writes made
+	 * before the triggers existed were never counted.
+	 */
+	public static void install() {
+		try (Connection conn = DBUtil.getConnection(); Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS financial_summary ("
+					+ "metric VARCHAR(64) NOT NULL PRIMARY KEY, "
+					+ "amount DECIMAL(20,4) NOT NULL DEFAULT 0)");
+
+			List<String> existing = new ArrayList<>();
+			try (ResultSet rs = st.executeQuery("SELECT TRIGGER_NAME FROM information_schema.TRIGGERS "
+					+ "WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME LIKE 'fs\\_%'")) {
+				while (rs.next()) {
+					existing.add(rs.getString(1));
+				}
+			}
+
+			List<String> tables = existingTables(conn);
+			boolean created = false;
+			for (Map.Entry<String, List<String[]>> source : SOURCES.entrySet()) {
+				String table = source.getKey();
+				if (!tables.contains(table))
+					continue;
+				List<String[]> metrics = source.getValue();
+				created |= createTrigger(st, existing, table, "INSERT", "ai", delta(metrics, "NEW", null));
+				created |= createTrigger(st, existing, table, "UPDATE", "au", delta(metrics, "NEW", "OLD"));
+				created |= createTrigger(st, existing, table, "DELETE", "ad", delta(metrics, null, "OLD"));
+			}
+			if (created) {
+				LOGGER.info("Installed financial_summary triggers, rebuilding totals");
+				rebuild();
+			}
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error installing financial summary: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static List<String> existingTables(Connection conn) throws SQLException {
+		List<String> tables = new ArrayList<>();
+		try (PreparedStatement ps = conn.prepareStatement(
+				"SELECT LOWER(TABLE_NAME) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()");
+				ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				tables.add(rs.getString(1));
+			}
+		}
+		return tables;
+	}
+
+	private static boolean createTrigger(Statement st, List<String> existing, String table, String event,
+			String suffix, String body) throws SQLException {
+		String name = "fs_" + table + "_" + suffix;
+		if (existing.contains(name))
+			return false;
+		st.execute("CREATE TRIGGER " + name + " AFTER " + event + " ON " + table + " FOR EACH ROW " + body);
+		return true;
+	}
+
+	// One upsert per row change; every metric of the table moves by new - old.
+	private static String delta(List<String[]> metrics, String newRow, String oldRow) {
+		StringBuilder sql = new StringBuilder("INSERT INTO financial_summary (metric, amount) VALUES ");
+		for (int i = 0; i < metrics.size(); i++) {
+			String expr = metrics.get(i)[1];
+			String change;
+			if (oldRow == null) {
+				change = value(expr, newRow);
+			} else if (newRow == null) {
+				change = "-" + value(expr, oldRow);
+			} else {
+				change = value(expr, newRow) + " - " + value(expr, oldRow);
+			}
+			if (i > 0)
+				sql.append(", ");
+			sql.append("('").append(metrics.get(i)[0]).append("', ").append(change).append(')');
+		}
+		return sql.append(" ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount)").toString();
+	}
+
+	private static String value(String expr, String row) {
+		return "COALESCE(" + expr.replace("{r}", row) + ", 0)";
+	}
+
+	// ===== REBUILD =====
+	/**
+	 * Recomputes every metric from the source tables in one transaction.
+	 *
+	 * @return metrics whose stored value differed from the recomputed one,
+	 *         mapped to {stored, recomputed}
+	 */
+	public static Map<String, double[]> rebuild() {
+		return recompute(true);
+	}
+
+	/** Same as {@link #rebuild()} but only reports drift, leaving totals as they are. */
+	public static Map<String, double[]> verify() {
+		return recompute(false);
+	}
+
+	private static Map<String, double[]> recompute(boolean write) {
+		Connection conn = null;
+		try {
+			conn = DBUtil.getConnection();
+			conn.setAutoCommit(false);
+
+			// Lock the summary rows first so trigger updates from concurrent
+			// writers queue behind the rebuild instead of being overwritten.
+			Map<String, Double> current = new HashMap<>();
+			try (PreparedStatement ps = conn.prepareStatement("SELECT metric, amount FROM financial_summary FOR UPDATE");
+					ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					current.put(rs.getString("metric"), rs.getDouble("amount"));
+				}
+			}
+			Totals stored = new Totals(current);
+
+			List<String> tables = existingTables(conn);
+			Map<String, Double> fresh = new LinkedHashMap<>();
+			for (Map.Entry<String, List<String[]>> source : SOURCES.entrySet()) {
+				if (!tables.contains(source.getKey()))
+					continue;
+				List<String[]> metrics = source.getValue();
+				StringBuilder sql = new StringBuilder("SELECT ");
+				for (int i = 0; i < metrics.size(); i++) {
+					if (i > 0)
+						sql.append(", ");
+					sql.append("COALESCE(SUM(").append(metrics.get(i)[1].replace("{r}", "t")).append("), 0)");
+				}
+				sql.append(" FROM ").append(source.getKey()).append(" t");
+				try (PreparedStatement ps = conn.prepareStatement(sql.toString()); ResultSet rs = ps.executeQuery()) {
+					rs.next();
+					for (int i = 0; i < metrics.size(); i++) {
+						fresh.put(metrics.get(i)[0], rs.getDouble(i + 1));
+					}
+				}
+			}
+
+			Map<String, double[]> drift = new LinkedHashMap<>();
+			for (Map.Entry<String, Double> e : fresh.entrySet()) {
+				double was = stored.get(e.getKey());
+				if (Math.abs(was - e.getValue()) > 0.005)
+					drift.put(e.getKey(), new double[] { was, e.getValue() });
+			}
+
+			if (write) {
+				try (PreparedStatement ps = conn.prepareStatement("INSERT INTO financial_summary (metric, amount) VALUES (?, ?) "
+						+ "ON DUPLICATE KEY UPDATE amount = VALUES(amount)")) {
+					for (Map.Entry<String, Double> e : fresh.entrySet()) {
+						ps.setString(1, e.getKey());
+						ps.setDouble(2, e.getValue());
+						ps.addBatch();
+					}
+					ps.executeBatch();
+				}
+			}
+			conn.commit();
+			return drift;
+		} catch (SQLException ex) {
+			try {
+				if (conn != null)
+					conn.rollback();
+			} catch (SQLException ignored) {
+			}
+			throw new RuntimeException("Error rebuilding financial summary: " + ex.getMessage(), ex);
+		} finally {
+			DBUtil.closeConnection(conn);
+		}
+	}
+
+	public static void main(String[] args) {
+		boolean write = args.length > 0 && "rebuild".equalsIgnoreCase(args[0]);
+		if (args.length == 0 || !(write || "verify".equalsIgnoreCase(args[0]))) {
+			System.err.println("Usage: FinancialSummary rebuild|verify");
+			System.exit(2);
+		}
+		install();
+		Map<String, double[]> drift = write ? rebuild() : verify();
+		if (drift.isEmpty()) {
+			System.out.println("financial_summary is consistent");
+		} else {
+			for (Map.Entry<String, double[]> e : drift.entrySet()) {
+				System.out.printf("%-24s stored %.2f, actual %.2f%n", e.getKey(), e.getValue()[0], e.getValue()[1]);
+			}
+			System.out.println(write ? "Rebuilt " + drift.size() + " metric(s)" : drift.size() + " metric(s) drifted");
+		}
+		System.exit(drift.isEmpty() || write ? 0 : 1);
+	}
+}
@@ -245,28 +245,12 @@ public class GymWholesalerAddProductForm extends JPanel {
     }
 
     private void loadProductNames() {
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            ps = conn.prepareStatement("SELECT DISTINCT productName FROM stock WHERE quantity >= 0");
-            rs = ps.executeQuery();
-            List<String> names = new ArrayList<>();
-            while (rs.next()) {
-                String n = rs.getString(1);
-                if (n != null && !n.trim().isEmpty()) names.add(n);
-            }
-            productComboBox.removeAllItems();
-            productComboBox.addItem("");
-            names.stream().distinct().sorted(String.CASE_INSENSITIVE_ORDER).forEach(productComboBox::addItem);
-            productRates.clear();
-            names.forEach(this::loadPricesForProduct);
-        } catch (SQLException ex) {
-            LOGGER.severe("Load error: " + ex.getMessage());
-        } finally {
-            closeResources(rs, ps, conn);
-        }
+        List<String> names = ProductCatalog.names(false);
+        productComboBox.removeAllItems();
+        productComboBox.addItem("");
+        names.stream().filter(n -> !n.trim().isEmpty()).forEach(productComboBox::addItem);
+        productRates.clear();
+        names.forEach(this::loadPricesForProduct);
     }
 
     private void loadPricesForProduct(String name) {
@@ -304,49 +288,33 @@ public class GymWholesalerAddProductForm extends JPanel {
             return;
         }
 
-        Connection conn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            ps = conn.prepareStatement("SELECT DISTINCT productName FROM stock WHERE LOWER(productName) LIKE ? AND quantity >= 0 ORDER BY productName");
-            ps.setString(1, "%" + search + "%");
-            rs = ps.executeQuery();
-
-            List<String> matches = new ArrayList<>();
-            while (rs.next()) matches.add(rs.getString(1));
-
-            String finalText = editor.getText();
+        List<String> matches = ProductCatalog.suggest(search, false);
 
-            productComboBox.removeAllItems();
-            productComboBox.addItem("");
-            matches.forEach(productComboBox::addItem);
-            productComboBox.getEditor().setItem(finalText);
+        String finalText = editor.getText();
 
-            if (!matches.isEmpty()) productComboBox.showPopup();
-            else productComboBox.hidePopup();
+        productComboBox.removeAllItems();
+        productComboBox.addItem("");
+        matches.forEach(productComboBox::addItem);
+        productComboBox.getEditor().setItem(finalText);
 
-            boolean exact = matches.stream().anyMatch(m -> m.trim().toLowerCase().equals(search));
-            if (exact) {
-                String match = matches.stream()
-                        .filter(m -> m.trim().toLowerCase().equals(search))
-                        .findFirst().orElse(finalText);
-                productComboBox.setSelectedItem(match);
-                updateBuyingPriceAndStock();
-            }
+        if (!matches.isEmpty()) productComboBox.showPopup();
+        else productComboBox.hidePopup();
 
-            SwingUtilities.invokeLater(() -> {
-                editor.setText(finalText);
-                editor.setCaretPosition(finalText.length());
-                editor.requestFocusInWindow();
-                updating = false;
-            });
+        boolean exact = matches.stream().anyMatch(m -> m.trim().toLowerCase().equals(search));
+        if (exact) {
+            String match = matches.stream()
+                    .filter(m -> m.trim().toLowerCase().equals(search))
+                    .findFirst().orElse(finalText);
+            productComboBox.setSelectedItem(match);
+            updateBuyingPriceAndStock();
+        }
 
-        } catch (SQLException ex) {
+        SwingUtilities.invokeLater(() -> {
+            editor.setText(finalText);
+            editor.setCaretPosition(finalText.length());
+            editor.requestFocusInWindow();
             updating = false;
-        } finally {
-            closeResources(rs, ps, conn);
-        }
+        });
     }
 
     private void closeResources(ResultSet rs, Statement s, Connection c) {
@@ -504,6 +472,7 @@ public class GymWholesalerAddProductForm extends JPanel {
 
             GymWholesaler p = new GymWholesaler(null, wholesaler.getWholesalerName(), wholesaler.getMobileNo(),
                     name, qty, buy, sell, qty * (sell - buy), null, date, wholesaler.getAddress());
+            p.setClientId(wholesaler.getClientId());
             p.setTotalBill(total);
             p.setDescription(desc);
             list.add(p);
@@ -64,8 +64,12 @@ public class GymWholesalerCard extends JPanel {
     private static final Color SHADOW_COLOR = new Color(224, 224, 224);
     private static final Color BUTTON_COLOR = new Color(50, 50, 50);
 
+    /**
+     * @param summary the client's totals from {@link GymWholesalerDAO#fetchClientSummaries}, read in bulk by
+     *                the caller so building a card never queries the database
+     */
     public GymWholesalerCard(GymWholesaler wholesaler, CardLayout cardLayout, JPanel mainContentPanel,
-            GymWholesalerDAO dao, Consumer<GymWholesaler> onCardClick) {
+            GymWholesalerDAO dao, Consumer<GymWholesaler> onCardClick, GymWholesalerDAO.ClientSummary summary) {
         this.wholesaler = wholesaler;
         this.dao = dao;
         this.transactions = new HashMap<>();
@@ -161,15 +165,7 @@ public class GymWholesalerCard extends JPanel {
             }
         });
 
-        try {
-            updateFinancials();
-        } catch (Exception e) {
-            LOGGER.severe("Error initializing financials: " + e.getMessage());
-            e.printStackTrace();
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
-                    "Failed to load financial data. Please try again. Error: " + e.getMessage(), "Error",
-                    JOptionPane.ERROR_MESSAGE));
-        }
+        showFinancials(summary);
     }
 
     public GymWholesaler getWholesaler() {
@@ -189,58 +185,30 @@ public class GymWholesalerCard extends JPanel {
         }
     }
 
+    // Re-reads the totals through the DAO's summary cache, off the EDT
     private void updateFinancials() {
-        try {
-            if (dao == null) {
-                throw new IllegalStateException("GymWholesalerDAO is null");
-            }
-            Map<String, Object> paymentDetails = dao.fetchPaymentDetails(wholesaler);
-            if (paymentDetails == null || paymentDetails.isEmpty()) {
-                throw new IllegalStateException(
-                        "No payment details retrieved for wholesaler: " + wholesaler.getWholesalerName());
-            }
-
-            Double totalBill = (Double) paymentDetails.get("totalBill");
-            Double amountPaid = (Double) paymentDetails.get("totalPaid");
-            if (totalBill == null || amountPaid == null) {
-                throw new IllegalStateException("Missing totalBill or totalPaid in payment details");
-            }
-
-            double pendingAmount = totalBill - amountPaid;
-            if (pendingAmount < 0) {
-                pendingAmount = 0;
-            }
-
-            // Get the earliest purchase date as the card creation date
-            String creationDate = "N/A";
-            List<LocalDate> purchaseDates = dao.fetchPurchaseDates(wholesaler);
-            if (!purchaseDates.isEmpty()) {
-                LocalDate earliestDate = purchaseDates.stream()
-                        .filter(date -> date != null)
-                        .min(LocalDate::compareTo)
-                        .orElse(null);
-                if (earliestDate != null) {
-                    creationDate = earliestDate.toString();
-                }
-            }
-
-            amountPaidLabel.setText("Paid: $" + String.format("%.2f", amountPaid));
-            pendingAmountLabel.setText("Pending: $" + String.format("%.2f", pendingAmount));
-            lastUpdatedLabel.setText("Created: " + creationDate);
-            revalidate();
-            repaint();
-        } catch (Exception e) {
+        if (dao == null) {
+            throw new IllegalStateException("GymWholesalerDAO is null");
+        }
+        DbExecutor.submit(this, "financials", () -> dao.fetchClientSummary(wholesaler), this::showFinancials, e -> {
             LOGGER.severe("Error fetching payment details for wholesaler " + wholesaler.getWholesalerName() + ": "
                     + e.getMessage());
-            e.printStackTrace();
-            amountPaidLabel.setText("Paid: $0.00");
-            pendingAmountLabel.setText("Pending: $0.00");
-            lastUpdatedLabel.setText("Created: N/A");
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+            showFinancials(GymWholesalerDAO.ClientSummary.EMPTY);
+            JOptionPane.showMessageDialog(this,
                     "Failed to load financial data for " + wholesaler.getWholesalerName()
                             + ". Error: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE));
-        }
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void showFinancials(GymWholesalerDAO.ClientSummary summary) {
+        // The earliest purchase date is shown as the card creation date
+        LocalDate firstPurchase = summary.getFirstPurchase();
+        amountPaidLabel.setText("Paid: $" + String.format("%.2f", summary.getTotalPaid()));
+        pendingAmountLabel.setText("Pending: $" + String.format("%.2f", summary.getPendingAmount()));
+        lastUpdatedLabel.setText("Created: " + (firstPurchase != null ? firstPurchase.toString() : "N/A"));
+        revalidate();
+        repaint();
     }
 
     private void generatePaymentPDF() {
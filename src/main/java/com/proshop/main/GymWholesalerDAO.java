@@ -1,10 +1,12 @@
 package com.proshop.main;
 
 import java.awt.Component;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -12,6 +14,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import javax.swing.JOptionPane;
@@ -24,6 +27,8 @@ import com.proshop.model.GymWholesaler;
 public class GymWholesalerDAO {
     private static final Logger LOGGER = Logger.getLogger(GymWholesalerDAO.class.getName());
 
+    private static final String DUPLICATE_CLIENT = "A wholesaler with this name and mobile number already exists.";
+
     private void closeResources(ResultSet rs, PreparedStatement pstmt, Connection conn) {
         try {
             if (rs != null) rs.close();
@@ -80,81 +85,6 @@ public class GymWholesalerDAO {
         }
         return map;
     }
-    // =====================================================
-    // 3. UPDATE STOCK (DIRECTLY ON `stock` TABLE)
-    // =====================================================
-    private boolean updateStockQuantity(Connection conn, String productName, int qtyChange, double perPieceRate) throws SQLException {
-        if (productName == null || productName.trim().isEmpty()) return false;
-
-        String name = productName.trim();
-        boolean deduct = qtyChange > 0;
-        int qty = Math.abs(qtyChange);
-
-        if (deduct) {
-            // DEDUCT: Find matching stock by name + rate
-            String sel = "SELECT id, quantity FROM stock WHERE LOWER(productName) = LOWER(?) AND perPieceRate = ? AND quantity > 0 ORDER BY id FOR UPDATE";
-            List<long[]> updates = new ArrayList<>();
-            try (PreparedStatement ps = conn.prepareStatement(sel)) {
-                ps.setString(1, name);
-                ps.setDouble(2, perPieceRate);
-                try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next() && qty > 0) {
-                        long id = rs.getLong("id");
-                        int cur = rs.getInt("quantity");
-                        int take = Math.min(cur, qty);
-                        updates.add(new long[]{id, take});
-                        qty -= take;
-                    }
-                }
-            }
-            if (qty > 0) {
-                LOGGER.warning("Not enough stock for: " + name + " (rate: " + perPieceRate + ")");
-                return false;
-            }
-
-            String upd = "UPDATE stock SET quantity = quantity - ?, totalAmount = (quantity - ?) * perPieceRate WHERE id = ?";
-            for (long[] u : updates) {
-                try (PreparedStatement ps = conn.prepareStatement(upd)) {
-                    ps.setLong(1, u[1]);
-                    ps.setLong(2, u[1]);
-                    ps.setLong(3, u[0]);
-                    ps.executeUpdate();
-                }
-            }
-            return true;
-
-        } else if (qty > 0) {
-            // ADD: Insert new rows (1 per unit)
-            String ins = "INSERT INTO stock (productName, perPieceRate, quantity, totalAmount, purchaseDate, productId) " +
-                         "VALUES (?, ?, 1, ?, ?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(ins)) {
-                java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
-
-                // Find any productId for this productName (or use 1 if none)
-                Long productId = 1L;
-                String pidSql = "SELECT id FROM product WHERE LOWER(productName) = LOWER(?) LIMIT 1";
-                try (PreparedStatement pidPs = conn.prepareStatement(pidSql)) {
-                    pidPs.setString(1, name);
-                    try (ResultSet rs = pidPs.executeQuery()) {
-                        if (rs.next()) productId = rs.getLong("id");
-                    }
-                }
-
-                for (int i = 0; i < qty; i++) {
-                    ps.setString(1, name);
-                    ps.setDouble(2, perPieceRate);
-                    ps.setDouble(3, perPieceRate);
-                    ps.setDate(4, today);
-                    ps.setLong(5, productId);
-                    ps.addBatch();
-                }
-                int[] res = ps.executeBatch();
-                return Arrays.stream(res).allMatch(r -> r >= 0);
-            }
-        }
-        return true;
-    }
-
     // =====================================================
     // 4. SAVE PRODUCTS (JAVA 8+ COMPATIBLE - NO TEXT BLOCKS)
     // =====================================================
@@ -164,18 +94,62 @@ public class GymWholesalerDAO {
             return;
         }
 
+        try {
+            insertProducts(products, dateOfPurchase);
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                    "Products saved & stock updated!", "Success", JOptionPane.INFORMATION_MESSAGE));
+        } catch (SaveRejected ex) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                    ex.getMessage(), ex.getTitle(), JOptionPane.ERROR_MESSAGE));
+        } catch (SQLException ex) {
+            LOGGER.severe("saveProducts failed: " + ex.getMessage());
+            ex.printStackTrace();
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                    "Error: " + ex.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE));
+        }
+    }
+
+    /** A save refused before anything was written; the message is meant for the user. */
+    public static final class SaveRejected extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final String title;
+
+        SaveRejected(String title, String message) {
+            super(message);
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    /**
+     * Inserts the lines and deducts their stock in one transaction, without
+     * any dialogs. Every line must belong to the same client.
+     *
+     * @throws SaveRejected if the client is unknown or a product is short of stock
+     */
+    public void insertProducts(List<GymWholesaler> products, LocalDate dateOfPurchase) throws SQLException, SaveRejected {
         // NORMAL STRING (NO TEXT BLOCK)
         String sql = "INSERT INTO gym_wholesaler " +
-                     "(wholesalerName, mobileNo, address, productName, quantity, " +
+                     "(client_id, productName, quantity, " +
                      "buyingPrice, sellingPrice, totalBill, netProfit, " +
                      "paymentMode, dateOfPurchase, description) " +
-                     "VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
+                     "VALUES (?,?,?,?,?,?,?,?,?,?)";
 
         Connection conn = null;
         try {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
+            // Every line of one save belongs to the same client
+            long clientId = getClientId(products.get(0), conn);
+            if (clientId == -1) {
+                conn.rollback();
+                throw new SaveRejected("Error", "Wholesaler not found.");
+            }
+
             // VALIDATE STOCK
             List<String> names = products.stream()
                     .map(p -> p.getProductName().trim())
@@ -191,29 +165,24 @@ public class GymWholesalerDAO {
 
                 if (needed > available) {
                     conn.rollback();
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                            "Insufficient stock for \"" + p.getProductName() +
-                                    "\". Need: " + needed + ", Available: " + available,
-                            "Stock Error", JOptionPane.ERROR_MESSAGE));
-                    return;
+                    throw new SaveRejected("Stock Error", "Insufficient stock for \"" + p.getProductName() +
+                            "\". Need: " + needed + ", Available: " + available);
                 }
             }
 
             // BATCH INSERT
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 for (GymWholesaler p : products) {
-                    ps.setString(1, p.getWholesalerName());
-                    ps.setString(2, p.getMobileNo());
-                    ps.setString(3, p.getAddress());
-                    ps.setString(4, p.getProductName().trim());
-                    ps.setInt(5, p.getProductQuantity());
-                    ps.setDouble(6, p.getBuyingPrice());
-                    ps.setDouble(7, p.getSellingPrice());
-                    ps.setDouble(8, p.getTotalBill());
-                    ps.setDouble(9, p.getNetProfit());
-                    ps.setString(10, p.getPaymentMode() != null ? p.getPaymentMode() : "Cash");
-                    ps.setObject(11, java.sql.Date.valueOf(dateOfPurchase));
-                    ps.setString(12, p.getDescription());
+                    ps.setLong(1, clientId);
+                    ps.setString(2, p.getProductName().trim());
+                    ps.setInt(3, p.getProductQuantity());
+                    ps.setDouble(4, p.getBuyingPrice());
+                    ps.setDouble(5, p.getSellingPrice());
+                    ps.setDouble(6, p.getTotalBill());
+                    ps.setDouble(7, p.getNetProfit());
+                    ps.setString(8, p.getPaymentMode() != null ? p.getPaymentMode() : "Cash");
+                    ps.setObject(9, java.sql.Date.valueOf(dateOfPurchase));
+                    ps.setString(10, p.getDescription());
                     ps.addBatch();
                 }
                 int[] results = ps.executeBatch();
@@ -224,21 +193,16 @@ public class GymWholesalerDAO {
 
             // DEDUCT STOCK
             for (GymWholesaler p : products) {
-                if (!updateStockQuantity(conn, p.getProductName().trim(), p.getProductQuantity(), p.getBuyingPrice())) {
+                if (!StockLedger.reserve(conn, p.getProductName().trim(), BigDecimal.valueOf(p.getBuyingPrice()), p.getProductQuantity())) {
                     throw new SQLException("Failed to deduct stock for: " + p.getProductName());
                 }
             }
 
             conn.commit();
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                    "Products saved & stock updated!", "Success", JOptionPane.INFORMATION_MESSAGE));
-
+            invalidateClientSummaries();
         } catch (SQLException ex) {
             if (conn != null) try { conn.rollback(); } catch (SQLException ignored) {}
-            LOGGER.severe("saveProducts failed: " + ex.getMessage());
-            ex.printStackTrace();
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                    "Error: " + ex.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE));
+            throw ex;
         } finally {
             closeResources(null, null, conn);
         }
@@ -260,7 +224,7 @@ public class GymWholesalerDAO {
         }
     }
     // =====================================================
-    // 5. UPDATE PRODUCT (FIXED: ONE-BY-ONE RESTOCK ON DECREASE)
+    // 5. UPDATE PRODUCT (RESTOCK ON DECREASE)
     // =====================================================
     public void updateProduct(long id, int newQuantity, double newSellingPrice, double buyingPrice, String productName, JPanel parent) {
         String selectSql = "SELECT quantity FROM gym_wholesaler WHERE id = ?";
@@ -296,7 +260,7 @@ public class GymWholesalerDAO {
                             "Error", JOptionPane.ERROR_MESSAGE));
                     return;
                 }
-                if (!updateStockQuantity(conn, productName.trim(), qtyChange, buyingPrice)) {
+                if (!StockLedger.reserve(conn, productName.trim(), BigDecimal.valueOf(buyingPrice), qtyChange)) {
                     conn.rollback();
                     SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
                             "Failed to deduct stock", "Error", JOptionPane.ERROR_MESSAGE));
@@ -304,43 +268,9 @@ public class GymWholesalerDAO {
                 }
             }
 
-            // CASE 2: DECREASING QUANTITY → RESTORE ONE-BY-ONE
+            // CASE 2: DECREASING QUANTITY → RESTORE AS ONE LOT
             else if (qtyChange < 0) {
-                int qtyToRestore = -qtyChange; // positive number
-
-                String ins = "INSERT INTO stock (productName, perPieceRate, quantity, totalAmount, purchaseDate, productId) " +
-                             "VALUES (?, ?, 1, ?, ?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(ins)) {
-                    java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
-
-                    // Get productId
-                    Long productId = 1L;
-                    String pidSql = "SELECT id FROM product WHERE LOWER(productName) = LOWER(?) LIMIT 1";
-                    try (PreparedStatement pidPs = conn.prepareStatement(pidSql)) {
-                        pidPs.setString(1, productName.trim());
-                        try (ResultSet rs = pidPs.executeQuery()) {
-                            if (rs.next()) productId = rs.getLong("id");
-                        }
-                    }
-
-                    for (int i = 0; i < qtyToRestore; i++) {
-                        ps.setString(1, productName.trim());
-                        ps.setDouble(2, buyingPrice);
-                        ps.setDouble(3, buyingPrice);
-                        ps.setDate(4, today);
-                        ps.setLong(5, productId);
-                        ps.addBatch();
-                    }
-
-                    int[] results = ps.executeBatch();
-                    boolean allOk = Arrays.stream(results).allMatch(r -> r >= 0);
-                    if (!allOk) {
-                        conn.rollback();
-                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                                "Failed to restore " + qtyToRestore + " unit(s) to stock", "Error", JOptionPane.ERROR_MESSAGE));
-                        return;
-                    }
-                }
+                StockLedger.release(conn, productName.trim(), BigDecimal.valueOf(buyingPrice), -qtyChange);
             }
 
             // NO CHANGE → skip stock update
@@ -355,6 +285,7 @@ public class GymWholesalerDAO {
                 int updated = ps.executeUpdate();
                 if (updated > 0) {
                     conn.commit();
+                    invalidateClientSummaries();
                     if (qtyChange < 0) {
                     } else if (qtyChange > 0) {
                     }
@@ -375,7 +306,7 @@ public class GymWholesalerDAO {
         }
     }
     // =====================================================
-    // 6. DELETE PRODUCT + RESTORE STOCK (ONE-BY-ONE)
+    // 6. DELETE PRODUCT + RESTORE STOCK
     // =====================================================
     public void deleteProduct(long id, String productName, JPanel parent) {
         String selectSql = "SELECT quantity, buyingPrice FROM gym_wholesaler WHERE id = ?";
@@ -403,41 +334,9 @@ public class GymWholesalerDAO {
                 }
             }
 
-            // 2. RESTORE STOCK: INSERT ONE-BY-ONE (LIKE ADDING)
+            // 2. RESTORE STOCK: RETURN QUANTITY TO TODAY'S LOT
             if (quantity > 0) {
-                String ins = "INSERT INTO stock (productName, perPieceRate, quantity, totalAmount, purchaseDate, productId) " +
-                             "VALUES (?, ?, 1, ?, ?, ?)";
-                try (PreparedStatement ps = conn.prepareStatement(ins)) {
-                    java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
-
-                    // Get productId from product table
-                    Long productId = 1L;
-                    String pidSql = "SELECT id FROM product WHERE LOWER(productName) = LOWER(?) LIMIT 1";
-                    try (PreparedStatement pidPs = conn.prepareStatement(pidSql)) {
-                        pidPs.setString(1, productName.trim());
-                        try (ResultSet rs = pidPs.executeQuery()) {
-                            if (rs.next()) productId = rs.getLong("id");
-                        }
-                    }
-
-                    for (int i = 0; i < quantity; i++) {
-                        ps.setString(1, productName.trim());
-                        ps.setDouble(2, buyingPrice);
-                        ps.setDouble(3, buyingPrice);
-                        ps.setDate(4, today);
-                        ps.setLong(5, productId);
-                        ps.addBatch();
-                    }
-
-                    int[] results = ps.executeBatch();
-                    boolean allOk = Arrays.stream(results).allMatch(r -> r >= 0);
-                    if (!allOk) {
-                        conn.rollback();
-                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                                "Failed to restore stock for: " + productName, "Error", JOptionPane.ERROR_MESSAGE));
-                        return;
-                    }
-                }
+                StockLedger.release(conn, productName.trim(), BigDecimal.valueOf(buyingPrice), quantity);
             }
 
             // 3. DELETE FROM gym_wholesaler
@@ -446,6 +345,7 @@ public class GymWholesalerDAO {
                 int deleted = ps.executeUpdate();
                 if (deleted > 0) {
                     conn.commit();
+                    invalidateClientSummaries();
                     SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
                             "Product deleted &  unit(s) restored to stock!", 
                             "Success", JOptionPane.INFORMATION_MESSAGE));
@@ -470,21 +370,23 @@ public class GymWholesalerDAO {
     // 7. DELETE WHOLESALER + RESTORE STOCK
     // =====================================================
     public void deleteWholesaler(GymWholesaler wholesaler, JPanel parent) {
-        String selectSql = "SELECT productName, quantity, buyingPrice FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ?";
-        String deleteSql = "DELETE FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ?";
+        String selectSql = "SELECT productName, quantity, buyingPrice FROM gym_wholesaler WHERE client_id = ?";
+        String deleteLinesSql = "DELETE FROM gym_wholesaler WHERE client_id = ?";
+        String deleteSql = "DELETE FROM gym_client WHERE id = ?";
 
         Connection conn = null;
         try {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
+            long clientId = getClientId(wholesaler, conn);
+
             List<String> names = new ArrayList<>();
             List<Integer> qtys = new ArrayList<>();
             List<Double> prices = new ArrayList<>();
 
             try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
-                ps.setString(1, wholesaler.getWholesalerName());
-                ps.setString(2, wholesaler.getMobileNo());
+                ps.setLong(1, clientId);
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
                         String n = rs.getString("productName");
@@ -497,23 +399,23 @@ public class GymWholesalerDAO {
                 }
             }
 
-            boolean ok = true;
             for (int i = 0; i < names.size(); i++) {
-                if (!updateStockQuantity(conn, names.get(i), qtys.get(i), prices.get(i))) {
-                    ok = false;
-                    break;
-                }
+                StockLedger.release(conn, names.get(i), BigDecimal.valueOf(prices.get(i)), qtys.get(i));
             }
 
+            try (PreparedStatement ps = conn.prepareStatement(deleteLinesSql)) {
+                ps.setLong(1, clientId);
+                ps.executeUpdate();
+            }
             int deleted;
             try (PreparedStatement ps = conn.prepareStatement(deleteSql)) {
-                ps.setString(1, wholesaler.getWholesalerName());
-                ps.setString(2, wholesaler.getMobileNo());
+                ps.setLong(1, clientId);
                 deleted = ps.executeUpdate();
             }
 
-            if (deleted > 0 && ok) {
+            if (deleted > 0) {
                 conn.commit();
+                invalidateClientSummaries();
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Wholesaler deleted!", "Success", JOptionPane.INFORMATION_MESSAGE));
             } else {
                 conn.rollback();
@@ -533,19 +435,21 @@ public class GymWholesalerDAO {
     // =====================================================
     public List<GymWholesaler> fetchWholesalers() throws SQLException {
         List<GymWholesaler> list = new ArrayList<>();
-        String sql = "SELECT DISTINCT wholesalerName, mobileNo, address FROM gym_wholesaler";
+        String sql = "SELECT id, wholesalerName, mobileNo, address FROM gym_client ORDER BY id";
         try (Connection c = DBUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
-                list.add(new GymWholesaler(null, rs.getString(1), rs.getString(2), null, 0, 0, 0, 0, null, null, rs.getString(3)));
+                GymWholesaler w = new GymWholesaler(null, rs.getString(2), rs.getString(3), null, 0, 0, 0, 0, null, null, rs.getString(4));
+                w.setClientId(rs.getLong(1));
+                list.add(w);
             }
         }
         return list;
     }
 
     public void addWholesaler(GymWholesaler w, JPanel p) {
-        String sql = "INSERT INTO gym_wholesaler (wholesalerName, mobileNo, address) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO gym_client (wholesalerName, mobileNo, address) VALUES (?, ?, ?)";
         try (Connection c = DBUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             c.setAutoCommit(false);
@@ -554,8 +458,11 @@ public class GymWholesalerDAO {
             ps.setString(3, w.getAddress());
             if (ps.executeUpdate() > 0) {
                 c.commit();
+                invalidateClientSummaries();
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(p, "Added!", "Success", JOptionPane.INFORMATION_MESSAGE));
             } else c.rollback();
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(p, DUPLICATE_CLIENT, "Error", JOptionPane.ERROR_MESSAGE));
         } catch (SQLException ex) {
             SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(p, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
         }
@@ -587,11 +494,10 @@ public class GymWholesalerDAO {
     // =====================================================
     public List<LocalDate> fetchPurchaseDates(GymWholesaler wholesaler) {
         List<LocalDate> dates = new ArrayList<>();
-        String sql = "SELECT DISTINCT dateOfPurchase FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? AND productName IS NOT NULL ORDER BY dateOfPurchase";
+        String sql = "SELECT DISTINCT dateOfPurchase FROM gym_wholesaler WHERE client_id = ? ORDER BY dateOfPurchase";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, wholesaler.getWholesalerName());
-            pstmt.setString(2, wholesaler.getMobileNo());
+            pstmt.setLong(1, getClientId(wholesaler, conn));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     LocalDate date = rs.getObject("dateOfPurchase", LocalDate.class);
@@ -610,12 +516,12 @@ public class GymWholesalerDAO {
     public List<GymWholesaler> fetchProductsByDate(GymWholesaler wholesaler, LocalDate date) {
         List<GymWholesaler> products = new ArrayList<>();
         String sql = "SELECT id, productName, quantity, buyingPrice, sellingPrice, totalBill, netProfit, description " +
-                     "FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? AND dateOfPurchase = ? AND productName IS NOT NULL";
+                     "FROM gym_wholesaler WHERE client_id = ? AND dateOfPurchase = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, wholesaler.getWholesalerName());
-            pstmt.setString(2, wholesaler.getMobileNo());
-            pstmt.setObject(3, date);
+            long clientId = getClientId(wholesaler, conn);
+            pstmt.setLong(1, clientId);
+            pstmt.setObject(2, date);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     GymWholesaler p = new GymWholesaler(
@@ -624,6 +530,7 @@ public class GymWholesalerDAO {
                         rs.getDouble("buyingPrice"), rs.getDouble("sellingPrice"), rs.getDouble("netProfit"),
                         null, date, wholesaler.getAddress()
                     );
+                    p.setClientId(clientId);
                     p.setDescription(rs.getString("description"));
                     p.setTotalBill(rs.getDouble("totalBill"));
                     products.add(p);
@@ -639,24 +546,24 @@ public class GymWholesalerDAO {
     // 14. RECORD PAYMENT
     // =====================================================
     public void recordPayment(GymWholesaler wholesaler, double amountPaid, String paymentMode, LocalDate paymentDate, JPanel parent) {
-        String paymentSql = "INSERT INTO wholesaler_payment (wholesalerId, paymentMode, dateOfAmountPaid, amountPaid, pendingAmount) VALUES (?, ?, ?, ?, ?)";
+        String paymentSql = "INSERT INTO wholesaler_payment (client_id, paymentMode, dateOfAmountPaid, amountPaid, pendingAmount) VALUES (?, ?, ?, ?, ?)";
         String shopSql = "INSERT INTO shop_amount (shopAmount, amountDate) VALUES (?, ?)";
 
         Connection conn = null;
         try {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
-            long wholesalerId = getWholesalerId(wholesaler, conn);
-            if (wholesalerId == -1) {
+            long clientId = getClientId(wholesaler, conn);
+            if (clientId == -1) {
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Wholesaler not found.", "Error", JOptionPane.ERROR_MESSAGE));
                 conn.rollback();
                 return;
             }
 
-            double pendingAmount = calculatePendingAmount(wholesalerId, amountPaid, conn);
+            double pendingAmount = calculatePendingAmount(clientId, amountPaid, conn);
             int rows1, rows2;
             try (PreparedStatement pstmt = conn.prepareStatement(paymentSql)) {
-                pstmt.setLong(1, wholesalerId);
+                pstmt.setLong(1, clientId);
                 pstmt.setString(2, paymentMode);
                 pstmt.setObject(3, paymentDate);
                 pstmt.setDouble(4, amountPaid);
@@ -671,6 +578,7 @@ public class GymWholesalerDAO {
 
             if (rows1 > 0 && rows2 > 0) {
                 conn.commit();
+                invalidateClientSummaries();
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Payment recorded successfully!", "Success", JOptionPane.INFORMATION_MESSAGE));
             } else {
                 conn.rollback();
@@ -694,15 +602,15 @@ public class GymWholesalerDAO {
         List<Object[]> payments = new ArrayList<>();
         double totalBill = 0.0, totalPaid = 0.0;
 
-        String billSql = "SELECT dateOfPurchase, SUM(totalBill) as totalBill FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? AND productName IS NOT NULL GROUP BY dateOfPurchase";
-        String paymentSql = "SELECT wp.dateOfAmountPaid, wp.amountPaid FROM wholesaler_payment wp JOIN gym_wholesaler gw ON wp.wholesalerId = gw.id WHERE gw.wholesalerName = ? AND gw.mobileNo = ?";
+        String billSql = "SELECT dateOfPurchase, SUM(totalBill) as totalBill FROM gym_wholesaler WHERE client_id = ? GROUP BY dateOfPurchase";
+        String paymentSql = "SELECT dateOfAmountPaid, amountPaid FROM wholesaler_payment WHERE client_id = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement bp = conn.prepareStatement(billSql);
              PreparedStatement pp = conn.prepareStatement(paymentSql)) {
 
-            bp.setString(1, wholesaler.getWholesalerName());
-            bp.setString(2, wholesaler.getMobileNo());
+            long clientId = getClientId(wholesaler, conn);
+            bp.setLong(1, clientId);
             try (ResultSet rs = bp.executeQuery()) {
                 while (rs.next()) {
                     LocalDate d = rs.getObject("dateOfPurchase", LocalDate.class);
@@ -712,8 +620,7 @@ public class GymWholesalerDAO {
                 }
             }
 
-            pp.setString(1, wholesaler.getWholesalerName());
-            pp.setString(2, wholesaler.getMobileNo());
+            pp.setLong(1, clientId);
             try (ResultSet rs = pp.executeQuery()) {
                 while (rs.next()) {
                     LocalDate d = rs.getObject("dateOfAmountPaid", LocalDate.class);
@@ -733,16 +640,129 @@ public class GymWholesalerDAO {
         return result;
     }
 
+    // =====================================================
+    // 15b. BULK CLIENT SUMMARIES (CACHED)
+    // =====================================================
+    /** Purchase dates and money totals of one gym client, as shown on its card. */
+    public static final class ClientSummary {
+        static final ClientSummary EMPTY = new ClientSummary(null, null, 0, 0.0, 0.0);
+
+        private final LocalDate firstPurchase;
+        private final LocalDate lastPurchase;
+        private final int purchaseDays;
+        private final double totalBill;
+        private final double totalPaid;
+
+        ClientSummary(LocalDate firstPurchase, LocalDate lastPurchase, int purchaseDays, double totalBill, double totalPaid) {
+            this.firstPurchase = firstPurchase;
+            this.lastPurchase = lastPurchase;
+            this.purchaseDays = purchaseDays;
+            this.totalBill = totalBill;
+            this.totalPaid = totalPaid;
+        }
+
+        public LocalDate getFirstPurchase() {
+            return firstPurchase;
+        }
+
+        public LocalDate getLastPurchase() {
+            return lastPurchase;
+        }
+
+        public int getPurchaseDays() {
+            return purchaseDays;
+        }
+
+        public double getTotalBill() {
+            return totalBill;
+        }
+
+        public double getTotalPaid() {
+            return totalPaid;
+        }
+
+        /** Bill total less payments, never below zero. */
+        public double getPendingAmount() {
+            return Math.max(0, totalBill - totalPaid);
+        }
+    }
+
+    // Client id -> summary for every client; null until loaded or after a write
+    private static volatile Map<Long, ClientSummary> clientSummaries;
+    // Bumped by every write so a load that raced with one is not cached
+    private static final AtomicLong summaryVersion = new AtomicLong();
+
+    /**
+     * Summaries of all clients, read with two grouped queries and then served
+     * from a cache until the next write through this DAO.
+     */
+    public Map<Long, ClientSummary> fetchClientSummaries() throws SQLException {
+        Map<Long, ClientSummary> cached = clientSummaries;
+        if (cached != null) return cached;
+        long version = summaryVersion.get();
+
+        String billSql = "SELECT client_id, MIN(dateOfPurchase), MAX(dateOfPurchase), "
+                + "COUNT(DISTINCT dateOfPurchase), COALESCE(SUM(totalBill), 0) FROM gym_wholesaler GROUP BY client_id";
+        String paymentSql = "SELECT client_id, COALESCE(SUM(amountPaid), 0) FROM wholesaler_payment "
+                + "WHERE client_id IS NOT NULL GROUP BY client_id";
+        Map<Long, Object[]> bills = new HashMap<>();
+        Map<Long, Double> paid = new HashMap<>();
+        try (Connection conn = DBUtil.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(billSql); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    bills.put(rs.getLong(1), new Object[] {
+                            rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDate.class), rs.getInt(4), rs.getDouble(5) });
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(paymentSql); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    paid.put(rs.getLong(1), rs.getDouble(2));
+                }
+            }
+        }
+
+        Map<Long, ClientSummary> summaries = new HashMap<>();
+        for (Map.Entry<Long, Object[]> e : bills.entrySet()) {
+            Object[] b = e.getValue();
+            summaries.put(e.getKey(), new ClientSummary((LocalDate) b[0], (LocalDate) b[1], (Integer) b[2],
+                    (Double) b[3], paid.getOrDefault(e.getKey(), 0.0)));
+        }
+        for (Map.Entry<Long, Double> e : paid.entrySet()) {
+            summaries.putIfAbsent(e.getKey(), new ClientSummary(null, null, 0, 0.0, e.getValue()));
+        }
+        summaries = Collections.unmodifiableMap(summaries);
+        synchronized (GymWholesalerDAO.class) {
+            if (summaryVersion.get() == version) clientSummaries = summaries;
+        }
+        return summaries;
+    }
+
+    /** Summary of one client from {@link #fetchClientSummaries}; empty if it has no sales or payments. */
+    public ClientSummary fetchClientSummary(GymWholesaler wholesaler) throws SQLException {
+        Long clientId = wholesaler.getClientId();
+        if (clientId == null) {
+            try (Connection conn = DBUtil.getConnection()) {
+                clientId = getClientId(wholesaler, conn);
+            }
+        }
+        return fetchClientSummaries().getOrDefault(clientId, ClientSummary.EMPTY);
+    }
+
+    /** Drops the cached summaries; the next read queries again. */
+    public static synchronized void invalidateClientSummaries() {
+        summaryVersion.incrementAndGet();
+        clientSummaries = null;
+    }
+
     // =====================================================
     // 16. FETCH ALL PRODUCTS
     // =====================================================
     public List<GymWholesaler> fetchAllProducts(GymWholesaler wholesaler) {
         List<GymWholesaler> products = new ArrayList<>();
-        String sql = "SELECT productName, quantity, buyingPrice, sellingPrice, totalBill, netProfit, dateOfPurchase FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? AND productName IS NOT NULL";
+        String sql = "SELECT productName, quantity, buyingPrice, sellingPrice, totalBill, netProfit, dateOfPurchase FROM gym_wholesaler WHERE client_id = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, wholesaler.getWholesalerName());
-            pstmt.setString(2, wholesaler.getMobileNo());
+            pstmt.setLong(1, getClientId(wholesaler, conn));
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     GymWholesaler p = new GymWholesaler(
@@ -765,7 +785,7 @@ public class GymWholesalerDAO {
     // 17. UPDATE PAYMENT
     // =====================================================
     public void updatePayment(GymWholesaler wholesaler, int rowIndex, double newAmount, String newPaymentMode, LocalDate newPaymentDate, Component parent) {
-        String selectSql = "SELECT wp.id, wp.amountPaid, wp.dateOfAmountPaid FROM wholesaler_payment wp JOIN gym_wholesaler gw ON wp.wholesalerId = gw.id WHERE gw.wholesalerName = ? AND gw.mobileNo = ? ORDER BY wp.dateOfAmountPaid LIMIT 1 OFFSET ?";
+        String selectSql = "SELECT id, amountPaid, dateOfAmountPaid FROM wholesaler_payment WHERE client_id = ? ORDER BY dateOfAmountPaid LIMIT 1 OFFSET ?";
         String updatePaymentSql = "UPDATE wholesaler_payment SET paymentMode = ?, dateOfAmountPaid = ?, amountPaid = ?, pendingAmount = ? WHERE id = ?";
         String updateShopSql = "UPDATE shop_amount SET shopAmount = ?, amountDate = ? WHERE amountDate = ? AND shopAmount = ?";
 
@@ -776,13 +796,19 @@ public class GymWholesalerDAO {
             conn = DBUtil.getConnection();
             conn.setAutoCommit(false);
 
+            long clientId = getClientId(wholesaler, conn);
+            if (clientId == -1) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Wholesaler not found.", "Error", JOptionPane.ERROR_MESSAGE));
+                conn.rollback();
+                return;
+            }
+
             long paymentId = -1;
             double oldAmount = 0.0;
             LocalDate oldDate = null;
             pstmt = conn.prepareStatement(selectSql);
-            pstmt.setString(1, wholesaler.getWholesalerName());
-            pstmt.setString(2, wholesaler.getMobileNo());
-            pstmt.setInt(3, rowIndex);
+            pstmt.setLong(1, clientId);
+            pstmt.setInt(2, rowIndex);
             rs = pstmt.executeQuery();
             if (rs.next()) {
                 paymentId = rs.getLong("id");
@@ -795,14 +821,7 @@ public class GymWholesalerDAO {
             }
             closeResources(rs, pstmt, null);
 
-            long wholesalerId = getWholesalerId(wholesaler, conn);
-            if (wholesalerId == -1) {
-                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Wholesaler not found.", "Error", JOptionPane.ERROR_MESSAGE));
-                conn.rollback();
-                return;
-            }
-
-            double pendingAmount = calculatePendingAmount(wholesalerId, newAmount - oldAmount, conn);
+            double pendingAmount = calculatePendingAmount(clientId, newAmount - oldAmount, conn);
 
             int rows1, rows2;
             pstmt = conn.prepareStatement(updatePaymentSql);
@@ -823,6 +842,7 @@ public class GymWholesalerDAO {
 
             if (rows1 > 0 && rows2 > 0) {
                 conn.commit();
+                invalidateClientSummaries();
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent, "Payment updated!", "Success", JOptionPane.INFORMATION_MESSAGE));
             } else {
                 conn.rollback();
@@ -838,10 +858,12 @@ public class GymWholesalerDAO {
     }
 
     // =====================================================
-    // 18. HELPER: GET WHOLESALER ID
+    // 18. HELPER: GET CLIENT ID
     // =====================================================
-    private long getWholesalerId(GymWholesaler wholesaler, Connection conn) {
-        String sql = "SELECT id FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? LIMIT 1";
+    /** The client's gym_client id: the one it was loaded with, else looked up by name and mobile; -1 if none. */
+    private long getClientId(GymWholesaler wholesaler, Connection conn) {
+        if (wholesaler.getClientId() != null) return wholesaler.getClientId();
+        String sql = "SELECT id FROM gym_client WHERE wholesalerName = ? AND mobileNo = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, wholesaler.getWholesalerName());
             pstmt.setString(2, wholesaler.getMobileNo());
@@ -849,7 +871,7 @@ public class GymWholesalerDAO {
                 return rs.next() ? rs.getLong("id") : -1;
             }
         } catch (SQLException ex) {
-            LOGGER.severe("Error getting wholesaler ID: " + ex.getMessage());
+            LOGGER.severe("Error getting client ID: " + ex.getMessage());
             return -1;
         }
     }
@@ -857,15 +879,15 @@ public class GymWholesalerDAO {
     // =====================================================
     // 19. HELPER: CALCULATE PENDING
     // =====================================================
-    private double calculatePendingAmount(long wholesalerId, double newPayment, Connection conn) {
-        String billSql = "SELECT COALESCE(SUM(totalBill), 0) FROM gym_wholesaler WHERE id = ?";
-        String paidSql = "SELECT COALESCE(SUM(amountPaid), 0) FROM wholesaler_payment WHERE wholesalerId = ?";
+    private double calculatePendingAmount(long clientId, double newPayment, Connection conn) {
+        String billSql = "SELECT COALESCE(SUM(totalBill), 0) FROM gym_wholesaler WHERE client_id = ?";
+        String paidSql = "SELECT COALESCE(SUM(amountPaid), 0) FROM wholesaler_payment WHERE client_id = ?";
         try (PreparedStatement bp = conn.prepareStatement(billSql);
              PreparedStatement pp = conn.prepareStatement(paidSql)) {
-            bp.setLong(1, wholesalerId);
+            bp.setLong(1, clientId);
             double totalBill = 0.0;
             try (ResultSet rs = bp.executeQuery()) { if (rs.next()) totalBill = rs.getDouble(1); }
-            pp.setLong(1, wholesalerId);
+            pp.setLong(1, clientId);
             double totalPaid = 0.0;
             try (ResultSet rs = pp.executeQuery()) { if (rs.next()) totalPaid = rs.getDouble(1); }
             return Math.max(0.0, totalBill - (totalPaid + newPayment));
@@ -879,8 +901,8 @@ public class GymWholesalerDAO {
     // 9. UPDATE WHOLESALER (NAME / MOBILE / ADDRESS)
     // =====================================================
     /**
-     * Updates the wholesaler information in every row that currently belongs to
-     * {@code oldWholesaler}. Only the three wholesaler fields are changed.
+     * Updates the client's gym_client row. Sale lines and payments refer to it
+     * by id, so they follow without being rewritten.
      *
      * @param oldWholesaler the current wholesaler object (used to locate rows)
      * @param newWholesaler the new wholesaler data (only name, mobileNo, address are used)
@@ -895,9 +917,6 @@ public class GymWholesalerDAO {
             return;
         }
 
-        String oldName = oldWholesaler.getWholesalerName();
-        String oldMobile = oldWholesaler.getMobileNo();
-
         String newName = newWholesaler.getWholesalerName();
         String newMobile = newWholesaler.getMobileNo();
         String newAddress = newWholesaler.getAddress();
@@ -915,9 +934,9 @@ public class GymWholesalerDAO {
             return;
         }
 
-        String sql = "UPDATE gym_wholesaler " +
+        String sql = "UPDATE gym_client " +
                      "SET wholesalerName = ?, mobileNo = ?, address = ? " +
-                     "WHERE wholesalerName = ? AND mobileNo = ?";
+                     "WHERE id = ?";
 
         Connection conn = null;
         PreparedStatement ps = null;
@@ -929,16 +948,15 @@ public class GymWholesalerDAO {
             ps.setString(1, newName.trim());
             ps.setString(2, newMobile.trim());
             ps.setString(3, newAddress.trim());
-            ps.setString(4, oldName);
-            ps.setString(5, oldMobile);
+            ps.setLong(4, getClientId(oldWholesaler, conn));
 
             int updated = ps.executeUpdate();
 
             if (updated > 0) {
                 conn.commit();
+                invalidateClientSummaries();
                 SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
-                        "Wholesaler updated successfully!\n" +
-                        updated + " record(s) affected.",
+                        "Wholesaler updated successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE));
             } else {
                 conn.rollback();
@@ -946,6 +964,10 @@ public class GymWholesalerDAO {
                         "No records were updated – wholesaler not found.",
                         "Info", JOptionPane.INFORMATION_MESSAGE));
             }
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            try { conn.rollback(); } catch (SQLException ignored) {}
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(parent,
+                    DUPLICATE_CLIENT, "Error", JOptionPane.ERROR_MESSAGE));
         } catch (SQLException ex) {
             LOGGER.severe("updateWholesaler failed: " + ex.getMessage());
             if (conn != null) {
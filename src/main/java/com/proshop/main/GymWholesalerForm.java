@@ -9,9 +9,10 @@ import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -38,6 +39,20 @@ public class GymWholesalerForm extends JPanel {
     private final JLayeredPane layeredPane;
     private JPanel actionSidebar;
     private JComboBox<String> searchComboBox;
+    // Clients from the last load; the search filters these instead of re-querying
+    private List<GymWholesaler> wholesalers = new ArrayList<>();
+    // Card totals of every client, loaded in bulk together with the clients
+    private Map<Long, GymWholesalerDAO.ClientSummary> summaries = Collections.emptyMap();
+
+    private static final class Clients {
+        final List<GymWholesaler> wholesalers;
+        final Map<Long, GymWholesalerDAO.ClientSummary> summaries;
+
+        Clients(List<GymWholesaler> wholesalers, Map<Long, GymWholesalerDAO.ClientSummary> summaries) {
+            this.wholesalers = wholesalers;
+            this.summaries = summaries;
+        }
+    }
 
     // Color scheme consistent with the application's theme
     private static final Color TEXT_COLOR = Color.WHITE; // White
@@ -69,13 +84,6 @@ public class GymWholesalerForm extends JPanel {
         searchComboBox.setPreferredSize(new Dimension(200, 30));
         searchComboBox.setBackground(UIUtils.BACKGROUND_COLOR);
         searchComboBox.setForeground(TEXT_COLOR);
-        try {
-            loadWholesalerNames();
-        } catch (SQLException ex) {
-            LOGGER.severe("Error initializing search bar: " + ex.getMessage());
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
-                    "Error initializing search bar: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-        }
 
         // Handle typing in search bar
         JTextField editor = (JTextField) searchComboBox.getEditor().getEditorComponent();
@@ -87,14 +95,8 @@ public class GymWholesalerForm extends JPanel {
                     e.getKeyCode() != java.awt.event.KeyEvent.VK_ENTER) {
                     SwingUtilities.invokeLater(() -> {
                         String text = editor.getText().trim();
-                        try {
-                            autoFillWholesalerNames(text);
-                            filterCards(text);
-                        } catch (SQLException ex) {
-                            LOGGER.severe("Error auto-filling client names: " + ex.getMessage());
-                            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                                    "Error filtering clients: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-                        }
+                        autoFillWholesalerNames(text);
+                        filterCards(text);
                     });
                 }
             }
@@ -104,13 +106,7 @@ public class GymWholesalerForm extends JPanel {
         searchComboBox.addActionListener(e -> {
             String selectedName = (String) searchComboBox.getSelectedItem();
             if (selectedName != null && !selectedName.trim().isEmpty()) {
-                try {
-                    filterCards(selectedName);
-                } catch (SQLException ex) {
-                    LOGGER.severe("Error filtering cards on selection: " + ex.getMessage());
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                            "Error filtering cards: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-                }
+                filterCards(selectedName);
             }
         });
 
@@ -157,51 +153,25 @@ public class GymWholesalerForm extends JPanel {
 
         updateWholesalerButton.addActionListener(e -> {
             hideActionSidebar();
-            try {
-                selectWholesalerForUpdate();
-            } catch (SQLException ex) {
-                LOGGER.severe("Error selecting client for update: " + ex.getMessage());
-                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                        "Error selecting client for update: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-            }
+            DbExecutor.submit(this, dao::fetchWholesalers, this::selectWholesalerForUpdate);
         });
 
         deleteWholesalerButton.addActionListener(e -> {
             hideActionSidebar();
-            try {
-                selectWholesalerForDelete();
-            } catch (SQLException ex) {
-                LOGGER.severe("Error selecting client for delete: " + ex.getMessage());
-                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                        "Error selecting client for delete: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-            }
+            DbExecutor.submit(this, dao::fetchWholesalers, this::selectWholesalerForDelete);
         });
 
         refreshButton.addActionListener(e -> {
-            try {
-                loadBlocks();
-                loadWholesalerNames();
-                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                        "Client data refreshed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE));
-            } catch (SQLException ex) {
-                LOGGER.severe("Error refreshing client data: " + ex.getMessage());
-                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                        "Error refreshing client data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-            }
+            GymWholesalerDAO.invalidateClientSummaries();
+            loadBlocks(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
+                    "Client data refreshed successfully.", "Success", JOptionPane.INFORMATION_MESSAGE));
         });
 
         // Load initial data
-        try {
-            loadBlocks();
-        } catch (SQLException ex) {
-            LOGGER.severe("Error loading blocks: " + ex.getMessage());
-            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GymWholesalerForm.this,
-                    "Error loading blocks: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
-        }
+        loadBlocks();
     }
 
-    private void loadWholesalerNames() throws SQLException {
-        List<GymWholesaler> wholesalers = dao.fetchWholesalers();
+    private void loadWholesalerNames() {
         List<String> wholesalerNames = wholesalers.stream()
                 .map(w -> w.getWholesalerName() + " (" + w.getMobileNo() + ")")
                 .sorted()
@@ -211,9 +181,8 @@ public class GymWholesalerForm extends JPanel {
         wholesalerNames.forEach(searchComboBox::addItem);
     }
 
-    private void autoFillWholesalerNames(String searchText) throws SQLException {
+    private void autoFillWholesalerNames(String searchText) {
         String queryText = searchText.trim().toLowerCase();
-        List<GymWholesaler> wholesalers = dao.fetchWholesalers();
         List<String> suggestions = wholesalers.stream()
                 .map(w -> w.getWholesalerName() + " (" + w.getMobileNo() + ")")
                 .filter(name -> name.toLowerCase().contains(queryText))
@@ -228,15 +197,14 @@ public class GymWholesalerForm extends JPanel {
         }
     }
 
-    private void filterCards(String searchText) throws SQLException {
+    private void filterCards(String searchText) {
         blocksPanel.removeAll();
-        List<GymWholesaler> wholesalers = dao.fetchWholesalers();
         String queryText = searchText.trim().toLowerCase();
         for (GymWholesaler wholesaler : wholesalers) {
             String displayName = wholesaler.getWholesalerName() + " (" + wholesaler.getMobileNo() + ")";
             if (queryText.isEmpty() || displayName.toLowerCase().contains(queryText)) {
                 try {
-                    GymWholesalerCard card = new GymWholesalerCard(wholesaler, cardLayout, mainContentPanel, dao, this::showActionSidebar);
+                    GymWholesalerCard card = createCard(wholesaler);
                     blocksPanel.add(card);
                 } catch (Exception e) {
                     LOGGER.severe("Error creating client card: " + e.getMessage());
@@ -247,8 +215,7 @@ public class GymWholesalerForm extends JPanel {
         blocksPanel.repaint();
     }
 
-    private void selectWholesalerForUpdate() throws SQLException {
-        List<GymWholesaler> wholesalers = dao.fetchWholesalers();
+    private void selectWholesalerForUpdate(List<GymWholesaler> wholesalers) {
         if (wholesalers.isEmpty()) {
             SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
                     "No client available.", "Info", JOptionPane.INFORMATION_MESSAGE));
@@ -288,8 +255,7 @@ public class GymWholesalerForm extends JPanel {
         }
     }
 
-    private void selectWholesalerForDelete() throws SQLException {
-        List<GymWholesaler> wholesalers = dao.fetchWholesalers();
+    private void selectWholesalerForDelete(List<GymWholesaler> wholesalers) {
         if (wholesalers.isEmpty()) {
             SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
                     "No client available.", "Info", JOptionPane.INFORMATION_MESSAGE));
@@ -341,17 +307,43 @@ public class GymWholesalerForm extends JPanel {
                     dao.deleteWholesaler(wholesaler, this);
                 }
                 loadBlocks();
-                loadWholesalerNames();
             }
         }
     }
 
-    public void loadBlocks() throws SQLException {
+    public void loadBlocks() {
+        loadBlocks(null);
+    }
+
+    /**
+     * Reloads the clients and their card totals off the EDT, then rebuilds the
+     * cards and the search list from them; {@code onLoaded} runs afterwards, if
+     * given. The totals come from one bulk read however many clients there are.
+     */
+    private void loadBlocks(Runnable onLoaded) {
+        DbExecutor.submit(this, "blocks", () -> new Clients(dao.fetchWholesalers(), dao.fetchClientSummaries()), loaded -> {
+            wholesalers = loaded.wholesalers;
+            summaries = loaded.summaries;
+            showBlocks();
+            if (onLoaded != null) onLoaded.run();
+        }, ex -> {
+            LOGGER.severe("Error loading clients: " + ex.getMessage());
+            JOptionPane.showMessageDialog(GymWholesalerForm.this,
+                    "Error loading clients: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private GymWholesalerCard createCard(GymWholesaler wholesaler) {
+        GymWholesalerDAO.ClientSummary summary = summaries.getOrDefault(wholesaler.getClientId(),
+                GymWholesalerDAO.ClientSummary.EMPTY);
+        return new GymWholesalerCard(wholesaler, cardLayout, mainContentPanel, dao, this::showActionSidebar, summary);
+    }
+
+    private void showBlocks() {
         blocksPanel.removeAll();
-        java.util.List<GymWholesaler> wholesalers = dao.fetchWholesalers();
         for (GymWholesaler wholesaler : wholesalers) {
             try {
-                GymWholesalerCard card = new GymWholesalerCard(wholesaler, cardLayout, mainContentPanel, dao, this::showActionSidebar);
+                GymWholesalerCard card = createCard(wholesaler);
                 blocksPanel.add(card);
             } catch (Exception e) {
                 LOGGER.severe("Error creating client card: " + e.getMessage());
@@ -379,7 +379,7 @@ public class GymWholesalerViewByDate extends JPanel {
             ResultSet rs = null;
             try {
                 conn = DBUtil.getConnection();
-                String sql = "SELECT wholesalerName, address, mobileNo FROM gym_wholesaler WHERE wholesalerName = ? AND mobileNo = ? LIMIT 1";
+                String sql = "SELECT wholesalerName, address, mobileNo FROM gym_client WHERE wholesalerName = ? AND mobileNo = ?";
                 pstmt = conn.prepareStatement(sql);
                 pstmt.setString(1, wholesaler.getWholesalerName());
                 pstmt.setString(2, wholesaler.getMobileNo());
@@ -0,0 +1,633 @@
+package com.proshop.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.AreaBreak;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+
+import com.proshop.connection.DBUtil;
+import com.proshop.model.Bill;
+import com.proshop.model.Payment;
+import com.proshop.model.Product;
+import com.proshop.model.WholesalerPurchase;
+
+/**
+ * Renders customer and wholesaler invoices to PDF on a small worker pool.
+ *
+ * <ul>
+ * <li>Everything that does not depend on the document is built once: font
+ * programs, colours, borders and the shop's letterhead text. iText binds a
+ * {@link PdfFont} to one document, so each document only wraps the shared
+ * font programs.</li>
+ * <li>Rendering runs on {@code proshop.invoice.workers} daemon threads
+ * (default: the number of CPUs, at most 4) and every call returns a
+ * {@link CompletableFuture}. Click handlers therefore never lay out a PDF.</li>
+ * <li>{@link #renderDay} writes every customer and wholesaler bill of one day,
+ * one file per invoice, rendered in parallel.</li>
+ * </ul>
+ */
+public final class InvoiceRenderer {
+    private static final Logger LOGGER = Logger.getLogger(InvoiceRenderer.class.getName());
+
+    // ===== SHARED TEMPLATE RESOURCES =====
+    private static final String SHOP_NAME = "Gaurav Yadav Pure Protien";
+    private static final String SHOP_ADDRESS = "Chatrapati Shivaji Maharaj Stadium, Near Venu Tai Chawhan Hall, Yashwantrao Park, Pawar Nagar, Karad, Maharashtra 415110";
+    private static final String SHOP_EMAIL = "gauravyadavpureprotien@gmail.com";
+    private static final String CUSTOMER_PHONE = "8823858825";
+    private static final String WHOLESALER_PHONE = "9822888876";
+    private static final String DECLARATION = "I declare all the information contained in this invoice to be true and correct.";
+
+    private static final DeviceRgb LIGHT_GREY = new DeviceRgb(200, 200, 200);
+    private static final DeviceRgb DARK_GREY = new DeviceRgb(33, 33, 33);
+    private static final DeviceRgb FOOTER_BLUE = new DeviceRgb(40, 144, 350);
+    private static final Border THIN_BORDER = new SolidBorder(DARK_GREY, 0.5f);
+    private static final Border TABLE_BORDER = new SolidBorder(DARK_GREY, 1);
+
+    private static final FontProgram TIMES_ROMAN = fontProgram(StandardFonts.TIMES_ROMAN);
+    private static final FontProgram HELVETICA = fontProgram(StandardFonts.HELVETICA);
+
+    private static final ExecutorService POOL;
+    static {
+        int workers = Math.max(1, Integer.getInteger("proshop.invoice.workers",
+                Math.min(4, Runtime.getRuntime().availableProcessors())));
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "proshop-invoice-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        POOL = pool;
+    }
+
+    private InvoiceRenderer() {
+    }
+
+    private static FontProgram fontProgram(String name) {
+        try {
+            return FontProgramFactory.createFont(name);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot load font " + name, ex);
+        }
+    }
+
+    // ===== INVOICE DATA =====
+    /** One product line of a customer invoice. */
+    static final class Line {
+        final String productName;
+        final int quantity;
+        final double unitPrice;
+        final double amount;
+
+        Line(String productName, int quantity, double unitPrice, double amount) {
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.amount = amount;
+        }
+    }
+
+    /** The sales of one customer, read from customer table rows. */
+    public static final class CustomerInvoice {
+        final long firstRowId;
+        final String customerName;
+        final String mobile;
+        final LocalDate invoiceDate;
+        final List<Line> lines = new ArrayList<>();
+        final String paymentMode;
+        final String status;
+        final LocalDate paymentDate;
+        final double amountPaid;
+        final double pendingAmount;
+
+        /**
+         * @param rows rows in the layout of {@link CustomerFormDB#customerRow};
+         *             the first one supplies the customer and payment details
+         */
+        public CustomerInvoice(String customerName, List<Object[]> rows) {
+            this(customerName, null, rows);
+        }
+
+        /**
+         * @param invoiceDate the date printed on the invoice, or null to use
+         *                    the payment date (today when unpaid)
+         */
+        CustomerInvoice(String customerName, LocalDate invoiceDate, List<Object[]> rows) {
+            Object[] first = rows.get(0);
+            this.firstRowId = (long) number(first, 0);
+            this.customerName = customerName;
+            this.mobile = text(first, 11, "");
+            this.invoiceDate = invoiceDate != null ? invoiceDate : date(first, 13, LocalDate.now());
+            this.paymentMode = text(first, 9, "");
+            String s = text(first, 10, "");
+            this.status = Arrays.asList("Paid", "Pending", "").contains(s) ? s : "";
+            this.paymentDate = date(first, 13, null);
+            double paid = 0.0, pending = 0.0;
+            for (Object[] row : rows) {
+                lines.add(new Line(text(row, 2, ""), intValue(row, 3), number(row, 5), number(row, 7)));
+                paid += number(row, 12);
+                pending += number(row, 14);
+            }
+            this.amountPaid = paid;
+            this.pendingAmount = pending;
+        }
+
+        // Names that differ only in punctuation map to the same safe() form,
+        // so the first row id keeps the files of one day apart
+        String fileName() {
+            return "bill_" + invoiceDate + "_" + safe(customerName) + (mobile.isEmpty() ? "" : "_" + mobile)
+                    + "_" + firstRowId + ".pdf";
+        }
+    }
+
+    /** A wholesaler bill with its products and payments. Load off the EDT. */
+    public static final class WholesalerInvoice {
+        final WholesalerPurchase wholesaler;
+        final Bill bill;
+        final List<Product> products;
+        final DatabaseUtils.PaymentSummary payments;
+
+        private WholesalerInvoice(WholesalerPurchase wholesaler, Bill bill) {
+            this.wholesaler = wholesaler;
+            this.bill = bill;
+            this.products = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesaler.getId());
+            this.payments = DatabaseUtils.fetchPaymentsForBill(bill.getId());
+        }
+
+        String fileName() {
+            return "wholesaler_bill_" + bill.getDate() + "_" + safe(wholesaler.getWholesalerName()) + "_" + bill.getId() + ".pdf";
+        }
+    }
+
+    // ===== SUBMIT =====
+    /** Renders the invoices into one file, one customer per page. */
+    public static CompletableFuture<File> renderCustomers(List<CustomerInvoice> invoices, File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            run(() -> writeCustomerInvoices(invoices, file));
+            return file;
+        }, POOL);
+    }
+
+    /** Loads the bill's products and payments and renders its invoice. */
+    public static CompletableFuture<File> renderWholesaler(WholesalerPurchase wholesaler, Bill bill, File file) {
+        return CompletableFuture.supplyAsync(() -> {
+            WholesalerInvoice invoice = new WholesalerInvoice(wholesaler, bill);
+            run(() -> writeWholesalerInvoice(invoice, file));
+            return file;
+        }, POOL);
+    }
+
+    /**
+     * Writes every customer bill (one per customer and mobile number) and every
+     * wholesaler bill dated {@code day} into {@code directory}, rendering them
+     * in parallel. Customer invoices carry {@code day} as their date.
+     *
+     * @return the files written
+     */
+    public static CompletableFuture<List<File>> renderDay(LocalDate day, File directory) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return new Object[] { customerInvoices(day), wholesalerBills(day) };
+            } catch (SQLException ex) {
+                throw new CompletionException(ex);
+            }
+        }, POOL).thenCompose(loaded -> {
+            @SuppressWarnings("unchecked")
+            List<CustomerInvoice> customers = (List<CustomerInvoice>) loaded[0];
+            @SuppressWarnings("unchecked")
+            List<Object[]> bills = (List<Object[]>) loaded[1];
+
+            List<CompletableFuture<File>> files = new ArrayList<>();
+            for (CustomerInvoice invoice : customers) {
+                files.add(renderCustomers(List.of(invoice), new File(directory, invoice.fileName())));
+            }
+            for (Object[] b : bills) {
+                WholesalerPurchase wholesaler = (WholesalerPurchase) b[0];
+                Bill bill = (Bill) b[1];
+                files.add(CompletableFuture.supplyAsync(() -> {
+                    WholesalerInvoice invoice = new WholesalerInvoice(wholesaler, bill);
+                    File file = new File(directory, invoice.fileName());
+                    run(() -> writeWholesalerInvoice(invoice, file));
+                    return file;
+                }, POOL));
+            }
+            return CompletableFuture.allOf(files.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+                List<File> written = new ArrayList<>();
+                files.forEach(f -> written.add(f.join()));
+                LOGGER.info("Rendered " + written.size() + " invoice(s) for " + day);
+                return written;
+            });
+        });
+    }
+
+    /** The failure behind a future's exception, for error messages. */
+    public static Throwable cause(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    // ===== LOAD =====
+    private static List<CustomerInvoice> customerInvoices(LocalDate day) throws SQLException {
+        Map<String, List<Object[]>> byCustomer = new LinkedHashMap<>();
+        Map<String, String> names = new LinkedHashMap<>();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM customer WHERE date = ? ORDER BY id")) {
+            ps.setDate(1, Date.valueOf(day));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Object[] row = CustomerFormDB.customerRow(rs);
+                    String name = row[1] != null ? row[1].toString() : "Customer";
+                    String key = name + "\u0000" + (row[11] != null ? row[11] : "");
+                    names.putIfAbsent(key, name);
+                    byCustomer.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+                }
+            }
+        }
+        List<CustomerInvoice> invoices = new ArrayList<>();
+        byCustomer.forEach((key, rows) -> invoices.add(new CustomerInvoice(names.get(key), day, rows)));
+        return invoices;
+    }
+
+    // {wholesaler, bill} pairs
+    private static List<Object[]> wholesalerBills(LocalDate day) throws SQLException {
+        String sql = "SELECT b.id, b.date, b.shippingCharges, b.billAmount, w.id, w.wholesalerName, w.phoneNo, w.address "
+                + "FROM bill b JOIN wholesaler w ON w.id = b.wholesalerId WHERE b.date = ? ORDER BY b.id";
+        List<Object[]> bills = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(day));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Bill bill = new Bill(rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getBigDecimal(3), rs.getBigDecimal(4));
+                    WholesalerPurchase wholesaler = new WholesalerPurchase();
+                    wholesaler.setId(rs.getLong(5));
+                    wholesaler.setWholesalerName(rs.getString(6));
+                    wholesaler.setPhoneNo(rs.getString(7));
+                    wholesaler.setAddress(rs.getString(8));
+                    bills.add(new Object[] { wholesaler, bill });
+                }
+            }
+        }
+        return bills;
+    }
+
+    // ===== RENDER =====
+    private interface PdfWork {
+        void run() throws IOException;
+    }
+
+    private static void run(PdfWork work) {
+        try {
+            work.run();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void writeCustomerInvoices(List<CustomerInvoice> invoices, File file) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(file));
+        Document doc = new Document(pdfDoc, PageSize.A4);
+        try {
+            doc.setMargins(30, 30, 30, 30);
+            PdfFont timesRoman = PdfFontFactory.createFont(TIMES_ROMAN);
+            PdfFont helvetica = PdfFontFactory.createFont(HELVETICA);
+
+            for (int i = 0; i < invoices.size(); i++) {
+                if (i > 0) doc.add(new AreaBreak());
+                addCustomerInvoice(doc, invoices.get(i), timesRoman, helvetica);
+            }
+        } finally {
+            doc.close();
+        }
+    }
+
+    private static void addCustomerInvoice(Document doc, CustomerInvoice invoice, PdfFont timesRoman, PdfFont helvetica) {
+        addLetterhead(doc, timesRoman, helvetica, CUSTOMER_PHONE);
+
+        // Customer Info Table
+        Table infoTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+        infoTable.setWidth(UnitValue.createPercentValue(100));
+        infoTable.setMarginTop(5);
+
+        Cell customerCell = new Cell();
+        customerCell.setPadding(10);
+        customerCell.add(new Paragraph("To: " + invoice.customerName).setFont(helvetica).setFontSize(12).setBold());
+        customerCell.add(new Paragraph("Mobile: " + invoice.mobile).setFont(helvetica).setFontSize(10));
+        infoTable.addCell(customerCell);
+
+        Cell invoiceCell = new Cell();
+        invoiceCell.setPadding(10);
+        invoiceCell.add(new Paragraph("Invoice Date: " + invoice.invoiceDate.format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .setFont(helvetica).setFontSize(10).setTextAlignment(TextAlignment.RIGHT));
+        infoTable.addCell(invoiceCell);
+
+        doc.add(infoTable);
+        doc.add(new Paragraph("\n"));
+
+        // Products Table
+        Table table = new Table(new float[]{4, 2, 2, 2});
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.setMarginTop(10);
+        for (String header : new String[] { "Product Name", "Quantity", "Unit Price", "Amount" }) {
+            table.addHeaderCell(new Cell().add(new Paragraph(header).setBold().setTextAlignment(TextAlignment.CENTER))
+                    .setFont(helvetica));
+        }
+
+        int totalQuantity = 0;
+        double totalAmount = 0.0;
+        for (Line line : invoice.lines) {
+            table.addCell(new Cell().add(new Paragraph(line.productName).setTextAlignment(TextAlignment.LEFT))
+                    .setFont(helvetica).setFontSize(10));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(line.quantity)).setTextAlignment(TextAlignment.CENTER))
+                    .setFont(helvetica).setFontSize(10));
+            table.addCell(new Cell().add(new Paragraph(String.format("%.2f", line.unitPrice)).setTextAlignment(TextAlignment.RIGHT))
+                    .setFont(helvetica).setFontSize(10));
+            table.addCell(new Cell().add(new Paragraph(String.format("%.2f", line.amount)).setTextAlignment(TextAlignment.RIGHT))
+                    .setFont(helvetica).setFontSize(10));
+            totalQuantity += line.quantity;
+            totalAmount += line.amount;
+        }
+        doc.add(table);
+
+        // Payment Details Table
+        Table paymentTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+        paymentTable.setWidth(UnitValue.createPercentValue(100));
+        paymentTable.setMarginTop(10);
+        paymentTable.addCell(new Cell().add(new Paragraph("Payment Mode: " + invoice.paymentMode).setFont(helvetica).setFontSize(10))
+                .setPadding(5));
+        paymentTable.addCell(new Cell().add(new Paragraph("Amount Paid: " + String.format("%.2f", invoice.amountPaid)).setFont(helvetica).setFontSize(10))
+                .setPadding(5));
+        paymentTable.addCell(new Cell().add(new Paragraph("Status: " + invoice.status).setFont(helvetica).setFontSize(10))
+                .setPadding(5));
+        paymentTable.addCell(new Cell().add(new Paragraph("Pending Amount: " + String.format("%.2f", invoice.pendingAmount)).setFont(helvetica).setFontSize(10))
+                .setPadding(5));
+        if (invoice.paymentDate != null) {
+            paymentTable.addCell(new Cell().add(new Paragraph("Payment Date: " + invoice.paymentDate.format(DateTimeFormatter.ISO_LOCAL_DATE)).setFont(helvetica).setFontSize(10))
+                    .setPadding(5));
+            paymentTable.addCell(new Cell().add(new Paragraph("")).setPadding(5));
+        }
+        doc.add(paymentTable);
+
+        // Totals Table
+        Table totalTable = new Table(UnitValue.createPercentArray(new float[]{80, 20}));
+        totalTable.setWidth(UnitValue.createPercentValue(100));
+        totalTable.setMarginTop(10);
+        totalTable.addCell(new Cell().add(new Paragraph("Total Quantity: " + totalQuantity).setTextAlignment(TextAlignment.RIGHT).setFont(helvetica).setFontSize(10)));
+        totalTable.addCell(new Cell().add(new Paragraph("")).setTextAlignment(TextAlignment.RIGHT));
+        totalTable.addCell(new Cell().add(new Paragraph("Total Amount").setBold().setTextAlignment(TextAlignment.RIGHT).setFont(helvetica).setFontSize(10)));
+        totalTable.addCell(new Cell().add(new Paragraph(String.format("₹%.2f", totalAmount)).setBold().setTextAlignment(TextAlignment.RIGHT).setFont(helvetica).setFontSize(10)));
+        doc.add(totalTable);
+
+        doc.add(new Paragraph(DECLARATION)
+                .setFont(helvetica).setFontSize(10).setTextAlignment(TextAlignment.LEFT).setMarginTop(10));
+        doc.add(new Paragraph("Thank You for Your Business!").setFont(helvetica).setFontSize(14).setBold()
+                .setTextAlignment(TextAlignment.CENTER).setMarginTop(10));
+        doc.add(new Paragraph("Contact us at: " + CUSTOMER_PHONE + " | Email: " + SHOP_EMAIL)
+                .setFont(helvetica).setFontSize(10).setTextAlignment(TextAlignment.CENTER).setMarginTop(5));
+    }
+
+    private static void writeWholesalerInvoice(WholesalerInvoice invoice, File file) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(file));
+        Document doc = new Document(pdfDoc, PageSize.A4);
+        try {
+            doc.setMargins(30, 30, 30, 30);
+            PdfFont timesRoman = PdfFontFactory.createFont(TIMES_ROMAN);
+            PdfFont helvetica = PdfFontFactory.createFont(HELVETICA);
+            doc.setFont(helvetica);
+
+            // Page Border
+            pdfDoc.addEventHandler(PdfDocumentEvent.END_PAGE, event -> {
+                PdfCanvas canvas = new PdfCanvas(((PdfDocumentEvent) event).getPage());
+                canvas.setStrokeColor(ColorConstants.BLACK).setLineWidth(1)
+                        .rectangle(20, 20, PageSize.A4.getWidth() - 40, PageSize.A4.getHeight() - 40).stroke();
+            });
+
+            addWholesalerInvoice(doc, invoice, timesRoman, helvetica);
+        } finally {
+            doc.close();
+        }
+    }
+
+    private static void addWholesalerInvoice(Document doc, WholesalerInvoice invoice, PdfFont timesRoman, PdfFont helvetica) {
+        WholesalerPurchase wholesaler = invoice.wholesaler;
+        Bill bill = invoice.bill;
+        addLetterhead(doc, timesRoman, helvetica, WHOLESALER_PHONE);
+
+        // Wholesaler Info Table
+        Table infoTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+        infoTable.setWidth(UnitValue.createPercentValue(100));
+        infoTable.setMarginTop(5);
+        infoTable.setBackgroundColor(LIGHT_GREY);
+
+        Cell wholesalerCell = new Cell();
+        wholesalerCell.setBorder(THIN_BORDER);
+        wholesalerCell.setPadding(10);
+        wholesalerCell.add(new Paragraph("To: " + orNa(wholesaler.getWholesalerName()))
+                .setFontSize(12).setBold()
+                .setTextAlignment(TextAlignment.LEFT));
+        wholesalerCell.add(new Paragraph(orNa(wholesaler.getAddress())).setFontSize(10));
+        wholesalerCell.add(new Paragraph("Phone: " + orNa(wholesaler.getPhoneNo())).setFontSize(10));
+        infoTable.addCell(wholesalerCell);
+
+        Cell invoiceCell = new Cell();
+        invoiceCell.setBorder(THIN_BORDER);
+        invoiceCell.setPadding(10);
+        invoiceCell.add(new Paragraph("Invoice Date: " + bill.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE))
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.RIGHT));
+        infoTable.addCell(invoiceCell);
+
+        doc.add(infoTable);
+        doc.add(new Paragraph("\n"));
+
+        // Products Table
+        Table table = new Table(new float[]{4, 2, 2, 2});
+        table.setWidth(UnitValue.createPercentValue(100));
+        table.setBorder(TABLE_BORDER);
+        table.setMarginTop(10);
+        for (String header : new String[] { "Product Name", "Quantity", "Unit Price", "Amount" }) {
+            table.addHeaderCell(new Cell().add(new Paragraph(header).setBold().setTextAlignment(TextAlignment.CENTER))
+                    .setBackgroundColor(LIGHT_GREY)
+                    .setFontColor(ColorConstants.BLACK));
+        }
+
+        double totalAmount = 0.0;
+        int totalQuantity = 0;
+        for (Product product : invoice.products) {
+            int quantity = product.getQuantity();
+            double unitPrice = product.getPerPieceRate() != null ? product.getPerPieceRate().doubleValue() : 0.0;
+            double amount = product.getTotal() != null ? product.getTotal().doubleValue() : 0.0;
+
+            table.addCell(new Cell().add(new Paragraph(orNa(product.getProductName())).setTextAlignment(TextAlignment.LEFT))
+                    .setBorder(THIN_BORDER));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(quantity)).setTextAlignment(TextAlignment.CENTER))
+                    .setBorder(THIN_BORDER));
+            table.addCell(new Cell().add(new Paragraph(String.format("%.2f", unitPrice)).setTextAlignment(TextAlignment.RIGHT))
+                    .setBorder(THIN_BORDER));
+            table.addCell(new Cell().add(new Paragraph("₹" + String.format("%.2f", amount)).setTextAlignment(TextAlignment.RIGHT))
+                    .setBorder(THIN_BORDER));
+
+            totalQuantity += quantity;
+            totalAmount += amount;
+        }
+        doc.add(table);
+
+        // Payment Details Table
+        Table paymentTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}));
+        paymentTable.setWidth(UnitValue.createPercentValue(100));
+        paymentTable.setMarginTop(10);
+        paymentTable.setBackgroundColor(LIGHT_GREY);
+
+        DatabaseUtils.PaymentSummary paymentSummary = invoice.payments;
+        double totalPaidAmount = paymentSummary.getTotalPaidAmount() != null ? paymentSummary.getTotalPaidAmount().doubleValue() : 0.0;
+        double pendingAmount = totalAmount - totalPaidAmount;
+        double shippingCharges = bill.getShippingCharges() != null ? bill.getShippingCharges().doubleValue() : 0.0;
+
+        paymentTable.addCell(boxed("Total Bill: ₹" + String.format("%.2f", totalAmount)));
+        paymentTable.addCell(boxed("Parcel: ₹" + String.format("%.2f", shippingCharges)));
+        for (Payment payment : paymentSummary.getPayments()) {
+            String paidDate = payment.getPaidDate() != null ? payment.getPaidDate().format(DateTimeFormatter.ISO_LOCAL_DATE) : "N/A";
+            double paidAmount = payment.getPaidAmount() != null ? payment.getPaidAmount().doubleValue() : 0.0;
+            paymentTable.addCell(boxed("Paid on " + paidDate + ": ₹" + String.format("%.2f", paidAmount)));
+            paymentTable.addCell(boxed(""));
+        }
+        paymentTable.addCell(boxed("Pending Amount: ₹" + String.format("%.2f", pendingAmount)));
+        paymentTable.addCell(boxed(""));
+        doc.add(paymentTable);
+
+        // Totals Table
+        Table totalTable = new Table(UnitValue.createPercentArray(new float[]{80, 20}));
+        totalTable.setWidth(UnitValue.createPercentValue(100));
+        totalTable.setMarginTop(10);
+        totalTable.setBackgroundColor(LIGHT_GREY);
+        totalTable.addCell(new Cell().add(new Paragraph("Total Quantity: " + totalQuantity).setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(Border.NO_BORDER));
+        totalTable.addCell(new Cell().add(new Paragraph("")).setBorder(Border.NO_BORDER));
+        totalTable.addCell(new Cell().add(new Paragraph("Total Amount").setBold().setTextAlignment(TextAlignment.RIGHT))
+                .setBorder(Border.NO_BORDER));
+        totalTable.addCell(new Cell().add(new Paragraph("₹" + String.format("%.2f", totalAmount + shippingCharges)).setBold()
+                .setTextAlignment(TextAlignment.RIGHT)).setBorder(Border.NO_BORDER));
+        doc.add(totalTable);
+
+        doc.add(new Paragraph(DECLARATION)
+                .setFontSize(10).setTextAlignment(TextAlignment.LEFT).setMarginTop(10));
+        doc.add(new Paragraph("Thank You for Your Business!").setFontSize(14).setBold()
+                .setTextAlignment(TextAlignment.CENTER).setFontColor(FOOTER_BLUE)
+                .setMarginTop(10));
+        doc.add(new Paragraph("Contact us at: " + WHOLESALER_PHONE + " | Email: " + SHOP_EMAIL)
+                .setFontSize(10).setTextAlignment(TextAlignment.CENTER).setMarginTop(5));
+    }
+
+    private static void addLetterhead(Document doc, PdfFont timesRoman, PdfFont helvetica, String phone) {
+        doc.add(new Paragraph(SHOP_NAME)
+                .setFont(timesRoman)
+                .setFontSize(24)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(5));
+        doc.add(new Paragraph(SHOP_ADDRESS)
+                .setFont(helvetica)
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.CENTER));
+        doc.add(new Paragraph("Phone: " + phone + " | Email: " + SHOP_EMAIL)
+                .setFont(helvetica)
+                .setFontSize(10)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(10));
+        doc.add(new Paragraph("Invoice")
+                .setFont(timesRoman)
+                .setFontSize(18)
+                .setBold()
+                .setTextAlignment(TextAlignment.LEFT)
+                .setMarginTop(10));
+    }
+
+    private static Cell boxed(String text) {
+        return new Cell().add(new Paragraph(text).setFontSize(10)).setBorder(THIN_BORDER).setPadding(5);
+    }
+
+    // ===== HELPERS =====
+    private static String orNa(String value) {
+        return value != null ? value : "N/A";
+    }
+
+    private static String safe(String name) {
+        return name == null ? "unknown" : name.trim().replaceAll("[^A-Za-z0-9._-]+", "_");
+    }
+
+    private static String text(Object[] row, int column, String defaultValue) {
+        return column < row.length && row[column] != null ? row[column].toString() : defaultValue;
+    }
+
+    private static int intValue(Object[] row, int column) {
+        Object value = column < row.length ? row[column] : null;
+        if (value instanceof Number) return ((Number) value).intValue();
+        try {
+            return value != null ? Integer.parseInt(value.toString()) : 0;
+        } catch (NumberFormatException ex) {
+            LOGGER.warning("Invalid integer value in column " + column + ": " + value);
+            return 0;
+        }
+    }
+
+    private static double number(Object[] row, int column) {
+        Object value = column < row.length ? row[column] : null;
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        try {
+            return value != null ? Double.parseDouble(value.toString()) : 0.0;
+        } catch (NumberFormatException ex) {
+            LOGGER.warning("Invalid number in column " + column + ": " + value);
+            return 0.0;
+        }
+    }
+
+    private static LocalDate date(Object[] row, int column, LocalDate defaultValue) {
+        Object value = column < row.length ? row[column] : null;
+        if (value instanceof LocalDate) return (LocalDate) value;
+        if (value instanceof java.util.Date) return new java.sql.Date(((java.util.Date) value).getTime()).toLocalDate();
+        try {
+            return value != null ? LocalDate.parse(value.toString(), DateTimeFormatter.ISO_LOCAL_DATE) : defaultValue;
+        } catch (RuntimeException ex) {
+            return defaultValue;
+        }
+    }
+}
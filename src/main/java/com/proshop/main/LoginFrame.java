@@ -24,6 +24,7 @@ import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
 import javax.swing.JTextField;
@@ -201,6 +202,20 @@ public class LoginFrame extends JFrame {
 
 	// Main method now here
 	public static void main(String[] args) {
+		// Bring the schema up to date before any screen reads
+		try {
+			SchemaMigrations.migrate();
+		} catch (RuntimeException e) {
+			// Screens would run against a half-migrated schema; stop here
+			e.printStackTrace();
+			JOptionPane.showMessageDialog(null, e.getMessage() + "\nThe application will now close.",
+					"Database Error", JOptionPane.ERROR_MESSAGE);
+			System.exit(1);
+		}
+		StockMaintenance.start();
+		ProductCatalog.preload();
+		// Before the first window, so every UI event is timed
+		EdtWatchdog.install();
 		SwingUtilities.invokeLater(() -> {
 			try {
 				UIManager.setLookAndFeel(UIManager.getLookAndFeel());
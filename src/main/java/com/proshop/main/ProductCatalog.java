@@ -0,0 +1,302 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * In-memory index of the distinct product names in {@code stock}, used by the
+ * product name autocomplete boxes instead of a LIKE query per keystroke.
+ *
+ * Names are held in an immutable {@link Snapshot}: a case-insensitively sorted
+ * array plus a trigram posting list per three-letter sequence. A substring
+ * lookup intersects the posting lists of the query's trigrams and checks the
+ * few survivors, so suggestions cost microseconds and never touch the
+ * database. Queries shorter than three letters scan the sorted array.
+ *
+ * The catalog is loaded once and kept current by the stock write paths:
+ * {@link StockLedger} calls {@link #touch} with each product it changes once
+ * the change has committed, and the names are re-read shortly after, off the
+ * EDT; deletes that bypass the ledger call {@link #invalidate}. A full reload every
+ * {@code proshop.catalog.reloadMinutes} minutes (default 10) covers anything
+ * else, such as edits made from another machine.
+ */
+public final class ProductCatalog {
+	private static final Logger LOGGER = Logger.getLogger(ProductCatalog.class.getName());
+
+	// Writers touch names after their transaction commits; waiting a moment
+	// folds bursts of touches into one query.
+	private static final long REFRESH_DELAY_MILLIS = 500;
+	private static final long DEFAULT_RELOAD_MINUTES = 10;
+
+	private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "proshop-product-catalog");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private static final Snapshot EMPTY = Snapshot.build(Collections.emptyList());
+
+	private static volatile Snapshot snapshot;
+	private static final AtomicBoolean LOAD_QUEUED = new AtomicBoolean();
+	// Lower-cased name -> entry; only touched on the catalog thread or under the class lock
+	private static final Map<String, Entry> ENTRIES = new HashMap<>();
+	private static final Set<String> DIRTY = new LinkedHashSet<>();
+	private static boolean refreshQueued;
+	private static boolean reloadScheduled;
+
+	private ProductCatalog() {
+	}
+
+	private static final class Entry {
+		final String name;
+		final boolean inStock;
+
+		Entry(String name, boolean inStock) {
+			this.name = name;
+			this.inStock = inStock;
+		}
+	}
+
+	// ===== QUERY =====
+	/**
+	 * Product names containing {@code text} (case-insensitive), sorted by name.
+	 * With {@code inStockOnly} only names with a lot holding stock are returned;
+	 * otherwise every name with a non-negative lot.
+	 */
+	public static List<String> suggest(String text, boolean inStockOnly) {
+		return current().search(text == null ? "" : text.trim().toLowerCase(Locale.ROOT), inStockOnly);
+	}
+
+	/** All product names, sorted. */
+	public static List<String> names(boolean inStockOnly) {
+		return current().search("", inStockOnly);
+	}
+
+	// Off the EDT a missing catalog is loaded on the spot. The EDT never
+	// queries or waits for the lock: it gets no names until the background
+	// load lands.
+	private static Snapshot current() {
+		Snapshot s = snapshot;
+		if (s != null)
+			return s;
+		if (SwingUtilities.isEventDispatchThread()) {
+			preload();
+			return EMPTY;
+		}
+		synchronized (ProductCatalog.class) {
+			if (snapshot == null)
+				reload();
+			return snapshot != null ? snapshot : EMPTY;
+		}
+	}
+
+	// ===== MAINTENANCE =====
+	/** Loads the catalog in the background so the first keystroke finds it ready. */
+	public static void preload() {
+		if (!LOAD_QUEUED.compareAndSet(false, true))
+			return;
+		EXECUTOR.execute(() -> {
+			try {
+				current();
+			} finally {
+				LOAD_QUEUED.set(false);
+			}
+		});
+	}
+
+	/** Marks a product whose stock changed; it is re-read shortly. */
+	public static void touch(String productName) {
+		if (productName == null)
+			return;
+		synchronized (ProductCatalog.class) {
+			DIRTY.add(productName);
+			if (!refreshQueued) {
+				refreshQueued = true;
+				EXECUTOR.schedule(ProductCatalog::refreshDirty, REFRESH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/** Schedules a full reload, for writes that do not know which names they removed. */
+	public static void invalidate() {
+		EXECUTOR.schedule(() -> {
+			synchronized (ProductCatalog.class) {
+				reload();
+			}
+		}, REFRESH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	// Caller holds the class lock. A failed load keeps the previous catalog
+	// (or none, so the next lookup retries); the periodic reload is scheduled
+	// either way.
+	private static void reload() {
+		if (!reloadScheduled) {
+			reloadScheduled = true;
+			long minutes = Long.getLong("proshop.catalog.reloadMinutes", DEFAULT_RELOAD_MINUTES);
+			if (minutes > 0)
+				EXECUTOR.scheduleWithFixedDelay(ProductCatalog::invalidate, minutes, minutes, TimeUnit.MINUTES);
+		}
+		String sql = "SELECT MIN(productName), SUM(quantity > 0) > 0, SUM(quantity >= 0) > 0 FROM stock GROUP BY productName";
+		Map<String, Entry> loaded = new HashMap<>();
+		try (Connection conn = DBUtil.getConnection();
+				PreparedStatement ps = conn.prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				put(loaded, rs);
+			}
+		} catch (SQLException | RuntimeException ex) {
+			LOGGER.warning("Product catalog load failed: " + ex.getMessage());
+			return;
+		}
+		ENTRIES.clear();
+		ENTRIES.putAll(loaded);
+		snapshot = Snapshot.build(ENTRIES.values());
+	}
+
+	private static void refreshDirty() {
+		synchronized (ProductCatalog.class) {
+			refreshQueued = false;
+			if (DIRTY.isEmpty())
+				return;
+			if (snapshot == null) {
+				DIRTY.clear();
+				reload();
+				return;
+			}
+			List<String> names = new ArrayList<>(DIRTY);
+			DIRTY.clear();
+
+			String sql = "SELECT MIN(productName), SUM(quantity > 0) > 0, SUM(quantity >= 0) > 0 FROM stock "
+					+ "WHERE productName IN (" + String.join(",", Collections.nCopies(names.size(), "?"))
+					+ ") GROUP BY productName";
+			try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+				for (int i = 0; i < names.size(); i++) {
+					ps.setString(i + 1, names.get(i));
+					ENTRIES.remove(names.get(i).toLowerCase(Locale.ROOT));
+				}
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						put(ENTRIES, rs);
+					}
+				}
+			} catch (SQLException ex) {
+				LOGGER.warning("Product catalog refresh failed: " + ex.getMessage());
+				return;
+			}
+			snapshot = Snapshot.build(ENTRIES.values());
+		}
+	}
+
+	private static void put(Map<String, Entry> entries, ResultSet rs) throws SQLException {
+		String name = rs.getString(1);
+		// A name whose lots are all negative matches neither list, as in the old queries
+		if (name != null && rs.getBoolean(3))
+			entries.put(name.toLowerCase(Locale.ROOT), new Entry(name, rs.getBoolean(2)));
+	}
+
+	// ===== INDEX =====
+	private static final class Snapshot {
+		private static final int[] NONE = new int[0];
+
+		final String[] names;
+		final String[] lower;
+		final boolean[] inStock;
+		final Map<String, int[]> trigrams;
+
+		private Snapshot(String[] names, String[] lower, boolean[] inStock, Map<String, int[]> trigrams) {
+			this.names = names;
+			this.lower = lower;
+			this.inStock = inStock;
+			this.trigrams = trigrams;
+		}
+
+		static Snapshot build(Collection<Entry> entries) {
+			Entry[] sorted = entries.toArray(new Entry[0]);
+			Arrays.sort(sorted, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.name, b.name));
+			int n = sorted.length;
+			String[] names = new String[n];
+			String[] lower = new String[n];
+			boolean[] inStock = new boolean[n];
+			Map<String, List<Integer>> postings = new HashMap<>();
+			for (int i = 0; i < n; i++) {
+				names[i] = sorted[i].name;
+				lower[i] = names[i].toLowerCase(Locale.ROOT);
+				inStock[i] = sorted[i].inStock;
+				for (int j = 0; j + 3 <= lower[i].length(); j++) {
+					List<Integer> ids = postings.computeIfAbsent(lower[i].substring(j, j + 3), k -> new ArrayList<>());
+					// Ids arrive in ascending order, so a repeat can only be the last one
+					if (ids.isEmpty() || ids.get(ids.size() - 1) != i)
+						ids.add(i);
+				}
+			}
+			Map<String, int[]> trigrams = new HashMap<>(postings.size() * 2);
+			for (Map.Entry<String, List<Integer>> e : postings.entrySet()) {
+				trigrams.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+			}
+			return new Snapshot(names, lower, inStock, trigrams);
+		}
+
+		List<String> search(String query, boolean inStockOnly) {
+			List<String> result = new ArrayList<>();
+			if (query.length() < 3) {
+				for (int i = 0; i < names.length; i++) {
+					if ((!inStockOnly || inStock[i]) && lower[i].contains(query))
+						result.add(names[i]);
+				}
+				return result;
+			}
+			// Candidates must contain every trigram of the query; the final contains()
+			// check rules out names holding them in a different order
+			int[] candidates = null;
+			for (int j = 0; j + 3 <= query.length(); j++) {
+				int[] ids = trigrams.getOrDefault(query.substring(j, j + 3), NONE);
+				candidates = candidates == null ? ids : intersect(candidates, ids);
+				if (candidates.length == 0)
+					return result;
+			}
+			for (int i : candidates) {
+				if ((!inStockOnly || inStock[i]) && lower[i].contains(query))
+					result.add(names[i]);
+			}
+			return result;
+		}
+
+		private static int[] intersect(int[] a, int[] b) {
+			int[] out = new int[Math.min(a.length, b.length)];
+			int i = 0, j = 0, k = 0;
+			while (i < a.length && j < b.length) {
+				if (a[i] < b[j]) {
+					i++;
+				} else if (a[i] > b[j]) {
+					j++;
+				} else {
+					out[k++] = a[i];
+					i++;
+					j++;
+				}
+			}
+			return Arrays.copyOf(out, k);
+		}
+	}
+}
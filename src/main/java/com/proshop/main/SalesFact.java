@@ -0,0 +1,271 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Every sale line, retail ({@code customer}) and gym wholesale
+ * ({@code gym_wholesaler}), in one {@code sales_fact} table.
+ *
+ * Rows are written by AFTER INSERT/UPDATE/DELETE triggers on the two source
+ * tables, so the fact table moves inside the same transaction as the sale.
+ * It is indexed on (sale_date, product_name) and (product_name, sale_date):
+ * date ranges and product name prefixes are both index range scans, and
+ * {@link #page} walks the newest sales first with keyset pagination.
+ */
+public final class SalesFact {
+	private static final Logger LOGGER = Logger.getLogger(SalesFact.class.getName());
+
+	// Sales without a date are stored on this day so the date column can stay
+	// NOT NULL and keyset paging never meets a NULL.
+	private static final LocalDate UNDATED = LocalDate.of(1970, 1, 1);
+
+	// Source table -> {source tag, date column, total column}
+	private static final String[][] SOURCES = {
+			{ "customer", "customer", "date", "finalBill" },
+			{ "gym_wholesaler", "gym", "dateOfPurchase", "totalBill" } };
+
+	private static final String COLUMNS = "source, source_id, sale_date, product_name, quantity, selling_price, "
+			+ "total_amount, net_profit";
+
+	private SalesFact() {
+	}
+
+	/** One sale line as shown on the sold stock screen. */
+	public static final class Sale {
+		final long id;
+		final LocalDate saleDate;
+		final String productName;
+		final int quantity;
+		final double sellingPrice;
+		final double totalAmount;
+		final double netProfit;
+
+		Sale(ResultSet rs) throws SQLException {
+			id = rs.getLong("id");
+			LocalDate d = rs.getObject("sale_date", LocalDate.class);
+			saleDate = UNDATED.equals(d) ? null : d;
+			productName = rs.getString("product_name");
+			quantity = rs.getInt("quantity");
+			sellingPrice = rs.getDouble("selling_price");
+			totalAmount = rs.getDouble("total_amount");
+			netProfit = rs.getDouble("net_profit");
+		}
+
+		public LocalDate getSaleDate() {
+			return saleDate;
+		}
+
+		public String getProductName() {
+			return productName;
+		}
+
+		public int getQuantity() {
+			return quantity;
+		}
+
+		public double getSellingPrice() {
+			return sellingPrice;
+		}
+
+		public double getTotalAmount() {
+			return totalAmount;
+		}
+
+		public double getNetProfit() {
+			return netProfit;
+		}
+	}
+
+	/** Quantity, amount and profit summed over every sale matching a query. */
+	public static final class Totals {
+		final long quantity;
+		final double amount;
+		final double netProfit;
+
+		Totals(long quantity, double amount, double netProfit) {
+			this.quantity = quantity;
+			this.amount = amount;
+			this.netProfit = netProfit;
+		}
+
+		public long getQuantity() {
+			return quantity;
+		}
+
+		public double getAmount() {
+			return amount;
+		}
+
+		public double getNetProfit() {
+			return netProfit;
+		}
+	}
+
+	/**
+	 * Sold stock search. The product text matches from the start of the name;
+	 * whitespace inside it matches any run of characters, so "gold whey" finds
+	 * "Gold Standard Whey". Dates are inclusive and either may be null.
+	 */
+	public static final class Query {
+		private final String productPattern;
+		private final LocalDate from;
+		private final LocalDate to;
+
+		public Query(String productText, LocalDate from, LocalDate to) {
+			String t = productText == null ? "" : productText.trim();
+			this.productPattern = t.isEmpty() ? null
+					: t.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_").replaceAll("\\s+", "%") + "%";
+			this.from = from;
+			this.to = to;
+		}
+
+		String where() {
+			StringBuilder sql = new StringBuilder(" WHERE 1=1");
+			if (productPattern != null)
+				sql.append(" AND product_name LIKE ?");
+			if (from != null)
+				sql.append(" AND sale_date >= ?");
+			if (to != null)
+				sql.append(" AND sale_date <= ?");
+			return sql.toString();
+		}
+
+		int bind(PreparedStatement ps) throws SQLException {
+			int i = 1;
+			if (productPattern != null)
+				ps.setString(i++, productPattern);
+			if (from != null)
+				ps.setDate(i++, Date.valueOf(from));
+			if (to != null)
+				ps.setDate(i++, Date.valueOf(to));
+			return i;
+		}
+	}
+
+	// ===== INSTALL =====
+	/**
+	 * Creates the fact table, its indexes and triggers if missing. When the
+	 * triggers had to be created the table is refilled from the source tables.
+	 */
+	public static void install() {
+		try (Connection conn = DBUtil.getConnection(); Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS sales_fact ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "source VARCHAR(16) NOT NULL, "
+					+ "source_id BIGINT NOT NULL, "
+					+ "sale_date DATE NOT NULL, "
+					+ "product_name VARCHAR(255) NOT NULL DEFAULT '', "
+					+ "quantity INT NOT NULL DEFAULT 0, "
+					+ "selling_price DECIMAL(20,4) NOT NULL DEFAULT 0, "
+					+ "total_amount DECIMAL(20,4) NOT NULL DEFAULT 0, "
+					+ "net_profit DECIMAL(20,4) NOT NULL DEFAULT 0, "
+					+ "UNIQUE KEY uq_sales_fact_source (source, source_id), "
+					+ "KEY idx_sales_fact_date (sale_date, product_name), "
+					+ "KEY idx_sales_fact_product (product_name, sale_date))");
+
+			int existing;
+			try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM information_schema.TRIGGERS "
+					+ "WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME LIKE 'sf\\_%'")) {
+				existing = rs.next() ? rs.getInt(1) : 0;
+			}
+			if (existing == SOURCES.length * 3)
+				return;
+
+			for (String[] source : SOURCES) {
+				String table = source[0];
+				for (String suffix : new String[] { "ai", "au", "ad" }) {
+					st.execute("DROP TRIGGER IF EXISTS sf_" + table + "_" + suffix);
+				}
+				String upsert = "INSERT INTO sales_fact (" + COLUMNS + ") VALUES (" + values(source, "NEW") + ") "
+						+ "ON DUPLICATE KEY UPDATE sale_date = VALUES(sale_date), product_name = VALUES(product_name), "
+						+ "quantity = VALUES(quantity), selling_price = VALUES(selling_price), "
+						+ "total_amount = VALUES(total_amount), net_profit = VALUES(net_profit)";
+				st.execute("CREATE TRIGGER sf_" + table + "_ai AFTER INSERT ON " + table + " FOR EACH ROW " + upsert);
+				st.execute("CREATE TRIGGER sf_" + table + "_au AFTER UPDATE ON " + table + " FOR EACH ROW " + upsert);
+				st.execute("CREATE TRIGGER sf_" + table + "_ad AFTER DELETE ON " + table + " FOR EACH ROW "
+						+ "DELETE FROM sales_fact WHERE source = '" + source[1] + "' AND source_id = OLD.id");
+			}
+
+			rebuild(conn);
+			LOGGER.info("Installed sales_fact triggers and backfilled sales");
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error installing sales fact table: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static String values(String[] source, String row) {
+		return "'" + source[1] + "', " + row + ".id, COALESCE(" + row + "." + source[2] + ", '" + UNDATED + "'), "
+				+ "COALESCE(" + row + ".productName, ''), COALESCE(" + row + ".quantity, 0), "
+				+ "COALESCE(" + row + ".sellingPrice, 0), COALESCE(" + row + "." + source[3] + ", 0), "
+				+ "COALESCE(" + row + ".netProfit, 0)";
+	}
+
+	private static void rebuild(Connection conn) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try (Statement st = conn.createStatement()) {
+			st.execute("DELETE FROM sales_fact");
+			for (String[] source : SOURCES) {
+				st.execute("INSERT INTO sales_fact (" + COLUMNS + ") SELECT " + values(source, "s") + " FROM "
+						+ source[0] + " s");
+			}
+			conn.commit();
+		} catch (SQLException ex) {
+			conn.rollback();
+			throw ex;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	// ===== READ =====
+	/**
+	 * Up to {@code limit} sales matching {@code query}, newest first. Pass the
+	 * last sale of the previous page as {@code after} for the next one, or null
+	 * for the first.
+	 */
+	public static List<Sale> page(Query query, Sale after, int limit) throws SQLException {
+		String sql = "SELECT id, " + COLUMNS + " FROM sales_fact" + query.where()
+				+ (after != null ? " AND (sale_date < ? OR (sale_date = ? AND id < ?))" : "")
+				+ " ORDER BY sale_date DESC, id DESC LIMIT " + limit;
+		List<Sale> sales = new ArrayList<>();
+		try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			int i = query.bind(ps);
+			if (after != null) {
+				Date d = Date.valueOf(after.saleDate != null ? after.saleDate : UNDATED);
+				ps.setDate(i++, d);
+				ps.setDate(i++, d);
+				ps.setLong(i, after.id);
+			}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					sales.add(new Sale(rs));
+				}
+			}
+		}
+		return sales;
+	}
+
+	public static Totals totals(Query query) throws SQLException {
+		String sql = "SELECT COALESCE(SUM(quantity), 0), COALESCE(SUM(total_amount), 0), "
+				+ "COALESCE(SUM(net_profit), 0) FROM sales_fact" + query.where();
+		try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			query.bind(ps);
+			try (ResultSet rs = ps.executeQuery()) {
+				rs.next();
+				return new Totals(rs.getLong(1), rs.getDouble(2), rs.getDouble(3));
+			}
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Sales, profit and quantity per day and channel, kept in the
+ * {@code sales_daily} table for the monthly, weekly and yearly reports.
+ *
+ * The rollup is fed by AFTER INSERT/UPDATE/DELETE triggers on
+ * {@code sales_fact}, which {@link SalesFact} keeps in step with
+ * {@code customer} and {@code gym_wholesaler}. Every sale write therefore
+ * moves its day's row inside the same transaction, and a report for any
+ * period within a year reads at most 366 days per channel through the
+ * primary key (sale_date, source).
+ *
+ * {@link #rebuild()} recomputes the rollup from {@code sales_fact}; it can be
+ * run from the command line with {@code java com.proshop.main.SalesRollup rebuild}.
+ */
+public final class SalesRollup {
+	private static final Logger LOGGER = Logger.getLogger(SalesRollup.class.getName());
+
+	/** Source tags written by {@link SalesFact}. */
+	public static final String RETAIL = "customer";
+	public static final String GYM = "gym";
+
+	// SalesFact stores undated sales on this day; the reports leave them out
+	private static final LocalDate UNDATED = LocalDate.of(1970, 1, 1);
+
+	private static final String TRIGGER_PREFIX = "sd_sales_fact_";
+
+	private SalesRollup() {
+	}
+
+	/** Sales and profit of one period, split by channel. */
+	public static final class Totals {
+		double retailSales;
+		double retailProfit;
+		double gymSales;
+		double gymProfit;
+		long quantity;
+
+		void add(String source, double sales, double profit, long qty) {
+			if (GYM.equals(source)) {
+				gymSales += sales;
+				gymProfit += profit;
+			} else {
+				retailSales += sales;
+				retailProfit += profit;
+			}
+			quantity += qty;
+		}
+
+		void add(Totals other) {
+			retailSales += other.retailSales;
+			retailProfit += other.retailProfit;
+			gymSales += other.gymSales;
+			gymProfit += other.gymProfit;
+			quantity += other.quantity;
+		}
+
+		public double getRetailSales() {
+			return retailSales;
+		}
+
+		public double getGymSales() {
+			return gymSales;
+		}
+
+		public double getSales() {
+			return retailSales + gymSales;
+		}
+
+		public double getProfit() {
+			return retailProfit + gymProfit;
+		}
+
+		public long getQuantity() {
+			return quantity;
+		}
+
+		public boolean isEmpty() {
+			return retailSales == 0 && gymSales == 0 && retailProfit == 0 && gymProfit == 0;
+		}
+	}
+
+	// ===== INSTALL =====
+	/**
+	 * Creates the rollup table and its triggers if they are missing. When the
+	 * triggers had to be created the rollup is rebuilt, since sales written
+	 * before they existed were never counted.
+	 */
+	public static void install() {
+		try (Connection conn = DBUtil.getConnection(); Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS sales_daily ("
+					+ "sale_date DATE NOT NULL, "
+					+ "source VARCHAR(16) NOT NULL, "
+					+ "sales DECIMAL(20,4) NOT NULL DEFAULT 0, "
+					+ "profit DECIMAL(20,4) NOT NULL DEFAULT 0, "
+					+ "quantity BIGINT NOT NULL DEFAULT 0, "
+					+ "line_count INT NOT NULL DEFAULT 0, "
+					+ "PRIMARY KEY (sale_date, source))");
+
+			List<String> existing = new ArrayList<>();
+			try (ResultSet rs = st.executeQuery("SELECT TRIGGER_NAME FROM information_schema.TRIGGERS "
+					+ "WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME LIKE 'sd\\_%'")) {
+				while (rs.next()) {
+					existing.add(rs.getString(1));
+				}
+			}
+
+			boolean created = false;
+			created |= createTrigger(st, existing, "INSERT", "ai", delta("NEW", null));
+			created |= createTrigger(st, existing, "UPDATE", "au", delta("NEW", "OLD"));
+			created |= createTrigger(st, existing, "DELETE", "ad", delta(null, "OLD"));
+			if (created) {
+				LOGGER.info("Installed sales_daily triggers, rebuilding rollup");
+				rebuild(conn);
+			}
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error installing sales rollup: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static boolean createTrigger(Statement st, List<String> existing, String event, String suffix,
+			String body) throws SQLException {
+		String name = TRIGGER_PREFIX + suffix;
+		if (existing.contains(name))
+			return false;
+		st.execute("CREATE TRIGGER " + name + " AFTER " + event + " ON sales_fact FOR EACH ROW " + body);
+		return true;
+	}
+
+	// One upsert per fact change: the new row is added to its day and the old
+	// row taken off its day, which may be the same day.
+	private static String delta(String newRow, String oldRow) {
+		StringBuilder sql = new StringBuilder(
+				"INSERT INTO sales_daily (sale_date, source, sales, profit, quantity, line_count) VALUES ");
+		if (newRow != null)
+			sql.append(dayRow(newRow, ""));
+		if (newRow != null && oldRow != null)
+			sql.append(", ");
+		if (oldRow != null)
+			sql.append(dayRow(oldRow, "-"));
+		return sql.append(" ON DUPLICATE KEY UPDATE sales = sales + VALUES(sales), profit = profit + VALUES(profit), "
+				+ "quantity = quantity + VALUES(quantity), line_count = line_count + VALUES(line_count)").toString();
+	}
+
+	private static String dayRow(String row, String sign) {
+		return "(" + row + ".sale_date, " + row + ".source, " + sign + row + ".total_amount, " + sign + row
+				+ ".net_profit, " + sign + row + ".quantity, " + sign + "1)";
+	}
+
+	// ===== REBUILD =====
+	public static void rebuild() {
+		try (Connection conn = DBUtil.getConnection()) {
+			rebuild(conn);
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error rebuilding sales rollup: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static void rebuild(Connection conn) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try (Statement st = conn.createStatement()) {
+			st.execute("DELETE FROM sales_daily");
+			int days = st.executeUpdate("INSERT INTO sales_daily (sale_date, source, sales, profit, quantity, line_count) "
+					+ "SELECT sale_date, source, SUM(total_amount), SUM(net_profit), SUM(quantity), COUNT(*) "
+					+ "FROM sales_fact GROUP BY sale_date, source");
+			conn.commit();
+			LOGGER.info("Rebuilt sales_daily: " + days + " day rows");
+		} catch (SQLException ex) {
+			conn.rollback();
+			throw ex;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	// ===== READ =====
+	/** Years that have sales, newest first. */
+	public static List<Integer> years() throws SQLException {
+		List<Integer> years = new ArrayList<>();
+		try (Connection conn = DBUtil.getConnection();
+				PreparedStatement ps = conn.prepareStatement("SELECT DISTINCT YEAR(sale_date) AS year FROM sales_daily "
+						+ "WHERE sale_date > ? AND line_count > 0 ORDER BY year DESC")) {
+			ps.setDate(1, Date.valueOf(UNDATED));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					years.add(rs.getInt(1));
+				}
+			}
+		}
+		return years;
+	}
+
+	/** Totals of each month of {@code year}; index 0 is January. */
+	public static Totals[] byMonth(int year) throws SQLException {
+		LocalDate first = LocalDate.of(year, 1, 1);
+		Totals[] months = empty(12);
+		read(first, first.plusYears(1).minusDays(1), (day, source, sales, profit, qty) ->
+				months[day.getMonthValue() - 1].add(source, sales, profit, qty));
+		return months;
+	}
+
+	/** Totals of each day of {@code month}; index 0 is the 1st. */
+	public static Totals[] byDay(YearMonth month) throws SQLException {
+		Totals[] days = empty(month.lengthOfMonth());
+		read(month.atDay(1), month.atEndOfMonth(), (day, source, sales, profit, qty) ->
+				days[day.getDayOfMonth() - 1].add(source, sales, profit, qty));
+		return days;
+	}
+
+	/** Totals of the whole of {@code year}. */
+	public static Totals forYear(int year) throws SQLException {
+		Totals total = new Totals();
+		for (Totals month : byMonth(year)) {
+			total.add(month);
+		}
+		return total;
+	}
+
+	private interface DayVisitor {
+		void visit(LocalDate day, String source, double sales, double profit, long quantity);
+	}
+
+	// Range scan on the primary key: one row per day and channel
+	private static void read(LocalDate from, LocalDate to, DayVisitor visitor) throws SQLException {
+		String sql = "SELECT sale_date, source, sales, profit, quantity FROM sales_daily "
+				+ "WHERE sale_date BETWEEN ? AND ?";
+		try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setDate(1, Date.valueOf(from));
+			ps.setDate(2, Date.valueOf(to));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					visitor.visit(rs.getObject("sale_date", LocalDate.class), rs.getString("source"),
+							rs.getDouble("sales"), rs.getDouble("profit"), rs.getLong("quantity"));
+				}
+			}
+		}
+	}
+
+	private static Totals[] empty(int size) {
+		Totals[] totals = new Totals[size];
+		for (int i = 0; i < size; i++) {
+			totals[i] = new Totals();
+		}
+		return totals;
+	}
+
+	public static void main(String[] args) {
+		if (args.length == 1 && "rebuild".equals(args[0])) {
+			rebuild();
+		} else {
+			System.err.println("Usage: SalesRollup rebuild");
+			System.exit(2);
+		}
+	}
+}
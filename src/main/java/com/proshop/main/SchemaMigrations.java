@@ -0,0 +1,400 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Versioned database schema. Every change to tables, indexes or triggers is a
+ * numbered {@link Migration}; {@link #migrate()} runs the ones newer than the
+ * version recorded in {@code schema_version}, in order, at application start.
+ *
+ * MySQL commits DDL implicitly, so a migration cannot be rolled back halfway.
+ * Each one is therefore written to be re-runnable ({@code IF NOT EXISTS},
+ * duplicate index/column errors ignored): if it fails part way, fixing the
+ * cause and restarting finishes it. New migrations go at the end of
+ * {@link #MIGRATIONS} and are never edited once released.
+ *
+ * Table names are lower case; the application's queries mix cases, which
+ * relies on the server running with {@code lower_case_table_names=1}.
+ */
+public final class SchemaMigrations {
+	private static final Logger LOGGER = Logger.getLogger(SchemaMigrations.class.getName());
+
+	// Serializes migrations when two instances start against the same database
+	private static final String LOCK_NAME = "proshop_schema_migration";
+	private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+	private static final int ER_DUP_FIELDNAME = 1060;
+	private static final int ER_DUP_KEYNAME = 1061;
+	private static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+	private static final int ER_FK_DUP_NAME = 1826;
+
+	interface Step {
+		void apply(Connection conn) throws SQLException;
+	}
+
+	static final class Migration {
+		final int version;
+		final String description;
+		final Step step;
+
+		Migration(int version, String description, Step step) {
+			this.version = version;
+			this.description = description;
+			this.step = step;
+		}
+	}
+
+	private static final List<Migration> MIGRATIONS = new ArrayList<>();
+	static {
+		MIGRATIONS.add(new Migration(1, "Base tables", SchemaMigrations::createBaseTables));
+		MIGRATIONS.add(new Migration(2, "Merge per-unit stock rows into lots", conn -> StockLedger.mergeUnitRows()));
+		MIGRATIONS.add(new Migration(3, "Lower-cased name columns and hot-path indexes", SchemaMigrations::addHotPathIndexes));
+		MIGRATIONS.add(new Migration(4, "financial_summary running totals", conn -> FinancialSummary.install()));
+		MIGRATIONS.add(new Migration(5, "shop_balance_daily checkpoints", conn -> ShopLedger.install()));
+		MIGRATIONS.add(new Migration(6, "sales_fact table", conn -> SalesFact.install()));
+		MIGRATIONS.add(new Migration(7, "gym_client table keyed by id", SchemaMigrations::normalizeGymClients));
+		MIGRATIONS.add(new Migration(8, "sales_daily rollup", conn -> SalesRollup.install()));
+	}
+
+	private SchemaMigrations() {
+	}
+
+	// ===== MIGRATE =====
+	/**
+	 * Brings the schema up to the latest version.
+	 *
+	 * @return number of migrations applied
+	 */
+	public static int migrate() {
+		try (Connection conn = DBUtil.getConnection()) {
+			try (Statement st = conn.createStatement()) {
+				st.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+						+ "version INT NOT NULL PRIMARY KEY, "
+						+ "description VARCHAR(255) NOT NULL, "
+						+ "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+			}
+			if (!lock(conn, "SELECT GET_LOCK(?, " + LOCK_TIMEOUT_SECONDS + ")")) {
+				throw new SQLException("Timed out waiting for another instance to finish migrating");
+			}
+			try {
+				int current = currentVersion(conn);
+				int applied = 0;
+				for (Migration m : MIGRATIONS) {
+					if (m.version <= current)
+						continue;
+					LOGGER.info("Applying schema migration " + m.version + ": " + m.description);
+					m.step.apply(conn);
+					try (PreparedStatement ps = conn.prepareStatement(
+							"INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+						ps.setInt(1, m.version);
+						ps.setString(2, m.description);
+						ps.executeUpdate();
+					}
+					applied++;
+				}
+				return applied;
+			} finally {
+				lock(conn, "SELECT RELEASE_LOCK(?)");
+			}
+		} catch (SQLException | RuntimeException ex) {
+			throw new RuntimeException("Error migrating database schema: " + ex.getMessage(), ex);
+		}
+	}
+
+	public static int currentVersion() throws SQLException {
+		try (Connection conn = DBUtil.getConnection()) {
+			return currentVersion(conn);
+		}
+	}
+
+	private static int currentVersion(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement();
+				ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private static boolean lock(Connection conn, String sql) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, LOCK_NAME);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getInt(1) == 1;
+			}
+		}
+	}
+
+	// ===== HELPERS =====
+	private static void addIndex(Statement st, String table, String name, String columns) throws SQLException {
+		ignore(st, "CREATE INDEX " + name + " ON " + table + " (" + columns + ")", ER_DUP_KEYNAME);
+	}
+
+	private static void addColumn(Statement st, String table, String definition) throws SQLException {
+		ignore(st, "ALTER TABLE " + table + " ADD COLUMN " + definition, ER_DUP_FIELDNAME);
+	}
+
+	private static void dropColumn(Statement st, String table, String column) throws SQLException {
+		ignore(st, "ALTER TABLE " + table + " DROP COLUMN " + column, ER_CANT_DROP_FIELD_OR_KEY);
+	}
+
+	private static void dropIndex(Statement st, String table, String name) throws SQLException {
+		ignore(st, "DROP INDEX " + name + " ON " + table, ER_CANT_DROP_FIELD_OR_KEY);
+	}
+
+	private static void addForeignKey(Statement st, String table, String name, String definition) throws SQLException {
+		ignore(st, "ALTER TABLE " + table + " ADD CONSTRAINT " + name + " FOREIGN KEY " + definition, ER_FK_DUP_NAME);
+	}
+
+	private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.COLUMNS "
+				+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+			ps.setString(1, table);
+			ps.setString(2, column);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() && rs.getInt(1) > 0;
+			}
+		}
+	}
+
+	private static void ignore(Statement st, String sql, int errorCode) throws SQLException {
+		try {
+			st.execute(sql);
+		} catch (SQLException ex) {
+			if (ex.getErrorCode() != errorCode)
+				throw ex;
+		}
+	}
+
+	// ===== V1: BASE TABLES =====
+	// The tables the application has always used, as its queries expect them.
+	// Existing databases keep their definitions; only missing tables are created.
+	private static void createBaseTables(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS wholesaler ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "wholesalerName VARCHAR(255) NOT NULL, "
+					+ "phoneNo VARCHAR(20), "
+					+ "address VARCHAR(500))");
+			st.execute("CREATE TABLE IF NOT EXISTS bill ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "date DATE, "
+					+ "shippingCharges DECIMAL(12,2) DEFAULT 0, "
+					+ "billAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "wholesalerId BIGINT NOT NULL)");
+			st.execute("CREATE TABLE IF NOT EXISTS product ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "productName VARCHAR(255) NOT NULL, "
+					+ "quantity INT NOT NULL DEFAULT 0, "
+					+ "perPieceRate DECIMAL(12,2) DEFAULT 0, "
+					+ "expiry DATE, "
+					+ "total DECIMAL(12,2) DEFAULT 0, "
+					+ "wholesalerId BIGINT)");
+			st.execute("CREATE TABLE IF NOT EXISTS billproduct ("
+					+ "billId BIGINT NOT NULL, "
+					+ "productId BIGINT NOT NULL, "
+					+ "quantity INT NOT NULL DEFAULT 0, "
+					+ "PRIMARY KEY (billId, productId))");
+			st.execute("CREATE TABLE IF NOT EXISTS payment ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "paidAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "paidDate DATE, "
+					+ "pendingAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "billId BIGINT NOT NULL)");
+			st.execute("CREATE TABLE IF NOT EXISTS stock ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "productName VARCHAR(255) NOT NULL, "
+					+ "quantity INT NOT NULL DEFAULT 0, "
+					+ "perPieceRate DECIMAL(12,2), "
+					+ "totalAmount DECIMAL(14,2), "
+					+ "expiryDate DATE, "
+					+ "purchaseDate DATE, "
+					+ "productId BIGINT)");
+			st.execute("CREATE TABLE IF NOT EXISTS customer ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "customerName VARCHAR(255), "
+					+ "productName VARCHAR(255), "
+					+ "quantity INT DEFAULT 0, "
+					+ "buyingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "sellingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "totalAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "finalBill DECIMAL(12,2) DEFAULT 0, "
+					+ "netProfit DECIMAL(12,2) DEFAULT 0, "
+					+ "paymentMode VARCHAR(50), "
+					+ "date DATE, "
+					+ "discount DECIMAL(12,2) DEFAULT 0, "
+					+ "status VARCHAR(20), "
+					+ "mobileNo VARCHAR(20), "
+					+ "amount_paid DECIMAL(12,2) DEFAULT 0, "
+					+ "payment_date DATE, "
+					+ "pending_amount DECIMAL(12,2) DEFAULT 0)");
+			st.execute("CREATE TABLE IF NOT EXISTS payment_history ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "customer_id BIGINT NOT NULL, "
+					+ "amount_paid DECIMAL(12,2) DEFAULT 0, "
+					+ "payment_date DATE, "
+					+ "payment_mode VARCHAR(50))");
+			st.execute("CREATE TABLE IF NOT EXISTS gym_wholesaler ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "wholesalerName VARCHAR(255) NOT NULL, "
+					+ "mobileNo VARCHAR(20), "
+					+ "address VARCHAR(500), "
+					+ "productName VARCHAR(255), "
+					+ "quantity INT DEFAULT 0, "
+					+ "buyingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "sellingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "totalBill DECIMAL(12,2) DEFAULT 0, "
+					+ "netProfit DECIMAL(12,2) DEFAULT 0, "
+					+ "paymentMode VARCHAR(50), "
+					+ "dateOfPurchase DATE, "
+					+ "description VARCHAR(500))");
+			st.execute("CREATE TABLE IF NOT EXISTS wholesaler_payment ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "wholesalerId BIGINT NOT NULL, "
+					+ "paymentMode VARCHAR(50), "
+					+ "dateOfAmountPaid DATE, "
+					+ "amountPaid DECIMAL(12,2) DEFAULT 0, "
+					+ "pendingAmount DECIMAL(12,2) DEFAULT 0)");
+			st.execute("CREATE TABLE IF NOT EXISTS shop_wholesaler ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "wholesalerName VARCHAR(255), "
+					+ "mobileNo VARCHAR(20), "
+					+ "address VARCHAR(500), "
+					+ "productName VARCHAR(255), "
+					+ "productQuantity INT DEFAULT 0, "
+					+ "buyingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "sellingPrice DECIMAL(12,2) DEFAULT 0, "
+					+ "dateOfPurchase DATE)");
+			st.execute("CREATE TABLE IF NOT EXISTS shop_amount ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "shopAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "amountDate DATE, "
+					+ "shop_description VARCHAR(500))");
+			st.execute("CREATE TABLE IF NOT EXISTS billdetails ("
+					+ "billId BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "rent DECIMAL(12,2) DEFAULT 0, "
+					+ "lightBill DECIMAL(12,2) DEFAULT 0, "
+					+ "maintenanceBill DECIMAL(12,2) DEFAULT 0, "
+					+ "salary DECIMAL(12,2) DEFAULT 0, "
+					+ "parcelBillAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "parcelBillDescription VARCHAR(500), "
+					+ "bankEmi DECIMAL(12,2) DEFAULT 0, "
+					+ "othersAmount DECIMAL(12,2) DEFAULT 0, "
+					+ "othersDescription VARCHAR(500), "
+					+ "productSale DECIMAL(12,2) DEFAULT 0, "
+					+ "billDate DATE)");
+		}
+	}
+
+	// ===== V3: HOT-PATH INDEXES =====
+	// Name lookups are written as LOWER(productName) = LOWER(?). A virtual
+	// column with exactly that expression lets the optimizer answer them from
+	// an index without the queries changing. MySQL only substitutes it for =,
+	// <, <=, >, >=, BETWEEN and IN, so the LIKE searches still scan; with a
+	// leading % they could not use the index anyway.
+	private static void addHotPathIndexes(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			addColumn(st, "stock", "productName_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(productName)) VIRTUAL");
+			addColumn(st, "product", "productName_lc VARCHAR(255) GENERATED ALWAYS AS (LOWER(productName)) VIRTUAL");
+
+			// Rate pickers, availability checks and lot reservation
+			addIndex(st, "stock", "idx_stock_name_lc", "productName_lc, perPieceRate, quantity");
+			addIndex(st, "product", "idx_product_name_lc", "productName_lc");
+			addIndex(st, "product", "idx_product_wholesaler", "wholesalerId");
+
+			// Wholesaler bills and their payments; the latest pending amount is read
+			// with ORDER BY paidDate DESC, id DESC straight off the index
+			addIndex(st, "bill", "idx_bill_wholesaler_date", "wholesalerId, date");
+			addIndex(st, "billproduct", "idx_billproduct_product", "productId");
+			addIndex(st, "payment", "idx_payment_bill_date", "billId, paidDate, pendingAmount, paidAmount");
+
+			// Gym clients are addressed by (wholesalerName, mobileNo)
+			addIndex(st, "gym_wholesaler", "idx_gym_client_date", "wholesalerName, mobileNo, dateOfPurchase");
+			addIndex(st, "wholesaler_payment", "idx_wholesaler_payment_client", "wholesalerId, dateOfAmountPaid");
+
+			addIndex(st, "customer", "idx_customer_date", "date");
+			addIndex(st, "payment_history", "idx_payment_history_customer", "customer_id, payment_date");
+			addIndex(st, "shop_amount", "idx_shop_amount_description", "shop_description(191)");
+			addIndex(st, "shop_amount", "idx_shop_amount_date", "amountDate, shopAmount");
+		}
+	}
+
+	// ===== V7: GYM CLIENTS =====
+	// gym_wholesaler used to hold both client rows (no product) and sale lines,
+	// each repeating the client's name, mobile and address, and payments pointed
+	// at whichever of those rows was found first. Clients move to gym_client;
+	// sale lines and payments reference it by id. gym_wholesaler keeps its name
+	// as the sale-line table so the sales_fact triggers on it stay as they are;
+	// the financial_summary client count moves to gym_client and is rebuilt.
+	//
+	// The copy steps only run while the old name columns exist and skip rows
+	// already carried over, so a failed run can simply be repeated.
+	private static void normalizeGymClients(Connection conn) throws SQLException {
+		try (Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS gym_client ("
+					+ "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, "
+					+ "wholesalerName VARCHAR(255) NOT NULL, "
+					+ "mobileNo VARCHAR(20), "
+					+ "address VARCHAR(500), "
+					+ "UNIQUE KEY uq_gym_client (wholesalerName, mobileNo))");
+			addColumn(st, "gym_wholesaler", "client_id BIGINT");
+			addColumn(st, "wholesaler_payment", "client_id BIGINT");
+
+			if (hasColumn(conn, "gym_wholesaler", "wholesalerName")) {
+				st.execute("INSERT INTO gym_client (wholesalerName, mobileNo, address) "
+						+ "SELECT g.wholesalerName, g.mobileNo, MAX(g.address) FROM gym_wholesaler g "
+						+ "WHERE NOT EXISTS (SELECT 1 FROM gym_client c "
+						+ "WHERE c.wholesalerName = g.wholesalerName AND c.mobileNo <=> g.mobileNo) "
+						+ "GROUP BY g.wholesalerName, g.mobileNo");
+				st.execute("UPDATE gym_wholesaler g JOIN gym_client c "
+						+ "ON c.wholesalerName = g.wholesalerName AND c.mobileNo <=> g.mobileNo "
+						+ "SET g.client_id = c.id WHERE g.client_id IS NULL");
+			}
+			if (hasColumn(conn, "wholesaler_payment", "wholesalerId")) {
+				st.execute("UPDATE wholesaler_payment wp JOIN gym_wholesaler g ON g.id = wp.wholesalerId "
+						+ "SET wp.client_id = g.client_id WHERE wp.client_id IS NULL");
+				try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM wholesaler_payment WHERE client_id IS NULL")) {
+					if (rs.next() && rs.getInt(1) > 0)
+						LOGGER.warning(rs.getInt(1) + " gym payment(s) point at deleted rows and keep no client");
+				}
+			}
+
+			// Client rows carried no sale; the client now lives in gym_client
+			st.execute("DELETE FROM gym_wholesaler WHERE productName IS NULL");
+
+			dropIndex(st, "gym_wholesaler", "idx_gym_client_date");
+			dropIndex(st, "wholesaler_payment", "idx_wholesaler_payment_client");
+			dropColumn(st, "gym_wholesaler", "wholesalerName");
+			dropColumn(st, "gym_wholesaler", "mobileNo");
+			dropColumn(st, "gym_wholesaler", "address");
+			dropColumn(st, "wholesaler_payment", "wholesalerId");
+
+			st.execute("ALTER TABLE gym_wholesaler MODIFY client_id BIGINT NOT NULL");
+			addIndex(st, "gym_wholesaler", "idx_gym_line_client_date", "client_id, dateOfPurchase");
+			addIndex(st, "wholesaler_payment", "idx_gym_payment_client_date", "client_id, dateOfAmountPaid");
+			addForeignKey(st, "gym_wholesaler", "fk_gym_line_client", "(client_id) REFERENCES gym_client (id)");
+			// Deleting a client keeps its payments, as before, so the cash totals do not move
+			addForeignKey(st, "wholesaler_payment", "fk_gym_payment_client",
+					"(client_id) REFERENCES gym_client (id) ON DELETE SET NULL");
+
+			// The old gym_wholesaler triggers also counted clients; install
+			// recreates them without it, adds gym_client's and rebuilds
+			for (String suffix : new String[] { "ai", "au", "ad" }) {
+				st.execute("DROP TRIGGER IF EXISTS fs_gym_wholesaler_" + suffix);
+			}
+		}
+		FinancialSummary.install();
+	}
+
+	public static void main(String[] args) {
+		int applied = migrate();
+		System.out.println("Applied " + applied + " migration(s)");
+	}
+}
@@ -0,0 +1,192 @@
+package com.proshop.main;
+
+import java.awt.BorderLayout;
+import java.awt.CardLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.logging.Logger;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * Builds the Dashboard's top-level screens on first use instead of all at
+ * startup.
+ *
+ * Every registered screen gets an empty holder card straight away, so
+ * {@code cardLayout.show(...)} works for any name from anywhere. The real
+ * screen is constructed the first time its holder becomes visible, whether
+ * that happens from the sidebar, a keyboard shortcut or a Back button. Until
+ * then the holder shows a placeholder, and construction waits for the next
+ * EDT turn so the placeholder is painted first.
+ *
+ * {@link #prefetch} warms screens the user is likely to open next: an optional
+ * data warm-up runs on a background thread, then the screen is built on the
+ * EDT, one per event so input stays responsive in between.
+ */
+public class ScreenRegistry {
+    private static final Logger LOGGER = Logger.getLogger(ScreenRegistry.class.getName());
+
+    private static final Color BACKGROUND_COLOR = new Color(33, 33, 33);
+    private static final Color PLACEHOLDER_COLOR = new Color(224, 224, 224);
+
+    private final CardLayout cardLayout;
+    private final JPanel container;
+    private final Map<String, Screen> screens = new LinkedHashMap<>();
+    private final ExecutorService warmer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "proshop-screen-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final class Screen {
+        final String name;
+        final JPanel holder;
+        final BiFunction<CardLayout, JPanel, JComponent> factory;
+        final Runnable warmup;
+        boolean built;
+        boolean buildQueued;
+
+        Screen(String name, JPanel holder, BiFunction<CardLayout, JPanel, JComponent> factory, Runnable warmup) {
+            this.name = name;
+            this.holder = holder;
+            this.factory = factory;
+            this.warmup = warmup;
+        }
+    }
+
+    public ScreenRegistry(CardLayout cardLayout, JPanel container) {
+        this.cardLayout = cardLayout;
+        this.container = container;
+    }
+
+    // ===== REGISTRATION =====
+    public void register(String name, BiFunction<CardLayout, JPanel, JComponent> factory) {
+        register(name, factory, null);
+    }
+
+    /**
+     * Adds a card for {@code name} whose content is created by {@code factory}
+     * on first display. {@code warmup}, if given, is run off the EDT before a
+     * prefetch builds the screen, e.g. to load caches the constructor reads.
+     */
+    public void register(String name, BiFunction<CardLayout, JPanel, JComponent> factory, Runnable warmup) {
+        JPanel holder = new JPanel(new BorderLayout());
+        holder.setBackground(BACKGROUND_COLOR);
+        JLabel placeholder = new JLabel("Loading...", SwingConstants.CENTER);
+        placeholder.setFont(new Font("Arial", Font.PLAIN, 24));
+        placeholder.setForeground(PLACEHOLDER_COLOR);
+        holder.add(placeholder, BorderLayout.CENTER);
+
+        Screen screen = new Screen(name, holder, factory, warmup);
+        screens.put(name, screen);
+        holder.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentShown(ComponentEvent e) {
+                queueBuild(screen);
+            }
+        });
+        container.add(holder, name);
+    }
+
+    // ===== NAVIGATION =====
+    public void show(String name) {
+        cardLayout.show(container, name);
+    }
+
+    public boolean isBuilt(String name) {
+        Screen screen = screens.get(name);
+        return screen == null || screen.built;
+    }
+
+    // ===== BUILD =====
+    private void queueBuild(Screen screen) {
+        if (screen.built || screen.buildQueued) return;
+        screen.buildQueued = true;
+        SwingUtilities.invokeLater(() -> build(screen));
+    }
+
+    private void build(Screen screen) {
+        if (screen.built) return;
+        long started = System.nanoTime();
+        JComponent content;
+        try {
+            content = screen.factory.apply(cardLayout, container);
+        } catch (RuntimeException ex) {
+            screen.buildQueued = false;
+            LOGGER.severe("Failed to build screen " + screen.name + ": " + ex.getMessage());
+            throw ex;
+        }
+        screen.holder.removeAll();
+        screen.holder.add(content, BorderLayout.CENTER);
+        screen.holder.revalidate();
+        screen.holder.repaint();
+        screen.built = true;
+        LOGGER.fine(() -> "Built screen " + screen.name + " in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    // ===== PREFETCH =====
+    /**
+     * Warms and builds the named screens in the background, in the given order.
+     * Screens already built or unknown are skipped.
+     */
+    public void prefetch(List<String> names) {
+        Deque<Screen> queue = new ArrayDeque<>();
+        for (String name : names) {
+            Screen screen = screens.get(name);
+            if (screen != null && !screen.built) queue.add(screen);
+        }
+        warmer.execute(() -> prefetchNext(queue));
+    }
+
+    private void prefetchNext(Deque<Screen> queue) {
+        Screen screen = queue.poll();
+        if (screen == null) return;
+        if (screen.warmup != null) {
+            try {
+                screen.warmup.run();
+            } catch (RuntimeException ex) {
+                LOGGER.warning("Warm-up of " + screen.name + " failed: " + ex.getMessage());
+            }
+        }
+        SwingUtilities.invokeLater(() -> {
+            try {
+                build(screen);
+            } catch (RuntimeException ex) {
+                // Logged by build; the user gets the error when navigating there
+            }
+            warmer.execute(() -> prefetchNext(queue));
+        });
+    }
+
+    /**
+     * Screens named by the {@code proshop.screens.prefetch} system property
+     * (comma separated), or {@code defaults} when it is not set. An empty value
+     * disables prefetching.
+     */
+    public static List<String> prefetchList(String defaults) {
+        List<String> names = new ArrayList<>();
+        for (String name : System.getProperty("proshop.screens.prefetch", defaults).split(",")) {
+            if (!name.trim().isEmpty()) names.add(name.trim());
+        }
+        return names;
+    }
+
+    public void shutdown() {
+        warmer.shutdownNow();
+    }
+}
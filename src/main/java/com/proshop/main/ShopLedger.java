@@ -0,0 +1,158 @@
+package com.proshop.main;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Cash balance of the shop, backed by the append-only {@code shop_amount}
+ * ledger.
+ *
+ * The current balance is the {@code shop_balance} running total kept by
+ * {@link FinancialSummary}, so reading it or recording an entry is a single
+ * primary-key lookup however long the ledger grows. Balances as of a past date
+ * come from {@code shop_balance_daily}, a per-day checkpoint of ledger movement
+ * kept by triggers on {@code shop_amount}.
+ */
+public final class ShopLedger {
+	private static final Logger LOGGER = Logger.getLogger(ShopLedger.class.getName());
+
+	// Entries without a date are booked on this day so they still count.
+	private static final String UNDATED = "'1970-01-01'";
+
+	private ShopLedger() {
+	}
+
+	// ===== INSTALL =====
+	/**
+	 * Creates the daily checkpoint table and its triggers if missing, and
+	 * backfills it from the ledger when the triggers were just created. Needs
+	 * {@link FinancialSummary#install()} for the current balance.
+	 */
+	public static void install() {
+		try (Connection conn = DBUtil.getConnection(); Statement st = conn.createStatement()) {
+			st.execute("CREATE TABLE IF NOT EXISTS shop_balance_daily ("
+					+ "day DATE NOT NULL PRIMARY KEY, "
+					+ "delta DECIMAL(20,4) NOT NULL DEFAULT 0)");
+
+			int existing;
+			try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM information_schema.TRIGGERS "
+					+ "WHERE TRIGGER_SCHEMA = DATABASE() AND TRIGGER_NAME LIKE 'sb\\_shop\\_amount\\_%'")) {
+				existing = rs.next() ? rs.getInt(1) : 0;
+			}
+			if (existing == 3)
+				return;
+
+			for (String suffix : new String[] { "ai", "au", "ad" }) {
+				st.execute("DROP TRIGGER IF EXISTS sb_shop_amount_" + suffix);
+			}
+			String upsert = " ON DUPLICATE KEY UPDATE delta = delta + VALUES(delta)";
+			st.execute("CREATE TRIGGER sb_shop_amount_ai AFTER INSERT ON shop_amount FOR EACH ROW "
+					+ "INSERT INTO shop_balance_daily (day, delta) VALUES (" + day("NEW") + ", " + amount("NEW") + ")"
+					+ upsert);
+			// Two value rows so a moved entry leaves its old day and joins its new
+			// one; when the day is unchanged the second row folds into the first.
+			st.execute("CREATE TRIGGER sb_shop_amount_au AFTER UPDATE ON shop_amount FOR EACH ROW "
+					+ "INSERT INTO shop_balance_daily (day, delta) VALUES (" + day("OLD") + ", -" + amount("OLD")
+					+ "), (" + day("NEW") + ", " + amount("NEW") + ")" + upsert);
+			st.execute("CREATE TRIGGER sb_shop_amount_ad AFTER DELETE ON shop_amount FOR EACH ROW "
+					+ "INSERT INTO shop_balance_daily (day, delta) VALUES (" + day("OLD") + ", -" + amount("OLD") + ")"
+					+ upsert);
+
+			rebuildDaily(conn);
+			LOGGER.info("Installed shop_balance_daily triggers and backfilled checkpoints");
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error installing shop ledger: " + ex.getMessage(), ex);
+		}
+	}
+
+	private static String day(String row) {
+		return "COALESCE(" + row + ".amountDate, " + UNDATED + ")";
+	}
+
+	private static String amount(String row) {
+		return "COALESCE(" + row + ".shopAmount, 0)";
+	}
+
+	private static void rebuildDaily(Connection conn) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try (Statement st = conn.createStatement()) {
+			st.execute("DELETE FROM shop_balance_daily");
+			st.execute("INSERT INTO shop_balance_daily (day, delta) SELECT COALESCE(amountDate, " + UNDATED
+					+ "), SUM(shopAmount) FROM shop_amount GROUP BY COALESCE(amountDate, " + UNDATED + ")");
+			conn.commit();
+		} catch (SQLException ex) {
+			conn.rollback();
+			throw ex;
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	// ===== READ =====
+	public static double currentBalance() throws SQLException {
+		try (Connection conn = DBUtil.getConnection()) {
+			return currentBalance(conn, false);
+		}
+	}
+
+	/**
+	 * Current balance. With {@code lock} the balance row stays locked until the
+	 * caller's transaction ends, so a check-then-record sequence cannot race
+	 * another writer.
+	 */
+	public static double currentBalance(Connection conn, boolean lock) throws SQLException {
+		String sql = "SELECT amount FROM financial_summary WHERE metric = ?" + (lock ? " FOR UPDATE" : "");
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, FinancialSummary.SHOP_BALANCE);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getDouble(1) : 0.0;
+			}
+		}
+	}
+
+	/** Balance at the end of {@code day}; costs one row per day with entries up to it. */
+	public static double balanceAsOf(LocalDate day) throws SQLException {
+		String sql = "SELECT COALESCE(SUM(delta), 0) FROM shop_balance_daily WHERE day <= ?";
+		try (Connection conn = DBUtil.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setDate(1, Date.valueOf(day));
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getDouble(1) : 0.0;
+			}
+		}
+	}
+
+	// ===== WRITE =====
+	/**
+	 * Appends a ledger entry on the caller's transaction, refusing it if the
+	 * balance would go negative.
+	 *
+	 * @return the balance after the entry
+	 */
+	public static double record(Connection conn, double amount, LocalDate date, String description)
+			throws SQLException {
+		double balance = currentBalance(conn, true);
+		if (balance + amount < 0) {
+			throw new SQLException("Insufficient shop balance for " + description);
+		}
+
+		String sql = "INSERT INTO shop_amount (shopAmount, amountDate, shop_description) VALUES (?, ?, ?)";
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setDouble(1, amount);
+			ps.setDate(2, Date.valueOf(date));
+			ps.setString(3, description);
+			if (ps.executeUpdate() == 0) {
+				throw new SQLException("Failed to update shop balance for " + description);
+			}
+		}
+		return balance + amount;
+	}
+}
@@ -13,11 +13,8 @@ import java.awt.RenderingHints;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.geom.RoundRectangle2D;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.Timer;
@@ -30,14 +27,14 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellRenderer;
-
-import com.proshop.connection.DBUtil;
 import com.toedter.calendar.JDateChooser;
 
 public class SoldStockForm extends JPanel {
@@ -52,6 +49,14 @@ public class SoldStockForm extends JPanel {
     private JDateChooser endDateChooser;
     private Timer debounceTimer;
 
+    // Paging state, touched on the EDT only
+    private static final int PAGE_SIZE = 200;
+    private SalesFact.Query currentQuery;
+    private SalesFact.Sale lastSale;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;
+
     // Color scheme to match Dashboard
     private static final Color PRIMARY_COLOR = new Color(33, 33, 33);
     private static final Color SUCCESS_COLOR = new Color(102, 187, 106);
@@ -152,7 +157,7 @@ public class SoldStockForm extends JPanel {
                 debounceTimer.schedule(new TimerTask() {
                     @Override
                     public void run() {
-                        filterData();
+                        SwingUtilities.invokeLater(() -> filterData());
                     }
                 }, 300); // Delay of 300ms to debounce
             }
@@ -228,6 +233,12 @@ public class SoldStockForm extends JPanel {
         scrollPane.setBackground(BACKGROUND_COLOR);
         scrollPane.getViewport().setBackground(BACKGROUND_COLOR);
         scrollPane.setBorder(BorderFactory.createLineBorder(SHADOW_COLOR, 1));
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - soldStockTable.getRowHeight() * 20) {
+                loadNextPage();
+            }
+        });
         add(scrollPane, BorderLayout.CENTER);
 
         // Load data
@@ -272,125 +283,61 @@ public class SoldStockForm extends JPanel {
     }
 
     private void loadSoldStockData(String searchText, Date startDate, Date endDate) {
-        StringBuilder sql = new StringBuilder(
-            "SELECT date AS sale_date, COALESCE(productName, '') AS productName, quantity, sellingPrice, finalBill AS total_amount, netProfit, id " +
-            "FROM customer " +
-            "WHERE 1=1 "
-        );
-        if (!searchText.isEmpty()) {
-            sql.append("AND UPPER(COALESCE(productName, '')) LIKE ? ");
-        }
-        if (startDate != null) {
-            sql.append("AND date >= ? ");
-        }
-        if (endDate != null) {
-            sql.append("AND date <= ? ");
-        }
-        sql.append(
-            "UNION " +
-            "SELECT dateOfPurchase AS sale_date, COALESCE(productName, '') AS productName, quantity, sellingPrice, totalBill AS total_amount, netProfit, id " +
-            "FROM gym_wholesaler " +
-            "WHERE 1=1 "
-        );
-        if (!searchText.isEmpty()) {
-            sql.append("AND UPPER(COALESCE(productName, '')) LIKE ? ");
-        }
-        if (startDate != null) {
-            sql.append("AND dateOfPurchase >= ? ");
-        }
-        if (endDate != null) {
-            sql.append("AND dateOfPurchase <= ? ");
-        }
-        sql.append("ORDER BY sale_date DESC");
-
-        List<Object[]> rows = new ArrayList<>();
-        double[] totals = new double[3]; // [totalQuantity, totalAmount, totalNetProfit]
-
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-
-            int paramIndex = 1;
-            // Set parameters for customer table
-            if (!searchText.isEmpty()) {
-                pstmt.setString(paramIndex++, "%" + searchText.toUpperCase().replaceAll("\\s+", "%") + "%");
-            }
-            if (startDate != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(startDate.getTime()));
-            }
-            if (endDate != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(endDate.getTime()));
-            }
-            // Set parameters for gym_wholesaler table
-            if (!searchText.isEmpty()) {
-                pstmt.setString(paramIndex++, "%" + searchText.toUpperCase().replaceAll("\\s+", "%") + "%");
-            }
-            if (startDate != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(startDate.getTime()));
-            }
-            if (endDate != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(endDate.getTime()));
-            }
+        currentQuery = new SalesFact.Query(searchText, toLocalDate(startDate), toLocalDate(endDate));
+        final int gen = ++generation;
+        final SalesFact.Query query = currentQuery;
+        tableModel.setRowCount(0);
+        lastSale = null;
+        exhausted = false;
+        loading = true;
+        // Keyed submits: a newer search cancels the totals and page still pending
+        DbExecutor.submit(this, "totals", () -> SalesFact.totals(query), totals -> {
+            totalQuantityLabel.setText("Total Quantity: " + totals.getQuantity());
+            totalAmountLabel.setText("Total Amount: ₹" + String.format("%.2f", totals.getAmount()));
+            totalNetProfitLabel.setText("Total Net Profit: ₹" + String.format("%.2f", totals.getNetProfit()));
+        }, ex -> showLoadError(gen, ex));
+        DbExecutor.submit(this, "sales", () -> SalesFact.page(query, null, PAGE_SIZE), sales -> {
+            if (gen == generation) appendSales(sales);
+        }, ex -> showLoadError(gen, ex));
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    String productName = rs.getString("productName") != null ? rs.getString("productName") : "";
-                    double sellingPrice = rs.getDouble("sellingPrice");
-                    double totalAmount = rs.getDouble("total_amount");
-                    double netProfit = rs.getDouble("netProfit");
-                    int quantity = rs.getInt("quantity");
-                    Date saleDate = rs.getDate("sale_date");
-                    rows.add(new Object[]{
-                        saleDate,
-                        productName,
-                        quantity,
-                        String.format("%.2f", sellingPrice),
-                        String.format("%.2f", totalAmount),
-                        String.format("%.2f", netProfit)
-                    });
-                    totals[0] += quantity;
-                    totals[1] += totalAmount;
-                    totals[2] += netProfit;
-                }
-            }
+    // Fetches the next page once the user scrolls close to the last loaded row
+    private void loadNextPage() {
+        if (loading || exhausted) return;
+        final int gen = generation;
+        final SalesFact.Query query = currentQuery;
+        final SalesFact.Sale after = lastSale;
+        loading = true;
+        DbExecutor.submit(this, "sales", () -> SalesFact.page(query, after, PAGE_SIZE), sales -> {
+            if (gen == generation) appendSales(sales);
+        }, ex -> showLoadError(gen, ex));
+    }
 
-            // Update UI atomically
-            javax.swing.SwingUtilities.invokeLater(() -> {
-                tableModel.setRowCount(0);
-                rows.forEach(tableModel::addRow);
-                totalQuantityLabel.setText("Total Quantity: " + (int) totals[0]);
-                totalAmountLabel.setText("Total Amount: ₹" + String.format("%.2f", totals[1]));
-                totalNetProfitLabel.setText("Total Net Profit: ₹" + String.format("%.2f", totals[2]));
+    private void appendSales(List<SalesFact.Sale> sales) {
+        for (SalesFact.Sale sale : sales) {
+            tableModel.addRow(new Object[]{
+                sale.getSaleDate(),
+                sale.getProductName(),
+                sale.getQuantity(),
+                String.format("%.2f", sale.getSellingPrice()),
+                String.format("%.2f", sale.getTotalAmount()),
+                String.format("%.2f", sale.getNetProfit())
             });
-
-            // Debug specific dates for missing rows
-            debugDateRows(conn, "2025-07-31");
-            debugDateRows(conn, "2025-08-03");
-
-        } catch (SQLException ex) {
-            System.err.println("Error fetching sold stock data: " + ex.getMessage());
-            ex.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error fetching sold stock data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+        if (!sales.isEmpty()) lastSale = sales.get(sales.size() - 1);
+        exhausted = sales.size() < PAGE_SIZE;
+        loading = false;
     }
 
-    private void debugDateRows(Connection conn, String date) throws SQLException {
-        String debugSql = "SELECT 'customer' AS source, id, date AS sale_date, COALESCE(productName, '') AS productName, quantity, sellingPrice, finalBill AS total_amount, netProfit " +
-                          "FROM customer " +
-                          "WHERE date = ? " +
-                          "UNION " +
-                          "SELECT 'gym_wholesaler' AS source, id, dateOfPurchase AS sale_date, COALESCE(productName, '') AS productName, quantity, sellingPrice, totalBill AS total_amount, netProfit " +
-                          "FROM gym_wholesaler " +
-                          "WHERE dateOfPurchase = ?";
-
-        try (PreparedStatement pstmt = conn.prepareStatement(debugSql)) {
-            pstmt.setDate(1, java.sql.Date.valueOf(date));
-            pstmt.setDate(2, java.sql.Date.valueOf(date));
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    // Process rows without printing
-                }
-            }
-        }
+    private void showLoadError(int gen, Exception ex) {
+        System.err.println("Error fetching sold stock data: " + ex.getMessage());
+        ex.printStackTrace();
+        if (gen != generation) return;
+        loading = false;
+        JOptionPane.showMessageDialog(this, "Error fetching sold stock data: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,16 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.RoundRectangle2D;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.Date;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -37,14 +38,13 @@ public class StockForm extends JPanel {
     private static final Logger logger = LoggerFactory.getLogger(StockForm.class);
 
     private JTable stockTable;
-    private DefaultTableModel stockTableModel;
-    private TableRowSorter<DefaultTableModel> stockSorter;
+    private StockTableModel stockTableModel;
+    private javax.swing.Timer searchDebounce;
     private JTextField searchField;
     private JDateChooser startDateChooser, endDateChooser;
     private JButton refreshButton, backButton, filterButton, pdfButton, deleteButton, updateExpiryButton;
     private CardLayout cardLayout;
     private JPanel mainContentPanel;
-    private List<Long> stockIds;
     private JLabel totalQuantityLabel, totalAmountLabel;
 
     // Colors
@@ -61,7 +61,6 @@ public class StockForm extends JPanel {
     public StockForm(CardLayout cardLayout, JPanel mainContentPanel) {
         this.cardLayout = cardLayout;
         this.mainContentPanel = mainContentPanel;
-        this.stockIds = new ArrayList<>();
         setLayout(new BorderLayout());
         setBackground(BACKGROUND_COLOR);
         setMinimumSize(new Dimension(1000, 600));
@@ -169,16 +168,10 @@ public class StockForm extends JPanel {
         add(northPanel, BorderLayout.NORTH);
 
         // Table
-        String[] columns = { "Product Name", "Quantity", "Per Piece Rate", "Total Amount", "Expiry Date", "Purchase Date" };
-        stockTableModel = new DefaultTableModel(columns, 0) {
-            /**
-			 * 
-			 */
-			private static final long serialVersionUID = 1L;
-
-			@Override public boolean isCellEditable(int r, int c) { return false; }
-        };
-        stockSorter = new TableRowSorter<>(stockTableModel);
+        // Rows are paged in from the database as they scroll into view;
+        // filtering and totals run server-side, so there is no row sorter.
+        stockTableModel = new StockTableModel(this);
+        stockTableModel.setOnReload(this::updateTotals);
         stockTable = new JTable(stockTableModel) {
             /**
 			 * 
@@ -204,7 +197,6 @@ public class StockForm extends JPanel {
                 return c;
             }
         };
-        stockTable.setRowSorter(stockSorter);
         stockTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         stockTable.setFont(new Font("Arial", Font.PLAIN, 16));
         stockTable.setRowHeight(30);
@@ -218,14 +210,17 @@ public class StockForm extends JPanel {
         add(scroll, BorderLayout.CENTER);
 
         // === LIVE SEARCH WITH PRICE SUPPORT ===
+        // Each keystroke restarts the timer so a query only runs once typing pauses.
+        searchDebounce = new javax.swing.Timer(300, e -> applySearchAndFilter());
+        searchDebounce.setRepeats(false);
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            @Override public void insertUpdate(DocumentEvent e) { applySearchAndFilter(); }
-            @Override public void removeUpdate(DocumentEvent e) { applySearchAndFilter(); }
-            @Override public void changedUpdate(DocumentEvent e) { applySearchAndFilter(); }
+            @Override public void insertUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void removeUpdate(DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void changedUpdate(DocumentEvent e) { searchDebounce.restart(); }
         });
 
         // Action Listeners
-        refreshButton.addActionListener(e -> { clearFields(); loadStockTableData(); });
+        refreshButton.addActionListener(e -> clearFields());
         backButton.addActionListener(e -> cardLayout.show(mainContentPanel, "WELCOME"));
         filterButton.addActionListener(e -> applySearchAndFilter());
         pdfButton.addActionListener(this::generatePDF);
@@ -235,125 +230,32 @@ public class StockForm extends JPanel {
 
     // === NEW: SEARCH BY NAME OR PRICE ===
     private void applySearchAndFilter() {
+        searchDebounce.stop();
         String text = searchField.getText().trim();
         Date start = startDateChooser.getDate();
         Date end = endDateChooser.getDate();
 
-        List<RowFilter<DefaultTableModel, Object>> filters = new ArrayList<>();
-
-        // Product Name Search
-        if (!text.isEmpty()) {
-            if (text.matches("(?i)>(\\d+(\\.\\d+)?)")) {
-                double val = Double.parseDouble(text.substring(1).trim());
-                filters.add(RowFilter.numberFilter(RowFilter.ComparisonType.AFTER, val, 2));
-            } else if (text.matches("(?i)<(\\d+(\\.\\d+)?)")) {
-                double val = Double.parseDouble(text.substring(1).trim());
-                filters.add(RowFilter.numberFilter(RowFilter.ComparisonType.BEFORE, val, 2));
-            } else if (text.matches("(?i)(\\d+(\\.\\d+)?)-(\\d+(\\.\\d+)?)")) {
-                String[] parts = text.replaceAll("(?i)", "").split("-");
-                double min = Double.parseDouble(parts[0].trim());
-                double max = Double.parseDouble(parts[1].trim());
-                filters.add(RowFilter.andFilter(Arrays.asList(
-                    RowFilter.numberFilter(RowFilter.ComparisonType.AFTER, min - 0.001, 2),
-                    RowFilter.numberFilter(RowFilter.ComparisonType.BEFORE, max + 0.001, 2)
-                )));
-            } else if (text.matches("\\d+(\\.\\d+)?")) {
-                double val = Double.parseDouble(text);
-                filters.add(RowFilter.numberFilter(RowFilter.ComparisonType.EQUAL, val, 2));
-            } else {
-                filters.add(RowFilter.regexFilter("(?i)" + Pattern.quote(text), 0));
-            }
-        }
-
         // Date Filter
+        LocalDate s = null, e = null;
         if (start != null && end != null) {
-            LocalDate s = start.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            LocalDate e = end.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            s = start.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            e = end.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
             if (s.isAfter(e)) {
                 JOptionPane.showMessageDialog(this, "Start date cannot be after end date.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            filters.add(new RowFilter<DefaultTableModel, Object>() {
-                @Override
-                public boolean include(Entry<? extends DefaultTableModel, ? extends Object> entry) {
-                    Object d = entry.getValue(5);
-                    if (d instanceof LocalDate) {
-                        LocalDate date = (LocalDate) d;
-                        return !date.isBefore(s) && !date.isAfter(e);
-                    }
-                    return false;
-                }
-            });
         }
 
-        stockSorter.setRowFilter(filters.isEmpty() ? null : RowFilter.andFilter(filters));
-        updateTotalsFromFilteredRows();
+        stockTableModel.setFilter(StockTableModel.Filter.parse(text, s, e));
     }
 
     private void loadStockTableData() {
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DBUtil.getConnection();
-            pstmt = conn.prepareStatement("DELETE FROM stock WHERE quantity = 0");
-            pstmt.executeUpdate();
-            pstmt.close();
-
-            String sql = "SELECT id, productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate FROM stock ORDER BY productName";
-            pstmt = conn.prepareStatement(sql);
-            rs = pstmt.executeQuery();
-
-            stockTableModel.setRowCount(0);
-            stockIds.clear();
-            int totalQty = 0;
-            BigDecimal totalAmt = BigDecimal.ZERO;
-
-            while (rs.next()) {
-                Long id = rs.getLong("id");
-                String name = rs.getString("productName");
-                int qty = rs.getInt("quantity");
-                BigDecimal rate = rs.getBigDecimal("perPieceRate");
-                BigDecimal amt = rs.getBigDecimal("totalAmount");
-                LocalDate exp = rs.getObject("expiryDate", LocalDate.class);
-                LocalDate pur = rs.getObject("purchaseDate", LocalDate.class);
-
-                stockTableModel.addRow(new Object[]{name, qty, rate, amt, exp, pur});
-                stockIds.add(id);
-                totalQty += qty;
-                totalAmt = totalAmt.add(amt != null ? amt : BigDecimal.ZERO);
-            }
-
-            stockTableModel.addRow(new Object[]{"Total", totalQty, "", String.format("%.2f", totalAmt), null, null});
-            totalQuantityLabel.setText("Total Quantity: " + totalQty);
-            totalAmountLabel.setText("Total Amount: ₹" + String.format("%.2f", totalAmt));
-
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            logger.error("Load error", ex);
-        } finally {
-            closeResources(rs, pstmt, conn);
-        }
+        stockTableModel.reload();
     }
 
-    private void updateTotalsFromFilteredRows() {
-        int qty = 0;
-        BigDecimal amt = BigDecimal.ZERO;
-        for (int i = 0; i < stockTable.getRowCount(); i++) {
-            int modelRow = stockTable.convertRowIndexToModel(i);
-            if (modelRow < stockTableModel.getRowCount() - 1) {
-                qty += (Integer) stockTableModel.getValueAt(modelRow, 1);
-                BigDecimal a = (BigDecimal) stockTableModel.getValueAt(modelRow, 3);
-                if (a != null) amt = amt.add(a);
-            }
-        }
-        totalQuantityLabel.setText("Total Quantity: " + qty);
-        totalAmountLabel.setText("Total Amount: ₹" + String.format("%.2f", amt));
-        int last = stockTableModel.getRowCount() - 1;
-        if (last >= 0) {
-            stockTableModel.setValueAt(qty, last, 1);
-            stockTableModel.setValueAt(String.format("%.2f", amt), last, 3);
-        }
+    private void updateTotals(StockTableModel model) {
+        totalQuantityLabel.setText("Total Quantity: " + model.getTotalQuantity());
+        totalAmountLabel.setText("Total Amount: ₹" + String.format("%.2f", model.getTotalAmount()));
     }
 
     
@@ -367,16 +269,18 @@ public class StockForm extends JPanel {
             return;
         }
 
-        // Convert the selected view row to model row (important when table is sorted/filtered)
-        int modelRow = stockTable.convertRowIndexToModel(selectedRow);
-
         // Check if the selected row corresponds to a real stock (not the total row)
-        // Assuming stockIds list contains only the IDs of actual stock records (not the total row)
-        if (modelRow >= stockIds.size()) {
+        if (stockTableModel.isTotalsRow(selectedRow)) {
             JOptionPane.showMessageDialog(this, "Cannot delete the total summary row.", "Invalid Selection",
                     JOptionPane.WARNING_MESSAGE);
             return;
         }
+        StockTableModel.Row stock = stockTableModel.getRow(selectedRow);
+        if (stock == null) {
+            JOptionPane.showMessageDialog(this, "Stock record is still loading, please try again.", "Please Wait",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
         // Confirm deletion 
         int confirm = JOptionPane.showConfirmDialog(this, 
@@ -393,17 +297,15 @@ public class StockForm extends JPanel {
         try {
             conn = DBUtil.getConnection();
             
-            // Safely get the stock ID using the model row index
-            Long stockId = stockIds.get(modelRow);
-            
             String sql = "DELETE FROM stock WHERE id = ?";
             pstmt = conn.prepareStatement(sql);
-            pstmt.setLong(1, stockId);
+            pstmt.setLong(1, stock.getId());
             
             int rowsAffected = pstmt.executeUpdate();
             
             if (rowsAffected > 0) {
-                // Refresh the table data and stockIds list
+                ProductCatalog.touch(stock.getProductName());
+                // Refresh the table data
                 loadStockTableData();
                 
                 JOptionPane.showMessageDialog(this, "Stock deleted successfully!", "Success",
@@ -424,20 +326,20 @@ public class StockForm extends JPanel {
 
     private void updateExpiryDate(ActionEvent e) {
         int viewRow = stockTable.getSelectedRow();
-        if (viewRow < 0 || viewRow >= stockTable.getRowCount() - 1) {
+        StockTableModel.Row stock = viewRow < 0 ? null : stockTableModel.getRow(viewRow);
+        if (stock == null) {
             JOptionPane.showMessageDialog(this, "Select a valid row.", "Warning", JOptionPane.WARNING_MESSAGE);
             return;
         }
         JDateChooser chooser = new JDateChooser();
         chooser.setDateFormatString("yyyy-MM-dd");
-        int modelRow = stockTable.convertRowIndexToModel(viewRow);
-        LocalDate current = (LocalDate) stockTableModel.getValueAt(modelRow, 4);
+        LocalDate current = stock.getExpiryDate();
         if (current != null) {
             chooser.setDate(Date.from(current.atStartOfDay(ZoneId.systemDefault()).toInstant()));
         }
         if (JOptionPane.showConfirmDialog(this, chooser, "New Expiry", JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION && chooser.getDate() != null) {
             LocalDate newExp = chooser.getDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-            Long id = stockIds.get(modelRow);
+            long id = stock.getId();
             try (Connection c = DBUtil.getConnection(); PreparedStatement ps = c.prepareStatement("UPDATE stock SET expiryDate = ? WHERE id = ?")) {
                 ps.setObject(1, newExp);
                 ps.setLong(2, id);
@@ -450,29 +352,82 @@ public class StockForm extends JPanel {
         }
     }
 
+    /**
+     * Exports every lot matching the current filter, not just the pages on
+     * screen. The rows are read and written off the EDT, a page at a time, with
+     * a progress dialog that can cancel the export.
+     */
     private void generatePDF(ActionEvent e) {
         JFileChooser fc = new JFileChooser();
         fc.setSelectedFile(new File("StockReport.pdf"));
-        if (fc.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (FileOutputStream fos = new FileOutputStream(fc.getSelectedFile())) {
-                PdfWriter writer = new PdfWriter(fos);
-                PdfDocument pdf = new PdfDocument(writer);
-                Document doc = new Document(pdf);
-                doc.add(new Paragraph("Stock Report").setFontSize(20).setBold().setTextAlignment(TextAlignment.CENTER));
-                Table table = new Table(new float[]{300, 100});
-                table.addHeaderCell(new Cell().add(new Paragraph("Product Name").setBold()));
-                table.addHeaderCell(new Cell().add(new Paragraph("Quantity").setBold()));
-                for (int i = 0; i < stockTable.getRowCount() - 1; i++) {
-                    int m = stockTable.convertRowIndexToModel(i);
-                    table.addCell(stockTableModel.getValueAt(m, 0).toString());
-                    table.addCell(stockTableModel.getValueAt(m, 1).toString());
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fc.getSelectedFile();
+        StockTableModel.Filter filter = stockTableModel.getFilter();
+        long total = stockTableModel.getLotCount();
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting stock report", total + " rows", 0,
+                (int) Math.max(1, Math.min(total, Integer.MAX_VALUE)));
+        monitor.setMillisToPopup(300);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CustomerReportWriter.Progress progress = (written, all) -> {
+            SwingUtilities.invokeLater(() -> {
+                if (monitor.isCanceled()) {
+                    cancelled.set(true);
+                    return;
+                }
+                monitor.setProgress((int) Math.min(written, Integer.MAX_VALUE));
+                monitor.setNote(written + " of " + all + " rows");
+            });
+            return !cancelled.get();
+        };
+
+        DbExecutor.submit(this, null, () -> writeReport(filter, file, total, progress), rows -> {
+            monitor.close();
+            JOptionPane.showMessageDialog(this, "PDF Saved! (" + rows + " rows)", "Success", JOptionPane.INFORMATION_MESSAGE);
+        }, ex -> {
+            monitor.close();
+            if (ex instanceof CancellationException) {
+                JOptionPane.showMessageDialog(this, "PDF export cancelled.", "Info", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            logger.error("Stock PDF export failed", ex);
+            JOptionPane.showMessageDialog(this, "PDF Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    // Large iText table flushed once per fetched page, so only one page of
+    // cells is held at a time. A cancelled or failed export deletes the file.
+    private static long writeReport(StockTableModel.Filter filter, File file, long total,
+            CustomerReportWriter.Progress progress) throws SQLException, IOException {
+        Document doc = new Document(new PdfDocument(new PdfWriter(file)));
+        boolean finished = false;
+        try {
+            doc.add(new Paragraph("Stock Report").setFontSize(20).setBold().setTextAlignment(TextAlignment.CENTER));
+            Table table = new Table(new float[]{300, 100}, true);
+            table.addHeaderCell(new Cell().add(new Paragraph("Product Name").setBold()));
+            table.addHeaderCell(new Cell().add(new Paragraph("Quantity").setBold()));
+            doc.add(table);
+            long[] written = { 0 };
+            StockTableModel.forEachRow(filter, row -> {
+                table.addCell(row.getProductName());
+                table.addCell(String.valueOf(row.getQuantity()));
+                if (++written[0] % StockTableModel.PAGE_SIZE == 0) {
+                    table.flush();
+                    if (!progress.update(written[0], Math.max(total, written[0]))) throw new CancellationException();
                 }
-                doc.add(table);
+            });
+            table.complete();
+            finished = true;
+            return written[0];
+        } finally {
+            try {
                 doc.close();
-                JOptionPane.showMessageDialog(this, "PDF Saved!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "PDF Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            } catch (RuntimeException ex) {
+                if (finished) throw ex;
             }
+            if (!finished) Files.deleteIfExists(file.toPath());
         }
     }
 
@@ -480,8 +435,8 @@ public class StockForm extends JPanel {
         searchField.setText("");
         startDateChooser.setDate(null);
         endDateChooser.setDate(null);
-        stockSorter.setRowFilter(null);
-        loadStockTableData();
+        searchDebounce.stop();
+        stockTableModel.setFilter(new StockTableModel.Filter());
     }
 
     private JButton createStyledButton(String text, Color bg, Color fg) {
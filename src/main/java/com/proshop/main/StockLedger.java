@@ -0,0 +1,370 @@
+package com.proshop.main;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Single entry point for every change to the {@code stock} table. Stock is held
+ * as lots: one row per (productName, perPieceRate, expiryDate, purchaseDate,
+ * productId) carrying the quantity on hand.
+ *
+ * <ul>
+ * <li>{@link #receive} books purchased stock into lots</li>
+ * <li>{@link #reserve} takes sold units out, oldest lot first</li>
+ * <li>{@link #release} puts sold units back when a sale is reduced or
+ * deleted</li>
+ * </ul>
+ *
+ * Each change is also reported to {@link ProductCatalog} so autocomplete
+ * picks it up, once the caller's transaction commits.
+ *
+ * All write methods run on the caller's connection and leave commit/rollback to
+ * the caller.
+ */
+public final class StockLedger {
+	private static final Logger LOGGER = Logger.getLogger(StockLedger.class.getName());
+	private static final long SLOW_LOCK_MILLIS = 1000;
+	// Restocks of products that were never purchased through a bill fall back
+	// to this id, as the old per-DAO updaters did.
+	private static final long UNKNOWN_PRODUCT_ID = 1L;
+	private static final int PURGE_CHUNK = 500;
+
+	private static final Map<String, Long> PRODUCT_IDS = new ConcurrentHashMap<>();
+	private static final AtomicLong LOCK_WAIT_MILLIS = new AtomicLong();
+	private static final AtomicLong RESERVATIONS = new AtomicLong();
+
+	private StockLedger() {
+	}
+
+	/** One lot's worth of incoming stock. */
+	public static final class Receipt {
+		private final String productName;
+		private final int quantity;
+		private final BigDecimal perPieceRate;
+		private final Date expiryDate;
+		private final Date purchaseDate;
+		private final Long productId;
+
+		public Receipt(String productName, int quantity, BigDecimal perPieceRate, Date expiryDate, Date purchaseDate,
+				Long productId) {
+			this.productName = productName;
+			this.quantity = quantity;
+			this.perPieceRate = perPieceRate;
+			this.expiryDate = expiryDate;
+			this.purchaseDate = purchaseDate;
+			this.productId = productId;
+		}
+	}
+
+	/**
+	 * Adds {@code quantity} units to the matching lot, creating the lot if it
+	 * does not exist yet.
+	 */
+	public static void receive(Connection conn, String productName, int quantity, BigDecimal perPieceRate,
+			Date expiryDate, Date purchaseDate, Long productId) throws SQLException {
+		receive(conn, Collections.singletonList(
+				new Receipt(productName, quantity, perPieceRate, expiryDate, purchaseDate, productId)));
+	}
+
+	/**
+	 * Books several receipts in two batches: one UPDATE per lot against an
+	 * existing lot, then one INSERT for each lot that matched nothing.
+	 */
+	public static void receive(Connection conn, List<Receipt> receipts) throws SQLException {
+		// Receipts for the same lot are merged first: each would miss the
+		// batched UPDATE on its own and the lot would be inserted twice.
+		Map<List<Object>, Receipt> lots = new LinkedHashMap<>();
+		for (Receipt r : receipts) {
+			if (r.quantity <= 0)
+				continue;
+			List<Object> key = Arrays.asList(r.productName, r.perPieceRate.stripTrailingZeros(), r.expiryDate,
+					r.purchaseDate, r.productId);
+			lots.merge(key, r, (a, b) -> new Receipt(a.productName, a.quantity + b.quantity, a.perPieceRate,
+					a.expiryDate, a.purchaseDate, a.productId));
+		}
+		if (lots.isEmpty())
+			return;
+		List<Receipt> pending = new ArrayList<>(lots.values());
+
+		// MySQL evaluates single-table SET assignments left to right, so
+		// totalAmount already sees the new quantity here.
+		String updateSql = "UPDATE stock SET quantity = quantity + ?, totalAmount = quantity * perPieceRate "
+				+ "WHERE productName = ? AND perPieceRate = ? AND expiryDate <=> ? AND purchaseDate <=> ? "
+				+ "AND productId <=> ? ORDER BY id LIMIT 1";
+		int[] updated;
+		try (PreparedStatement ps = conn.prepareStatement(updateSql)) {
+			for (Receipt r : pending) {
+				ps.setInt(1, r.quantity);
+				ps.setString(2, r.productName);
+				ps.setBigDecimal(3, r.perPieceRate);
+				ps.setObject(4, r.expiryDate, Types.DATE);
+				ps.setObject(5, r.purchaseDate, Types.DATE);
+				ps.setObject(6, r.productId, Types.BIGINT);
+				ps.addBatch();
+			}
+			updated = ps.executeBatch();
+		}
+
+		String insertSql = "INSERT INTO stock (productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate, productId) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?)";
+		try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+			int inserts = 0;
+			for (int i = 0; i < pending.size(); i++) {
+				if (updated[i] > 0)
+					continue;
+				Receipt r = pending.get(i);
+				ps.setString(1, r.productName);
+				ps.setInt(2, r.quantity);
+				ps.setBigDecimal(3, r.perPieceRate);
+				ps.setBigDecimal(4, r.perPieceRate.multiply(BigDecimal.valueOf(r.quantity)));
+				ps.setObject(5, r.expiryDate, Types.DATE);
+				ps.setObject(6, r.purchaseDate, Types.DATE);
+				ps.setObject(7, r.productId, Types.BIGINT);
+				ps.addBatch();
+				inserts++;
+			}
+			if (inserts > 0) {
+				for (int count : ps.executeBatch()) {
+					if (count == 0)
+						throw new SQLException("Failed to insert stock lot");
+				}
+			}
+		}
+		for (Receipt r : pending) {
+			touchAfterCommit(conn, r.productName);
+		}
+	}
+
+	/**
+	 * Takes {@code quantity} units of the product at the given rate, oldest
+	 * purchase first. Returns false without touching any row if there is not
+	 * enough stock.
+	 *
+	 * Runs in two round trips regardless of how many lots are involved: a
+	 * locking SUM that reserves every candidate lot and checks availability,
+	 * then one set-based UPDATE that spreads the quantity across lots using a
+	 * running total. Time spent in the locking read is added to
+	 * {@link #getLockWaitMillis()}.
+	 */
+	public static boolean reserve(Connection conn, String productName, BigDecimal perPieceRate, int quantity)
+			throws SQLException {
+		if (quantity <= 0)
+			return true;
+
+		String reserveSql = "SELECT COALESCE(SUM(quantity), 0) FROM stock WHERE LOWER(productName) = LOWER(?) "
+				+ "AND perPieceRate = ? AND quantity > 0 FOR UPDATE";
+		long available;
+		long started = System.nanoTime();
+		try (PreparedStatement ps = conn.prepareStatement(reserveSql)) {
+			ps.setString(1, productName);
+			ps.setBigDecimal(2, perPieceRate);
+			try (ResultSet rs = ps.executeQuery()) {
+				available = rs.next() ? rs.getLong(1) : 0;
+			}
+		}
+		long waitedMillis = (System.nanoTime() - started) / 1_000_000;
+		LOCK_WAIT_MILLIS.addAndGet(waitedMillis);
+		RESERVATIONS.incrementAndGet();
+		if (waitedMillis >= SLOW_LOCK_MILLIS)
+			LOGGER.warning("Waited " + waitedMillis + " ms for stock locks on " + productName);
+
+		if (available < quantity) {
+			LOGGER.warning("Not enough stock for: " + productName + " (rate: " + perPieceRate + ")");
+			return false;
+		}
+
+		// f.before_qty is the quantity held by older lots; each lot gives up
+		// whatever is still needed after them, capped at its own quantity. Both
+		// SET expressions read only f so they do not depend on assignment order.
+		String deductSql = "UPDATE stock s JOIN ("
+				+ "SELECT id, quantity, SUM(quantity) OVER (ORDER BY purchaseDate, id) - quantity AS before_qty "
+				+ "FROM stock WHERE LOWER(productName) = LOWER(?) AND perPieceRate = ? AND quantity > 0"
+				+ ") f ON s.id = f.id "
+				+ "SET s.quantity = f.quantity - LEAST(f.quantity, ? - f.before_qty), "
+				+ "s.totalAmount = (f.quantity - LEAST(f.quantity, ? - f.before_qty)) * s.perPieceRate "
+				+ "WHERE f.before_qty < ?";
+		try (PreparedStatement ps = conn.prepareStatement(deductSql)) {
+			ps.setString(1, productName);
+			ps.setBigDecimal(2, perPieceRate);
+			ps.setInt(3, quantity);
+			ps.setInt(4, quantity);
+			ps.setInt(5, quantity);
+			ps.executeUpdate();
+		}
+		touchAfterCommit(conn, productName);
+		return true;
+	}
+
+	// The catalog re-reads on its own connection, so it must not look before
+	// this transaction is visible; a rollback drops the touch.
+	private static void touchAfterCommit(Connection conn, String productName) throws SQLException {
+		DBUtil.afterCommit(conn, () -> ProductCatalog.touch(productName));
+	}
+
+	/**
+	 * Returns sold units to stock as part of today's lot for the product and
+	 * rate.
+	 */
+	public static void release(Connection conn, String productName, BigDecimal perPieceRate, int quantity)
+			throws SQLException {
+		if (quantity <= 0)
+			return;
+		Long productId = productIdFor(conn, productName);
+		receive(conn, productName, quantity, perPieceRate, null, Date.valueOf(LocalDate.now()),
+				productId != null ? productId : UNKNOWN_PRODUCT_ID);
+	}
+
+	/**
+	 * Resolves a product name to a product id, caching hits for the life of the
+	 * process. Returns null if the product is unknown; misses are not cached so a
+	 * product added later is picked up.
+	 */
+	public static Long productIdFor(Connection conn, String productName) throws SQLException {
+		String key = productName.trim().toLowerCase();
+		Long cached = PRODUCT_IDS.get(key);
+		if (cached != null)
+			return cached;
+
+		String sql = "SELECT id FROM product WHERE LOWER(productName) = ? ORDER BY id LIMIT 1";
+		try (PreparedStatement ps = conn.prepareStatement(sql)) {
+			ps.setString(1, key);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (!rs.next())
+					return null;
+				long id = rs.getLong("id");
+				PRODUCT_IDS.put(key, id);
+				return id;
+			}
+		}
+	}
+
+	/**
+	 * Drops cached product ids. Call after committing anything that renames or
+	 * deletes products, or the old name keeps resolving to the old id.
+	 */
+	public static void forgetProductIds() {
+		PRODUCT_IDS.clear();
+	}
+
+	/** Total milliseconds reservations have spent waiting for stock row locks. */
+	public static long getLockWaitMillis() {
+		return LOCK_WAIT_MILLIS.get();
+	}
+
+	/** Number of reservations that reached the locking read. */
+	public static long getReservationCount() {
+		return RESERVATIONS.get();
+	}
+
+	/**
+	 * Deletes lots whose quantity has dropped to zero, a few hundred rows per
+	 * statement so the purge never holds many stock locks at once. Run by
+	 * {@link StockMaintenance}; readers simply skip empty lots meanwhile.
+	 *
+	 * @return number of lots removed
+	 */
+	public static int purgeEmptyLots() {
+		int removed = 0;
+		try (Connection conn = DBUtil.getConnection();
+				PreparedStatement ps = conn.prepareStatement("DELETE FROM stock WHERE quantity = 0 LIMIT " + PURGE_CHUNK)) {
+			int n;
+			do {
+				n = ps.executeUpdate();
+				removed += n;
+			} while (n == PURGE_CHUNK);
+		} catch (SQLException ex) {
+			throw new RuntimeException("Error purging empty stock lots: " + ex.getMessage(), ex);
+		}
+		if (removed > 0) {
+			LOGGER.info("Purged " + removed + " empty stock lots");
+			ProductCatalog.invalidate();
+		}
+		return removed;
+	}
+
+	/**
+	 * One-time migration from the old one-row-per-unit layout: merges every group
+	 * of rows sharing a lot key into its lowest id and adds the lot lookup
+	 * index. Safe to run repeatedly; once merged there is nothing left to do.
+	 *
+	 * @return number of redundant rows removed
+	 */
+	public static int mergeUnitRows() {
+		Connection conn = null;
+		try {
+			conn = DBUtil.getConnection();
+			conn.setAutoCommit(false);
+
+			String groupSql = "SELECT MIN(id) AS keepId, SUM(quantity) AS qty, COUNT(*) AS cnt FROM stock "
+					+ "GROUP BY productName, perPieceRate, expiryDate, purchaseDate, productId HAVING COUNT(*) > 1";
+			String keepSql = "UPDATE stock SET quantity = ?, totalAmount = quantity * perPieceRate WHERE id = ?";
+			String dropSql = "DELETE s FROM stock s JOIN stock k ON k.id = ? AND s.id <> k.id "
+					+ "AND s.productName = k.productName AND s.perPieceRate <=> k.perPieceRate "
+					+ "AND s.expiryDate <=> k.expiryDate AND s.purchaseDate <=> k.purchaseDate "
+					+ "AND s.productId <=> k.productId";
+
+			int removed = 0;
+			try (PreparedStatement group = conn.prepareStatement(groupSql);
+					PreparedStatement keep = conn.prepareStatement(keepSql);
+					PreparedStatement drop = conn.prepareStatement(dropSql);
+					ResultSet rs = group.executeQuery()) {
+				while (rs.next()) {
+					long keepId = rs.getLong("keepId");
+					keep.setLong(1, rs.getLong("qty"));
+					keep.setLong(2, keepId);
+					keep.addBatch();
+					drop.setLong(1, keepId);
+					drop.addBatch();
+					removed += rs.getInt("cnt") - 1;
+				}
+				keep.executeBatch();
+				drop.executeBatch();
+			}
+			conn.commit();
+
+			// idx_stock_name also serves the (productName, id) keyset paging of
+			// StockTableModel, as InnoDB appends the primary key to it.
+			for (String index : new String[] { "idx_stock_lot ON stock (productName, perPieceRate, purchaseDate)",
+					"idx_stock_name ON stock (productName)" }) {
+				try (Statement st = conn.createStatement()) {
+					st.execute("CREATE INDEX " + index);
+				} catch (SQLException ex) {
+					// 1061 = duplicate key name: index already created by an earlier run
+					if (ex.getErrorCode() != 1061)
+						throw ex;
+				}
+			}
+
+			if (removed > 0)
+				LOGGER.info("Merged stock unit rows into lots, removed " + removed + " rows");
+			return removed;
+		} catch (SQLException ex) {
+			try {
+				if (conn != null)
+					conn.rollback();
+			} catch (SQLException ignored) {
+			}
+			throw new RuntimeException("Error merging stock rows into lots: " + ex.getMessage(), ex);
+		} finally {
+			DBUtil.closeConnection(conn);
+		}
+	}
+}
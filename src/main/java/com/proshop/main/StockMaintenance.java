@@ -0,0 +1,49 @@
+package com.proshop.main;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Background housekeeping of the {@code stock} table, kept off the screens'
+ * read path. Empty lots are purged shortly after startup and then every
+ * {@code proshop.stock.purgeMinutes} minutes (default 60, 0 disables).
+ */
+public final class StockMaintenance {
+	private static final Logger LOGGER = Logger.getLogger(StockMaintenance.class.getName());
+
+	private static final long DEFAULT_PURGE_MINUTES = 60;
+
+	private static ScheduledExecutorService executor;
+
+	private StockMaintenance() {
+	}
+
+	public static synchronized void start() {
+		long minutes = Long.getLong("proshop.stock.purgeMinutes", DEFAULT_PURGE_MINUTES);
+		if (executor != null || minutes <= 0)
+			return;
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "proshop-stock-maintenance");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.scheduleWithFixedDelay(StockMaintenance::purge, 1, minutes * 60, TimeUnit.SECONDS);
+	}
+
+	public static synchronized void stop() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	private static void purge() {
+		try {
+			StockLedger.purgeEmptyLots();
+		} catch (RuntimeException ex) {
+			LOGGER.warning(ex.getMessage());
+		}
+	}
+}
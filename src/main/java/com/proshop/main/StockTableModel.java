@@ -0,0 +1,367 @@
+package com.proshop.main;
+
+import java.awt.Component;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import javax.swing.table.AbstractTableModel;
+
+import com.proshop.connection.DBUtil;
+
+/**
+ * Lazily loaded view of the {@code stock} table for {@link StockForm}.
+ *
+ * Changing the filter runs one {@link DbExecutor} query for the matching row count,
+ * the quantity/amount totals and the key of every page boundary. Rows are then
+ * fetched a page at a time with keyset pagination on (productName, id) when the
+ * table first asks for them, and only a bounded number of pages is kept in
+ * memory. The last row of the model is the totals row.
+ */
+public class StockTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(StockTableModel.class.getName());
+
+    static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 20;
+
+    private static final String[] COLUMNS = { "Product Name", "Quantity", "Per Piece Rate", "Total Amount", "Expiry Date", "Purchase Date" };
+    private static final String COLUMNS_SQL = "id, productName, quantity, perPieceRate, totalAmount, expiryDate, purchaseDate";
+
+    // All fields below are only touched on the EDT.
+    private Filter filter = new Filter();
+    private int generation;
+    private DbExecutor.Task summaryTask;
+    private int rowCount;
+    private long totalQuantity;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private List<Object[]> pageStarts = Collections.emptyList();
+    private final Set<Integer> pending = new HashSet<>();
+    private final Map<Integer, List<Row>> pages = new LinkedHashMap<Integer, List<Row>>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Row>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private Consumer<StockTableModel> onReload;
+    private final Component owner;
+
+    /** @param owner component whose window shows the busy cursor while rows load */
+    public StockTableModel(Component owner) {
+        this.owner = owner;
+    }
+
+    /** One stock lot as displayed. */
+    public static final class Row {
+        final long id;
+        final String productName;
+        final int quantity;
+        final BigDecimal perPieceRate;
+        final BigDecimal totalAmount;
+        final LocalDate expiryDate;
+        final LocalDate purchaseDate;
+
+        Row(ResultSet rs) throws SQLException {
+            id = rs.getLong("id");
+            productName = rs.getString("productName");
+            quantity = rs.getInt("quantity");
+            perPieceRate = rs.getBigDecimal("perPieceRate");
+            totalAmount = rs.getBigDecimal("totalAmount");
+            expiryDate = rs.getObject("expiryDate", LocalDate.class);
+            purchaseDate = rs.getObject("purchaseDate", LocalDate.class);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public LocalDate getExpiryDate() {
+            return expiryDate;
+        }
+    }
+
+    /**
+     * Server-side filter built from the StockForm search box: a product name
+     * fragment or a rate condition ({@code >x}, {@code <x}, {@code a-b},
+     * {@code x}), plus an optional purchase date range.
+     */
+    public static final class Filter {
+        private String nameLike;
+        private BigDecimal rateMin, rateMax;
+        private boolean rateMinExclusive, rateMaxExclusive;
+        private LocalDate purchasedFrom, purchasedTo;
+
+        public static Filter parse(String text, LocalDate from, LocalDate to) {
+            Filter f = new Filter();
+            String t = text == null ? "" : text.trim();
+            if (t.matches(">(\\d+(\\.\\d+)?)")) {
+                f.rateMin = new BigDecimal(t.substring(1).trim());
+                f.rateMinExclusive = true;
+            } else if (t.matches("<(\\d+(\\.\\d+)?)")) {
+                f.rateMax = new BigDecimal(t.substring(1).trim());
+                f.rateMaxExclusive = true;
+            } else if (t.matches("(\\d+(\\.\\d+)?)-(\\d+(\\.\\d+)?)")) {
+                String[] parts = t.split("-");
+                f.rateMin = new BigDecimal(parts[0].trim());
+                f.rateMax = new BigDecimal(parts[1].trim());
+            } else if (t.matches("\\d+(\\.\\d+)?")) {
+                f.rateMin = new BigDecimal(t);
+                f.rateMax = f.rateMin;
+            } else if (!t.isEmpty()) {
+                f.nameLike = "%" + t.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            }
+            f.purchasedFrom = from;
+            f.purchasedTo = to;
+            return f;
+        }
+
+        String where() {
+            StringBuilder sql = new StringBuilder(" WHERE quantity <> 0");
+            if (nameLike != null) sql.append(" AND LOWER(productName) LIKE ?");
+            if (rateMin != null) sql.append(rateMinExclusive ? " AND perPieceRate > ?" : " AND perPieceRate >= ?");
+            if (rateMax != null) sql.append(rateMaxExclusive ? " AND perPieceRate < ?" : " AND perPieceRate <= ?");
+            if (purchasedFrom != null) sql.append(" AND purchaseDate >= ?");
+            if (purchasedTo != null) sql.append(" AND purchaseDate <= ?");
+            return sql.toString();
+        }
+
+        int bind(PreparedStatement ps) throws SQLException {
+            int i = 1;
+            if (nameLike != null) ps.setString(i++, nameLike);
+            if (rateMin != null) ps.setBigDecimal(i++, rateMin);
+            if (rateMax != null) ps.setBigDecimal(i++, rateMax);
+            if (purchasedFrom != null) ps.setObject(i++, purchasedFrom);
+            if (purchasedTo != null) ps.setObject(i++, purchasedTo);
+            return i;
+        }
+    }
+
+    // ===== FILTER & RELOAD =====
+    public void setOnReload(Consumer<StockTableModel> onReload) {
+        this.onReload = onReload;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(Filter filter) {
+        this.filter = filter;
+        reload();
+    }
+
+    /** Drops cached pages and re-counts with the current filter in the background. */
+    public void reload() {
+        final int gen = ++generation;
+        final Filter f = filter;
+        if (summaryTask != null) summaryTask.cancel();
+        summaryTask = DbExecutor.submit(owner, null, () -> summarize(f), summary -> applySummary(gen, summary),
+                ex -> LOGGER.warning("Stock count failed: " + ex.getMessage()));
+    }
+
+    private void applySummary(int gen, Summary summary) {
+        if (gen != generation) return;
+        pages.clear();
+        pending.clear();
+        rowCount = summary.count;
+        totalQuantity = summary.quantity;
+        totalAmount = summary.amount;
+        pageStarts = summary.pageStarts;
+        fireTableDataChanged();
+        if (onReload != null) onReload.accept(this);
+    }
+
+    private static final class Summary {
+        int count;
+        long quantity;
+        BigDecimal amount = BigDecimal.ZERO;
+        List<Object[]> pageStarts = new ArrayList<>();
+    }
+
+    private static Summary summarize(Filter f) throws SQLException {
+        Summary s = new Summary();
+        String where = f.where();
+        try (Connection conn = DBUtil.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT COUNT(*), COALESCE(SUM(quantity), 0), COALESCE(SUM(totalAmount), 0) FROM stock" + where)) {
+                f.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        s.count = rs.getInt(1);
+                        s.quantity = rs.getLong(2);
+                        s.amount = rs.getBigDecimal(3);
+                    }
+                }
+            }
+            // Key of the last row of every full page; page n starts right after
+            // entry n - 1. Only keys are read, so this stays cheap.
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT productName, id FROM (SELECT productName, id, "
+                  + "ROW_NUMBER() OVER (ORDER BY productName, id) AS rn FROM stock" + where
+                  + ") k WHERE MOD(rn, " + PAGE_SIZE + ") = 0 ORDER BY rn")) {
+                f.bind(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        s.pageStarts.add(new Object[] { rs.getString(1), rs.getLong(2) });
+                    }
+                }
+            }
+        }
+        return s;
+    }
+
+    // ===== PAGING =====
+    private Row rowAt(int row) {
+        int page = row / PAGE_SIZE;
+        List<Row> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = row % PAGE_SIZE;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    private void requestPage(int page) {
+        if (!pending.add(page)) return;
+        final int gen = generation;
+        final Filter f = filter;
+        final Object[] after = page == 0 ? null : pageStarts.get(page - 1);
+        DbExecutor.submit(owner, null, () -> fetchPage(f, after), rows -> {
+            if (gen != generation) return;
+            pending.remove(page);
+            pages.put(page, rows);
+            int first = page * PAGE_SIZE;
+            fireTableRowsUpdated(first, Math.min(first + PAGE_SIZE, rowCount) - 1);
+        }, ex -> {
+            LOGGER.warning("Stock page " + page + " failed: " + ex.getMessage());
+            if (gen == generation) pending.remove(page);
+        });
+    }
+
+    private static List<Row> fetchPage(Filter f, Object[] after) throws SQLException {
+        String sql = "SELECT " + COLUMNS_SQL + " FROM stock" + f.where()
+                + (after != null ? " AND (productName > ? OR (productName = ? AND id > ?))" : "")
+                + " ORDER BY productName, id LIMIT " + PAGE_SIZE;
+        List<Row> rows = new ArrayList<>(PAGE_SIZE);
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = f.bind(ps);
+            if (after != null) {
+                ps.setString(i++, (String) after[0]);
+                ps.setString(i++, (String) after[0]);
+                ps.setLong(i, (Long) after[1]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Streams every row matching {@code filter}, in display order, to
+     * {@code consumer} on the calling thread, a page at a time. Used for
+     * exports; call off the EDT.
+     */
+    public static void forEachRow(Filter filter, Consumer<Row> consumer) throws SQLException {
+        Object[] after = null;
+        while (true) {
+            List<Row> rows = fetchPage(filter, after);
+            for (Row r : rows) consumer.accept(r);
+            if (rows.size() < PAGE_SIZE) return;
+            Row last = rows.get(rows.size() - 1);
+            after = new Object[] { last.productName, last.id };
+        }
+    }
+
+    // ===== TABLE MODEL =====
+    public boolean isTotalsRow(int row) {
+        return row == rowCount;
+    }
+
+    /** Lot at the given model row, or null for the totals row or a page still loading. */
+    public Row getRow(int row) {
+        return isTotalsRow(row) ? null : rowAt(row);
+    }
+
+    /** Number of lots matching the filter, without the totals row. */
+    public int getLotCount() {
+        return rowCount;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void dispose() {
+        generation++;
+        if (summaryTask != null) summaryTask.cancel();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount + 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (isTotalsRow(row)) {
+            switch (column) {
+                case 0: return "Total";
+                case 1: return totalQuantity;
+                case 3: return String.format("%.2f", totalAmount);
+                default: return column == 2 ? "" : null;
+            }
+        }
+        Row r = rowAt(row);
+        if (r == null) return column == 0 ? "Loading..." : null;
+        switch (column) {
+            case 0: return r.productName;
+            case 1: return r.quantity;
+            case 2: return r.perPieceRate;
+            case 3: return r.totalAmount;
+            case 4: return r.expiryDate;
+            case 5: return r.purchaseDate;
+            default: return null;
+        }
+    }
+}
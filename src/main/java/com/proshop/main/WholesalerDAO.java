@@ -10,6 +10,7 @@ import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.proshop.connection.DBUtil;
@@ -19,6 +20,7 @@ import com.proshop.model.Product;
 import com.proshop.model.Wholesaler;
 
 public class WholesalerDAO {
+	private static final Logger LOGGER = Logger.getLogger(WholesalerDAO.class.getName());
 
 	public void addWholesaler(Wholesaler wholesaler) throws SQLException {
 		String sql = "INSERT INTO wholesalers (wholesaler_name, phone_no, address) VALUES (?, ?, ?)";
@@ -254,29 +256,8 @@ public class WholesalerDAO {
 	}
 
 	public static void updateShopBalance(Connection conn, double amount, String description) throws SQLException {
-		try (PreparedStatement pstmt = conn
-				.prepareStatement("SELECT SUM(shopAmount) as totalShopAmount FROM shop_amount");
-				ResultSet rs = pstmt.executeQuery()) {
-			double currentBalance = rs.next() && !rs.wasNull() ? rs.getDouble("totalShopAmount") : 0.0;
-
-			if (currentBalance + amount < 0) {
-				throw new SQLException("Insufficient shop balance for " + description);
-			}
-
-			try (PreparedStatement insertStmt = conn.prepareStatement(
-					"INSERT INTO shop_amount (shopAmount, amountDate, shop_description) VALUES (?, ?, ?)")) {
-				insertStmt.setDouble(1, amount);
-				insertStmt.setDate(2, Date.valueOf(LocalDate.now(ZoneId.of("Asia/Kolkata"))));
-				insertStmt.setString(3, description);
-				int rows = insertStmt.executeUpdate();
-				if (rows == 0) {
-					throw new SQLException("Failed to update shop balance for " + description);
-				}
-			}
-
-			double newBalance = currentBalance + amount;
-			System.out.println("Balance update: " + currentBalance + " + (" + amount + ") = " + newBalance);
-		}
+		double newBalance = ShopLedger.record(conn, amount, LocalDate.now(ZoneId.of("Asia/Kolkata")), description);
+		LOGGER.fine(() -> "Balance update: " + (newBalance - amount) + " + (" + amount + ") = " + newBalance);
 	}
 
 	public void updateBill(Bill bill, LocalDate date, BigDecimal shippingCharges, BigDecimal billAmount)
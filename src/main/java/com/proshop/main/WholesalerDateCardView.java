@@ -159,25 +159,26 @@ public class WholesalerDateCardView extends JPanel {
         filterDialog.setVisible(true);
     }
 
+    // Bills with their totals come from one batch query off the EDT
     private void loadBills(LocalDate filterDate) {
+        DbExecutor.submit(this, "bills", () -> DatabaseUtils.fetchBillCards(wholesaler.getId(), filterDate, filterDate),
+                this::showBills, null);
+    }
+
+    private void showBills(List<DatabaseUtils.BillCard> billCards) {
         dateCardsPanel.removeAll();
-        List<LocalDate> billDates = filterDate == null ? DatabaseUtils.fetchBillDatesForWholesaler(wholesaler.getId())
-                : List.of(filterDate);
-
-        for (LocalDate date : billDates) {
-            List<Bill> bills = DatabaseUtils.fetchBillsForDate(wholesaler.getId(), date);
-            for (Bill bill : bills) {
-                JPanel dateCard = createDateCard(wholesaler, bill, cardLayout, mainContentPanel);
-                dateCardsPanel.add(dateCard);
-            }
+        for (DatabaseUtils.BillCard billCard : billCards) {
+            JPanel dateCard = createDateCard(wholesaler, billCard, cardLayout, mainContentPanel);
+            dateCardsPanel.add(dateCard);
         }
 
         dateCardsPanel.revalidate();
         dateCardsPanel.repaint();
     }
 
-    private JPanel createDateCard(WholesalerPurchase wholesaler2, Bill bill, CardLayout cardLayout,
+    private JPanel createDateCard(WholesalerPurchase wholesaler2, DatabaseUtils.BillCard billCard, CardLayout cardLayout,
             JPanel mainContentPanel) {
+        Bill bill = billCard.getBill();
         JPanel dateCard = new JPanel(new BorderLayout());
         dateCard.setPreferredSize(new Dimension(250, 280)); // Increased height to accommodate new button
         dateCard.setMaximumSize(new Dimension(250, 280));
@@ -201,23 +202,21 @@ public class WholesalerDateCardView extends JPanel {
         gbc.gridy = 0;
         infoPanel.add(dateLabel, gbc);
 
-        BigDecimal totalAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId());
+        BigDecimal totalAmount = billCard.getTotalAmount();
         JLabel totalLabel = new JLabel("Total: ₹" + String.format("%.2f", totalAmount));
         totalLabel.setFont(new Font("Arial", Font.BOLD, 16));
         totalLabel.setForeground(ACCENT_COLOR);
         gbc.gridy = 1;
         infoPanel.add(totalLabel, gbc);
 
-        DatabaseUtils.PaymentSummary paymentSummary = DatabaseUtils.fetchPaymentsForBill(bill.getId());
-        BigDecimal paidAmount = paymentSummary.getTotalPaidAmount() != null ? paymentSummary.getTotalPaidAmount()
-                : BigDecimal.ZERO;
+        BigDecimal paidAmount = billCard.getPaidAmount();
         JLabel paidLabel = new JLabel("Paid: ₹" + String.format("%.2f", paidAmount));
         paidLabel.setFont(new Font("Arial", Font.BOLD, 16));
         paidLabel.setForeground(SUCCESS_COLOR);
         gbc.gridy = 2;
         infoPanel.add(paidLabel, gbc);
 
-        BigDecimal pendingAmount = totalAmount.subtract(paidAmount);
+        BigDecimal pendingAmount = billCard.getPendingAmount();
         JLabel pendingLabel = new JLabel("Pending: ₹" + String.format("%.2f", pendingAmount));
         pendingLabel.setFont(new Font("Arial", Font.BOLD, 16));
         pendingLabel.setForeground(PENDING_COLOR);
@@ -17,7 +17,6 @@ import java.awt.event.KeyEvent;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -57,6 +56,8 @@ public class WholesalerDetailView extends JPanel {
 	private JLabel pendingAmountLabel;
 	private JTable productTable;
 	private JTable paymentTable;
+	// Products, payments and totals of the bill; null until loaded
+	private BillAggregate billData;
 
 	// Color scheme to match WholesalerProductView
 	private static final Color BACKGROUND_COLOR = new Color(33, 33, 33); // Dark gray (#212121)
@@ -113,25 +114,20 @@ public class WholesalerDetailView extends JPanel {
 		infoPanel.add(addressLabel, gbc);
 
 		// Right half: Total Bill Amount, Paid Amount, Pending Amount
-		BigDecimal totalBillAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId());
-		totalBillLabel = new JLabel("Total Bill: $" + String.format("%.2f", totalBillAmount));
+		totalBillLabel = new JLabel("Total Bill: ...");
 		totalBillLabel.setFont(new Font("Arial", Font.BOLD, 16));
 		totalBillLabel.setForeground(ACCENT_COLOR);
 		gbc.gridx = 1;
 		gbc.gridy = 0;
 		infoPanel.add(totalBillLabel, gbc);
 
-		DatabaseUtils.PaymentSummary paymentSummary = DatabaseUtils.fetchPaymentsForBill(bill.getId());
-		BigDecimal totalPaidAmount = paymentSummary.getTotalPaidAmount() != null ? paymentSummary.getTotalPaidAmount()
-				: BigDecimal.ZERO;
-		paidAmountLabel = new JLabel("Paid: $" + String.format("%.2f", totalPaidAmount));
+		paidAmountLabel = new JLabel("Paid: ...");
 		paidAmountLabel.setFont(new Font("Arial", Font.BOLD, 16));
 		paidAmountLabel.setForeground(SUCCESS_COLOR);
 		gbc.gridy = 1;
 		infoPanel.add(paidAmountLabel, gbc);
 
-		BigDecimal pendingAmount = totalBillAmount.subtract(totalPaidAmount);
-		pendingAmountLabel = new JLabel("Pending: $" + String.format("%.2f", pendingAmount));
+		pendingAmountLabel = new JLabel("Pending: ...");
 		pendingAmountLabel.setFont(new Font("Arial", Font.BOLD, 16));
 		pendingAmountLabel.setForeground(PENDING_COLOR);
 		gbc.gridy = 2;
@@ -156,13 +152,6 @@ public class WholesalerDetailView extends JPanel {
 				return false;
 			}
 		};
-		List<Product> products = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesaler.getId());
-		for (Product product : products) {
-			productModel.addRow(new Object[] { product.getProductName() != null ? product.getProductName() : "N/A",
-					product.getQuantity(), product.getExpiry() != null ? product.getExpiry().toString() : "N/A",
-					product.getPerPieceRate() != null ? String.format("$%.2f", product.getPerPieceRate()) : "$0.00",
-					product.getTotal() != null ? String.format("$%.2f", product.getTotal()) : "$0.00" });
-		}
 		productTable = new JTable(productModel) {
 			/**
 			 * 
@@ -206,13 +195,6 @@ public class WholesalerDetailView extends JPanel {
 				return false;
 			}
 		};
-		List<Payment> payments = paymentSummary.getPayments();
-		for (Payment payment : payments) {
-			paymentModel.addRow(new Object[] { payment.getPaidDate() != null ? payment.getPaidDate().toString() : "N/A",
-					payment.getPaidAmount() != null ? String.format("$%.2f", payment.getPaidAmount()) : "$0.00",
-					payment.getPendingAmount() != null ? String.format("$%.2f", payment.getPendingAmount())
-							: "$0.00" });
-		}
 		paymentTable = new JTable(paymentModel) {
 			/**
 			 * 
@@ -271,6 +253,27 @@ public class WholesalerDetailView extends JPanel {
 		buttonPanel.add(deleteButton);
 		buttonPanel.add(backButton);
 		add(buttonPanel, BorderLayout.SOUTH);
+
+		DbExecutor.submit(this, "bill", () -> BillAggregate.load(bill, wholesaler.getId()), loaded -> {
+			billData = loaded;
+			refreshProductData();
+			refreshPaymentData();
+		}, null);
+	}
+
+	// The edit buttons wait for the bill to load
+	private boolean isLoaded() {
+		if (billData == null) {
+			JOptionPane.showMessageDialog(this, "The bill is still loading.", "Info", JOptionPane.INFORMATION_MESSAGE);
+			return false;
+		}
+		return true;
+	}
+
+	// Stores the new product total plus shipping on the bill row
+	private void saveBillAmount() {
+		bill.setBillAmount(billData.getBillAmount());
+		DatabaseUtils.updateBill(bill);
 	}
 
 	private JButton createStyledButton(String text, Color bgColor) {
@@ -284,6 +287,8 @@ public class WholesalerDetailView extends JPanel {
 	}
 
 	private void deleteProduct() {
+	    if (!isLoaded())
+	        return;
 	    int selectedProductRow = productTable.getSelectedRow();
 	    if (selectedProductRow == -1) {
 	        JOptionPane.showMessageDialog(this, "Please select a product to delete.", "Error",
@@ -298,22 +303,14 @@ public class WholesalerDetailView extends JPanel {
 
 	    if (confirm == JOptionPane.YES_OPTION) {
 	        try {
-	            // Get the product from the current list
-	            Product product = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesaler.getId())
-	                    .get(selectedProductRow);
+	            Product product = billData.productAt(selectedProductRow);
 
 	            // DELETE: Product + Stock + BillProduct link
 	            DatabaseUtils.deleteProduct(product.getId(), bill.getId());
+	            billData.productDeleted(product.getId());
+	            saveBillAmount();
 
-	            // Update bill amount
-	            BigDecimal newBillAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId())
-	                    .add(bill.getShippingCharges() != null ? bill.getShippingCharges() : BigDecimal.ZERO);
-	            bill.setBillAmount(newBillAmount);
-	            DatabaseUtils.updateBill(bill);
-
-	            // Refresh UI
 	            refreshProductData();
-	            refreshWholesalerData();
 
 	            JOptionPane.showMessageDialog(this, "Product and all its units deleted successfully.", "Success",
 	                    JOptionPane.INFORMATION_MESSAGE);
@@ -325,6 +322,8 @@ public class WholesalerDetailView extends JPanel {
 	    }
 	}
 	private void showAddPaymentDialog() {
+		if (!isLoaded())
+			return;
 		JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Add Payment",
 				Dialog.ModalityType.APPLICATION_MODAL);
 		dialog.setLayout(new BorderLayout());
@@ -350,7 +349,7 @@ public class WholesalerDetailView extends JPanel {
 		paidDateField.setPreferredSize(new Dimension(200, 30));
 		UIUtils.addFormField(formPanel, gbc, "Paid Date:", paidDateField, 1, 0);
 
-		BigDecimal currentPendingAmount = DatabaseUtils.getCurrentPendingAmount(bill.getId());
+		BigDecimal currentPendingAmount = billData.getCurrentPendingAmount();
 		JLabel pendingAmountLabel = new JLabel(String.format("$%.2f", currentPendingAmount));
 		pendingAmountLabel.setFont(new Font("Arial", Font.BOLD, 16));
 		pendingAmountLabel.setForeground(TEXT_COLOR);
@@ -382,7 +381,7 @@ public class WholesalerDetailView extends JPanel {
 				}
 				LocalDate paidDate = selectedDate.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
 
-				DatabaseUtils.addPayment(bill.getId(), paidAmount, paidDate, currentPendingAmount);
+				billData.paymentAdded(DatabaseUtils.addPayment(bill.getId(), paidAmount, paidDate, currentPendingAmount));
 				refreshPaymentData();
 				dialog.dispose();
 				JOptionPane.showMessageDialog(this, "Payment added successfully.", "Success",
@@ -410,6 +409,8 @@ public class WholesalerDetailView extends JPanel {
 	}
 
 	private void showUpdateDialog() {
+		if (!isLoaded())
+			return;
 		int selectedProductRow = productTable.getSelectedRow();
 		int selectedPaymentRow = paymentTable.getSelectedRow();
 
@@ -496,15 +497,14 @@ public class WholesalerDetailView extends JPanel {
 					}
 					BigDecimal newTotal = newRate.multiply(BigDecimal.valueOf(newQuantity));
 
-					Product product = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesaler.getId())
-							.get(selectedProductRow);
-					product.setProductName(newName);
-					product.setQuantity(newQuantity);
-					product.setPerPieceRate(newRate);
-					product.setExpiry(newExpiry);
+					// Edit a copy so a failed write leaves the loaded bill untouched
+					Product current = billData.productAt(selectedProductRow);
+					Product product = new Product(current.getId(), newName, newQuantity, newRate, newExpiry,
+							current.getWholesalerId());
 					product.setTotal(newTotal);
 
 					DatabaseUtils.updateProduct(product, bill);
+					billData.productUpdated(product);
 					refreshProductData();
 					dialog.dispose();
 					JOptionPane.showMessageDialog(this, "Product updated successfully.", "Success",
@@ -564,10 +564,10 @@ public class WholesalerDetailView extends JPanel {
 					LocalDate newPaidDate = selectedDate.toInstant().atZone(java.time.ZoneId.systemDefault())
 							.toLocalDate();
 
-					Payment payment = DatabaseUtils.fetchPaymentsForBill(bill.getId()).getPayments()
-							.get(selectedPaymentRow);
-					BigDecimal currentPendingAmount = DatabaseUtils.getCurrentPendingAmount(bill.getId());
-					DatabaseUtils.updatePayment(payment.getId(), newPaidAmount, newPaidDate, currentPendingAmount);
+					Payment payment = billData.paymentAt(selectedPaymentRow);
+					BigDecimal currentPendingAmount = billData.getCurrentPendingAmount();
+					billData.paymentUpdated(DatabaseUtils.updatePayment(payment.getId(), newPaidAmount, newPaidDate,
+							currentPendingAmount));
 					refreshPaymentData();
 					dialog.dispose();
 					JOptionPane.showMessageDialog(this, "Payment updated successfully.", "Success",
@@ -592,6 +592,8 @@ public class WholesalerDetailView extends JPanel {
 	}
 
 	private void showAddProductDialog() {
+	    if (!isLoaded())
+	        return;
 	    JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(this), "Add Product",
 	            Dialog.ModalityType.APPLICATION_MODAL);
 	    dialog.setLayout(new BorderLayout());
@@ -700,14 +702,10 @@ public class WholesalerDetailView extends JPanel {
 
 	            // === CALL UPDATED METHOD WITH BILL DATE ===
 	            DatabaseUtils.addProductToBill(bill.getId(), wholesaler.getId(), product, bill.getDate());
+	            billData.productAdded(product);
+	            saveBillAmount();
 
-	            // Refresh UI
 	            refreshProductData();
-	            BigDecimal newBillAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId())
-	                    .add(bill.getShippingCharges() != null ? bill.getShippingCharges() : BigDecimal.ZERO);
-	            bill.setBillAmount(newBillAmount);
-	            DatabaseUtils.updateBill(bill);
-	            refreshWholesalerData();
 
 	            dialog.dispose();
 	            JOptionPane.showMessageDialog(this, "Product added successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -726,21 +724,11 @@ public class WholesalerDetailView extends JPanel {
 	    dialog.setVisible(true);
 	}
 
+	// Both refreshes redraw from billData; neither touches the database
 	public void refreshPaymentData() {
-		DatabaseUtils.PaymentSummary paymentSummary = DatabaseUtils.fetchPaymentsForBill(bill.getId());
-		BigDecimal totalPaidAmount = paymentSummary.getTotalPaidAmount() != null ? paymentSummary.getTotalPaidAmount()
-				: BigDecimal.ZERO;
-		paidAmountLabel.setText("Paid: $" + String.format("%.2f", totalPaidAmount));
-
-		BigDecimal totalBillAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId());
-		totalBillLabel.setText("Total Bill: $" + String.format("%.2f", totalBillAmount));
-
-		BigDecimal pendingAmount = totalBillAmount.subtract(totalPaidAmount);
-		pendingAmountLabel.setText("Pending: $" + String.format("%.2f", pendingAmount));
-
+		showTotals();
 		paymentModel.setRowCount(0);
-		List<Payment> payments = paymentSummary.getPayments();
-		for (Payment payment : payments) {
+		for (Payment payment : billData.getPayments()) {
 			paymentModel.addRow(new Object[] { payment.getPaidDate() != null ? payment.getPaidDate().toString() : "N/A",
 					payment.getPaidAmount() != null ? String.format("$%.2f", payment.getPaidAmount()) : "$0.00",
 					payment.getPendingAmount() != null ? String.format("$%.2f", payment.getPendingAmount())
@@ -750,22 +738,19 @@ public class WholesalerDetailView extends JPanel {
 
 	public void refreshProductData() {
 		productModel.setRowCount(0);
-		List<Product> products = DatabaseUtils.fetchProductsForBill(bill.getId(), wholesaler.getId());
-		for (Product product : products) {
+		for (Product product : billData.getProducts()) {
 			productModel.addRow(new Object[] { product.getProductName() != null ? product.getProductName() : "N/A",
 					product.getQuantity(), product.getExpiry() != null ? product.getExpiry().toString() : "N/A",
 					product.getPerPieceRate() != null ? String.format("$%.2f", product.getPerPieceRate()) : "$0.00",
 					product.getTotal() != null ? String.format("$%.2f", product.getTotal()) : "$0.00" });
 		}
+		showTotals();
+	}
 
-		BigDecimal totalBillAmount = DatabaseUtils.fetchTotalBillAmountForBill(bill.getId());
-		totalBillLabel.setText("Total Bill: $" + String.format("%.2f", totalBillAmount));
-
-		DatabaseUtils.PaymentSummary paymentSummary = DatabaseUtils.fetchPaymentsForBill(bill.getId());
-		BigDecimal totalPaidAmount = paymentSummary.getTotalPaidAmount() != null ? paymentSummary.getTotalPaidAmount()
-				: BigDecimal.ZERO;
-		BigDecimal pendingAmount = totalBillAmount.subtract(totalPaidAmount);
-		pendingAmountLabel.setText("Pending: $" + String.format("%.2f", pendingAmount));
+	private void showTotals() {
+		totalBillLabel.setText("Total Bill: $" + String.format("%.2f", billData.getTotalAmount()));
+		paidAmountLabel.setText("Paid: $" + String.format("%.2f", billData.getPaidAmount()));
+		pendingAmountLabel.setText("Pending: $" + String.format("%.2f", billData.getPendingAmount()));
 	}
 
 	public void refreshWholesalerData() {
@@ -10,6 +10,7 @@ import java.awt.Frame;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,7 +37,8 @@ public class WholesalerForm extends JPanel {
     private JPanel blocksPanel;
     private final CardLayout cardLayout;
     private final JPanel mainContentPanel;
-    private Map<WholesalerPurchase, Map<Bill, List<Product>>> wholesalerData;
+    // Result of the last load; the search filters this instead of re-querying
+    private Map<WholesalerPurchase, Map<Bill, List<Product>>> wholesalerData = new HashMap<>();
     private JComboBox<String> searchComboBox;
 
     // Color scheme to match WholesalerDetailView and WholesalerDateCardView
@@ -70,7 +72,6 @@ public class WholesalerForm extends JPanel {
         searchComboBox.setPreferredSize(new Dimension(200, 30));
         searchComboBox.setBackground(BACKGROUND_COLOR);
         searchComboBox.setForeground(TEXT_COLOR);
-        loadWholesalerNames();
         
         // Handle typing in search bar
         JTextField editor = (JTextField) searchComboBox.getEditor().getEditorComponent();
@@ -123,8 +124,10 @@ public class WholesalerForm extends JPanel {
             cardLayout.show(mainContentPanel, "ADD_WHOLESALER");
         });
 
-        updateWholesalerButton.addActionListener(e -> selectWholesalerForUpdate());
-        deleteWholesalerButton.addActionListener(e -> selectWholesalerForDelete());
+        updateWholesalerButton.addActionListener(
+                e -> DbExecutor.submit(this, DatabaseUtils::fetchWholesalers, this::selectWholesalerForUpdate));
+        deleteWholesalerButton.addActionListener(
+                e -> DbExecutor.submit(this, DatabaseUtils::fetchWholesalers, this::selectWholesalerForDelete));
 
         loadBlocks();
     }
@@ -141,8 +144,7 @@ public class WholesalerForm extends JPanel {
     }
 
     private void loadWholesalerNames() {
-        List<WholesalerPurchase> wholesalers = DatabaseUtils.fetchWholesalers();
-        List<String> wholesalerNames = wholesalers.stream()
+        List<String> wholesalerNames = wholesalerData.keySet().stream()
                 .map(WholesalerPurchase::getWholesalerName)
                 .sorted()
                 .collect(Collectors.toList());
@@ -153,8 +155,7 @@ public class WholesalerForm extends JPanel {
 
     private void autoFillWholesalerNames(String searchText) {
         String queryText = searchText.trim().toLowerCase();
-        List<WholesalerPurchase> wholesalers = DatabaseUtils.fetchWholesalers();
-        List<String> suggestions = wholesalers.stream()
+        List<String> suggestions = wholesalerData.keySet().stream()
                 .map(WholesalerPurchase::getWholesalerName)
                 .filter(name -> name.toLowerCase().contains(queryText))
                 .sorted()
@@ -170,7 +171,6 @@ public class WholesalerForm extends JPanel {
 
     private void filterCards(String searchText) {
         blocksPanel.removeAll();
-        wholesalerData = DatabaseUtils.loadWholesalerData();
         String queryText = searchText != null ? searchText.trim().toLowerCase() : "";
         for (Map.Entry<WholesalerPurchase, Map<Bill, List<Product>>> entry : wholesalerData.entrySet()) {
             WholesalerPurchase wholesaler = entry.getKey();
@@ -184,8 +184,7 @@ public class WholesalerForm extends JPanel {
         blocksPanel.repaint();
     }
 
-    private void selectWholesalerForUpdate() {
-        List<WholesalerPurchase> wholesalers = DatabaseUtils.fetchWholesalers();
+    private void selectWholesalerForUpdate(List<WholesalerPurchase> wholesalers) {
         if (wholesalers.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No wholesalers available.", "Info", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -253,8 +252,7 @@ public class WholesalerForm extends JPanel {
         dialog.setVisible(true);
     }
 
-    private void selectWholesalerForDelete() {
-        List<WholesalerPurchase> wholesalers = DatabaseUtils.fetchWholesalers();
+    private void selectWholesalerForDelete(List<WholesalerPurchase> wholesalers) {
         if (wholesalers.isEmpty()) {
             JOptionPane.showMessageDialog(this, "No wholesalers available.", "Info", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -315,16 +313,20 @@ public class WholesalerForm extends JPanel {
                     "Are you sure you want to delete " + selectedWholesaler.getWholesalerName() + "?",
                     "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             if (confirm == JOptionPane.YES_OPTION) {
-                try {
-                    DatabaseUtils.deleteWholesaler(selectedWholesaler);
+                WholesalerPurchase toDelete = selectedWholesaler;
+                deleteButton.setEnabled(false);
+                DbExecutor.submit(this, null, () -> {
+                    DatabaseUtils.deleteWholesaler(toDelete);
+                    return null;
+                }, done -> {
                     loadBlocks();
-                    loadWholesalerNames(); // Update search bar after deletion
                     JOptionPane.showMessageDialog(this, "Wholesaler deleted successfully!", "Success",
                             JOptionPane.INFORMATION_MESSAGE);
                     dialog.dispose();
-                } catch (RuntimeException ex) {
+                }, ex -> {
+                    deleteButton.setEnabled(true);
                     JOptionPane.showMessageDialog(dialog, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                });
             }
         });
 
@@ -338,9 +340,19 @@ public class WholesalerForm extends JPanel {
         dialog.setVisible(true);
     }
 
+    /**
+     * Reloads the wholesalers and their bills off the EDT, then rebuilds the
+     * cards and the search list from the result.
+     */
     public void loadBlocks() {
+        DbExecutor.submit(this, "blocks", DatabaseUtils::loadWholesalerData, data -> {
+            wholesalerData = data;
+            showBlocks();
+        }, null);
+    }
+
+    private void showBlocks() {
         blocksPanel.removeAll();
-        wholesalerData = DatabaseUtils.loadWholesalerData();
         for (Map.Entry<WholesalerPurchase, Map<Bill, List<Product>>> entry : wholesalerData.entrySet()) {
             WholesalerCard card = new WholesalerCard(entry.getKey(), entry.getValue(), cardLayout, mainContentPanel);
             blocksPanel.add(card);
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 
 public class GymWholesaler {
 	private Long id;
+	private Long clientId;
 	private String wholesalerName;
 	private String mobileNo;
 	private String productName;
@@ -47,6 +48,14 @@ public class GymWholesaler {
 		this.id = id;
 	}
 
+	public Long getClientId() {
+		return clientId;
+	}
+
+	public void setClientId(Long clientId) {
+		this.clientId = clientId;
+	}
+
 	public String getWholesalerName() {
 		return wholesalerName;
 	}